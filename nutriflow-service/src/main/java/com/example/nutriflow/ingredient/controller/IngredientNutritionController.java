@@ -1,10 +1,22 @@
 package com.example.nutriflow.ingredient.controller;
 
+import com.example.nutriflow.ingredient.dto.IngredientBulkUpsertResultDto;
+import com.example.nutriflow.ingredient.dto.IngredientCategoryFacetDto;
+import com.example.nutriflow.ingredient.dto.IngredientChangeFeedDto;
+import com.example.nutriflow.ingredient.dto.IngredientCategoryPageDto;
+import com.example.nutriflow.ingredient.dto.IngredientKeysetPageDto;
+import com.example.nutriflow.ingredient.dto.IngredientSuggestionDto;
+import com.example.nutriflow.ingredient.dto.NutritionBatchResultDto;
+import com.example.nutriflow.ingredient.dto.NutritionLineRequestDto;
 import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.service.IngredientBulkUpsertService;
 import com.example.nutriflow.ingredient.service.IngredientNutritionService;
+import com.example.nutriflow.shared.export.NdjsonExportWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -13,10 +25,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
@@ -36,28 +50,147 @@ public class IngredientNutritionController {
     private static final Logger LOGGER =
             LoggerFactory.getLogger(IngredientNutritionController.class);
 
+    /** Default number of autocomplete suggestions. */
+    private static final int DEFAULT_SUGGESTIONS = 10;
+
+    /** Maximum number of autocomplete suggestions. */
+    private static final int MAX_SUGGESTIONS = 50;
+
+    /** Default page size of a category listing. */
+    private static final int DEFAULT_CATEGORY_PAGE_SIZE = 50;
+
+    /** Default page size of the catalog listing. */
+    private static final int DEFAULT_PAGE_SIZE = 500;
+
     /** Service for ingredient nutrition operations. */
     @Autowired
     private IngredientNutritionService ingredientNutritionService;
 
+    /** Service for bulk ingredient loads. */
+    @Autowired
+    private IngredientBulkUpsertService ingredientBulkUpsertService;
+
     /**
-     * Get all ingredients.
+     * Get all ingredients, or one page of them.
      *
      * GET /api/ingredients
+     * GET /api/ingredients?limit=500
+     * GET /api/ingredients?after=500&limit=500&fields=ingredientName,macros
+     *
+     * Without {@code after} or {@code limit} the whole catalog is
+     * returned as before. With either, one page ordered by ID is
+     * returned together with the {@code nextAfter} cursor of the next
+     * page. {@code fields} limits each ingredient to the listed
+     * properties ({@code macros} = calories, protein, carbohydrates,
+     * fat); the ID is always included.
      *
-     * @return list of all ingredients
+     * @param after  last ID of the previous page
+     * @param limit  page size (default 500, at most 1000)
+     * @param fields comma-separated properties to return
+     * @return the ingredients or page, or 400 for an invalid limit or
+     *         unknown field
      */
     @GetMapping
-    public ResponseEntity<List<IngredientNutrition>> getAllIngredients() {
-        LOGGER.info("[API_CALL] GET /api/ingredients");
+    public ResponseEntity<Object> getAllIngredients(
+            @RequestParam(required = false) final Integer after,
+            @RequestParam(required = false) final Integer limit,
+            @RequestParam(required = false) final String fields) {
+        LOGGER.info("[API_CALL] GET /api/ingredients (after {}, limit {})",
+                after, limit);
 
-        final List<IngredientNutrition> ingredients =
-                ingredientNutritionService.getAllIngredients();
+        try {
+            if (after != null || limit != null) {
+                final IngredientKeysetPageDto page =
+                        ingredientNutritionService.getIngredientsPage(after,
+                                limit == null ? DEFAULT_PAGE_SIZE : limit,
+                                fields);
+                LOGGER.info("[API_RESPONSE] Page of {} ingredients",
+                        page.getIngredients().size());
+                return ResponseEntity.ok(page);
+            }
+            final List<?> ingredients = fields == null
+                    ? ingredientNutritionService.getAllIngredients()
+                    : ingredientNutritionService.getAllIngredients(fields);
+
+            LOGGER.info("[API_RESPONSE] Found {} ingredients",
+                    ingredients.size());
+
+            return ResponseEntity.ok(ingredients);
+        } catch (final IllegalArgumentException e) {
+            final Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
 
-        LOGGER.info("[API_RESPONSE] Found {} ingredients",
-                ingredients.size());
+    /**
+     * Read the ingredient change feed, for caches outside this service.
+     * Poll with {@code after} set to the previous response's
+     * {@code nextAfter}; available when the change outbox is enabled.
+     *
+     * @param after {@code nextAfter} of the previous response (default:
+     *              oldest retained change)
+     * @param limit page size (default 500, at most 1000)
+     * @return the changes, 400 for an invalid cursor or limit, or 404 if
+     *         the outbox is disabled
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<Object> getChanges(
+            @RequestParam(required = false) final String after,
+            @RequestParam(required = false) final Integer limit) {
+        LOGGER.info("[API_CALL] GET /api/ingredients/changes "
+                + "(after {}, limit {})", after, limit);
 
-        return ResponseEntity.ok(ingredients);
+        try {
+            final IngredientChangeFeedDto feed =
+                    ingredientNutritionService.getChanges(after,
+                            limit == null ? DEFAULT_PAGE_SIZE : limit);
+            LOGGER.info("[API_RESPONSE] {} ingredient changes",
+                    feed.getChanges().size());
+            return ResponseEntity.ok(feed);
+        } catch (final IllegalArgumentException e) {
+            final Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (final IllegalStateException e) {
+            final Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+        }
+    }
+
+    /**
+     * Export all ingredients.
+     *
+     * GET /api/ingredients/export
+     *
+     * Streams every ingredient as newline-delimited JSON straight from a
+     * database cursor, in constant memory. The body is gzip-encoded when
+     * the request's Accept-Encoding allows it.
+     *
+     * @param acceptEncoding the Accept-Encoding request header
+     * @param response       the servlet response written to directly
+     * @throws IOException if writing the response fails
+     */
+    @GetMapping("/export")
+    public void exportIngredients(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING,
+                    required = false) final String acceptEncoding,
+            final HttpServletResponse response) throws IOException {
+        LOGGER.info("[API_CALL] GET /api/ingredients/export");
+
+        final boolean gzip = NdjsonExportWriter.acceptsGzip(acceptEncoding);
+        response.setContentType("application/x-ndjson");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"ingredients.ndjson\"");
+        final long count = ingredientNutritionService
+                .exportIngredients(response.getOutputStream(), gzip);
+
+        LOGGER.info("[API_RESPONSE] Exported {} ingredients", count);
     }
 
     /**
@@ -108,6 +241,31 @@ public class IngredientNutritionController {
         return ResponseEntity.ok(ingredients);
     }
 
+    /**
+     * Autocomplete ingredient names.
+     *
+     * GET /api/ingredients/autocomplete?q=chi&limit=10
+     *
+     * Matches names and words within names by prefix, falling back to
+     * typo-tolerant matches; verified and frequently used ingredients
+     * come first.
+     *
+     * @param q     the typed text
+     * @param limit maximum number of suggestions (1-50, default 10)
+     * @return suggestions, best first
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<IngredientSuggestionDto>> autocomplete(
+            @RequestParam(defaultValue = "") final String q,
+            @RequestParam(required = false) final Integer limit) {
+        LOGGER.debug("[API_CALL] GET /api/ingredients/autocomplete?q={}", q);
+
+        final int size = limit == null ? DEFAULT_SUGGESTIONS
+                : Math.max(1, Math.min(MAX_SUGGESTIONS, limit));
+        return ResponseEntity.ok(
+                ingredientNutritionService.autocomplete(q, size));
+    }
+
     /**
      * Get ingredients by category.
      *
@@ -132,6 +290,57 @@ public class IngredientNutritionController {
         return ResponseEntity.ok(ingredients);
     }
 
+    /**
+     * List ingredient categories with their ingredient counts.
+     *
+     * GET /api/ingredients/categories
+     *
+     * @return category facets, largest first
+     */
+    @GetMapping("/categories")
+    public ResponseEntity<List<IngredientCategoryFacetDto>>
+            getCategoryFacets() {
+        LOGGER.info("[API_CALL] GET /api/ingredients/categories");
+
+        final List<IngredientCategoryFacetDto> facets =
+                ingredientNutritionService.getCategoryFacets();
+
+        LOGGER.info("[API_RESPONSE] Found {} categories", facets.size());
+
+        return ResponseEntity.ok(facets);
+    }
+
+    /**
+     * Get one page of the ingredients in a category.
+     *
+     * GET /api/ingredients/categories/{category}?page={page}&size={size}
+     *
+     * @param category the ingredient category
+     * @param page     zero-based page number (default 0)
+     * @param size     page size (default 50, at most 500)
+     * @return the page with total counts, or 400 for an invalid page
+     */
+    @GetMapping("/categories/{category}")
+    public ResponseEntity<Object> getCategoryPage(
+            @PathVariable final String category,
+            @RequestParam(defaultValue = "0") final int page,
+            @RequestParam(required = false) final Integer size) {
+        LOGGER.info("[API_CALL] GET /api/ingredients/categories/{}"
+                + " (page {})", category, page);
+
+        try {
+            final IngredientCategoryPageDto result =
+                    ingredientNutritionService.getCategoryPage(category,
+                            page, size == null ? DEFAULT_CATEGORY_PAGE_SIZE
+                                    : size);
+            return ResponseEntity.ok(result);
+        } catch (final IllegalArgumentException e) {
+            final Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
     /**
      * Get ingredient by name.
      *
@@ -206,6 +415,82 @@ public class IngredientNutritionController {
         }
     }
 
+    /**
+     * Calculate nutrition for several ingredients at once, e.g. a whole
+     * recipe or shopping basket.
+     *
+     * POST /api/ingredients/calculate/batch
+     *
+     * Request body example:
+     * [
+     *   {"ingredientName": "chicken breast", "amount": 200, "unit": "g"},
+     *   {"ingredientName": "milk", "amount": 1, "unit": "cup"}
+     * ]
+     *
+     * Unknown ingredients or units are reported on their line and left
+     * out of the totals.
+     *
+     * @param lines the ingredient lines
+     * @return per-line values and totals for every tracked nutrient,
+     *         or 400 for an empty or oversized batch
+     */
+    @PostMapping("/calculate/batch")
+    public ResponseEntity<Object> calculateNutritionBatch(
+            @RequestBody final List<NutritionLineRequestDto> lines) {
+        LOGGER.info("[API_CALL] POST /api/ingredients/calculate/batch"
+                + " ({} lines)", lines == null ? 0 : lines.size());
+
+        try {
+            final NutritionBatchResultDto result =
+                    ingredientNutritionService.calculateNutritionBatch(lines);
+            return ResponseEntity.ok(result);
+        } catch (final IllegalArgumentException e) {
+            final Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    /**
+     * Insert or update many ingredients at once, e.g. a USDA extract.
+     *
+     * POST /api/ingredients/bulk?updatedBy=usda-sync
+     *
+     * The body is a JSON array of ingredients as for
+     * POST /api/ingredients. Existing ingredients are matched by name,
+     * ignoring case, and only the fields a record provides are
+     * overwritten. Invalid records are skipped and reported.
+     *
+     * @param ingredients the ingredients
+     * @param updatedBy   the user or system performing the load
+     * @return inserted/updated counts, 400 for an empty body, or 500 if
+     *         writing failed
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<Object> bulkUpsertIngredients(
+            @RequestBody final List<IngredientNutrition> ingredients,
+            @RequestParam(required = false, defaultValue = "system")
+            final String updatedBy) {
+        LOGGER.info("[API_CALL] POST /api/ingredients/bulk ({} records)",
+                ingredients == null ? 0 : ingredients.size());
+
+        try {
+            final IngredientBulkUpsertResultDto result =
+                    ingredientBulkUpsertService.upsert(ingredients,
+                            updatedBy);
+            return ResponseEntity.ok(result);
+        } catch (final IllegalArgumentException e) {
+            final Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (final IllegalStateException e) {
+            final Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(error);
+        }
+    }
+
     /**
      * Create a new ingredient.
      *
@@ -0,0 +1,38 @@
+package com.example.nutriflow.ingredient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary returned by a bulk ingredient upsert.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientBulkUpsertResultDto {
+
+    /** Number of new ingredients inserted. */
+    private int inserted;
+
+    /** Number of existing ingredients updated. */
+    private int updated;
+
+    /** Number of input records rejected by validation. */
+    private int rejectedRecords;
+
+    /**
+     * Number of input records dropped because a later record has the
+     * same name (ignoring case).
+     */
+    private int duplicateRecords;
+
+    /** Number of recipes whose macros were recomputed. */
+    private int recipesUpdated;
+
+    /** Validation errors, prefixed with the record index. */
+    private List<String> errors = new ArrayList<>();
+}
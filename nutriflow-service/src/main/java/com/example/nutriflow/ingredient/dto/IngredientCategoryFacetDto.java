@@ -0,0 +1,20 @@
+package com.example.nutriflow.ingredient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An ingredient category and the number of ingredients in it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientCategoryFacetDto {
+
+    /** Category name, as stored. */
+    private String category;
+
+    /** Number of ingredients in the category. */
+    private int count;
+}
@@ -0,0 +1,36 @@
+package com.example.nutriflow.ingredient.dto;
+
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of the ingredients in a category, ordered by ingredient ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientCategoryPageDto {
+
+    /** Category name. */
+    private String category;
+
+    /** Zero-based page number. */
+    private int page;
+
+    /** Requested page size. */
+    private int size;
+
+    /** Number of ingredients in the category. */
+    private int totalElements;
+
+    /** Number of pages. */
+    private int totalPages;
+
+    /** Ingredients on this page. */
+    private List<IngredientNutrition> ingredients = new ArrayList<>();
+}
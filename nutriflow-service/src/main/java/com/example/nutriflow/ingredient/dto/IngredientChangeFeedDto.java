@@ -0,0 +1,28 @@
+package com.example.nutriflow.ingredient.dto;
+
+import com.example.nutriflow.ingredient.model.IngredientChangeOutboxEntry;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of the ingredient change feed, in transaction order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientChangeFeedDto {
+
+    /** Changes on this page. */
+    private List<IngredientChangeOutboxEntry> changes = new ArrayList<>();
+
+    /**
+     * Value of {@code after} for the next request, an opaque cursor of
+     * the last change's transaction and change ID; the request's own
+     * position when there were no new changes.
+     */
+    private String nextAfter;
+}
@@ -0,0 +1,26 @@
+package com.example.nutriflow.ingredient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of the ingredient catalog, ordered by ingredient ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientKeysetPageDto {
+
+    /**
+     * Ingredients on this page: full ingredients, or only the requested
+     * fields when a projection was given.
+     */
+    private List<Object> ingredients = new ArrayList<>();
+
+    /** Value of {@code after} for the next page; null on the last page. */
+    private Integer nextAfter;
+}
@@ -0,0 +1,32 @@
+package com.example.nutriflow.ingredient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One ingredient autocomplete suggestion.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientSuggestionDto {
+
+    /** Unique identifier for the ingredient. */
+    private Integer ingredientId;
+
+    /** Name of the ingredient. */
+    private String ingredientName;
+
+    /** Category of the ingredient. */
+    private String ingredientCategory;
+
+    /** Whether the nutrition data is verified. */
+    private boolean verified;
+
+    /** Number of recipes using the ingredient. */
+    private long recipeCount;
+
+    /** Whether the suggestion was found by the typo fallback. */
+    private boolean fuzzy;
+}
@@ -0,0 +1,51 @@
+package com.example.nutriflow.ingredient.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Nutrient amounts for a given quantity of food. Units follow the
+ * catalog: kcal, grams for macros, mg or IU for micronutrients.
+ */
+@Data
+@NoArgsConstructor
+public class NutrientAmountsDto {
+
+    /** Calories (kcal). */
+    private BigDecimal calories;
+
+    /** Protein (g). */
+    private BigDecimal protein;
+
+    /** Carbohydrates (g). */
+    private BigDecimal carbohydrates;
+
+    /** Fat (g). */
+    private BigDecimal fat;
+
+    /** Fiber (g). */
+    private BigDecimal fiber;
+
+    /** Iron (mg). */
+    private BigDecimal iron;
+
+    /** Calcium (mg). */
+    private BigDecimal calcium;
+
+    /** Vitamin A (IU). */
+    private BigDecimal vitaminA;
+
+    /** Vitamin C (mg). */
+    private BigDecimal vitaminC;
+
+    /** Vitamin D (IU). */
+    private BigDecimal vitaminD;
+
+    /** Sodium (mg). */
+    private BigDecimal sodium;
+
+    /** Potassium (mg). */
+    private BigDecimal potassium;
+}
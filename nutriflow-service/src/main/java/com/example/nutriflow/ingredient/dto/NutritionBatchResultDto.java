@@ -0,0 +1,25 @@
+package com.example.nutriflow.ingredient.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a batch nutrition calculation: per-line values in request
+ * order and their sum.
+ */
+@Data
+@NoArgsConstructor
+public class NutritionBatchResultDto {
+
+    /** One result per requested line, in request order. */
+    private List<NutritionLineResultDto> lines = new ArrayList<>();
+
+    /** Sum over the resolved lines. */
+    private NutrientAmountsDto totals;
+
+    /** Number of lines left out of the totals. */
+    private int unresolvedLines;
+}
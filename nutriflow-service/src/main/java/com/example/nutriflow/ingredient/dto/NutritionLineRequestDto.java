@@ -0,0 +1,23 @@
+package com.example.nutriflow.ingredient.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a batch nutrition calculation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NutritionLineRequestDto {
+
+    /** Ingredient name, matched case-insensitively. */
+    private String ingredientName;
+
+    /** Quantity in {@link #unit}. */
+    private Double amount;
+
+    /** Unit of the amount (g, kg, oz, cup, ...); grams when blank. */
+    private String unit;
+}
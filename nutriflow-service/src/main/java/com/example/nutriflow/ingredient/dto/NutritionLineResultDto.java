@@ -0,0 +1,35 @@
+package com.example.nutriflow.ingredient.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Result of one line of a batch nutrition calculation.
+ */
+@Data
+@NoArgsConstructor
+public class NutritionLineResultDto {
+
+    /** Ingredient name as requested. */
+    private String ingredientName;
+
+    /** Quantity as requested. */
+    private Double amount;
+
+    /** Unit as requested. */
+    private String unit;
+
+    /** The quantity in grams; null when the line is unresolved. */
+    private BigDecimal grams;
+
+    /** Nutrients of the line; null when the line is unresolved. */
+    private NutrientAmountsDto nutrients;
+
+    /**
+     * Why the line could not be calculated (unknown ingredient, missing
+     * or negative amount, unsupported unit); null on success.
+     */
+    private String error;
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains ingredient nutrition data transfer objects.
+ *
+ * @since 1.0
+ */
+package com.example.nutriflow.ingredient.dto;
@@ -0,0 +1,18 @@
+package com.example.nutriflow.ingredient.model;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Application event announcing several committed ingredient changes at
+ * once, such as one bulk upsert chunk or one page of changes read from
+ * the outbox, so listeners can handle them together (e.g. with one
+ * query) instead of once per {@link IngredientChangedEvent}.
+ */
+@Value
+public class IngredientChangeBatchEvent {
+
+    /** The changes, in commit order. */
+    List<IngredientChangedEvent> changes;
+}
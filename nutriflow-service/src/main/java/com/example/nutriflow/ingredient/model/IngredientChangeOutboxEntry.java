@@ -0,0 +1,93 @@
+package com.example.nutriflow.ingredient.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A persisted {@link IngredientChangedEvent}, written in the same
+ * transaction as the change so other instances and external consumers
+ * can follow ingredient changes.
+ */
+@Entity
+@Table(name = "ingredient_change_outbox", schema = "nutriflow")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngredientChangeOutboxEntry {
+
+    /** Position in the feed, increasing. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_id")
+    private Long changeId;
+
+    /** Kind of change. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private IngredientChangedEvent.Type changeType;
+
+    /** ID of the changed ingredient. */
+    @Column(name = "ingredient_id", nullable = false)
+    private Integer ingredientId;
+
+    /** Current name; for a deletion, the last name. */
+    @Column(name = "ingredient_name")
+    private String ingredientName;
+
+    /** Name before a rename, if any. */
+    @Column(name = "previous_name")
+    private String previousName;
+
+    /** When the change was made. */
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    /** Instance that made the change. */
+    @Column(name = "origin", length = 64)
+    private String origin;
+
+    /**
+     * ID of the writing transaction, set by the database. The feed is
+     * read in transaction order, so a transaction that commits late is
+     * not skipped.
+     */
+    @Column(name = "tx_id", insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL "
+                    + "DEFAULT (pg_current_xact_id()::text::bigint)")
+    private Long txId;
+
+    /**
+     * Creates an entry for an event.
+     *
+     * @param event the event
+     * @return the unsaved entry
+     */
+    public static IngredientChangeOutboxEntry of(
+            final IngredientChangedEvent event) {
+        return new IngredientChangeOutboxEntry(null, event.getType(),
+                event.getIngredientId(), event.getIngredientName(),
+                event.getPreviousName(), event.getChangedAt(),
+                event.getOrigin(), null);
+    }
+
+    /**
+     * Converts the entry back into an event.
+     *
+     * @return the event
+     */
+    public IngredientChangedEvent toEvent() {
+        return new IngredientChangedEvent(changeType, ingredientId,
+                ingredientName, previousName, changedAt, origin);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.nutriflow.ingredient.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Application event announcing that an ingredient was created, updated
+ * or deleted. It is delivered once the writing transaction has
+ * committed, so listeners can drop exactly the cached data derived from
+ * that ingredient.
+ */
+@Value
+public class IngredientChangedEvent {
+
+    /** Kind of change. */
+    public enum Type {
+        /** A new ingredient was stored. */
+        CREATED,
+        /** An existing ingredient was changed, possibly renamed. */
+        UPDATED,
+        /** The ingredient was deleted. */
+        DELETED
+    }
+
+    /** Kind of change. */
+    Type type;
+
+    /** ID of the changed ingredient. */
+    Integer ingredientId;
+
+    /** Current name; for a deletion, the last name. */
+    String ingredientName;
+
+    /** Name before a rename; null if the name did not change. */
+    String previousName;
+
+    /** When the change was made. */
+    LocalDateTime changedAt;
+
+    /** Instance that made the change. */
+    String origin;
+}
@@ -94,6 +94,14 @@ public class IngredientNutrition {
     @Column(name = "unit")
     private String unit;
 
+    /** Density in grams per ml, to convert volumes; water if null. */
+    @Column(name = "density_g_per_ml")
+    private BigDecimal density;
+
+    /** Weight in grams of one piece, to convert counts. */
+    @Column(name = "grams_per_piece")
+    private BigDecimal pieceWeight;
+
     /** Description of the ingredient. */
     @Column(name = "description")
     private String description;
@@ -0,0 +1,163 @@
+package com.example.nutriflow.ingredient.model;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of an {@link IngredientNutrition} row, as held by the
+ * in-memory ingredient dictionary. All nutrition values are per 100g.
+ */
+@Value
+public class IngredientNutritionSnapshot {
+
+    /** Unique identifier for the ingredient. */
+    Integer ingredientId;
+
+    /** Name of the ingredient. */
+    String ingredientName;
+
+    /** Category (e.g., 'meat', 'vegetable', 'grain'). */
+    String ingredientCategory;
+
+    /** Calories per 100g. */
+    BigDecimal calories;
+
+    /** Protein in grams per 100g. */
+    BigDecimal protein;
+
+    /** Carbohydrates in grams per 100g. */
+    BigDecimal carbohydrates;
+
+    /** Fat in grams per 100g. */
+    BigDecimal fat;
+
+    /** Fiber in grams per 100g. */
+    BigDecimal fiber;
+
+    /** Iron in mg per 100g. */
+    BigDecimal iron;
+
+    /** Calcium in mg per 100g. */
+    BigDecimal calcium;
+
+    /** Vitamin A in IU per 100g. */
+    BigDecimal vitaminA;
+
+    /** Vitamin C in mg per 100g. */
+    BigDecimal vitaminC;
+
+    /** Vitamin D in IU per 100g. */
+    BigDecimal vitaminD;
+
+    /** Sodium in mg per 100g. */
+    BigDecimal sodium;
+
+    /** Potassium in mg per 100g. */
+    BigDecimal potassium;
+
+    /** Measurement unit. */
+    String unit;
+
+    /** Density in grams per ml, or null for water. */
+    BigDecimal density;
+
+    /** Weight in grams of one piece, or null if unknown. */
+    BigDecimal pieceWeight;
+
+    /** Description of the ingredient. */
+    String description;
+
+    /** Source of nutrition data. */
+    String source;
+
+    /** Whether nutrition data is verified. */
+    Boolean isVerified;
+
+    /** Creation timestamp. */
+    LocalDateTime createdAt;
+
+    /** Last update timestamp. */
+    LocalDateTime updatedAt;
+
+    /** User/system that created this entry. */
+    String createdBy;
+
+    /** Last user/system that updated this entry. */
+    String updatedBy;
+
+    /** The nutrient columns above in fixed point, for aggregation. */
+    NutrientVector nutrients;
+
+    /**
+     * Copies an entity.
+     *
+     * @param entity the entity
+     * @return the snapshot
+     */
+    public static IngredientNutritionSnapshot of(
+            final IngredientNutrition entity) {
+        return new IngredientNutritionSnapshot(
+                entity.getIngredientId(),
+                entity.getIngredientName(),
+                entity.getIngredientCategory(),
+                entity.getCalories(),
+                entity.getProtein(),
+                entity.getCarbohydrates(),
+                entity.getFat(),
+                entity.getFiber(),
+                entity.getIron(),
+                entity.getCalcium(),
+                entity.getVitaminA(),
+                entity.getVitaminC(),
+                entity.getVitaminD(),
+                entity.getSodium(),
+                entity.getPotassium(),
+                entity.getUnit(),
+                entity.getDensity(),
+                entity.getPieceWeight(),
+                entity.getDescription(),
+                entity.getSource(),
+                entity.getIsVerified(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt(),
+                entity.getCreatedBy(),
+                entity.getUpdatedBy(),
+                NutrientVector.per100g(entity));
+    }
+
+    /**
+     * Returns a new, detached entity with the values of this snapshot.
+     *
+     * @return the entity
+     */
+    public IngredientNutrition toEntity() {
+        return new IngredientNutrition(
+                ingredientId,
+                ingredientName,
+                ingredientCategory,
+                calories,
+                protein,
+                carbohydrates,
+                fat,
+                fiber,
+                iron,
+                calcium,
+                vitaminA,
+                vitaminC,
+                vitaminD,
+                sodium,
+                potassium,
+                unit,
+                density,
+                pieceWeight,
+                description,
+                source,
+                isVerified,
+                createdAt,
+                updatedAt,
+                createdBy,
+                updatedBy);
+    }
+}
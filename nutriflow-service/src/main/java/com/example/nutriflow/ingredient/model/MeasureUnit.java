@@ -0,0 +1,118 @@
+package com.example.nutriflow.ingredient.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Units that ingredient amounts are given in, as found in recipe rows,
+ * pantry items and calculation requests. Each unit is a fixed multiple
+ * of the base unit of its {@link Kind}; converting a volume or count to
+ * grams also needs the ingredient's density or piece weight.
+ */
+public enum MeasureUnit {
+
+    /** Gram. */
+    GRAM(Kind.MASS, 1, "g", "gram", "grams"),
+
+    /** Kilogram. */
+    KILOGRAM(Kind.MASS, 1000, "kg", "kilogram", "kilograms"),
+
+    /** Milligram. */
+    MILLIGRAM(Kind.MASS, 0.001, "mg", "milligram", "milligrams"),
+
+    /** Ounce. */
+    OUNCE(Kind.MASS, 28.3495, "oz", "ounce", "ounces"),
+
+    /** Pound. */
+    POUND(Kind.MASS, 453.592, "lb", "lbs", "pound", "pounds"),
+
+    /** Milliliter. */
+    MILLILITER(Kind.VOLUME, 1, "ml", "milliliter", "milliliters"),
+
+    /** Liter. */
+    LITER(Kind.VOLUME, 1000, "l", "liter", "liters"),
+
+    /** Teaspoon. */
+    TEASPOON(Kind.VOLUME, 5, "tsp", "teaspoon", "teaspoons"),
+
+    /** Tablespoon. */
+    TABLESPOON(Kind.VOLUME, 15, "tbsp", "tablespoon", "tablespoons"),
+
+    /** Cup. */
+    CUP(Kind.VOLUME, 240, "cup", "cups"),
+
+    /** One whole item (an egg, a clove, a banana). */
+    PIECE(Kind.COUNT, 1, "piece", "pieces", "pc", "pcs", "whole", "each");
+
+    /** What a unit measures. */
+    public enum Kind {
+        /** Mass; base unit gram. */
+        MASS,
+        /** Volume; base unit milliliter. */
+        VOLUME,
+        /** Count; base unit one piece. */
+        COUNT
+    }
+
+    /** Units by spelling, lower case. */
+    private static final Map<String, MeasureUnit> BY_ALIAS = new HashMap<>();
+
+    static {
+        for (MeasureUnit unit : values()) {
+            for (String alias : unit.aliases) {
+                BY_ALIAS.put(alias, unit);
+            }
+        }
+    }
+
+    /** What this unit measures. */
+    private final Kind kind;
+
+    /** Base units of {@link #kind} per one of this unit. */
+    private final double baseFactor;
+
+    /** Accepted spellings. */
+    private final String[] aliases;
+
+    MeasureUnit(final Kind measures, final double factor,
+                final String... spellings) {
+        this.kind = measures;
+        this.baseFactor = factor;
+        this.aliases = spellings;
+    }
+
+    /**
+     * Returns what this unit measures.
+     *
+     * @return the kind
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the base units (grams, ml or pieces) per one of this unit.
+     *
+     * @return the factor
+     */
+    public double getBaseFactor() {
+        return baseFactor;
+    }
+
+    /**
+     * Parses a unit, ignoring case and surrounding whitespace. A missing
+     * unit means grams.
+     *
+     * @param unit the unit as written
+     * @return the unit, or null if it is not recognized
+     */
+    public static MeasureUnit parse(final String unit) {
+        if (unit == null || unit.isBlank()) {
+            return GRAM;
+        }
+        final MeasureUnit exact = BY_ALIAS.get(unit);
+        return exact != null ? exact
+                : BY_ALIAS.get(unit.trim().toLowerCase(Locale.ROOT));
+    }
+}
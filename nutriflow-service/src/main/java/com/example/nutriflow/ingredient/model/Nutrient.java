@@ -0,0 +1,114 @@
+package com.example.nutriflow.ingredient.model;
+
+import com.example.nutriflow.ingredient.dto.NutrientAmountsDto;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * The nutrients tracked per 100g in the ingredient catalog, with
+ * accessors for the catalog entry and the calculated amounts.
+ */
+public enum Nutrient {
+
+    /** Calories (kcal). */
+    CALORIES(IngredientNutrition::getCalories,
+            NutrientAmountsDto::setCalories),
+
+    /** Protein (g). */
+    PROTEIN(IngredientNutrition::getProtein,
+            NutrientAmountsDto::setProtein),
+
+    /** Carbohydrates (g). */
+    CARBOHYDRATES(IngredientNutrition::getCarbohydrates,
+            NutrientAmountsDto::setCarbohydrates),
+
+    /** Fat (g). */
+    FAT(IngredientNutrition::getFat, NutrientAmountsDto::setFat),
+
+    /** Fiber (g). */
+    FIBER(IngredientNutrition::getFiber,
+            NutrientAmountsDto::setFiber),
+
+    /** Iron (mg). */
+    IRON(IngredientNutrition::getIron, NutrientAmountsDto::setIron),
+
+    /** Calcium (mg). */
+    CALCIUM(IngredientNutrition::getCalcium,
+            NutrientAmountsDto::setCalcium),
+
+    /** Vitamin A (IU). */
+    VITAMIN_A(IngredientNutrition::getVitaminA,
+            NutrientAmountsDto::setVitaminA),
+
+    /** Vitamin C (mg). */
+    VITAMIN_C(IngredientNutrition::getVitaminC,
+            NutrientAmountsDto::setVitaminC),
+
+    /** Vitamin D (IU). */
+    VITAMIN_D(IngredientNutrition::getVitaminD,
+            NutrientAmountsDto::setVitaminD),
+
+    /** Sodium (mg). */
+    SODIUM(IngredientNutrition::getSodium,
+            NutrientAmountsDto::setSodium),
+
+    /** Potassium (mg). */
+    POTASSIUM(IngredientNutrition::getPotassium,
+            NutrientAmountsDto::setPotassium);
+
+    /** Reads the per-100g value from a catalog entry. */
+    private final Function<IngredientNutrition, BigDecimal> reader;
+
+    /** Writes a calculated amount. */
+    private final BiConsumer<NutrientAmountsDto, BigDecimal> writer;
+
+    /** Property name, e.g. {@code vitaminA}. */
+    private final String fieldName;
+
+    Nutrient(final Function<IngredientNutrition, BigDecimal> read,
+             final BiConsumer<NutrientAmountsDto, BigDecimal> write) {
+        this.reader = read;
+        this.writer = write;
+        final String[] words = name().toLowerCase(Locale.ROOT).split("_");
+        final StringBuilder camel = new StringBuilder(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            camel.append(Character.toUpperCase(words[i].charAt(0)))
+                    .append(words[i].substring(1));
+        }
+        this.fieldName = camel.toString();
+    }
+
+    /**
+     * Returns the property name of this nutrient, as used on
+     * {@link IngredientNutrition} and in responses (e.g. {@code vitaminA}).
+     *
+     * @return the name
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Returns the per-100g value of this nutrient.
+     *
+     * @param entry the catalog entry
+     * @return the value, or null if unknown
+     */
+    public BigDecimal per100g(final IngredientNutrition entry) {
+        return reader.apply(entry);
+    }
+
+    /**
+     * Sets this nutrient on a set of amounts.
+     *
+     * @param amounts the amounts
+     * @param value   the value
+     */
+    public void set(final NutrientAmountsDto amounts,
+                    final BigDecimal value) {
+        writer.accept(amounts, value);
+    }
+}
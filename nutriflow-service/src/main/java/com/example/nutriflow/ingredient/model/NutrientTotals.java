@@ -0,0 +1,134 @@
+package com.example.nutriflow.ingredient.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Mutable running sum of nutrients in the fixed point of
+ * {@link NutrientVector}, e.g. over the ingredients of a recipe. Adding
+ * an ingredient is a dozen long multiplications, with no allocation.
+ */
+public final class NutrientTotals {
+
+    /** Milligrams per 100g, the catalog's reference amount. */
+    private static final long MILLIGRAMS_PER_100G = 100_000L;
+
+    /** Decimal places of a gram amount kept as milligrams. */
+    private static final int MILLIGRAM_SCALE = 3;
+
+    /** One whole unit in fixed point. */
+    private static final double FIXED_ONE =
+            Math.pow(10, NutrientVector.SCALE);
+
+    /** Fixed-point sums, indexed by {@link Nutrient} ordinal. */
+    private final long[] values = new long[NutrientVector.DIMENSIONS];
+
+    /**
+     * Adds an amount of an ingredient.
+     *
+     * @param per100g the ingredient's nutrients per 100g
+     * @param grams   the amount in grams
+     * @return this sum
+     */
+    public NutrientTotals add(final NutrientVector per100g,
+                              final BigDecimal grams) {
+        return add(per100g, grams.setScale(MILLIGRAM_SCALE,
+                RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Adds an amount of an ingredient, rounding each nutrient half up to
+     * the fixed-point resolution.
+     *
+     * @param per100g    the ingredient's nutrients per 100g
+     * @param milligrams the amount in milligrams
+     * @return this sum
+     * @throws ArithmeticException if a product overflows a long
+     */
+    public NutrientTotals add(final NutrientVector per100g,
+                              final long milligrams) {
+        for (int i = 0; i < values.length; i++) {
+            final long product =
+                    Math.multiplyExact(per100g.at(i), milligrams);
+            values[i] += Math.floorDiv(product + MILLIGRAMS_PER_100G / 2,
+                    MILLIGRAMS_PER_100G);
+        }
+        return this;
+    }
+
+    /**
+     * Adds another sum to this one.
+     *
+     * @param other the sum to add
+     * @return this sum
+     */
+    public NutrientTotals add(final NutrientTotals other) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] += other.values[i];
+        }
+        return this;
+    }
+
+    /**
+     * Divides every sum, e.g. a whole recipe into servings, rounding
+     * half up to the fixed-point resolution.
+     *
+     * @param divisor a positive divisor
+     * @return this sum
+     * @throws IllegalArgumentException if the divisor is not positive
+     */
+    public NutrientTotals divide(final int divisor) {
+        if (divisor <= 0) {
+            throw new IllegalArgumentException(
+                    "Divisor must be positive: " + divisor);
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.floorDiv(values[i] + divisor / 2, divisor);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the fixed-point sum of a nutrient.
+     *
+     * @param nutrient the nutrient
+     * @return the sum in 1/10000 units
+     */
+    public long get(final Nutrient nutrient) {
+        return values[nutrient.ordinal()];
+    }
+
+    /**
+     * Returns the sum of a nutrient as a decimal.
+     *
+     * @param nutrient the nutrient
+     * @param scale    decimal places, rounded half up
+     * @return the sum
+     */
+    public BigDecimal toBigDecimal(final Nutrient nutrient, final int scale) {
+        return NutrientVector.toDecimal(values[nutrient.ordinal()], scale);
+    }
+
+    /**
+     * Returns an immutable copy of the sum.
+     *
+     * @return the vector
+     */
+    public NutrientVector toVector() {
+        return new NutrientVector(values.clone());
+    }
+
+    /**
+     * Returns the sum as floats in {@link Nutrient} order, for compact
+     * storage; floats keep about seven significant digits.
+     *
+     * @return the values in whole units
+     */
+    public float[] toFloats() {
+        final float[] floats = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            floats[i] = (float) (values[i] / FIXED_ONE);
+        }
+        return floats;
+    }
+}
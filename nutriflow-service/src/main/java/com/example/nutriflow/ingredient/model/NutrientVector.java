@@ -0,0 +1,120 @@
+package com.example.nutriflow.ingredient.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Immutable per-100g nutrient values of one ingredient in fixed point:
+ * each {@link Nutrient} is a {@code long} count of 1/10000 of its unit.
+ *
+ * Aggregation and scaling work on these longs (see
+ * {@link NutrientTotals}); {@link BigDecimal} is only used to read
+ * catalog rows and to write API or persisted values.
+ */
+public final class NutrientVector {
+
+    /** Decimal places of the fixed-point values. */
+    public static final int SCALE = 4;
+
+    /** Number of tracked nutrients. */
+    static final int DIMENSIONS = Nutrient.values().length;
+
+    /** Fixed-point values, indexed by {@link Nutrient} ordinal. */
+    private final long[] values;
+
+    /**
+     * Wraps fixed-point values.
+     *
+     * @param fixed the values, not copied
+     */
+    NutrientVector(final long[] fixed) {
+        this.values = fixed;
+    }
+
+    /**
+     * Reads the per-100g values of a catalog row; missing values are
+     * zero.
+     *
+     * @param entity the catalog row
+     * @return the vector
+     */
+    public static NutrientVector per100g(final IngredientNutrition entity) {
+        final long[] fixed = new long[DIMENSIONS];
+        for (Nutrient nutrient : Nutrient.values()) {
+            fixed[nutrient.ordinal()] = toFixed(nutrient.per100g(entity));
+        }
+        return new NutrientVector(fixed);
+    }
+
+    /**
+     * Returns the fixed-point value of a nutrient.
+     *
+     * @param nutrient the nutrient
+     * @return the value in 1/10000 units
+     */
+    public long get(final Nutrient nutrient) {
+        return values[nutrient.ordinal()];
+    }
+
+    /**
+     * Returns a nutrient as a decimal.
+     *
+     * @param nutrient the nutrient
+     * @param scale    decimal places, rounded half up
+     * @return the value
+     */
+    public BigDecimal toBigDecimal(final Nutrient nutrient, final int scale) {
+        return toDecimal(values[nutrient.ordinal()], scale);
+    }
+
+    /**
+     * Returns the raw value at an index, for {@link NutrientTotals}.
+     *
+     * @param index the nutrient ordinal
+     * @return the fixed-point value
+     */
+    long at(final int index) {
+        return values[index];
+    }
+
+    /**
+     * Converts a decimal to fixed point, rounding half up.
+     *
+     * @param value the decimal, or null for zero
+     * @return the fixed-point value
+     */
+    static long toFixed(final BigDecimal value) {
+        return value == null ? 0
+                : value.setScale(SCALE, RoundingMode.HALF_UP)
+                        .unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts a fixed-point value to a decimal.
+     *
+     * @param fixed the fixed-point value
+     * @param scale decimal places, rounded half up
+     * @return the decimal
+     */
+    static BigDecimal toDecimal(final long fixed, final int scale) {
+        return BigDecimal.valueOf(fixed, SCALE)
+                .setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof NutrientVector
+                && Arrays.equals(values, ((NutrientVector) other).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "NutrientVector" + Arrays.toString(values);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.nutriflow.ingredient.repository;
+
+import com.example.nutriflow.ingredient.model.IngredientChangeOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for the ingredient change outbox.
+ */
+@Repository
+public interface IngredientChangeOutboxRepository
+        extends JpaRepository<IngredientChangeOutboxEntry, Long> {
+
+    /**
+     * Finds committed changes after a feed position, in transaction
+     * order. Only transactions older than every transaction still in
+     * progress are read, so a transaction that commits after a later
+     * one can no longer fall behind the cursor.
+     *
+     * @param afterTx     transaction ID of the last change already seen
+     * @param afterChange change ID of the last change already seen
+     * @param limit       maximum number of changes
+     * @return the next changes
+     */
+    @Query(value = "SELECT * FROM nutriflow.ingredient_change_outbox "
+            + "WHERE (tx_id, change_id) > (:afterTx, :afterChange) "
+            + "AND tx_id < pg_snapshot_xmin(pg_current_snapshot())"
+            + "::text::bigint "
+            + "ORDER BY tx_id, change_id LIMIT :limit",
+            nativeQuery = true)
+    List<IngredientChangeOutboxEntry> findCommittedAfter(
+            @Param("afterTx") long afterTx,
+            @Param("afterChange") long afterChange,
+            @Param("limit") int limit);
+
+    /**
+     * Returns the oldest transaction still in progress; every change of
+     * an older transaction is committed or rolled back.
+     *
+     * @return the transaction ID
+     */
+    @Query(value = "SELECT pg_snapshot_xmin(pg_current_snapshot())"
+            + "::text::bigint", nativeQuery = true)
+    long findOldestActiveTransaction();
+
+    /**
+     * Deletes the changes made before the given time.
+     *
+     * @param cutoff oldest change to keep
+     * @return number of rows removed
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IngredientChangeOutboxEntry e "
+            + "WHERE e.changedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
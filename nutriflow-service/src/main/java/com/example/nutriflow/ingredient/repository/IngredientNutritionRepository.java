@@ -1,13 +1,19 @@
 package com.example.nutriflow.ingredient.repository;
 
 import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for IngredientNutrition entities.
@@ -28,6 +34,17 @@ public interface IngredientNutritionRepository
     Optional<IngredientNutrition> findByIngredientNameIgnoreCase(
             @Param("name") String name);
 
+    /**
+     * Find every ingredient whose lower-cased name is in the given set.
+     *
+     * @param names lower-cased ingredient names
+     * @return matching ingredients
+     */
+    @Query("SELECT i FROM IngredientNutrition i "
+            + "WHERE LOWER(i.ingredientName) IN :names")
+    List<IngredientNutrition> findByLowerIngredientNameIn(
+            @Param("names") Collection<String> names);
+
     /**
      * Find all ingredients by category.
      *
@@ -62,5 +79,31 @@ public interface IngredientNutritionRepository
      */
     boolean existsByIngredientNameIgnoreCase(
             String name);
-}
 
+    /**
+     * Find the next page of ingredients after a given ID (keyset
+     * pagination over the primary key).
+     *
+     * @param afterId  the last ID of the previous page
+     * @param pageable limits the number returned, e.g.
+     *                 {@code PageRequest.of(0, 100)}
+     * @return ingredients with a larger ID, ordered by ID
+     */
+    @Query("SELECT i FROM IngredientNutrition i "
+            + "WHERE i.ingredientId > :afterId ORDER BY i.ingredientId")
+    List<IngredientNutrition> findPageAfter(@Param("afterId") Integer afterId,
+                                           Pageable pageable);
+
+    /**
+     * Stream every ingredient through a forward-only database cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return stream of ingredients ordered by ID
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM IngredientNutrition i ORDER BY i.ingredientId")
+    Stream<IngredientNutrition> streamAll();
+}
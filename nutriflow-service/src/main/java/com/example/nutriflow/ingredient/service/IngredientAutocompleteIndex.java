@@ -0,0 +1,827 @@
+package com.example.nutriflow.ingredient.service;
+
+import com.example.nutriflow.ingredient.dto.IngredientSuggestionDto;
+import com.example.nutriflow.ingredient.model.IngredientNutritionSnapshot;
+import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
+import com.example.nutriflow.shared.concurrent.RebuildableSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Autocomplete over the ingredient dictionary.
+ *
+ * Every ingredient is indexed under its full name and under each later
+ * word ("chicken breast" also under "breast") in a sorted array, so a
+ * prefix query is a binary search followed by a short scan. When that
+ * yields fewer suggestions than requested, a typo fallback looks up
+ * candidates sharing trigrams with the query and keeps those within a
+ * small edit distance of a prefix of the name. Suggestions are ranked
+ * by match kind, then verified status, then the number of recipes using
+ * the ingredient; the latter order is precomputed per ingredient, so a
+ * query only keeps the best {@code limit} matches as it scans.
+ *
+ * Wide prefix ranges are ranked over every key in the range; the best
+ * matches of one- and two-character prefixes are computed while the
+ * index is built, longer wide prefixes on their first query.
+ *
+ * The index is immutable. Only the first query builds it; after that a
+ * query that finds the dictionary changed, or the recipe counts older
+ * than the configured refresh interval, queues a rebuild on a
+ * background thread and is answered from the previous index.
+ */
+@Component
+public class IngredientAutocompleteIndex {
+
+    /** Logger for this index. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(IngredientAutocompleteIndex.class);
+
+    /**
+     * Prefix ranges spanning more keys than this have their best
+     * matches cached per index, so short queries skip the scan.
+     */
+    private static final int WIDE_RANGE = 1000;
+
+    /** Matches cached per wide prefix range. */
+    private static final int CACHED_MATCHES = 50;
+
+    /** Longest prefix whose wide range is ranked at build time. */
+    private static final int PRECOMPUTED_PREFIX_LENGTH = 2;
+
+    /** Shortest query for which the typo fallback runs. */
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    /** Longest query allowed one typo; longer ones allow two. */
+    private static final int ONE_EDIT_MAX_LENGTH = 5;
+
+    /** Most trigram candidates checked by edit distance per query. */
+    private static final int MAX_FUZZY_CANDIDATES = 100;
+
+    /** Per-thread shared-trigram counters, all zero between queries. */
+    private static final ThreadLocal<int[]> GRAM_COUNTS =
+            ThreadLocal.withInitial(() -> new int[0]);
+
+    /** Gram length of the typo index. */
+    private static final int GRAM = 3;
+
+    /** Marks the start of a word in the trigram index. */
+    private static final char WORD_START = '$';
+
+    /** Rank of a suggestion whose name starts with the query. */
+    private static final int NAME_PREFIX = 0;
+
+    /** Rank of a suggestion with a later word starting with the query. */
+    private static final int WORD_PREFIX = 1;
+
+    /** Rank of a typo-tolerant suggestion. */
+    private static final int FUZZY = 2;
+
+    /** Source of the ingredients. */
+    private final IngredientNutritionDictionary dictionary;
+
+    /** Source of the per-ingredient recipe counts. */
+    private final RecipeIngredientRepository recipeIngredientRepository;
+
+    /** Maximum age of the recipe counts, in nanoseconds. */
+    private final long usageRefreshNanos;
+
+    /** Monotonic time source in nanoseconds. */
+    private final LongSupplier nanoTime;
+
+    /** Runs rebuilds off the query path. */
+    private final Executor rebuildExecutor;
+
+    /** Current index, rebuilt in the background when stale. */
+    private final RebuildableSnapshot<Index> current;
+
+    /**
+     * Creates the index.
+     *
+     * @param ingredients       the ingredient dictionary
+     * @param recipeIngredients recipe ingredient repository, for counts
+     * @param usageRefresh      seconds between recipe count refreshes
+     */
+    @Autowired
+    public IngredientAutocompleteIndex(
+            final IngredientNutritionDictionary ingredients,
+            final RecipeIngredientRepository recipeIngredients,
+            final @Value(
+                "${nutriflow.ingredients.autocomplete.usage-refresh-seconds:300}")
+            long usageRefresh) {
+        this(ingredients, recipeIngredients, usageRefresh, System::nanoTime);
+    }
+
+    /**
+     * Creates the index with an explicit time source.
+     *
+     * @param ingredients       the ingredient dictionary
+     * @param recipeIngredients recipe ingredient repository, for counts
+     * @param usageRefresh      seconds between recipe count refreshes
+     * @param timeSource        monotonic time in nanoseconds
+     */
+    public IngredientAutocompleteIndex(
+            final IngredientNutritionDictionary ingredients,
+            final RecipeIngredientRepository recipeIngredients,
+            final long usageRefresh,
+            final LongSupplier timeSource) {
+        this(ingredients, recipeIngredients, usageRefresh, timeSource,
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(1), task -> {
+                            final Thread thread = new Thread(task,
+                                    "ingredient-autocomplete-rebuild");
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+    }
+
+    /**
+     * Creates the index with an explicit time source and rebuild
+     * executor.
+     *
+     * @param ingredients       the ingredient dictionary
+     * @param recipeIngredients recipe ingredient repository, for counts
+     * @param usageRefresh      seconds between recipe count refreshes
+     * @param timeSource        monotonic time in nanoseconds
+     * @param executor          runs background rebuilds
+     */
+    public IngredientAutocompleteIndex(
+            final IngredientNutritionDictionary ingredients,
+            final RecipeIngredientRepository recipeIngredients,
+            final long usageRefresh,
+            final LongSupplier timeSource,
+            final Executor executor) {
+        this.dictionary = ingredients;
+        this.recipeIngredientRepository = recipeIngredients;
+        this.usageRefreshNanos =
+                TimeUnit.SECONDS.toNanos(Math.max(0, usageRefresh));
+        this.nanoTime = timeSource;
+        this.rebuildExecutor = executor;
+        this.current = new RebuildableSnapshot<>("autocomplete index",
+                this::build, this::isStale, executor);
+    }
+
+    /**
+     * Stops the rebuild thread on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (rebuildExecutor instanceof ExecutorService) {
+            ((ExecutorService) rebuildExecutor).shutdownNow();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} suggestions for a partial name.
+     *
+     * @param query the typed text, case-insensitive
+     * @param limit maximum number of suggestions
+     * @return suggestions, best first
+     */
+    public List<IngredientSuggestionDto> suggest(final String query,
+                                                 final int limit) {
+        final String q = query == null ? "" : normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        final Index index = current.get();
+        final TopMatches top = new TopMatches(limit);
+        index.prefixMatches(q, top);
+        if (!top.isFull() && q.length() >= MIN_FUZZY_LENGTH) {
+            index.fuzzyMatches(q, top);
+        }
+        final List<IngredientSuggestionDto> suggestions = new ArrayList<>();
+        for (int i = 0; i < top.size(); i++) {
+            suggestions.add(index.toSuggestion(top.get(i)));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Checks whether the dictionary changed or the counts expired.
+     *
+     * @param index the index
+     * @return true if the index should be rebuilt
+     */
+    private boolean isStale(final Index index) {
+        return index.dictionaryVersion != dictionary.getVersion()
+                || nanoTime.getAsLong() - index.usageLoadedAt
+                        > usageRefreshNanos;
+    }
+
+    /**
+     * Builds a new index from the dictionary.
+     *
+     * @param previous the previous index, whose recipe counts are reused
+     *                 while fresh; may be null
+     * @return the index
+     */
+    private Index build(final Index previous) {
+        final long start = nanoTime.getAsLong();
+        final long version = dictionary.getVersion();
+        final Map<String, Long> usage;
+        final long usageLoadedAt;
+        if (previous != null
+                && start - previous.usageLoadedAt <= usageRefreshNanos) {
+            usage = previous.usage;
+            usageLoadedAt = previous.usageLoadedAt;
+        } else {
+            usage = loadUsage();
+            usageLoadedAt = start;
+        }
+        final Index index = new Index(dictionary.entries(), usage, version,
+                usageLoadedAt);
+        LOGGER.debug("Built autocomplete index of {} ingredients in {} ms",
+                index.entries.length, TimeUnit.NANOSECONDS.toMillis(
+                        nanoTime.getAsLong() - start));
+        return index;
+    }
+
+    /**
+     * Loads the number of recipes per ingredient.
+     *
+     * @return counts keyed by normalized name; empty if loading fails
+     */
+    private Map<String, Long> loadUsage() {
+        final Map<String, Long> usage = new HashMap<>();
+        try {
+            for (Object[] row
+                    : recipeIngredientRepository.countRecipesPerIngredient()) {
+                if (row[0] != null) {
+                    usage.merge(normalize((String) row[0]),
+                            ((Number) row[1]).longValue(), Long::sum);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not load ingredient usage counts: {}",
+                    e.getMessage());
+        }
+        return usage;
+    }
+
+    /**
+     * Normalizes a name or query: trimmed, lower-cased, single spaces.
+     *
+     * @param value the raw text
+     * @return the normalized text
+     */
+    private static String normalize(final String value) {
+        return IngredientNutritionDictionary.normalize(value)
+                .replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Adds the trigrams of a word-start-marked text to a set.
+     *
+     * @param text  the normalized text
+     * @param grams receives the trigrams
+     */
+    private static void addGrams(final String text, final Set<String> grams) {
+        final String marked = WORD_START + text.replace(" ", " " + WORD_START);
+        for (int i = 0; i + GRAM <= marked.length(); i++) {
+            grams.add(marked.substring(i, i + GRAM));
+        }
+    }
+
+    /**
+     * Edit distance (insertions, deletions, substitutions, adjacent
+     * transpositions) between the query and the closest prefix of the
+     * text starting at {@code from}, giving up above {@code max}.
+     *
+     * @param q    the query
+     * @param text the normalized name
+     * @param from start of the word to compare against
+     * @param max  largest distance of interest
+     * @return the distance, or {@code max + 1} if larger
+     */
+    static int prefixDistance(final String q, final String text,
+                              final int from, final int max) {
+        final int m = q.length();
+        final int n = Math.min(text.length() - from, m + max);
+        if (n < m - max) {
+            return max + 1;
+        }
+        final int[][] d = new int[m + 1][n + 1];
+        for (int i = 0; i <= m; i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= n; j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= m; i++) {
+            for (int j = 1; j <= n; j++) {
+                final int cost =
+                        q.charAt(i - 1) == text.charAt(from + j - 1) ? 0 : 1;
+                int best = Math.min(d[i - 1][j - 1] + cost,
+                        Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+                if (i > 1 && j > 1
+                        && q.charAt(i - 1) == text.charAt(from + j - 2)
+                        && q.charAt(i - 2) == text.charAt(from + j - 1)) {
+                    best = Math.min(best, d[i - 2][j - 2] + 1);
+                }
+                d[i][j] = best;
+            }
+        }
+        int distance = max + 1;
+        for (int j = 0; j <= n; j++) {
+            distance = Math.min(distance, d[m][j]);
+        }
+        return distance;
+    }
+
+    /**
+     * The best matches of one query, kept sorted. A match is packed into
+     * a long as (kind, edit distance, static rank of the ingredient), so
+     * smaller is better and the low bits identify the ingredient.
+     */
+    private static final class TopMatches {
+
+        /** Bits holding the static rank. */
+        private static final int RANK_BITS = 32;
+
+        /** Bits holding the edit distance. */
+        private static final int DISTANCE_BITS = 8;
+
+        /** Mask of the static rank. */
+        private static final long RANK_MASK = (1L << RANK_BITS) - 1;
+
+        /** Packed matches, ascending. */
+        private final long[] matches;
+
+        /** Number of matches held. */
+        private int count;
+
+        /**
+         * Creates an empty selection.
+         *
+         * @param limit number of matches to keep
+         */
+        TopMatches(final int limit) {
+            this.matches = new long[limit];
+        }
+
+        /**
+         * Offers a match, keeping the better one per ingredient.
+         *
+         * @param kind     match kind
+         * @param distance edit distance
+         * @param rank     static rank of the ingredient
+         */
+        void offer(final int kind, final int distance, final int rank) {
+            final long packed = ((long) kind << (RANK_BITS + DISTANCE_BITS))
+                    | ((long) distance << RANK_BITS) | rank;
+            if (count == matches.length && packed >= matches[count - 1]) {
+                return;
+            }
+            for (int i = 0; i < count; i++) {
+                if ((matches[i] & RANK_MASK) == rank) {
+                    if (matches[i] <= packed) {
+                        return;
+                    }
+                    System.arraycopy(matches, i + 1, matches, i,
+                            count - i - 1);
+                    count--;
+                    break;
+                }
+            }
+            if (count == matches.length) {
+                // drop the worst match
+                count--;
+            }
+            int i = count;
+            while (i > 0 && matches[i - 1] > packed) {
+                matches[i] = matches[i - 1];
+                i--;
+            }
+            matches[i] = packed;
+            count++;
+        }
+
+        /**
+         * Appends a match known to be worse than every held match and
+         * of a different ingredient.
+         *
+         * @param packed the match
+         */
+        void add(final long packed) {
+            matches[count++] = packed;
+        }
+
+        /**
+         * Checks whether the ingredient is among the matches.
+         *
+         * @param rank static rank of the ingredient
+         * @return true if present
+         */
+        boolean contains(final int rank) {
+            for (int i = 0; i < count; i++) {
+                if ((matches[i] & RANK_MASK) == rank) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the number of matches kept.
+         *
+         * @return the limit
+         */
+        int capacity() {
+            return matches.length;
+        }
+
+        /**
+         * Checks whether the selection holds {@code limit} matches.
+         *
+         * @return true if full
+         */
+        boolean isFull() {
+            return count == matches.length;
+        }
+
+        /**
+         * Returns the number of matches.
+         *
+         * @return the count
+         */
+        int size() {
+            return count;
+        }
+
+        /**
+         * Returns a match.
+         *
+         * @param i position, best first
+         * @return the packed match
+         */
+        long get(final int i) {
+            return matches[i];
+        }
+
+        /**
+         * Unpacks the static rank.
+         *
+         * @param packed the match
+         * @return the rank
+         */
+        static int rank(final long packed) {
+            return (int) (packed & RANK_MASK);
+        }
+
+        /**
+         * Unpacks the match kind.
+         *
+         * @param packed the match
+         * @return the kind
+         */
+        static int kind(final long packed) {
+            return (int) (packed >>> (RANK_BITS + DISTANCE_BITS));
+        }
+    }
+
+    /**
+     * Immutable search structures for one dictionary version.
+     */
+    private static final class Index {
+
+        /** Indexed ingredients. */
+        private final IngredientNutritionSnapshot[] entries;
+
+        /** Normalized names, parallel to {@link #entries}. */
+        private final String[] names;
+
+        /** Recipe counts, parallel to {@link #entries}. */
+        private final long[] recipeCounts;
+
+        /**
+         * Static rank of each entry: verified first, most recipes first,
+         * then shorter and alphabetically earlier names.
+         */
+        private final int[] ranks;
+
+        /** Entry of each rank. */
+        private final int[] byRank;
+
+        /** Sorted name and word-suffix keys. */
+        private final String[] keys;
+
+        /** Entry of each key, parallel to {@link #keys}. */
+        private final int[] keyEntries;
+
+        /** Trigram to entries containing it. */
+        private final Map<String, int[]> grams;
+
+        /** Recipe counts keyed by normalized name. */
+        private final Map<String, Long> usage;
+
+        /** Best matches of wide prefix ranges, by query. */
+        private final Map<String, TopMatches> wideRanges =
+                new ConcurrentHashMap<>();
+
+        /** Dictionary version the index was built from. */
+        private final long dictionaryVersion;
+
+        /** When the recipe counts were loaded. */
+        private final long usageLoadedAt;
+
+        /**
+         * Builds the index.
+         *
+         * @param source     the ingredients
+         * @param counts     recipe counts keyed by normalized name
+         * @param version    dictionary version
+         * @param countsTime when the counts were loaded
+         */
+        Index(final Iterable<IngredientNutritionSnapshot> source,
+              final Map<String, Long> counts, final long version,
+              final long countsTime) {
+            final List<IngredientNutritionSnapshot> list = new ArrayList<>();
+            for (IngredientNutritionSnapshot entry : source) {
+                if (entry.getIngredientName() != null
+                        && !entry.getIngredientName().isBlank()) {
+                    list.add(entry);
+                }
+            }
+            this.entries = list.toArray(new IngredientNutritionSnapshot[0]);
+            this.names = new String[entries.length];
+            this.recipeCounts = new long[entries.length];
+            this.usage = counts;
+            this.dictionaryVersion = version;
+            this.usageLoadedAt = countsTime;
+
+            final List<String> keyList = new ArrayList<>();
+            final List<Integer> keyOwners = new ArrayList<>();
+            final Map<String, List<Integer>> postings = new HashMap<>();
+            final Set<String> entryGrams = new LinkedHashSet<>();
+            for (int e = 0; e < entries.length; e++) {
+                final String name = normalize(entries[e].getIngredientName());
+                names[e] = name;
+                recipeCounts[e] = counts.getOrDefault(name, 0L);
+                keyList.add(name);
+                keyOwners.add(e);
+                for (int i = name.indexOf(' '); i >= 0;
+                        i = name.indexOf(' ', i + 1)) {
+                    keyList.add(name.substring(i + 1));
+                    keyOwners.add(e);
+                }
+                entryGrams.clear();
+                addGrams(name, entryGrams);
+                for (String gram : entryGrams) {
+                    postings.computeIfAbsent(gram, g -> new ArrayList<>())
+                            .add(e);
+                }
+            }
+
+            final Integer[] keyOrder = sequence(keyList.size());
+            Arrays.sort(keyOrder, Comparator.comparing(keyList::get));
+            this.keys = new String[keyOrder.length];
+            this.keyEntries = new int[keyOrder.length];
+            for (int i = 0; i < keyOrder.length; i++) {
+                keys[i] = keyList.get(keyOrder[i]);
+                keyEntries[i] = keyOwners.get(keyOrder[i]);
+            }
+
+            final Integer[] rankOrder = sequence(entries.length);
+            Arrays.sort(rankOrder, Comparator.<Integer, Boolean>comparing(
+                            e -> !Boolean.TRUE.equals(
+                                    entries[e].getIsVerified()))
+                    .thenComparing(Comparator.<Integer>comparingLong(
+                            e -> recipeCounts[e]).reversed())
+                    .thenComparingInt(e -> names[e].length())
+                    .thenComparing(e -> names[e]));
+            this.ranks = new int[entries.length];
+            this.byRank = new int[entries.length];
+            for (int r = 0; r < rankOrder.length; r++) {
+                byRank[r] = rankOrder[r];
+                ranks[rankOrder[r]] = r;
+            }
+
+            this.grams = new HashMap<>(postings.size() * 2);
+            postings.forEach((gram, owners) -> grams.put(gram,
+                    owners.stream().mapToInt(Integer::intValue).toArray()));
+
+            for (int length = 1; length <= PRECOMPUTED_PREFIX_LENGTH;
+                    length++) {
+                rankShortPrefixes(length);
+            }
+        }
+
+        /**
+         * Ranks the best matches of every wide range of keys sharing a
+         * prefix of the given length.
+         *
+         * @param length the prefix length
+         */
+        private void rankShortPrefixes(final int length) {
+            int i = 0;
+            while (i < keys.length) {
+                if (keys[i].length() < length) {
+                    i++;
+                    continue;
+                }
+                final String prefix = keys[i].substring(0, length);
+                final int to = lowerBound(prefix + Character.MAX_VALUE);
+                if (to - i > WIDE_RANGE) {
+                    final TopMatches matches = new TopMatches(CACHED_MATCHES);
+                    scanPrefix(prefix, i, to, matches);
+                    wideRanges.put(prefix, matches);
+                }
+                i = to;
+            }
+        }
+
+        /**
+         * Offers the entries with a name or word starting with the query.
+         * The best matches of wide ranges are computed once and cached.
+         *
+         * @param q   the normalized query
+         * @param top receives the matches
+         */
+        void prefixMatches(final String q, final TopMatches top) {
+            final int from = lowerBound(q);
+            final int to = lowerBound(q + Character.MAX_VALUE);
+            if (to - from <= WIDE_RANGE || top.capacity() > CACHED_MATCHES) {
+                scanPrefix(q, from, to, top);
+                return;
+            }
+            final TopMatches best = wideRanges.computeIfAbsent(q, key -> {
+                final TopMatches matches = new TopMatches(CACHED_MATCHES);
+                scanPrefix(key, from, to, matches);
+                return matches;
+            });
+            for (int i = 0; i < best.size() && !top.isFull(); i++) {
+                top.add(best.get(i));
+            }
+        }
+
+        /**
+         * Offers the entries of a range of prefix keys.
+         *
+         * @param q    the normalized query
+         * @param from first key starting with the query
+         * @param to   end of the keys starting with the query
+         * @param top  receives the matches
+         */
+        private void scanPrefix(final String q, final int from, final int to,
+                                final TopMatches top) {
+            for (int i = from; i < to; i++) {
+                final int e = keyEntries[i];
+                if (keys[i].length() == names[e].length()) {
+                    top.offer(NAME_PREFIX, 0, ranks[e]);
+                } else if (!names[e].startsWith(q)) {
+                    top.offer(WORD_PREFIX, 0, ranks[e]);
+                }
+            }
+        }
+
+        /**
+         * Offers entries within a small edit distance of the query,
+         * found through shared trigrams.
+         *
+         * @param q   the normalized query
+         * @param top receives the matches; holds every prefix match
+         */
+        void fuzzyMatches(final String q, final TopMatches top) {
+            final int maxEdits = q.length() <= ONE_EDIT_MAX_LENGTH ? 1 : 2;
+            final Set<String> queryGrams = new LinkedHashSet<>();
+            addGrams(q, queryGrams);
+            int postings = 0;
+            final List<int[]> owners = new ArrayList<>();
+            for (String gram : queryGrams) {
+                final int[] list = grams.get(gram);
+                if (list != null) {
+                    owners.add(list);
+                    postings += list.length;
+                }
+            }
+            int[] counts = GRAM_COUNTS.get();
+            if (counts.length < entries.length) {
+                counts = new int[entries.length];
+                GRAM_COUNTS.set(counts);
+            }
+            final int[] touched = new int[postings];
+            int touchedCount = 0;
+            for (int[] list : owners) {
+                for (int e : list) {
+                    if (counts[e]++ == 0) {
+                        touched[touchedCount++] = e;
+                    }
+                }
+            }
+            // each edit destroys at most GRAM query trigrams
+            final int minShared = Math.max(1,
+                    queryGrams.size() - maxEdits * GRAM);
+            final long[] candidates = new long[touchedCount];
+            int candidateCount = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                final int e = touched[i];
+                final int shared = counts[e];
+                counts[e] = 0;
+                if (shared >= minShared && !top.contains(ranks[e])) {
+                    // most shared trigrams, then best rank, first
+                    candidates[candidateCount++] =
+                            ((long) -shared << Integer.SIZE) | ranks[e];
+                }
+            }
+            Arrays.sort(candidates, 0, candidateCount);
+            final int checked = Math.min(MAX_FUZZY_CANDIDATES, candidateCount);
+            for (int i = 0; i < checked; i++) {
+                final int rank = (int) candidates[i];
+                final int distance =
+                        wordDistance(q, names[byRank[rank]], maxEdits);
+                if (distance <= maxEdits) {
+                    top.offer(FUZZY, distance, rank);
+                }
+            }
+        }
+
+        /**
+         * Returns the smallest prefix distance of the query to the name
+         * or any of its later words.
+         *
+         * @param q        the normalized query
+         * @param name     the normalized name
+         * @param maxEdits largest distance of interest
+         * @return the distance, or {@code maxEdits + 1} if larger
+         */
+        private static int wordDistance(final String q, final String name,
+                                        final int maxEdits) {
+            int best = prefixDistance(q, name, 0, maxEdits);
+            for (int i = name.indexOf(' '); i >= 0 && best > 0;
+                    i = name.indexOf(' ', i + 1)) {
+                best = Math.min(best,
+                        prefixDistance(q, name, i + 1, maxEdits));
+            }
+            return best;
+        }
+
+        /**
+         * Converts a packed match to a suggestion.
+         *
+         * @param packed the match
+         * @return the suggestion
+         */
+        IngredientSuggestionDto toSuggestion(final long packed) {
+            final int e = byRank[TopMatches.rank(packed)];
+            final IngredientNutritionSnapshot entry = entries[e];
+            return new IngredientSuggestionDto(entry.getIngredientId(),
+                    entry.getIngredientName(), entry.getIngredientCategory(),
+                    Boolean.TRUE.equals(entry.getIsVerified()),
+                    recipeCounts[e], TopMatches.kind(packed) == FUZZY);
+        }
+
+        /**
+         * Finds the first key not less than the query.
+         *
+         * @param q the normalized query
+         * @return the insertion point
+         */
+        private int lowerBound(final String q) {
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                final int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(q) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Returns 0 to n - 1, boxed for sorting with a comparator.
+         *
+         * @param n the length
+         * @return the sequence
+         */
+        private static Integer[] sequence(final int n) {
+            final Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = i;
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,594 @@
+package com.example.nutriflow.ingredient.service;
+
+import com.example.nutriflow.ingredient.dto.IngredientBulkUpsertResultDto;
+import com.example.nutriflow.ingredient.model.IngredientChangedEvent;
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.model.IngredientNutritionSnapshot;
+import com.example.nutriflow.ingredient.model.Nutrient;
+import com.example.nutriflow.recipe.service.RecipeNutritionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service for bulk-loading ingredient nutrition data, e.g. a USDA
+ * extract. Records are upserted in chunks, each one multi-row
+ * {@code INSERT ... ON CONFLICT (ingredient_name) DO UPDATE} statement
+ * committed on its own. An update only overwrites the fields a record
+ * provides ({@code COALESCE}), like
+ * {@link IngredientNutritionService#saveIngredient}; names match
+ * existing ingredients case-insensitively, and when several records
+ * share a name the last one wins. Records without calories go through
+ * a second statement per chunk that inserts the column default and
+ * keeps the stored value on update. Recipes using the upserted
+ * ingredients are recomputed once at the end.
+ *
+ * Once a chunk commits, the changes of its rows are delivered as one
+ * batch event; with the change outbox enabled the chunk also writes its
+ * outbox rows in the same transaction.
+ */
+@Service
+public class IngredientBulkUpsertService {
+
+    /** Logger for this service. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(IngredientBulkUpsertService.class);
+
+    /** Maximum number of validation errors echoed back to the caller. */
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    /**
+     * Largest chunk; keeps the bind parameters of one statement below
+     * the PostgreSQL limit of 65535.
+     */
+    private static final int MAX_CHUNK_SIZE = 2000;
+
+    /** Maximum ingredient name length (VARCHAR(255)). */
+    private static final int MAX_NAME_LENGTH = 255;
+
+    /** Maximum category length (VARCHAR(100)). */
+    private static final int MAX_CATEGORY_LENGTH = 100;
+
+    /** Maximum unit length (VARCHAR(50)). */
+    private static final int MAX_UNIT_LENGTH = 50;
+
+    /** Maximum source length (VARCHAR(255)). */
+    private static final int MAX_SOURCE_LENGTH = 255;
+
+    /** Largest calorie value that fits in DECIMAL(7,2). */
+    private static final BigDecimal MAX_CALORIES = new BigDecimal("99999.99");
+
+    /** Largest other nutrient value that fits in DECIMAL(6,2). */
+    private static final BigDecimal MAX_NUTRIENT = new BigDecimal("9999.99");
+
+    /** Largest density that fits in DECIMAL(6,3). */
+    private static final BigDecimal MAX_DENSITY = new BigDecimal("999.999");
+
+    /** Largest piece weight that fits in DECIMAL(7,2). */
+    private static final BigDecimal MAX_PIECE_WEIGHT =
+            new BigDecimal("99999.99");
+
+    /** Inserted columns, in bind order; nutrients in enum order. */
+    private static final String[] COLUMNS = {
+        "ingredient_name", "ingredient_category",
+        "calories", "protein", "carbohydrates", "fat", "fiber",
+        "iron", "calcium", "vitamin_a", "vitamin_c", "vitamin_d",
+        "sodium", "potassium",
+        "unit", "density_g_per_ml", "grams_per_piece",
+        "description", "source", "is_verified",
+        "created_at", "updated_at", "created_by", "updated_by"};
+
+    /** Position of the calories column in {@link #COLUMNS}. */
+    private static final int CALORIES_COLUMN = 2;
+
+    /** Columns an update only overwrites when the record provides them. */
+    private static final String[] MERGED_COLUMNS = {
+        "ingredient_category",
+        "calories", "protein", "carbohydrates", "fat", "fiber",
+        "iron", "calcium", "vitamin_a", "vitamin_c", "vitamin_d",
+        "sodium", "potassium",
+        "unit", "density_g_per_ml", "grams_per_piece",
+        "description", "source"};
+
+    /** Statement head, before the VALUES rows. */
+    private static final String INSERT_SQL =
+            "INSERT INTO nutriflow.ingredient_nutrition AS i ("
+            + String.join(", ", COLUMNS) + ") VALUES ";
+
+    /** One VALUES row of bind parameters. */
+    private static final String ROW_SQL = rowSql(true);
+
+    /** One VALUES row of a record without calories. */
+    private static final String ROW_SQL_NO_CALORIES = rowSql(false);
+
+    /** Conflict clause; reports whether each row was inserted. */
+    private static final String CONFLICT_SQL = conflictSql(true);
+
+    /** Conflict clause of records without calories. */
+    private static final String CONFLICT_SQL_NO_CALORIES = conflictSql(false);
+
+    /** Writes one change outbox row. */
+    private static final String OUTBOX_SQL =
+            "INSERT INTO nutriflow.ingredient_change_outbox (change_type, "
+            + "ingredient_id, ingredient_name, changed_at, origin) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    /** Source of pooled JDBC connections. */
+    private final DataSource dataSource;
+
+    /** In-memory catalog, updated with every upserted row. */
+    private final IngredientNutritionDictionary dictionary;
+
+    /** Recomputes the recipes using upserted ingredients. */
+    private final RecipeNutritionService recipeNutritionService;
+
+    /** Announces the upserted ingredients. */
+    private final IngredientChangePublisher changePublisher;
+
+    /** Number of records per statement/commit. */
+    private final int chunkSize;
+
+    /**
+     * Creates the service.
+     *
+     * @param upsertDataSource the application data source
+     * @param ingredients      the ingredient dictionary
+     * @param recipeNutrition  recipe nutrition service
+     * @param publisher        ingredient change publisher
+     * @param upsertChunkSize  records per statement, at most 2000
+     */
+    public IngredientBulkUpsertService(
+            final DataSource upsertDataSource,
+            final IngredientNutritionDictionary ingredients,
+            final RecipeNutritionService recipeNutrition,
+            final IngredientChangePublisher publisher,
+            final @Value("${nutriflow.ingredients.bulk.chunk-size:1000}")
+            int upsertChunkSize) {
+        this.dataSource = upsertDataSource;
+        this.dictionary = ingredients;
+        this.recipeNutritionService = recipeNutrition;
+        this.changePublisher = publisher;
+        this.chunkSize = Math.max(1, Math.min(MAX_CHUNK_SIZE,
+                upsertChunkSize));
+    }
+
+    /**
+     * Inserts new ingredients and updates existing ones by name.
+     *
+     * @param records   the ingredients; IDs are ignored
+     * @param updatedBy the user or system performing the load
+     * @return upsert summary
+     * @throws IllegalArgumentException if there are no records
+     * @throws IllegalStateException    if writing a chunk fails; earlier
+     *                                  chunks stay committed
+     */
+    public IngredientBulkUpsertResultDto upsert(
+            final List<IngredientNutrition> records,
+            final String updatedBy) {
+        if (records == null || records.isEmpty()) {
+            throw new IllegalArgumentException("No ingredients to upsert");
+        }
+
+        final IngredientBulkUpsertResultDto result =
+                new IngredientBulkUpsertResultDto();
+        // a statement cannot update the same row twice, so keep one
+        // record per name; the later record replaces the earlier one
+        final Map<String, IngredientNutrition> byName = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            final IngredientNutrition record = records.get(i);
+            final String error = prepare(record);
+            if (error != null) {
+                reject(result, i + 1, error);
+            } else if (byName.put(IngredientNutritionDictionary.normalize(
+                    record.getIngredientName()), record) != null) {
+                result.setDuplicateRecords(result.getDuplicateRecords() + 1);
+            }
+        }
+
+        final Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        final List<IngredientNutrition> chunk = new ArrayList<>();
+        final Set<String> changedNames = new LinkedHashSet<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                for (IngredientNutrition record : byName.values()) {
+                    if (chunk.size() >= chunkSize) {
+                        writeChunk(connection, chunk, updatedBy, now,
+                                result, changedNames);
+                        chunk.clear();
+                    }
+                    chunk.add(record);
+                }
+                if (!chunk.isEmpty()) {
+                    writeChunk(connection, chunk, updatedBy, now, result,
+                            changedNames);
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            final int written = result.getInserted() + result.getUpdated();
+            LOGGER.error("Ingredient upsert failed after {} ingredients: {}",
+                    written, e.getMessage());
+            throw new IllegalStateException("Ingredient upsert failed after "
+                    + written + " ingredients: " + e.getMessage(), e);
+        }
+
+        if (!changedNames.isEmpty()) {
+            result.setRecipesUpdated(recipeNutritionService
+                    .recomputeForIngredients(changedNames)
+                    .getRecipesUpdated());
+        }
+        LOGGER.info("Upserted ingredients: {} inserted, {} updated, "
+                + "{} rejected, {} duplicates, {} recipes recomputed",
+                result.getInserted(), result.getUpdated(),
+                result.getRejectedRecords(), result.getDuplicateRecords(),
+                result.getRecipesUpdated());
+        return result;
+    }
+
+    /**
+     * Validates a record and resolves its name to the stored spelling of
+     * an existing ingredient.
+     *
+     * @param record the record, updated in place
+     * @return the problem, or null if the record can be written
+     */
+    private String prepare(final IngredientNutrition record) {
+        if (record == null) {
+            return "empty record";
+        }
+        final String name = record.getIngredientName();
+        if (name == null || name.isBlank()) {
+            return "ingredientName is required";
+        }
+        if (name.trim().length() > MAX_NAME_LENGTH) {
+            return "ingredientName is longer than " + MAX_NAME_LENGTH;
+        }
+        // the conflict target is the exact name, so use the stored
+        // spelling; the values themselves are merged by the statement
+        record.setIngredientName(dictionary.get(name)
+                .map(IngredientNutritionSnapshot::getIngredientName)
+                .orElse(name.trim()));
+
+        for (Nutrient nutrient : Nutrient.values()) {
+            final String error = checkRange(
+                    nutrient.getFieldName(),
+                    nutrient.per100g(record), nutrient == Nutrient.CALORIES
+                            ? MAX_CALORIES : MAX_NUTRIENT);
+            if (error != null) {
+                return error;
+            }
+        }
+        final String density = checkRange("density",
+                record.getDensity(), MAX_DENSITY);
+        if (density != null) {
+            return density;
+        }
+        final String pieceWeight = checkRange("pieceWeight",
+                record.getPieceWeight(), MAX_PIECE_WEIGHT);
+        if (pieceWeight != null) {
+            return pieceWeight;
+        }
+        if (tooLong(record.getIngredientCategory(), MAX_CATEGORY_LENGTH)
+                || tooLong(record.getUnit(), MAX_UNIT_LENGTH)
+                || tooLong(record.getSource(), MAX_SOURCE_LENGTH)) {
+            return "ingredientCategory, unit or source is too long";
+        }
+        return null;
+    }
+
+    /**
+     * Writes one chunk, commits it and applies it to the dictionary.
+     * Records with and without calories are written by separate
+     * statements in the same transaction.
+     *
+     * @param connection   the open connection
+     * @param chunk        validated records with distinct names
+     * @param updatedBy    the user or system performing the load
+     * @param now          timestamp of the load
+     * @param result       summary to update
+     * @param changedNames receives the names of the written ingredients
+     * @throws SQLException on database errors
+     */
+    private void writeChunk(
+            final Connection connection,
+            final List<IngredientNutrition> chunk,
+            final String updatedBy,
+            final Timestamp now,
+            final IngredientBulkUpsertResultDto result,
+            final Set<String> changedNames) throws SQLException {
+
+        final List<IngredientNutrition> withCalories = new ArrayList<>();
+        final List<IngredientNutrition> withoutCalories = new ArrayList<>();
+        for (IngredientNutrition record : chunk) {
+            (record.getCalories() != null ? withCalories : withoutCalories)
+                    .add(record);
+        }
+        final List<IngredientNutrition> saved = new ArrayList<>(chunk.size());
+        final List<IngredientChangedEvent> events =
+                new ArrayList<>(chunk.size());
+        upsertRows(connection, withCalories, true, updatedBy, now, result,
+                saved, events);
+        upsertRows(connection, withoutCalories, false, updatedBy, now,
+                result, saved, events);
+        if (changePublisher.isOutboxEnabled()) {
+            writeOutbox(connection, events);
+        }
+        connection.commit();
+
+        for (IngredientNutrition ingredient : saved) {
+            dictionary.put(ingredient);
+            changedNames.add(ingredient.getIngredientName());
+        }
+        changePublisher.deliverAll(events);
+        LOGGER.info("Upserted chunk of {} ingredients", chunk.size());
+    }
+
+    /**
+     * Runs one upsert statement for records that all have, or all lack,
+     * calories.
+     *
+     * @param connection the open connection
+     * @param rows       the records; nothing is written if empty
+     * @param calories   whether the records provide calories
+     * @param updatedBy  the user or system performing the load
+     * @param now        timestamp of the load
+     * @param result     summary to update
+     * @param saved      receives the written rows
+     * @param events     receives the change of each written row
+     * @throws SQLException on database errors
+     */
+    private void upsertRows(
+            final Connection connection,
+            final List<IngredientNutrition> rows,
+            final boolean calories,
+            final String updatedBy,
+            final Timestamp now,
+            final IngredientBulkUpsertResultDto result,
+            final List<IngredientNutrition> saved,
+            final List<IngredientChangedEvent> events) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                upsertSql(rows.size(), calories))) {
+            int p = 1;
+            for (IngredientNutrition record : rows) {
+                statement.setString(p++, record.getIngredientName());
+                statement.setString(p++, record.getIngredientCategory());
+                for (Nutrient nutrient : Nutrient.values()) {
+                    if (calories || nutrient != Nutrient.CALORIES) {
+                        statement.setBigDecimal(p++,
+                                nutrient.per100g(record));
+                    }
+                }
+                statement.setString(p++, record.getUnit());
+                statement.setBigDecimal(p++, record.getDensity());
+                statement.setBigDecimal(p++, record.getPieceWeight());
+                statement.setString(p++, record.getDescription());
+                statement.setString(p++, record.getSource());
+                statement.setBoolean(p++,
+                        Boolean.TRUE.equals(record.getIsVerified()));
+                statement.setTimestamp(p++, now);
+                statement.setTimestamp(p++, now);
+                statement.setString(p++, updatedBy);
+                statement.setString(p++, updatedBy);
+            }
+            try (ResultSet written = statement.executeQuery()) {
+                while (written.next()) {
+                    final boolean inserted = written.getBoolean("inserted");
+                    if (inserted) {
+                        result.setInserted(result.getInserted() + 1);
+                    } else {
+                        result.setUpdated(result.getUpdated() + 1);
+                    }
+                    final IngredientNutrition row = readRow(written);
+                    saved.add(row);
+                    events.add(changePublisher.event(inserted
+                                    ? IngredientChangedEvent.Type.CREATED
+                                    : IngredientChangedEvent.Type.UPDATED,
+                            row.getIngredientId(), row.getIngredientName(),
+                            null));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the outbox rows of a chunk in its transaction.
+     *
+     * @param connection the open connection
+     * @param events     the chunk's changes
+     * @throws SQLException on database errors
+     */
+    private static void writeOutbox(final Connection connection,
+                                    final List<IngredientChangedEvent> events)
+            throws SQLException {
+        try (PreparedStatement statement =
+                     connection.prepareStatement(OUTBOX_SQL)) {
+            for (IngredientChangedEvent event : events) {
+                statement.setString(1, event.getType().name());
+                statement.setInt(2, event.getIngredientId());
+                statement.setString(3, event.getIngredientName());
+                statement.setTimestamp(4,
+                        Timestamp.valueOf(event.getChangedAt()));
+                statement.setString(5, event.getOrigin());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Builds the upsert statement for a number of rows.
+     *
+     * @param rows     the number of VALUES rows
+     * @param calories whether the rows provide calories
+     * @return the SQL
+     */
+    private static String upsertSql(final int rows, final boolean calories) {
+        final String row = calories ? ROW_SQL : ROW_SQL_NO_CALORIES;
+        final StringBuilder sql = new StringBuilder(INSERT_SQL);
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append(row);
+        }
+        return sql.append(calories ? CONFLICT_SQL : CONFLICT_SQL_NO_CALORIES)
+                .toString();
+    }
+
+    /**
+     * Builds one VALUES row. Without calories the row inserts the column
+     * default, which satisfies NOT NULL before the conflict is resolved.
+     *
+     * @param calories whether the row binds calories
+     * @return the SQL
+     */
+    private static String rowSql(final boolean calories) {
+        final String[] values = new String[COLUMNS.length];
+        Arrays.fill(values, "?");
+        if (!calories) {
+            values[CALORIES_COLUMN] = "DEFAULT";
+        }
+        return "(" + String.join(", ", values) + ")";
+    }
+
+    /**
+     * Builds the conflict clause: provided values win, missing ones keep
+     * the stored value, and the creation fields are left alone.
+     *
+     * @param calories whether the rows provide calories; if not, the
+     *                 stored calories are kept
+     * @return the SQL
+     */
+    private static String conflictSql(final boolean calories) {
+        final StringBuilder sql = new StringBuilder(
+                " ON CONFLICT (ingredient_name) DO UPDATE SET ");
+        for (String column : MERGED_COLUMNS) {
+            if (!calories && "calories".equals(column)) {
+                continue;
+            }
+            sql.append(column).append(" = COALESCE(EXCLUDED.")
+                    .append(column).append(", i.").append(column)
+                    .append("), ");
+        }
+        return sql.append("updated_at = EXCLUDED.updated_at, ")
+                .append("updated_by = EXCLUDED.updated_by ")
+                .append("RETURNING (i.xmax = 0) AS inserted, i.*")
+                .toString();
+    }
+
+    /**
+     * Reads an upserted row.
+     *
+     * @param rows the result set, positioned on the row
+     * @return the ingredient
+     * @throws SQLException on database errors
+     */
+    private static IngredientNutrition readRow(final ResultSet rows)
+            throws SQLException {
+        final IngredientNutrition n = new IngredientNutrition();
+        n.setIngredientId(rows.getInt("ingredient_id"));
+        n.setIngredientName(rows.getString("ingredient_name"));
+        n.setIngredientCategory(rows.getString("ingredient_category"));
+        n.setCalories(rows.getBigDecimal("calories"));
+        n.setProtein(rows.getBigDecimal("protein"));
+        n.setCarbohydrates(rows.getBigDecimal("carbohydrates"));
+        n.setFat(rows.getBigDecimal("fat"));
+        n.setFiber(rows.getBigDecimal("fiber"));
+        n.setIron(rows.getBigDecimal("iron"));
+        n.setCalcium(rows.getBigDecimal("calcium"));
+        n.setVitaminA(rows.getBigDecimal("vitamin_a"));
+        n.setVitaminC(rows.getBigDecimal("vitamin_c"));
+        n.setVitaminD(rows.getBigDecimal("vitamin_d"));
+        n.setSodium(rows.getBigDecimal("sodium"));
+        n.setPotassium(rows.getBigDecimal("potassium"));
+        n.setUnit(rows.getString("unit"));
+        n.setDensity(rows.getBigDecimal("density_g_per_ml"));
+        n.setPieceWeight(rows.getBigDecimal("grams_per_piece"));
+        n.setDescription(rows.getString("description"));
+        n.setSource(rows.getString("source"));
+        n.setIsVerified(rows.getObject("is_verified", Boolean.class));
+        n.setCreatedAt(toLocalDateTime(rows.getTimestamp("created_at")));
+        n.setUpdatedAt(toLocalDateTime(rows.getTimestamp("updated_at")));
+        n.setCreatedBy(rows.getString("created_by"));
+        n.setUpdatedBy(rows.getString("updated_by"));
+        return n;
+    }
+
+    /**
+     * Converts a nullable timestamp.
+     *
+     * @param timestamp the timestamp, may be null
+     * @return the local date-time, or null
+     */
+    private static LocalDateTime toLocalDateTime(final Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    /**
+     * Checks that an optional value is between zero and a maximum.
+     *
+     * @param field the field name for the message
+     * @param value the value, may be null
+     * @param max   the largest allowed value
+     * @return the problem, or null if the value is valid
+     */
+    private static String checkRange(final String field,
+                                     final BigDecimal value,
+                                     final BigDecimal max) {
+        if (value != null
+                && (value.signum() < 0 || value.compareTo(max) > 0)) {
+            return field + " must be between 0 and " + max;
+        }
+        return null;
+    }
+
+    /**
+     * Checks an optional text against a column length.
+     *
+     * @param value the text, may be null
+     * @param max   the column length
+     * @return true if the text does not fit
+     */
+    private static boolean tooLong(final String value, final int max) {
+        return value != null && value.length() > max;
+    }
+
+    /**
+     * Counts a rejected record and reports its error while under the cap.
+     *
+     * @param result the summary
+     * @param index  one-based record index
+     * @param error  the problem
+     */
+    private static void reject(final IngredientBulkUpsertResultDto result,
+                               final int index, final String error) {
+        result.setRejectedRecords(result.getRejectedRecords() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add("record " + index + ": " + error);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.nutriflow.ingredient.service;
+
+import com.example.nutriflow.ingredient.dto.IngredientCategoryFacetDto;
+import com.example.nutriflow.ingredient.model.IngredientNutritionSnapshot;
+import com.example.nutriflow.shared.concurrent.RebuildableSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Category index over the ingredient dictionary: for every category the
+ * member entries sorted by ingredient ID, and the categories ordered by
+ * size for facet listings. Category names match exactly, as in
+ * {@code findByIngredientCategory}; ingredients without a category are
+ * not indexed.
+ *
+ * The index is immutable. A single-entry write is patched in by
+ * copying only the categories it leaves and enters; a reload, or a
+ * write that raced a rebuild, triggers a full rebuild on the next read,
+ * and reads arriving during a rebuild are answered from the previous
+ * index.
+ */
+@Component
+public class IngredientCategoryIndex {
+
+    /** Orders entries by ingredient ID. */
+    private static final Comparator<IngredientNutritionSnapshot> BY_ID =
+            Comparator.comparing(IngredientNutritionSnapshot::getIngredientId);
+
+    /** Source of the ingredients. */
+    private final IngredientNutritionDictionary dictionary;
+
+    /** Current index. */
+    private final RebuildableSnapshot<Index> current;
+
+    /**
+     * Creates the index.
+     *
+     * @param ingredients the ingredient dictionary
+     */
+    public IngredientCategoryIndex(
+            final IngredientNutritionDictionary ingredients) {
+        this.dictionary = ingredients;
+        this.current = new RebuildableSnapshot<>("category index",
+                previous -> build(),
+                index -> index.version != dictionary.getVersion());
+        ingredients.addListener(this::patch);
+    }
+
+    /**
+     * Lists the categories with their ingredient counts, largest first,
+     * then by name.
+     *
+     * @return the facets
+     */
+    public List<IngredientCategoryFacetDto> facets() {
+        final Index index = current.get();
+        final List<IngredientCategoryFacetDto> facets =
+                new ArrayList<>(index.categories.length);
+        for (String category : index.categories) {
+            facets.add(new IngredientCategoryFacetDto(category,
+                    index.members.get(category).length));
+        }
+        return facets;
+    }
+
+    /**
+     * Returns the number of ingredients in a category.
+     *
+     * @param category the category
+     * @return the count, 0 if unknown
+     */
+    public int count(final String category) {
+        return members(category).size();
+    }
+
+    /**
+     * Returns a range of the ingredients in a category, by ingredient ID.
+     *
+     * @param category the category
+     * @param offset   index of the first ingredient, zero or more
+     * @param limit    maximum number of ingredients, zero or more
+     * @return the entries; empty if the category is unknown or the range
+     *         starts past its end
+     */
+    public List<IngredientNutritionSnapshot> list(final String category,
+                                                  final int offset,
+                                                  final int limit) {
+        final List<IngredientNutritionSnapshot> members = members(category);
+        if (offset >= members.size()) {
+            return List.of();
+        }
+        final int end = (int) Math.min(members.size(),
+                (long) offset + limit);
+        return members.subList(offset, end);
+    }
+
+    /**
+     * Returns the ingredients in a category, by ingredient ID, all from
+     * one index version, so a count and a range taken from the result
+     * always agree.
+     *
+     * @param category the category
+     * @return a read-only view; empty if the category is unknown
+     */
+    public List<IngredientNutritionSnapshot> members(final String category) {
+        final IngredientNutritionSnapshot[] members =
+                current.get().members.get(category);
+        return members == null ? List.of()
+                : Collections.unmodifiableList(Arrays.asList(members));
+    }
+
+    /**
+     * Patches a single-entry dictionary change into the index, if the
+     * index is at the version just before it; otherwise the index stays
+     * stale and is rebuilt on the next read.
+     *
+     * @param previous the entry before the change, or null
+     * @param next     the entry after the change, or null
+     * @param version  the dictionary version after the change
+     */
+    private void patch(final IngredientNutritionSnapshot previous,
+                       final IngredientNutritionSnapshot next,
+                       final long version) {
+        current.update(index -> index.version + 1 == version
+                ? index.with(previous, next, version) : index);
+    }
+
+    /**
+     * Builds the index from the dictionary.
+     *
+     * @return the index
+     */
+    private Index build() {
+        final long version = dictionary.getVersion();
+        final Map<String, List<IngredientNutritionSnapshot>> grouped =
+                new HashMap<>();
+        for (IngredientNutritionSnapshot entry : dictionary.entries()) {
+            if (categorized(entry)) {
+                grouped.computeIfAbsent(entry.getIngredientCategory(),
+                        k -> new ArrayList<>()).add(entry);
+            }
+        }
+        final Map<String, IngredientNutritionSnapshot[]> members =
+                new HashMap<>(grouped.size() * 2);
+        for (Map.Entry<String, List<IngredientNutritionSnapshot>> group
+                : grouped.entrySet()) {
+            final IngredientNutritionSnapshot[] sorted = group.getValue()
+                    .toArray(new IngredientNutritionSnapshot[0]);
+            Arrays.sort(sorted, BY_ID);
+            members.put(group.getKey(), sorted);
+        }
+        return new Index(version, members);
+    }
+
+    /**
+     * Returns whether an entry belongs in the index.
+     *
+     * @param entry the entry, or null
+     * @return true if it has a category
+     */
+    private static boolean categorized(
+            final IngredientNutritionSnapshot entry) {
+        return entry != null && entry.getIngredientCategory() != null
+                && !entry.getIngredientCategory().isBlank();
+    }
+
+    /**
+     * Immutable category index for one dictionary version.
+     */
+    private static final class Index {
+
+        /** Dictionary version the index was built from. */
+        private final long version;
+
+        /** Categories, largest first. */
+        private final String[] categories;
+
+        /** Entries per category, sorted by ingredient ID. */
+        private final Map<String, IngredientNutritionSnapshot[]> members;
+
+        Index(final long dictionaryVersion,
+              final Map<String, IngredientNutritionSnapshot[]> byCategory) {
+            this.version = dictionaryVersion;
+            this.members = byCategory;
+            this.categories = byCategory.keySet().toArray(new String[0]);
+            Arrays.sort(categories, Comparator
+                    .comparingInt((String c) -> -byCategory.get(c).length)
+                    .thenComparing(Comparator.naturalOrder()));
+        }
+
+        /**
+         * Returns a copy with one entry replaced. Only the arrays of the
+         * categories the entry leaves and enters are copied.
+         *
+         * @param previous   the entry to remove, or null
+         * @param next       the entry to add, or null
+         * @param newVersion the dictionary version after the change
+         * @return the patched index
+         */
+        Index with(final IngredientNutritionSnapshot previous,
+                   final IngredientNutritionSnapshot next,
+                   final long newVersion) {
+            final Map<String, IngredientNutritionSnapshot[]> patched =
+                    new HashMap<>(members);
+            if (categorized(previous)) {
+                final String category = previous.getIngredientCategory();
+                final IngredientNutritionSnapshot[] without =
+                        without(patched.get(category), previous);
+                if (without.length == 0) {
+                    patched.remove(category);
+                } else {
+                    patched.put(category, without);
+                }
+            }
+            if (categorized(next)) {
+                final String category = next.getIngredientCategory();
+                patched.put(category, withEntry(patched.get(category), next));
+            }
+            return new Index(newVersion, patched);
+        }
+
+        /**
+         * Copies a member array without an entry.
+         *
+         * @param entries the members, or null
+         * @param entry   the entry to drop
+         * @return the remaining members
+         */
+        private static IngredientNutritionSnapshot[] without(
+                final IngredientNutritionSnapshot[] entries,
+                final IngredientNutritionSnapshot entry) {
+            if (entries == null) {
+                return new IngredientNutritionSnapshot[0];
+            }
+            final int at = Arrays.binarySearch(entries, entry, BY_ID);
+            if (at < 0) {
+                return entries;
+            }
+            final IngredientNutritionSnapshot[] copy =
+                    new IngredientNutritionSnapshot[entries.length - 1];
+            System.arraycopy(entries, 0, copy, 0, at);
+            System.arraycopy(entries, at + 1, copy, at, copy.length - at);
+            return copy;
+        }
+
+        /**
+         * Copies a member array with an entry added, replacing any entry
+         * with the same ID.
+         *
+         * @param entries the members, or null
+         * @param entry   the entry to add
+         * @return the members, sorted by ID
+         */
+        private static IngredientNutritionSnapshot[] withEntry(
+                final IngredientNutritionSnapshot[] entries,
+                final IngredientNutritionSnapshot entry) {
+            if (entries == null) {
+                return new IngredientNutritionSnapshot[] {entry};
+            }
+            final int at = Arrays.binarySearch(entries, entry, BY_ID);
+            if (at >= 0) {
+                final IngredientNutritionSnapshot[] copy = entries.clone();
+                copy[at] = entry;
+                return copy;
+            }
+            final int insert = -at - 1;
+            final IngredientNutritionSnapshot[] copy =
+                    new IngredientNutritionSnapshot[entries.length + 1];
+            System.arraycopy(entries, 0, copy, 0, insert);
+            copy[insert] = entry;
+            System.arraycopy(entries, insert, copy, insert + 1,
+                    entries.length - insert);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.nutriflow.ingredient.service;
+
+import com.example.nutriflow.ingredient.model.IngredientChangeOutboxEntry;
+import com.example.nutriflow.ingredient.model.IngredientChangedEvent;
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.repository.IngredientChangeOutboxRepository;
+import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the ingredient change outbox and applies changes made by
+ * other instances: the changed ingredients of each page are re-read by
+ * ID (one query) into the dictionary, or dropped from it, and the page
+ * is delivered to local listeners as one batch event, so their caches
+ * are invalidated seconds after the commit instead of at the next
+ * periodic reload. Changes made by this instance are skipped; they were
+ * applied when written.
+ *
+ * The follower starts at the end of the outbox and reads it in
+ * transaction order, up to the oldest transaction still in progress,
+ * so a transaction that commits late is still picked up. Only active
+ * when the outbox is enabled; it also deletes outbox entries older than
+ * the retention period.
+ */
+@Component
+public class IngredientChangeFollower {
+
+    /** Logger for this follower. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(IngredientChangeFollower.class);
+
+    /** Changes read per query. */
+    private static final int BATCH_SIZE = 500;
+
+    /** Minutes between outbox clean-ups. */
+    private static final long PRUNE_INTERVAL_MINUTES = 60;
+
+    /** Publishes and delivers change events. */
+    private final IngredientChangePublisher changePublisher;
+
+    /** Outbox repository. */
+    private final IngredientChangeOutboxRepository outboxRepository;
+
+    /** Source of changed ingredients. */
+    private final IngredientNutritionRepository ingredientRepository;
+
+    /** Dictionary kept coherent with other instances' writes. */
+    private final IngredientNutritionDictionary dictionary;
+
+    /** Seconds between polls. */
+    private final long pollSeconds;
+
+    /** Hours outbox entries are kept. */
+    private final long retentionHours;
+
+    /** Background poller; null when the outbox is disabled. */
+    private final ScheduledExecutorService poller;
+
+    /** Transaction of the last change read; -1 before the first poll. */
+    private volatile long cursorTx = -1;
+
+    /** ID of the last change read. */
+    private volatile long cursorChange;
+
+    /**
+     * Creates the follower.
+     *
+     * @param publisher   the change publisher
+     * @param outbox      the outbox repository
+     * @param ingredients the ingredient repository
+     * @param entries     the ingredient dictionary
+     * @param poll        seconds between polls, 0 to disable
+     * @param retention   hours outbox entries are kept
+     */
+    @Autowired
+    public IngredientChangeFollower(
+            final IngredientChangePublisher publisher,
+            final IngredientChangeOutboxRepository outbox,
+            final IngredientNutritionRepository ingredients,
+            final IngredientNutritionDictionary entries,
+            final @Value("${nutriflow.ingredients.outbox.poll-seconds:5}")
+            long poll,
+            final @Value(
+                    "${nutriflow.ingredients.outbox.retention-hours:168}")
+            long retention) {
+        this.changePublisher = publisher;
+        this.outboxRepository = outbox;
+        this.ingredientRepository = ingredients;
+        this.dictionary = entries;
+        this.pollSeconds = Math.max(0, poll);
+        this.retentionHours = Math.max(1, retention);
+        this.poller = !publisher.isOutboxEnabled() || pollSeconds == 0
+                ? null
+                : Executors.newSingleThreadScheduledExecutor(task -> {
+                    final Thread thread =
+                            new Thread(task, "ingredient-change-follower");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Starts polling once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (poller == null) {
+            return;
+        }
+        poller.scheduleWithFixedDelay(this::pollQuietly, 0, pollSeconds,
+                TimeUnit.SECONDS);
+        poller.scheduleWithFixedDelay(this::pruneQuietly,
+                PRUNE_INTERVAL_MINUTES, PRUNE_INTERVAL_MINUTES,
+                TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stops the poller on shutdown.
+     */
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the changes committed since the last poll and applies those
+     * of other instances. The first call only records the end of the
+     * outbox.
+     *
+     * @return the number of changes applied
+     */
+    public int poll() {
+        if (cursorTx < 0) {
+            // every change of an older transaction has been committed
+            cursorTx = outboxRepository.findOldestActiveTransaction() - 1;
+            cursorChange = Long.MAX_VALUE;
+            return 0;
+        }
+        int applied = 0;
+        List<IngredientChangeOutboxEntry> page;
+        do {
+            page = outboxRepository.findCommittedAfter(cursorTx,
+                    cursorChange, BATCH_SIZE);
+            final List<IngredientChangedEvent> remote = new ArrayList<>();
+            for (IngredientChangeOutboxEntry entry : page) {
+                cursorTx = entry.getTxId();
+                cursorChange = entry.getChangeId();
+                if (!changePublisher.getInstanceId()
+                        .equals(entry.getOrigin())) {
+                    remote.add(entry.toEvent());
+                }
+            }
+            apply(remote);
+            applied += remote.size();
+        } while (page.size() == BATCH_SIZE);
+        if (applied > 0) {
+            LOGGER.info("Applied {} ingredient changes from other instances",
+                    applied);
+        }
+        return applied;
+    }
+
+    /**
+     * Deletes outbox entries older than the retention period.
+     *
+     * @return the number of entries deleted
+     */
+    public int prune() {
+        return outboxRepository.deleteOlderThan(
+                LocalDateTime.now().minusHours(retentionHours));
+    }
+
+    /**
+     * Applies a page of changes from other instances and delivers them
+     * to local listeners as one batch.
+     *
+     * @param events the changes, in commit order
+     */
+    private void apply(final List<IngredientChangedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        // the rows may have changed again since; read their latest state
+        final Set<Integer> changedIds = new HashSet<>();
+        for (IngredientChangedEvent event : events) {
+            if (event.getType() != IngredientChangedEvent.Type.DELETED) {
+                changedIds.add(event.getIngredientId());
+            }
+        }
+        final Map<Integer, IngredientNutrition> latest = new HashMap<>();
+        if (!changedIds.isEmpty()) {
+            ingredientRepository.findAllById(changedIds).forEach(row ->
+                    latest.put(row.getIngredientId(), row));
+        }
+        for (IngredientChangedEvent event : events) {
+            final Integer id = event.getIngredientId();
+            final IngredientNutrition row =
+                    event.getType() == IngredientChangedEvent.Type.DELETED
+                            ? null : latest.get(id);
+            if (row == null) {
+                dictionary.remove(id);
+            } else {
+                dictionary.put(row);
+            }
+        }
+        changePublisher.deliverAll(events);
+    }
+
+    /**
+     * Polls from the background thread, logging failures.
+     */
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Ingredient change poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Prunes from the background thread, logging failures.
+     */
+    private void pruneQuietly() {
+        try {
+            final int deleted = prune();
+            LOGGER.info("Deleted {} old ingredient changes", deleted);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Ingredient change clean-up failed: {}",
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.nutriflow.ingredient.service;
+
+import com.example.nutriflow.ingredient.model.IngredientChangeBatchEvent;
+import com.example.nutriflow.ingredient.model.IngredientChangeOutboxEntry;
+import com.example.nutriflow.ingredient.model.IngredientChangedEvent;
+import com.example.nutriflow.ingredient.repository.IngredientChangeOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publishes {@link IngredientChangedEvent}s for ingredient writes.
+ *
+ * Events are Spring application events; listeners should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)} so they
+ * run once the writing transaction commits (and never after a
+ * rollback), or at once for writes made outside a transaction. When the
+ * outbox is enabled every event is also stored in
+ * {@code ingredient_change_outbox} within the writing transaction, for
+ * other instances ({@link IngredientChangeFollower}) and for consumers
+ * of the change feed. Changes applied together, such as a bulk upsert
+ * chunk, are delivered as one {@link IngredientChangeBatchEvent}.
+ */
+@Component
+public class IngredientChangePublisher {
+
+    /** Delivers events to in-process listeners. */
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Outbox repository. */
+    private final IngredientChangeOutboxRepository outboxRepository;
+
+    /** Whether events are also written to the outbox. */
+    private final boolean outboxEnabled;
+
+    /** Identifies this instance in the events it publishes. */
+    private final String instanceId;
+
+    /**
+     * Creates the publisher.
+     *
+     * @param publisher  the application event publisher
+     * @param outbox     the outbox repository
+     * @param useOutbox  whether to write events to the outbox
+     */
+    @Autowired
+    public IngredientChangePublisher(
+            final ApplicationEventPublisher publisher,
+            final IngredientChangeOutboxRepository outbox,
+            final @Value("${nutriflow.ingredients.outbox.enabled:false}")
+            boolean useOutbox) {
+        this(publisher, outbox, useOutbox, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Creates the publisher with an explicit instance ID.
+     *
+     * @param publisher the application event publisher
+     * @param outbox    the outbox repository
+     * @param useOutbox whether to write events to the outbox
+     * @param instance  ID of this instance
+     */
+    public IngredientChangePublisher(
+            final ApplicationEventPublisher publisher,
+            final IngredientChangeOutboxRepository outbox,
+            final boolean useOutbox,
+            final String instance) {
+        this.eventPublisher = publisher;
+        this.outboxRepository = outbox;
+        this.outboxEnabled = useOutbox;
+        this.instanceId = instance;
+    }
+
+    /**
+     * Creates an event for a change made by this instance, stamped with
+     * the current time.
+     *
+     * @param type         the kind of change
+     * @param ingredientId the ingredient ID
+     * @param name         the current (or, for a deletion, last) name
+     * @param previousName the name before a rename, or null
+     * @return the event
+     */
+    public IngredientChangedEvent event(
+            final IngredientChangedEvent.Type type,
+            final Integer ingredientId,
+            final String name,
+            final String previousName) {
+        return new IngredientChangedEvent(type, ingredientId, name,
+                previousName, LocalDateTime.now(), instanceId);
+    }
+
+    /**
+     * Publishes a change made by this instance in the current
+     * transaction, writing it to the outbox if enabled.
+     *
+     * @param type         the kind of change
+     * @param ingredientId the ingredient ID
+     * @param name         the current (or, for a deletion, last) name
+     * @param previousName the name before a rename, or null
+     * @return the event
+     */
+    public IngredientChangedEvent publish(
+            final IngredientChangedEvent.Type type,
+            final Integer ingredientId,
+            final String name,
+            final String previousName) {
+        final IngredientChangedEvent event =
+                event(type, ingredientId, name, previousName);
+        if (outboxEnabled) {
+            outboxRepository.save(IngredientChangeOutboxEntry.of(event));
+        }
+        eventPublisher.publishEvent(event);
+        return event;
+    }
+
+    /**
+     * Delivers an already committed change to in-process listeners
+     * without writing it to the outbox, e.g. one read from the outbox
+     * or written by the bulk upsert.
+     *
+     * @param event the event
+     */
+    public void deliver(final IngredientChangedEvent event) {
+        eventPublisher.publishEvent(event);
+    }
+
+    /**
+     * Delivers several committed changes to in-process listeners as one
+     * {@link IngredientChangeBatchEvent}, without writing them to the
+     * outbox; does nothing if there are none.
+     *
+     * @param events the events, in commit order
+     */
+    public void deliverAll(final List<IngredientChangedEvent> events) {
+        if (!events.isEmpty()) {
+            eventPublisher.publishEvent(
+                    new IngredientChangeBatchEvent(List.copyOf(events)));
+        }
+    }
+
+    /**
+     * Returns whether events are written to the outbox.
+     *
+     * @return true if the outbox is enabled
+     */
+    public boolean isOutboxEnabled() {
+        return outboxEnabled;
+    }
+
+    /**
+     * Returns the ID this instance stamps on its events.
+     *
+     * @return the instance ID
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+}
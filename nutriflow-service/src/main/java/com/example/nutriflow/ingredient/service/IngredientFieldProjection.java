@@ -0,0 +1,142 @@
+package com.example.nutriflow.ingredient.service;
+
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A subset of ingredient fields to return, e.g. name and macros for a
+ * client that only shows a picker. Field names are the JSON property
+ * names of {@link IngredientNutrition}; {@code macros} stands for
+ * calories, protein, carbohydrates and fat. The ingredient ID is always
+ * included.
+ */
+public final class IngredientFieldProjection {
+
+    /** Alias for the four macro fields. */
+    private static final String MACROS = "macros";
+
+    /** Readers by JSON property name, in entity order. */
+    private static final Map<String, Function<IngredientNutrition, Object>>
+            READERS = readers();
+
+    /** Selected readers, in output order. */
+    private final Map<String, Function<IngredientNutrition, Object>> fields;
+
+    /**
+     * Creates a projection.
+     *
+     * @param selected selected readers
+     */
+    private IngredientFieldProjection(
+            final Map<String, Function<IngredientNutrition, Object>>
+                    selected) {
+        this.fields = selected;
+    }
+
+    /**
+     * Parses a comma-separated field list, e.g.
+     * {@code ingredientName,macros}.
+     *
+     * @param spec the field list
+     * @return the projection
+     * @throws IllegalArgumentException if a field is unknown
+     */
+    public static IngredientFieldProjection parse(final String spec) {
+        final Map<String, Function<IngredientNutrition, Object>> selected =
+                new LinkedHashMap<>();
+        selected.put("ingredientId", READERS.get("ingredientId"));
+        for (String raw : spec.split(",")) {
+            final String name = raw.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            final List<String> names = MACROS.equals(name)
+                    ? List.of("calories", "protein", "carbohydrates", "fat")
+                    : List.of(name);
+            for (String field : names) {
+                final Function<IngredientNutrition, Object> reader =
+                        READERS.get(field);
+                if (reader == null) {
+                    throw new IllegalArgumentException("Unknown field: "
+                            + field);
+                }
+                selected.put(field, reader);
+            }
+        }
+        return new IngredientFieldProjection(selected);
+    }
+
+    /**
+     * Projects an ingredient.
+     *
+     * @param ingredient the ingredient
+     * @return the selected fields, in request order
+     */
+    public Map<String, Object> apply(final IngredientNutrition ingredient) {
+        final Map<String, Object> projected =
+                new LinkedHashMap<>(fields.size() * 2);
+        for (Map.Entry<String, Function<IngredientNutrition, Object>> field
+                : fields.entrySet()) {
+            projected.put(field.getKey(), field.getValue().apply(ingredient));
+        }
+        return projected;
+    }
+
+    /**
+     * Projects a list of ingredients.
+     *
+     * @param ingredients the ingredients
+     * @return the projected ingredients, in the same order
+     */
+    public List<Object> applyAll(final List<IngredientNutrition> ingredients) {
+        final List<Object> projected = new ArrayList<>(ingredients.size());
+        for (IngredientNutrition ingredient : ingredients) {
+            projected.add(apply(ingredient));
+        }
+        return projected;
+    }
+
+    /**
+     * Builds the reader table.
+     *
+     * @return readers by property name
+     */
+    private static Map<String, Function<IngredientNutrition, Object>>
+            readers() {
+        final Map<String, Function<IngredientNutrition, Object>> r =
+                new LinkedHashMap<>();
+        r.put("ingredientId", IngredientNutrition::getIngredientId);
+        r.put("ingredientName", IngredientNutrition::getIngredientName);
+        r.put("ingredientCategory",
+                IngredientNutrition::getIngredientCategory);
+        r.put("calories", IngredientNutrition::getCalories);
+        r.put("protein", IngredientNutrition::getProtein);
+        r.put("carbohydrates", IngredientNutrition::getCarbohydrates);
+        r.put("fat", IngredientNutrition::getFat);
+        r.put("fiber", IngredientNutrition::getFiber);
+        r.put("iron", IngredientNutrition::getIron);
+        r.put("calcium", IngredientNutrition::getCalcium);
+        r.put("vitaminA", IngredientNutrition::getVitaminA);
+        r.put("vitaminC", IngredientNutrition::getVitaminC);
+        r.put("vitaminD", IngredientNutrition::getVitaminD);
+        r.put("sodium", IngredientNutrition::getSodium);
+        r.put("potassium", IngredientNutrition::getPotassium);
+        r.put("unit", IngredientNutrition::getUnit);
+        r.put("density", IngredientNutrition::getDensity);
+        r.put("pieceWeight", IngredientNutrition::getPieceWeight);
+        r.put("description", IngredientNutrition::getDescription);
+        r.put("source", IngredientNutrition::getSource);
+        r.put("isVerified", IngredientNutrition::getIsVerified);
+        r.put("createdAt", IngredientNutrition::getCreatedAt);
+        r.put("updatedAt", IngredientNutrition::getUpdatedAt);
+        r.put("createdBy", IngredientNutrition::getCreatedBy);
+        r.put("updatedBy", IngredientNutrition::getUpdatedBy);
+        return Collections.unmodifiableMap(r);
+    }
+}
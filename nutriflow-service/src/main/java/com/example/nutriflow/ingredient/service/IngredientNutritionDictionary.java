@@ -0,0 +1,343 @@
+package com.example.nutriflow.ingredient.service;
+
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.model.IngredientNutritionSnapshot;
+import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import com.example.nutriflow.shared.transaction.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory dictionary of the ingredient nutrition catalog, keyed by
+ * case-folded ingredient name, so name lookups are a hash probe
+ * instead of a {@code LOWER(ingredient_name)} scan.
+ *
+ * The catalog is loaded on first use (and eagerly once the application
+ * is ready) and then kept coherent by {@link IngredientNutritionService},
+ * which hands every save and delete here as it writes it. Inside a
+ * transaction the change is applied only once that transaction commits,
+ * so readers never see a write that may still roll back. Writes made by
+ * other instances are picked up by a periodic reload.
+ */
+@Component
+public class IngredientNutritionDictionary {
+
+    /** Logger for this dictionary. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(IngredientNutritionDictionary.class);
+
+    /** Repository the dictionary is loaded from. */
+    private final IngredientNutritionRepository ingredientNutritionRepository;
+
+    /** Background reload; null when disabled. */
+    private final ScheduledExecutorService reloader;
+
+    /** Seconds between reloads, 0 to disable. */
+    private final long refreshSeconds;
+
+    /** Entries keyed by case-folded name. */
+    private volatile Map<String, IngredientNutritionSnapshot> byName =
+            new ConcurrentHashMap<>();
+
+    /** Entries keyed by ID, to find the old name on rename or delete. */
+    private volatile Map<Integer, IngredientNutritionSnapshot> byId =
+            new ConcurrentHashMap<>();
+
+    /** Whether the catalog has been loaded. */
+    private volatile boolean loaded;
+
+    /** Incremented on every change, so derived indexes can rebuild. */
+    private volatile long version;
+
+    /** Notified of every single-entry change. */
+    private final List<ChangeListener> listeners =
+            new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a dictionary without periodic reloads.
+     *
+     * @param repository ingredient nutrition repository
+     */
+    public IngredientNutritionDictionary(
+            final IngredientNutritionRepository repository) {
+        this(repository, 0);
+    }
+
+    /**
+     * Creates the dictionary.
+     *
+     * @param repository ingredient nutrition repository
+     * @param refresh    seconds between full reloads, 0 to disable
+     */
+    @Autowired
+    public IngredientNutritionDictionary(
+            final IngredientNutritionRepository repository,
+            final @Value(
+                    "${nutriflow.ingredients.dictionary.refresh-seconds:300}")
+            long refresh) {
+        this.ingredientNutritionRepository = repository;
+        this.refreshSeconds = Math.max(0, refresh);
+        this.reloader = refreshSeconds == 0 ? null
+                : Executors.newSingleThreadScheduledExecutor(task -> {
+                    final Thread thread =
+                            new Thread(task, "ingredient-dictionary");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Loads the catalog once the application is ready and schedules the
+     * periodic reload. A failed load is retried on first use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not load ingredient dictionary: {}",
+                    e.getMessage());
+        }
+        if (reloader != null) {
+            reloader.scheduleWithFixedDelay(this::reloadQuietly,
+                    refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the reloader on shutdown.
+     */
+    @PreDestroy
+    public void stop() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * Looks up an ingredient by name, ignoring case and surrounding
+     * whitespace.
+     *
+     * @param name the ingredient name
+     * @return the entry, if present
+     */
+    public Optional<IngredientNutritionSnapshot> get(final String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        ensureLoaded();
+        return Optional.ofNullable(byName.get(normalize(name)));
+    }
+
+    /**
+     * Returns the number of ingredients in the dictionary.
+     *
+     * @return entry count
+     */
+    public int size() {
+        ensureLoaded();
+        return byName.size();
+    }
+
+    /**
+     * Returns every entry, as a read-only view.
+     *
+     * @return the entries
+     */
+    public Collection<IngredientNutritionSnapshot> entries() {
+        ensureLoaded();
+        return Collections.unmodifiableCollection(byId.values());
+    }
+
+    /**
+     * Returns a counter that changes whenever an entry changes.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        ensureLoaded();
+        return version;
+    }
+
+    /**
+     * Registers a listener for single-entry changes, so a derived index
+     * can patch itself instead of rebuilding. Reloads are not reported;
+     * they show up only as a version change.
+     *
+     * @param listener the listener
+     */
+    void addListener(final ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Replaces the dictionary with the current catalog.
+     */
+    public synchronized void reload() {
+        final Map<String, IngredientNutritionSnapshot> names =
+                new ConcurrentHashMap<>();
+        final Map<Integer, IngredientNutritionSnapshot> ids =
+                new ConcurrentHashMap<>();
+        for (IngredientNutrition entity
+                : ingredientNutritionRepository.findAll()) {
+            final IngredientNutritionSnapshot entry =
+                    IngredientNutritionSnapshot.of(entity);
+            if (entry.getIngredientName() != null) {
+                names.put(normalize(entry.getIngredientName()), entry);
+            }
+            if (entry.getIngredientId() != null) {
+                ids.put(entry.getIngredientId(), entry);
+            }
+        }
+        byName = names;
+        byId = ids;
+        version++;
+        loaded = true;
+        LOGGER.info("Loaded {} ingredients into the dictionary",
+                names.size());
+    }
+
+    /**
+     * Records a saved ingredient, replacing any entry with the same ID
+     * (including one under its previous name), once the current
+     * transaction commits.
+     *
+     * @param saved the saved ingredient
+     */
+    void put(final IngredientNutrition saved) {
+        // copy now; the entity may still change before the commit
+        final IngredientNutritionSnapshot entry =
+                IngredientNutritionSnapshot.of(saved);
+        AfterCommit.run(() -> apply(entry));
+    }
+
+    /**
+     * Drops a deleted ingredient once the current transaction commits.
+     *
+     * @param ingredientId the ingredient ID
+     */
+    void remove(final Integer ingredientId) {
+        AfterCommit.run(() -> drop(ingredientId));
+    }
+
+    /**
+     * Applies a committed save.
+     *
+     * @param entry the saved entry
+     */
+    private synchronized void apply(final IngredientNutritionSnapshot entry) {
+        ensureLoaded();
+        replace(byId.get(entry.getIngredientId()), entry);
+    }
+
+    /**
+     * Applies a committed delete.
+     *
+     * @param ingredientId the ingredient ID
+     */
+    private synchronized void drop(final Integer ingredientId) {
+        ensureLoaded();
+        final IngredientNutritionSnapshot previous = byId.get(ingredientId);
+        if (previous != null) {
+            replace(previous, null);
+        }
+    }
+
+    /**
+     * Swaps one entry for another in both indexes.
+     *
+     * @param from entry to drop, or null
+     * @param to   entry to add, or null
+     */
+    private synchronized void replace(final IngredientNutritionSnapshot from,
+                                      final IngredientNutritionSnapshot to) {
+        if (from != null) {
+            byId.remove(from.getIngredientId(), from);
+            byName.remove(normalize(from.getIngredientName()), from);
+        }
+        if (to != null) {
+            byId.put(to.getIngredientId(), to);
+            byName.put(normalize(to.getIngredientName()), to);
+        }
+        version++;
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.changed(from, to, version);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Ingredient change listener failed: {}",
+                        e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Loads the catalog if that has not happened yet.
+     */
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reloads from the background thread, logging failures.
+     */
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Ingredient dictionary reload failed: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Case-folds a name for lookup.
+     *
+     * @param name the raw name
+     * @return trimmed, lower-cased name
+     */
+    static String normalize(final String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Receives single-entry changes. Called while the dictionary is
+     * locked, so implementations must be quick and must not call back
+     * into the dictionary.
+     */
+    interface ChangeListener {
+
+        /**
+         * Reports a change.
+         *
+         * @param previous the entry before the change, null if added
+         * @param next     the entry after the change, null if removed
+         * @param version  the dictionary version after the change
+         */
+        void changed(IngredientNutritionSnapshot previous,
+                     IngredientNutritionSnapshot next, long version);
+    }
+}
@@ -1,17 +1,41 @@
 package com.example.nutriflow.ingredient.service;
 
+import com.example.nutriflow.ingredient.dto.IngredientCategoryFacetDto;
+import com.example.nutriflow.ingredient.dto.IngredientCategoryPageDto;
+import com.example.nutriflow.ingredient.dto.IngredientKeysetPageDto;
+import com.example.nutriflow.ingredient.dto.IngredientSuggestionDto;
+import com.example.nutriflow.ingredient.dto.NutrientAmountsDto;
+import com.example.nutriflow.ingredient.dto.NutritionBatchResultDto;
+import com.example.nutriflow.ingredient.dto.NutritionLineRequestDto;
+import com.example.nutriflow.ingredient.dto.NutritionLineResultDto;
+import com.example.nutriflow.ingredient.dto.IngredientChangeFeedDto;
+import com.example.nutriflow.ingredient.model.IngredientChangeOutboxEntry;
+import com.example.nutriflow.ingredient.model.IngredientChangedEvent;
 import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.model.IngredientNutritionSnapshot;
+import com.example.nutriflow.ingredient.model.MeasureUnit;
+import com.example.nutriflow.ingredient.model.Nutrient;
+import com.example.nutriflow.ingredient.model.NutrientTotals;
+import com.example.nutriflow.ingredient.repository.IngredientChangeOutboxRepository;
 import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import com.example.nutriflow.recipe.service.RecipeNutritionService;
+import com.example.nutriflow.shared.export.NdjsonExportWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Service for managing ingredient nutrition data.
@@ -24,10 +48,60 @@ public class IngredientNutritionService {
     private static final Logger LOGGER =
             LoggerFactory.getLogger(IngredientNutritionService.class);
 
+    /** Most lines accepted by one batch calculation. */
+    public static final int MAX_BATCH_LINES = 1000;
+
+    /** Largest page of a category listing. */
+    public static final int MAX_CATEGORY_PAGE_SIZE = 500;
+
+    /** Largest page of the catalog listing. */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /** Separates transaction and change ID in a change feed cursor. */
+    private static final String CURSOR_SEPARATOR = "-";
+
+    /** Scale of calculated amounts. */
+    private static final int AMOUNT_SCALE = 2;
+
+    /** Decimal places of grams held as milligrams. */
+    private static final int MILLIGRAM_SCALE = 3;
+
     /** Repository for ingredient nutrition data. */
     @Autowired
     private IngredientNutritionRepository ingredientNutritionRepository;
 
+    /** Writer used for streaming catalog exports. */
+    @Autowired
+    private NdjsonExportWriter ndjsonExportWriter;
+
+    /** In-memory name index of the catalog, kept coherent on writes. */
+    @Autowired
+    private IngredientNutritionDictionary ingredientDictionary;
+
+    /** Converts amounts in any unit to milligrams. */
+    @Autowired
+    private UnitConverter unitConverter;
+
+    /** Prefix and typo-tolerant name index for autocomplete. */
+    @Autowired
+    private IngredientAutocompleteIndex autocompleteIndex;
+
+    /** In-memory category index for category listings and facets. */
+    @Autowired
+    private IngredientCategoryIndex categoryIndex;
+
+    /** Propagates nutrition changes to the recipes using an ingredient. */
+    @Autowired
+    private RecipeNutritionService recipeNutritionService;
+
+    /** Announces ingredient changes once they are committed. */
+    @Autowired
+    private IngredientChangePublisher changePublisher;
+
+    /** Outbox the change feed is read from. */
+    @Autowired
+    private IngredientChangeOutboxRepository changeOutboxRepository;
+
     /**
      * Get all ingredients.
      *
@@ -38,6 +112,78 @@ public class IngredientNutritionService {
         return ingredientNutritionRepository.findAll();
     }
 
+    /**
+     * Get all ingredients with only the given fields.
+     *
+     * @param fields comma-separated field list, see
+     *               {@link IngredientFieldProjection}
+     * @return the projected ingredients
+     * @throws IllegalArgumentException if a field is unknown
+     */
+    public List<Object> getAllIngredients(final String fields) {
+        final IngredientFieldProjection projection =
+                IngredientFieldProjection.parse(fields);
+        return projection.applyAll(getAllIngredients());
+    }
+
+    /**
+     * Get one page of the catalog by ingredient ID. Pages are addressed
+     * by the last ID of the previous page rather than an offset, so each
+     * page is an index range scan and concurrent inserts do not shift
+     * later pages.
+     *
+     * @param after  last ID of the previous page; null for the first page
+     * @param limit  page size, 1 to {@link #MAX_PAGE_SIZE}
+     * @param fields comma-separated field list, or null for full
+     *               ingredients
+     * @return the page and the cursor of the next one
+     * @throws IllegalArgumentException if the limit is out of range or a
+     *                                  field is unknown
+     */
+    public IngredientKeysetPageDto getIngredientsPage(final Integer after,
+                                                      final int limit,
+                                                      final String fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and "
+                    + MAX_PAGE_SIZE);
+        }
+        final IngredientFieldProjection projection = fields == null ? null
+                : IngredientFieldProjection.parse(fields);
+        // one extra row tells whether another page follows
+        final List<IngredientNutrition> rows =
+                ingredientNutritionRepository.findPageAfter(
+                        after == null ? Integer.MIN_VALUE : after,
+                        PageRequest.of(0, limit + 1));
+        final boolean more = rows.size() > limit;
+        final List<IngredientNutrition> page =
+                more ? rows.subList(0, limit) : rows;
+        final List<Object> ingredients = projection == null
+                ? new ArrayList<>(page) : projection.applyAll(page);
+        return new IngredientKeysetPageDto(ingredients,
+                more ? page.get(limit - 1).getIngredientId() : null);
+    }
+
+    /**
+     * Stream all ingredients to the output as NDJSON.
+     * Rows are read through a database cursor, so memory use does not
+     * grow with catalog size.
+     *
+     * @param out  the destination stream (left open)
+     * @param gzip whether to gzip the output
+     * @return number of ingredients written
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public long exportIngredients(final OutputStream out,
+            final boolean gzip) throws IOException {
+        try (Stream<IngredientNutrition> rows =
+                     ingredientNutritionRepository.streamAll()) {
+            final long count = ndjsonExportWriter.write(rows, out, gzip);
+            LOGGER.info("Exported {} ingredients", count);
+            return count;
+        }
+    }
+
     /**
      * Get ingredient by ID.
      *
@@ -51,16 +197,18 @@ public class IngredientNutritionService {
     }
 
     /**
-     * Get ingredient by name (case-insensitive).
+     * Get ingredient by name (case-insensitive), from the in-memory
+     * dictionary.
      *
      * @param name the ingredient name
-     * @return optional containing the ingredient if found
+     * @return optional containing a detached copy of the ingredient
+     *         if found
      */
     public Optional<IngredientNutrition> getIngredientByName(
             final String name) {
         LOGGER.info("Fetching ingredient by name: {}", name);
-        return ingredientNutritionRepository
-                .findByIngredientNameIgnoreCase(name);
+        return ingredientDictionary.get(name)
+                .map(IngredientNutritionSnapshot::toEntity);
     }
 
     /**
@@ -76,16 +224,84 @@ public class IngredientNutritionService {
     }
 
     /**
-     * Get ingredients by category.
+     * Suggest ingredients for a partially typed name, from the in-memory
+     * autocomplete index.
+     *
+     * @param query the typed text
+     * @param limit maximum number of suggestions
+     * @return suggestions, best first
+     */
+    public List<IngredientSuggestionDto> autocomplete(final String query,
+                                                      final int limit) {
+        LOGGER.debug("Autocomplete for '{}' (limit {})", query, limit);
+        return autocompleteIndex.suggest(query, limit);
+    }
+
+    /**
+     * Get ingredients by category, served from the category index.
      *
      * @param category the ingredient category
-     * @return list of ingredients in the category
+     * @return list of ingredients in the category, by ID
      */
     public List<IngredientNutrition> getIngredientsByCategory(
             final String category) {
         LOGGER.info("Fetching ingredients by category: {}", category);
-        return ingredientNutritionRepository
-                .findByIngredientCategory(category);
+        return toEntities(categoryIndex.members(category));
+    }
+
+    /**
+     * Get one page of the ingredients in a category, by ID.
+     *
+     * @param category the ingredient category
+     * @param page     zero-based page number
+     * @param size     page size, 1 to {@link #MAX_CATEGORY_PAGE_SIZE}
+     * @return the page; empty past the last page
+     * @throws IllegalArgumentException if the page or size is out of range
+     */
+    public IngredientCategoryPageDto getCategoryPage(final String category,
+                                                     final int page,
+                                                     final int size) {
+        if (page < 0 || size < 1 || size > MAX_CATEGORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be 0 or more and "
+                    + "size between 1 and " + MAX_CATEGORY_PAGE_SIZE);
+        }
+        // one read, so the total and the page come from the same index
+        final List<IngredientNutritionSnapshot> members =
+                categoryIndex.members(category);
+        final int total = members.size();
+        final long offset = (long) page * size;
+        final List<IngredientNutrition> ingredients = offset >= total
+                ? new ArrayList<>()
+                : toEntities(members.subList((int) offset,
+                        (int) Math.min(total, offset + size)));
+        return new IngredientCategoryPageDto(category, page, size, total,
+                (total + size - 1) / size, ingredients);
+    }
+
+    /**
+     * List ingredient categories with their ingredient counts, largest
+     * first.
+     *
+     * @return the category facets
+     */
+    public List<IngredientCategoryFacetDto> getCategoryFacets() {
+        return categoryIndex.facets();
+    }
+
+    /**
+     * Converts dictionary entries to detached entities.
+     *
+     * @param entries the entries
+     * @return the entities, in the same order
+     */
+    private static List<IngredientNutrition> toEntities(
+            final List<IngredientNutritionSnapshot> entries) {
+        final List<IngredientNutrition> entities =
+                new ArrayList<>(entries.size());
+        for (IngredientNutritionSnapshot entry : entries) {
+            entities.add(entry.toEntity());
+        }
+        return entities;
     }
 
     /**
@@ -102,11 +318,20 @@ public class IngredientNutritionService {
             final IngredientNutrition ingredient,
             final String updatedBy) {
         final LocalDateTime now = LocalDateTime.now();
+        final IngredientChangedEvent.Type change =
+                ingredient.getIngredientId() == null
+                        ? IngredientChangedEvent.Type.CREATED
+                        : IngredientChangedEvent.Type.UPDATED;
+        String previousName = null;
 
         if (ingredient.getIngredientId() == null) {
-            // Check if ingredient with same name already exists
-            final Optional<IngredientNutrition> existingOpt =
-                    getIngredientByName(ingredient.getIngredientName());
+            // Check if ingredient with same name already exists; read the
+            // managed row, not the dictionary copy, which may be stale
+            final String name = ingredient.getIngredientName();
+            final Optional<IngredientNutrition> existingOpt = name == null
+                    ? Optional.empty()
+                    : ingredientNutritionRepository
+                            .findByIngredientNameIgnoreCase(name.trim());
 
             if (existingOpt.isPresent()) {
                 // Update existing ingredient instead of creating duplicate
@@ -167,11 +392,25 @@ public class IngredientNutritionService {
                 if (ingredient.getUnit() != null) {
                     existing.setUnit(ingredient.getUnit());
                 }
+                if (ingredient.getDensity() != null) {
+                    existing.setDensity(ingredient.getDensity());
+                }
+                if (ingredient.getPieceWeight() != null) {
+                    existing.setPieceWeight(ingredient.getPieceWeight());
+                }
 
                 existing.setUpdatedAt(now);
                 existing.setUpdatedBy(updatedBy);
 
-                return ingredientNutritionRepository.save(existing);
+                final IngredientNutrition saved =
+                        ingredientNutritionRepository.save(existing);
+                ingredientDictionary.put(saved);
+                recipeNutritionService.scheduleRecompute(
+                        saved.getIngredientName());
+                changePublisher.publish(IngredientChangedEvent.Type.UPDATED,
+                        saved.getIngredientId(), saved.getIngredientName(),
+                        null);
+                return saved;
             }
 
             // New ingredient - set creation fields
@@ -183,12 +422,26 @@ public class IngredientNutritionService {
             // Update existing ingredient
             LOGGER.info("Updating ingredient ID: {}",
                     ingredient.getIngredientId());
+            // A rename moves recipes off the old name; recompute those too
+            previousName = ingredientNutritionRepository
+                    .findById(ingredient.getIngredientId())
+                    .map(IngredientNutrition::getIngredientName)
+                    .filter(previous -> !previous.equalsIgnoreCase(
+                            ingredient.getIngredientName()))
+                    .orElse(null);
         }
 
         ingredient.setUpdatedAt(now);
         ingredient.setUpdatedBy(updatedBy);
 
-        return ingredientNutritionRepository.save(ingredient);
+        final IngredientNutrition saved =
+                ingredientNutritionRepository.save(ingredient);
+        ingredientDictionary.put(saved);
+        recipeNutritionService.scheduleRecompute(
+                saved.getIngredientName(), previousName);
+        changePublisher.publish(change, saved.getIngredientId(),
+                saved.getIngredientName(), previousName);
+        return saved;
     }
 
     /**
@@ -241,7 +494,14 @@ public class IngredientNutritionService {
         LOGGER.info("Updated nutrition values for ingredient ID: {}",
                 ingredientId);
 
-        return ingredientNutritionRepository.save(ingredient);
+        final IngredientNutrition saved =
+                ingredientNutritionRepository.save(ingredient);
+        ingredientDictionary.put(saved);
+        recipeNutritionService.scheduleRecompute(
+                saved.getIngredientName());
+        changePublisher.publish(IngredientChangedEvent.Type.UPDATED,
+                saved.getIngredientId(), saved.getIngredientName(), null);
+        return saved;
     }
 
     /**
@@ -252,8 +512,16 @@ public class IngredientNutritionService {
      */
     @Transactional
     public boolean deleteIngredient(final Integer id) {
-        if (ingredientNutritionRepository.existsById(id)) {
+        // the name comes from the row, not the dictionary copy, which
+        // may miss a change another instance has not yet announced
+        final Optional<IngredientNutrition> existing =
+                ingredientNutritionRepository.findById(id);
+        if (existing.isPresent()) {
+            final String name = existing.get().getIngredientName();
             ingredientNutritionRepository.deleteById(id);
+            ingredientDictionary.remove(id);
+            changePublisher.publish(IngredientChangedEvent.Type.DELETED, id,
+                    name, null);
             LOGGER.info("Deleted ingredient ID: {}", id);
             return true;
         }
@@ -261,6 +529,54 @@ public class IngredientNutritionService {
         return false;
     }
 
+    /**
+     * Read the ingredient change feed: changes committed after a feed
+     * position, in transaction order. A page only holds transactions
+     * older than every one still in progress, so a change that commits
+     * late shows up after the cursor instead of being skipped.
+     *
+     * @param after {@code nextAfter} of the previous page; null to start
+     *              from the oldest retained change
+     * @param limit page size, 1 to {@link #MAX_PAGE_SIZE}
+     * @return the changes and the cursor for the next request
+     * @throws IllegalArgumentException if the cursor or limit is invalid
+     * @throws IllegalStateException    if the outbox is disabled
+     */
+    public IngredientChangeFeedDto getChanges(final String after,
+                                              final int limit) {
+        if (!changePublisher.isOutboxEnabled()) {
+            throw new IllegalStateException(
+                    "The ingredient change outbox is disabled");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and "
+                    + MAX_PAGE_SIZE);
+        }
+        long afterTx = 0;
+        long afterChange = 0;
+        if (after != null && !after.isBlank()) {
+            final int separator = after.indexOf(CURSOR_SEPARATOR);
+            try {
+                afterTx = Long.parseLong(after.substring(0, separator));
+                afterChange = Long.parseLong(after.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(
+                        "after must be the nextAfter of a previous page");
+            }
+        }
+        final List<IngredientChangeOutboxEntry> changes =
+                changeOutboxRepository.findCommittedAfter(afterTx,
+                        afterChange, limit);
+        if (!changes.isEmpty()) {
+            final IngredientChangeOutboxEntry last =
+                    changes.get(changes.size() - 1);
+            afterTx = last.getTxId();
+            afterChange = last.getChangeId();
+        }
+        return new IngredientChangeFeedDto(changes,
+                afterTx + CURSOR_SEPARATOR + afterChange);
+    }
+
     /**
      * Calculate nutrition for a given amount of ingredient.
      *
@@ -272,48 +588,156 @@ public class IngredientNutritionService {
     public IngredientNutrition calculateNutrition(
             final String ingredientName,
             final double amountInGrams) {
+        return calculateNutrition(ingredientName, amountInGrams,
+                MeasureUnit.GRAM);
+    }
 
-        final Optional<IngredientNutrition> ingredientOpt =
-                getIngredientByName(ingredientName);
-
-        if (ingredientOpt.isEmpty()) {
-            throw new IllegalArgumentException(
-                    "Ingredient not found: " + ingredientName);
+    /**
+     * Calculate nutrition for an amount of ingredient in any unit.
+     *
+     * @param ingredientName the ingredient name
+     * @param amount         the amount
+     * @param unit           the unit of the amount
+     * @return calculated nutritional values
+     * @throws IllegalArgumentException if ingredient not found, or the
+     *         unit needs a piece weight the ingredient does not have
+     */
+    public IngredientNutrition calculateNutrition(
+            final String ingredientName,
+            final double amount,
+            final MeasureUnit unit) {
+
+        final IngredientNutritionSnapshot base = ingredientDictionary
+                .get(ingredientName)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Ingredient not found: " + ingredientName));
+        final long milligrams =
+                unitConverter.toMilligrams(base, amount, unit);
+        if (milligrams == UnitConverter.UNCONVERTIBLE) {
+            throw new IllegalArgumentException("Cannot convert " + amount
+                    + " " + unit + " of " + ingredientName + " to grams");
         }
 
-        final IngredientNutrition base = ingredientOpt.get();
-        final IngredientNutrition calculated = new IngredientNutrition();
-
-        // Calculate for the specific amount (all base values are per 100g)
-        final double ratio = amountInGrams / 100.0;
+        // Scale the per-100g values in fixed point
+        final NutrientTotals totals = new NutrientTotals()
+                .add(base.getNutrients(), milligrams);
 
+        final IngredientNutrition calculated = new IngredientNutrition();
         calculated.setIngredientName(base.getIngredientName());
         calculated.setIngredientCategory(base.getIngredientCategory());
+        calculated.setCalories(
+                totals.toBigDecimal(Nutrient.CALORIES, AMOUNT_SCALE));
+        calculated.setProtein(
+                totals.toBigDecimal(Nutrient.PROTEIN, AMOUNT_SCALE));
+        calculated.setCarbohydrates(
+                totals.toBigDecimal(Nutrient.CARBOHYDRATES, AMOUNT_SCALE));
+        calculated.setFat(totals.toBigDecimal(Nutrient.FAT, AMOUNT_SCALE));
+        calculated.setFiber(
+                totals.toBigDecimal(Nutrient.FIBER, AMOUNT_SCALE));
+
+        LOGGER.info("Calculated nutrition for {} {} of {}: {} calories",
+                amount, unit, ingredientName, calculated.getCalories());
 
-        calculated.setCalories(base.getCalories() != null
-                ? base.getCalories().multiply(BigDecimal.valueOf(ratio))
-                : BigDecimal.ZERO);
+        return calculated;
+    }
 
-        calculated.setProtein(base.getProtein() != null
-                ? base.getProtein().multiply(BigDecimal.valueOf(ratio))
-                : BigDecimal.ZERO);
+    /**
+     * Calculates nutrition for a list of (ingredient, amount, unit)
+     * lines, e.g. a whole recipe or shopping basket, in one pass over
+     * the in-memory dictionary and the {@link UnitConverter} table.
+     * Lines that cannot be calculated carry an error and are left out
+     * of the totals instead of failing the batch.
+     *
+     * @param lines the lines, at most {@link #MAX_BATCH_LINES}
+     * @return per-line values in request order and their sum
+     * @throws IllegalArgumentException if there are no lines or too many
+     */
+    public NutritionBatchResultDto calculateNutritionBatch(
+            final List<NutritionLineRequestDto> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new IllegalArgumentException("No lines to calculate");
+        }
+        if (lines.size() > MAX_BATCH_LINES) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_LINES
+                    + " lines per batch, got " + lines.size());
+        }
 
-        calculated.setCarbohydrates(base.getCarbohydrates() != null
-                ? base.getCarbohydrates().multiply(BigDecimal.valueOf(ratio))
-                : BigDecimal.ZERO);
+        final NutrientTotals totals = new NutrientTotals();
+        final NutritionBatchResultDto result = new NutritionBatchResultDto();
+        for (NutritionLineRequestDto line : lines) {
+            final NutritionLineResultDto out = new NutritionLineResultDto();
+            out.setIngredientName(line.getIngredientName());
+            out.setAmount(line.getAmount());
+            out.setUnit(line.getUnit());
+            result.getLines().add(out);
+
+            final String error = lineError(line);
+            final IngredientNutritionSnapshot entry = error != null ? null
+                    : ingredientDictionary.get(line.getIngredientName())
+                            .orElse(null);
+            final long milligrams = entry == null
+                    ? UnitConverter.UNCONVERTIBLE
+                    : unitConverter.toMilligrams(entry, line.getAmount(),
+                            line.getUnit());
+            if (milligrams == UnitConverter.UNCONVERTIBLE) {
+                if (error != null) {
+                    out.setError(error);
+                } else if (entry == null) {
+                    out.setError("Ingredient not found: "
+                            + line.getIngredientName());
+                } else if (MeasureUnit.parse(line.getUnit()) == null) {
+                    out.setError("Unsupported unit: " + line.getUnit());
+                } else {
+                    out.setError("No piece weight for: "
+                            + entry.getIngredientName());
+                }
+                result.setUnresolvedLines(result.getUnresolvedLines() + 1);
+                continue;
+            }
 
-        calculated.setFat(base.getFat() != null
-                ? base.getFat().multiply(BigDecimal.valueOf(ratio))
-                : BigDecimal.ZERO);
+            final NutrientTotals amounts = new NutrientTotals()
+                    .add(entry.getNutrients(), milligrams);
+            totals.add(amounts);
+            out.setGrams(BigDecimal.valueOf(milligrams, MILLIGRAM_SCALE)
+                    .setScale(AMOUNT_SCALE, RoundingMode.HALF_UP));
+            out.setNutrients(toAmounts(amounts));
+        }
+        result.setTotals(toAmounts(totals));
 
-        calculated.setFiber(base.getFiber() != null
-                ? base.getFiber().multiply(BigDecimal.valueOf(ratio))
-                : BigDecimal.ZERO);
+        LOGGER.info("Calculated nutrition batch: {} lines, {} unresolved",
+                lines.size(), result.getUnresolvedLines());
+        return result;
+    }
 
-        LOGGER.info("Calculated nutrition for {}g of {}: {} calories",
-                amountInGrams, ingredientName, calculated.getCalories());
+    /**
+     * Validates the fields of a batch line.
+     *
+     * @param line the line
+     * @return the problem, or null if the line is well-formed
+     */
+    private static String lineError(final NutritionLineRequestDto line) {
+        if (line.getIngredientName() == null
+                || line.getIngredientName().isBlank()) {
+            return "Missing ingredient name";
+        }
+        if (line.getAmount() == null || line.getAmount() < 0) {
+            return "Amount must be zero or more";
+        }
+        return null;
+    }
 
-        return calculated;
+    /**
+     * Rounds fixed-point nutrient sums into a DTO.
+     *
+     * @param totals the sums
+     * @return the amounts
+     */
+    private static NutrientAmountsDto toAmounts(final NutrientTotals totals) {
+        final NutrientAmountsDto amounts = new NutrientAmountsDto();
+        for (Nutrient nutrient : Nutrient.values()) {
+            nutrient.set(amounts,
+                    totals.toBigDecimal(nutrient, AMOUNT_SCALE));
+        }
+        return amounts;
     }
 }
-
@@ -0,0 +1,245 @@
+package com.example.nutriflow.ingredient.service;
+
+import com.example.nutriflow.ingredient.model.IngredientNutritionSnapshot;
+import com.example.nutriflow.ingredient.model.MeasureUnit;
+import com.example.nutriflow.shared.concurrent.RebuildableSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Converts ingredient amounts in any {@link MeasureUnit} to milligrams.
+ *
+ * Mass units convert directly; volumes use the ingredient's density
+ * (water when unknown) and counts its piece weight. The grams per base
+ * unit of every ingredient are precomputed into a primitive table
+ * indexed by ingredient ID and unit kind, so a conversion is two array
+ * reads and a multiplication. The table is rebuilt from the
+ * {@link IngredientNutritionDictionary} after it changes, at most once
+ * per {@link #REBUILD_INTERVAL_NANOS}; entries changed since the last
+ * build are converted from the dictionary entry directly.
+ */
+@Component
+public class UnitConverter {
+
+    /** Returned for amounts that cannot be converted. */
+    public static final long UNCONVERTIBLE = -1;
+
+    /** Milligrams per gram. */
+    private static final double MILLIGRAMS_PER_GRAM = 1000;
+
+    /** Grams per ml when an ingredient has no density (water). */
+    private static final double WATER_DENSITY = 1;
+
+    /** Unit kinds by ordinal. */
+    private static final MeasureUnit.Kind[] KIND_VALUES =
+            MeasureUnit.Kind.values();
+
+    /** Number of unit kinds, the row width of the table. */
+    private static final int KINDS = KIND_VALUES.length;
+
+    /** Minimum time between table rebuilds. */
+    private static final long REBUILD_INTERVAL_NANOS = 1_000_000_000L;
+
+    /**
+     * Largest ingredient ID slack over the catalog size kept in the
+     * table; IDs beyond it are converted from the entry directly.
+     */
+    private static final int ID_SLACK = 1024;
+
+    /** Source of densities and piece weights. */
+    private final IngredientNutritionDictionary dictionary;
+
+    /** Monotonic time source in nanoseconds. */
+    private final LongSupplier nanoTime;
+
+    /** Current table, rebuilt on a reading thread when stale. */
+    private final RebuildableSnapshot<Table> table;
+
+    /**
+     * Creates the converter.
+     *
+     * @param ingredients the ingredient dictionary
+     */
+    @Autowired
+    public UnitConverter(final IngredientNutritionDictionary ingredients) {
+        this(ingredients, System::nanoTime);
+    }
+
+    /**
+     * Creates the converter with a custom clock, for tests.
+     *
+     * @param ingredients the ingredient dictionary
+     * @param timeSource  monotonic time source in nanoseconds
+     */
+    public UnitConverter(final IngredientNutritionDictionary ingredients,
+                         final LongSupplier timeSource) {
+        this.dictionary = ingredients;
+        this.nanoTime = timeSource;
+        this.table = new RebuildableSnapshot<>("unit conversion table",
+                previous -> build(), this::isStale);
+    }
+
+    /**
+     * Converts an amount as written (e.g. on a recipe row) to milligrams.
+     *
+     * @param ingredient the ingredient, or null if not in the catalog
+     *                   (then only mass and volume units convert)
+     * @param quantity   the quantity
+     * @param unit       the unit; grams when blank
+     * @return milligrams, or {@link #UNCONVERTIBLE}
+     */
+    public long toMilligrams(final IngredientNutritionSnapshot ingredient,
+                             final Double quantity, final String unit) {
+        final MeasureUnit parsed = MeasureUnit.parse(unit);
+        return quantity == null || parsed == null ? UNCONVERTIBLE
+                : toMilligrams(ingredient, quantity, parsed);
+    }
+
+    /**
+     * Converts an amount to milligrams.
+     *
+     * @param ingredient the ingredient, or null if not in the catalog
+     * @param quantity   the quantity, zero or more
+     * @param unit       the unit
+     * @return milligrams, or {@link #UNCONVERTIBLE}
+     */
+    public long toMilligrams(final IngredientNutritionSnapshot ingredient,
+                             final double quantity, final MeasureUnit unit) {
+        final double grams = gramsPer(ingredient, unit);
+        if (Double.isNaN(grams) || !(quantity >= 0)) {
+            return UNCONVERTIBLE;
+        }
+        return Math.round(quantity * grams * MILLIGRAMS_PER_GRAM);
+    }
+
+    /**
+     * Returns the grams in one of a unit of an ingredient.
+     *
+     * @param ingredient the ingredient, or null if not in the catalog
+     * @param unit       the unit
+     * @return grams, or NaN if the unit does not apply
+     */
+    public double gramsPer(final IngredientNutritionSnapshot ingredient,
+                           final MeasureUnit unit) {
+        final int kind = unit.getKind().ordinal();
+        if (ingredient == null || ingredient.getIngredientId() == null) {
+            return unit.getBaseFactor() * gramsPerBase(ingredient, kind);
+        }
+        final Table current = table.get();
+        final int id = ingredient.getIngredientId();
+        final double perBase = id >= 0 && id < current.sources.length
+                && current.sources[id] == ingredient
+                ? current.gramsPerBase[id * KINDS + kind]
+                : gramsPerBase(ingredient, kind);
+        return unit.getBaseFactor() * perBase;
+    }
+
+    /**
+     * Checks whether the dictionary changed since the table was built
+     * and no rebuild happened recently.
+     *
+     * @param existing the table
+     * @return true if it should be rebuilt
+     */
+    private boolean isStale(final Table existing) {
+        return existing.version != dictionary.getVersion()
+                && nanoTime.getAsLong() - existing.builtAt
+                        >= REBUILD_INTERVAL_NANOS;
+    }
+
+    /**
+     * Builds the table from the dictionary.
+     *
+     * @return the table
+     */
+    private Table build() {
+        final long version = dictionary.getVersion();
+        int maxId = -1;
+        for (IngredientNutritionSnapshot entry : dictionary.entries()) {
+            maxId = Math.max(maxId, entry.getIngredientId());
+        }
+        final int size = Math.max(0, Math.min(maxId + 1,
+                dictionary.size() * 2 + ID_SLACK));
+        final IngredientNutritionSnapshot[] sources =
+                new IngredientNutritionSnapshot[size];
+        final double[] gramsPerBase = new double[size * KINDS];
+        Arrays.fill(gramsPerBase, Double.NaN);
+        for (IngredientNutritionSnapshot entry : dictionary.entries()) {
+            final int id = entry.getIngredientId();
+            if (id < 0 || id >= size) {
+                continue;
+            }
+            sources[id] = entry;
+            for (int kind = 0; kind < KINDS; kind++) {
+                gramsPerBase[id * KINDS + kind] = gramsPerBase(entry, kind);
+            }
+        }
+        return new Table(version, nanoTime.getAsLong(), sources,
+                gramsPerBase);
+    }
+
+    /**
+     * Computes the grams per base unit of a kind for one ingredient.
+     *
+     * @param ingredient the ingredient, or null
+     * @param kind       the {@link MeasureUnit.Kind} ordinal
+     * @return grams, or NaN if unknown
+     */
+    private static double gramsPerBase(
+            final IngredientNutritionSnapshot ingredient, final int kind) {
+        switch (KIND_VALUES[kind]) {
+            case MASS:
+                return 1;
+            case VOLUME:
+                return positiveOr(ingredient == null ? null
+                        : ingredient.getDensity(), WATER_DENSITY);
+            default:
+                return positiveOr(ingredient == null ? null
+                        : ingredient.getPieceWeight(), Double.NaN);
+        }
+    }
+
+    /**
+     * Returns a positive value as a double, or a fallback.
+     *
+     * @param value    the value, may be null
+     * @param fallback used when the value is missing or not positive
+     * @return the value or fallback
+     */
+    private static double positiveOr(final BigDecimal value,
+                                     final double fallback) {
+        return value != null && value.signum() > 0
+                ? value.doubleValue() : fallback;
+    }
+
+    /**
+     * Immutable conversion table for one dictionary version.
+     */
+    private static final class Table {
+
+        /** Dictionary version the table was built from. */
+        private final long version;
+
+        /** When the table was built. */
+        private final long builtAt;
+
+        /** Entry each row was built from, by ingredient ID. */
+        private final IngredientNutritionSnapshot[] sources;
+
+        /** Grams per base unit, at {@code id * KINDS + kind}. */
+        private final double[] gramsPerBase;
+
+        Table(final long dictionaryVersion, final long built,
+              final IngredientNutritionSnapshot[] entries,
+              final double[] factors) {
+            this.version = dictionaryVersion;
+            this.builtAt = built;
+            this.sources = entries;
+            this.gramsPerBase = factors;
+        }
+    }
+}
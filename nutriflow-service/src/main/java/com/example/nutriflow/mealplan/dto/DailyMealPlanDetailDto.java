@@ -6,7 +6,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO for detailed daily meal plan information.
@@ -57,6 +59,25 @@ public class DailyMealPlanDetailDto {
      */
     private Double totalFiber;
 
+    /**
+     * Totals of every tracked nutrient for the day, keyed by nutrient
+     * (e.g. {@code iron}, {@code vitaminC}), over the meals whose recipe
+     * has a nutrient vector. Null when none has one.
+     */
+    private Map<String, Double> nutrientTotals;
+
+    /**
+     * Percentage of the user's daily target reached per nutrient, for
+     * nutrients with a target. Null when the totals are unknown.
+     */
+    private Map<String, Double> targetCoverage;
+
+    /**
+     * IDs of the recipes left out of the totals because they have no
+     * nutrient vector yet. Empty when every meal was counted.
+     */
+    private List<Integer> unscoredRecipeIds = new ArrayList<>();
+
     /**
      * DTO for individual meal details.
      */
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO for meal plan generation response.
@@ -56,5 +57,10 @@ public class MealPlanResponseDto {
      * Variance from target protein (percentage).
      */
     private Double proteinVariance;
-}
 
+    /**
+     * Average daily percentage of the user's target reached per
+     * nutrient, over the days whose nutrient totals are known.
+     */
+    private Map<String, Double> nutrientCoverage;
+}
@@ -1,6 +1,8 @@
 package com.example.nutriflow.mealplan.service;
 
+import com.example.nutriflow.ingredient.model.Nutrient;
 import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.service.RecipeNutrientMatrix;
 import com.example.nutriflow.user.model.User;
 import com.example.nutriflow.user.model.UserTarget;
 import com.example.nutriflow.mealplan.model.DailyMealPlan;
@@ -22,12 +24,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -68,6 +73,10 @@ public class MealPlanService {
     @Autowired
     private UserTargetRepository userTargetRepository;
 
+    /** Nutrient vectors of all recipes, for daily nutrient totals. */
+    @Autowired
+    private RecipeNutrientMatrix recipeNutrientMatrix;
+
     /** Default number of meals per day. */
     private static final int DEFAULT_MEALS_PER_DAY = 3;
 
@@ -100,6 +109,9 @@ public class MealPlanService {
     /** Percentage multiplier for variance calculation. */
     private static final double PERCENT_MULTIPLIER = 100.0;
 
+    /** Reported nutrient values are rounded to 1/this. */
+    private static final double NUTRIENT_ROUNDING = 100.0;
+
     /** Meal type labels. */
     private static final String[] MEAL_TYPES =
             {"breakfast", "lunch", "dinner", "snack"};
@@ -148,6 +160,7 @@ public class MealPlanService {
 
         // Determine target macros
         final MacroTargets targets = determineMacroTargets(request, targetOpt);
+        final double[] nutrientTargets = nutrientTargets(targets, targetOpt);
 
         // Generate daily meal plans
         final List<DailyMealPlanDetailDto> dailyPlans =
@@ -155,7 +168,7 @@ public class MealPlanService {
         for (int day = 0; day < numberOfDays; day++) {
             final LocalDate currentDate = startDate.plusDays(day);
             final DailyMealPlanDetailDto dailyPlan =
-                    generateDailyMealPlan(user, targets,
+                    generateDailyMealPlan(user, targets, nutrientTargets,
                             mealsPerDay, currentDate, request);
             dailyPlans.add(dailyPlan);
         }
@@ -183,6 +196,7 @@ public class MealPlanService {
                     calculateVariance(avgCalories, targets.getCalories()));
             response.setProteinVariance(
                     calculateVariance(avgProtein, targets.getProtein()));
+            response.setNutrientCoverage(averageCoverage(dailyPlans));
         }
 
         // Create weekly plan if applicable
@@ -204,6 +218,7 @@ public class MealPlanService {
      *
      * @param user         the user
      * @param targets      the macro targets
+     * @param nutrientTargets daily target per {@link Nutrient}, 0 if none
      * @param mealsPerDay  number of meals per day
      * @param date         the date for this meal plan
      * @param request      the original request
@@ -212,6 +227,7 @@ public class MealPlanService {
     private DailyMealPlanDetailDto generateDailyMealPlan(
             final User user,
             final MacroTargets targets,
+            final double[] nutrientTargets,
             final int mealsPerDay,
             final LocalDate date,
             final MealPlanRequestDto request) {
@@ -340,6 +356,7 @@ public class MealPlanService {
         detailDto.setTotalCarbs(totalCarbs);
         detailDto.setTotalFat(totalFat);
         detailDto.setTotalFiber(totalFiber);
+        scoreNutrients(detailDto, nutrientTargets);
 
         return detailDto;
     }
@@ -703,6 +720,148 @@ public class MealPlanService {
         return targets;
     }
 
+    /**
+     * Build the daily target per nutrient: the macro targets in effect
+     * and the user's other targets where set.
+     *
+     * @param macros    the macro targets
+     * @param targetOpt optional user target
+     * @return targets indexed by {@link Nutrient} ordinal, 0 if none
+     */
+    private static double[] nutrientTargets(final MacroTargets macros,
+            final Optional<UserTarget> targetOpt) {
+        final double[] targets = new double[RecipeNutrientMatrix.NUTRIENTS];
+        if (targetOpt.isPresent()) {
+            for (final Nutrient nutrient : Nutrient.values()) {
+                final BigDecimal value =
+                        targetValue(targetOpt.get(), nutrient);
+                if (value != null) {
+                    targets[nutrient.ordinal()] = value.doubleValue();
+                }
+            }
+        }
+        targets[Nutrient.CALORIES.ordinal()] = macros.getCalories();
+        targets[Nutrient.PROTEIN.ordinal()] = macros.getProtein();
+        targets[Nutrient.CARBOHYDRATES.ordinal()] = macros.getCarbs();
+        targets[Nutrient.FAT.ordinal()] = macros.getFat();
+        return targets;
+    }
+
+    /**
+     * Read one nutrient's target from a user target.
+     *
+     * @param target   the user target
+     * @param nutrient the nutrient
+     * @return the target, or null if not set
+     */
+    private static BigDecimal targetValue(final UserTarget target,
+            final Nutrient nutrient) {
+        switch (nutrient) {
+            case CALORIES:
+                return target.getCalories();
+            case PROTEIN:
+                return target.getProtein();
+            case CARBOHYDRATES:
+                return target.getCarbs();
+            case FAT:
+                return target.getFat();
+            case FIBER:
+                return target.getFiber();
+            case IRON:
+                return target.getIron();
+            case CALCIUM:
+                return target.getCalcium();
+            case VITAMIN_A:
+                return target.getVitaminA();
+            case VITAMIN_C:
+                return target.getVitaminC();
+            case VITAMIN_D:
+                return target.getVitaminD();
+            case SODIUM:
+                return target.getSodium();
+            case POTASSIUM:
+                return target.getPotassium();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Total every nutrient of a day's meals from the recipe nutrient
+     * matrix and compare them with the targets. Meals whose recipe has
+     * no nutrient vector are left out and their recipes listed on the
+     * day; the totals stay unset if no meal could be counted.
+     *
+     * @param day     the daily plan
+     * @param targets targets indexed by {@link Nutrient} ordinal
+     */
+    private void scoreNutrients(final DailyMealPlanDetailDto day,
+            final double[] targets) {
+        final double[] totals = new double[RecipeNutrientMatrix.NUTRIENTS];
+        final List<Integer> unscored = new ArrayList<>();
+        for (final DailyMealPlanDetailDto.MealDetailDto meal
+                : day.getMeals()) {
+            final double servings = meal.getServings() == null
+                    ? 1 : meal.getServings();
+            final Integer recipeId = meal.getRecipe().getRecipeId();
+            if (!recipeNutrientMatrix.addTo(recipeId, servings, totals)) {
+                unscored.add(recipeId);
+            }
+        }
+        day.setUnscoredRecipeIds(unscored);
+        if (!unscored.isEmpty() && unscored.size() == day.getMeals().size()) {
+            return;
+        }
+        final Map<String, Double> nutrientTotals = new LinkedHashMap<>();
+        final Map<String, Double> coverage = new LinkedHashMap<>();
+        for (final Nutrient nutrient : Nutrient.values()) {
+            final int i = nutrient.ordinal();
+            nutrientTotals.put(nutrient.getFieldName(), round(totals[i]));
+            if (targets[i] > 0) {
+                coverage.put(nutrient.getFieldName(),
+                        round(totals[i] / targets[i] * PERCENT_MULTIPLIER));
+            }
+        }
+        day.setNutrientTotals(nutrientTotals);
+        day.setTargetCoverage(coverage);
+    }
+
+    /**
+     * Average the per-nutrient target coverage over the days where it
+     * is known.
+     *
+     * @param days the daily plans
+     * @return average coverage per nutrient, or null if no day has one
+     */
+    private static Map<String, Double> averageCoverage(
+            final List<DailyMealPlanDetailDto> days) {
+        final Map<String, Double> sums = new LinkedHashMap<>();
+        int scored = 0;
+        for (final DailyMealPlanDetailDto day : days) {
+            if (day.getTargetCoverage() != null) {
+                scored++;
+                day.getTargetCoverage().forEach((nutrient, percent) ->
+                        sums.merge(nutrient, percent, Double::sum));
+            }
+        }
+        if (scored == 0) {
+            return null;
+        }
+        final int count = scored;
+        sums.replaceAll((nutrient, sum) -> round(sum / count));
+        return sums;
+    }
+
+    /**
+     * Round a reported nutrient value.
+     *
+     * @param value the value
+     * @return the value rounded to two decimals
+     */
+    private static double round(final double value) {
+        return Math.round(value * NUTRIENT_ROUNDING) / NUTRIENT_ROUNDING;
+    }
+
     /**
      * Calculate variance between actual and target values.
      *
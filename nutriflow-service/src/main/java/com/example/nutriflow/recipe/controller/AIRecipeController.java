@@ -1,25 +1,68 @@
 package com.example.nutriflow.recipe.controller;
 
-import com.example.nutriflow.recipe.service.AIRecipeService;
+import com.example.nutriflow.recipe.dto.AIRecipeBatchProgressDto;
+import com.example.nutriflow.recipe.dto.AIRateLimitStatsDto;
+import com.example.nutriflow.recipe.dto.AIRecipeBatchRequestDto;
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.service.AIRecipeBatchService;
+import com.example.nutriflow.recipe.service.AIRecipeGateway;
+import com.example.nutriflow.recipe.service.AIRecipeUnavailableException;
+import com.example.nutriflow.recipe.service.AIRequestLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 
 /**
  * REST controller for managing AI recipe-related operations.
  * Provides endpoints for retrieving ai generated recipes.
+ * Requests are completed asynchronously so slow LLM calls do not hold
+ * servlet threads.
  */
 @RestController
 @RequestMapping("/api/ai/recipes")
 public class AIRecipeController {
-    /** Service handling recipe-related logic. */
+    /** Non-blocking gateway to the AI recipe service. */
     @Autowired
-    private AIRecipeService aiRecipeService;
+    private AIRecipeGateway aiRecipeGateway;
+    /** Batch generation service. */
+    @Autowired
+    private AIRecipeBatchService aiRecipeBatchService;
+    /** LLM request quota, for its queue-depth metrics. */
+    @Autowired
+    private AIRequestLimiter aiRequestLimiter;
+    /** Serializes batch progress events. */
+    @Autowired
+    private ObjectMapper objectMapper;
+    /** Default minutes a batch progress stream may stay open. */
+    private static final long DEFAULT_BATCH_STREAM_MINUTES = 60;
+    /** Minutes a batch progress stream may stay open. */
+    @Value("${nutriflow.ai.batch.stream-timeout-minutes:60}")
+    private long batchStreamTimeoutMinutes = DEFAULT_BATCH_STREAM_MINUTES;
+    /** Default seconds of the AI call timeout. */
+    private static final long DEFAULT_AI_TIMEOUT_SECONDS = 20;
+    /** Seconds a recipe stream stays open past the AI call timeout. */
+    private static final long RECIPE_STREAM_MARGIN_SECONDS = 5;
+    /** AI call timeout; recipe streams close shortly after it. */
+    @Value("${nutriflow.ai.timeout-seconds:20}")
+    private long aiTimeoutSeconds = DEFAULT_AI_TIMEOUT_SECONDS;
 
     /**
      * GET endpoint to retrieve a recipe with the given ingredient.
@@ -31,18 +74,16 @@ public class AIRecipeController {
      * /api/ai/recipes/ingredient/{ingredient} - returns a recipe
      * with the given ingredient.
      * @param ingredient ingredient that the user wants to use
-     * @return ResponseEntity containing the appropriate recipe
+     * @return future ResponseEntity containing the appropriate recipe;
+     *         503 when the AI backend is unavailable or saturated,
+     *         504 when the call timed out
      */
     @GetMapping("ingredient/{ingredient}")
-    public ResponseEntity<?> getAIRecipe(
+    public CompletableFuture<ResponseEntity<?>> getAIRecipe(
         final @PathVariable String ingredient) {
-        try {
-            return ResponseEntity.ok(
-                aiRecipeService.getAIRecipe(ingredient));
-        } catch (Exception e) {
-        return ResponseEntity.badRequest()
-            .body(Map.of("error", e.getMessage()));
-        }
+        return aiRecipeGateway.getAIRecipe(ingredient)
+            .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+            .exceptionally(AIRecipeController::toErrorResponse);
     }
 
     /**
@@ -50,16 +91,236 @@ public class AIRecipeController {
      * An LLM recommends a randomly generated delicious recipe.
      * Example:
      * /api/ai/recipes/recommendation - returns some AI recommended recipe
-     * @return ResponseEntity containing a recommended recipe
+     * @return future ResponseEntity containing a recommended recipe
      */
     @GetMapping("/recommendation")
-    public ResponseEntity<?> getAIRecommendedRecipe() {
+    public CompletableFuture<ResponseEntity<?>> getAIRecommendedRecipe() {
+        return aiRecipeGateway.getAIRecommendedRecipe()
+            .<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+            .exceptionally(AIRecipeController::toErrorResponse);
+    }
+
+    /**
+     * GET endpoint streaming a recipe with the given ingredient as
+     * server-sent events. The model output is sent as {@code chunk}
+     * events while it is generated, followed by a single {@code recipe}
+     * event with the complete recipe, or an {@code error} event with
+     * the status and message of the failure. Stored and cached recipes
+     * are sent as a {@code recipe} event right away.
+     *
+     * Example:
+     * /api/ai/recipes/ingredient/{ingredient}/stream
+     * @param ingredient ingredient that the user wants to use
+     * @return the event stream
+     */
+    @GetMapping(value = "ingredient/{ingredient}/stream",
+        produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAIRecipe(final @PathVariable String ingredient) {
+        final SseEmitter emitter = newRecipeEmitter();
+        relay(emitter, aiRecipeGateway.streamAIRecipe(ingredient,
+            chunkSender(emitter)));
+        return emitter;
+    }
+
+    /**
+     * GET endpoint streaming an AI recommended recipe as server-sent
+     * events, with the same events as
+     * {@link #streamAIRecipe(String)}.
+     *
+     * Example:
+     * /api/ai/recipes/recommendation/stream
+     * @return the event stream
+     */
+    @GetMapping(value = "/recommendation/stream",
+        produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAIRecommendedRecipe() {
+        final SseEmitter emitter = newRecipeEmitter();
+        relay(emitter, aiRecipeGateway.streamAIRecommendedRecipe(
+            chunkSender(emitter)));
+        return emitter;
+    }
+
+    /**
+     * GET endpoint returning the state of the LLM request limiter:
+     * available permits, queue depth per priority and counts of
+     * granted and rejected requests.
+     *
+     * Example:
+     * /api/ai/recipes/rate-limit
+     * @return ResponseEntity containing the limiter statistics
+     */
+    @GetMapping("/rate-limit")
+    public ResponseEntity<AIRateLimitStatsDto> getRateLimitStats() {
+        return ResponseEntity.ok(aiRequestLimiter.getStats());
+    }
+
+    /**
+     * POST endpoint to generate recipes for many ingredients at once.
+     * Ingredients are grouped into multi-recipe LLM calls that run with
+     * bounded concurrency; generated recipes are saved to the catalog.
+     * Progress is streamed as newline-delimited JSON, one event per
+     * finished group followed by a final summary with {@code done=true}.
+     *
+     * Example:
+     * POST /api/ai/recipes/batch
+     * {"ingredients": ["kale", "okra"], "groupSize": 10}
+     * @param request the ingredients and optional group size
+     * @return NDJSON progress stream; 400 with a single final event
+     *         carrying the error for an invalid request
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ResponseBodyEmitter> generateBatch(
+        final @RequestBody AIRecipeBatchRequestDto request) {
+        final ResponseBodyEmitter emitter = new ResponseBodyEmitter(
+            TimeUnit.MINUTES.toMillis(batchStreamTimeoutMinutes));
+        final CompletableFuture<AIRecipeBatchProgressDto> batch;
         try {
-            return ResponseEntity.ok(
-                aiRecipeService.getAIRecommendedRecipe());
-        } catch (Exception e) {
-        return ResponseEntity.badRequest()
-            .body(Map.of("error", e.getMessage()));
+            batch = aiRecipeBatchService.generate(request.getIngredients(),
+                request.getGroupSize(), request.isSkipCovered(),
+                event -> sendLine(emitter, event));
+        } catch (IllegalArgumentException e) {
+            final AIRecipeBatchProgressDto rejected =
+                new AIRecipeBatchProgressDto();
+            rejected.setError(e.getMessage());
+            rejected.setDone(true);
+            sendLine(emitter, rejected);
+            emitter.complete();
+            return ResponseEntity.badRequest()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(emitter);
         }
+        // stop the remaining LLM calls once the client is gone
+        emitter.onCompletion(() -> batch.cancel(true));
+        emitter.onTimeout(() -> batch.cancel(true));
+        emitter.onError(error -> batch.cancel(true));
+        batch.whenComplete((summary, error) -> {
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                sendLine(emitter, summary);
+                emitter.complete();
+            }
+        });
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(emitter);
+    }
+
+    /**
+     * Sends one NDJSON line. A client that went away fails the stream,
+     * which cancels the rest of the batch.
+     *
+     * @param emitter the stream
+     * @param event   the event
+     */
+    private void sendLine(final ResponseBodyEmitter emitter,
+                          final AIRecipeBatchProgressDto event) {
+        try {
+            emitter.send(objectMapper.writeValueAsString(event) + "\n",
+                MediaType.TEXT_PLAIN);
+        } catch (IOException e) {
+            // client disconnected
+            emitter.completeWithError(e);
+        } catch (IllegalStateException e) {
+            // stream already completed
+        }
+    }
+
+    /**
+     * Creates an emitter that outlives the AI call timeout slightly, so
+     * a timed out call can still report its error event.
+     *
+     * @return the emitter
+     */
+    private SseEmitter newRecipeEmitter() {
+        return new SseEmitter(TimeUnit.SECONDS.toMillis(
+            aiTimeoutSeconds + RECIPE_STREAM_MARGIN_SECONDS));
+    }
+
+    /**
+     * Returns a consumer sending partial model output as chunk events.
+     *
+     * @param emitter the stream
+     * @return the chunk consumer
+     */
+    private static Consumer<String> chunkSender(final SseEmitter emitter) {
+        return chunk -> sendEvent(emitter, "chunk", chunk);
+    }
+
+    /**
+     * Sends the outcome of a streamed recipe call and closes the stream.
+     *
+     * @param emitter the stream
+     * @param recipe  the future recipe
+     */
+    private static void relay(final SseEmitter emitter,
+                              final CompletableFuture<Recipe> recipe) {
+        recipe.whenComplete((result, error) -> {
+            if (error != null) {
+                final Throwable cause = unwrap(error);
+                sendEvent(emitter, "error", Map.of(
+                    "status", errorStatus(cause).value(),
+                    "error", String.valueOf(cause.getMessage())));
+            } else {
+                sendEvent(emitter, "recipe", result);
+            }
+            emitter.complete();
+        });
+    }
+
+    /**
+     * Sends one named event. A client that went away does not stop the
+     * AI call; its remaining events are dropped.
+     *
+     * @param emitter the stream
+     * @param name    the event name
+     * @param data    the event data
+     */
+    private static void sendEvent(final SseEmitter emitter,
+                                  final String name, final Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // client disconnected or stream already completed
+        }
+    }
+
+    /**
+     * Maps an async failure to an error response.
+     *
+     * @param error the failure
+     * @return 503/504 for an unavailable backend, otherwise 400
+     */
+    private static ResponseEntity<?> toErrorResponse(final Throwable error) {
+        final Throwable cause = unwrap(error);
+        return ResponseEntity.status(errorStatus(cause))
+            .body(Map.of("error", String.valueOf(cause.getMessage())));
+    }
+
+    /**
+     * Returns the status for a failure: 503/504 for an unavailable
+     * backend, otherwise 400.
+     *
+     * @param cause the unwrapped failure
+     * @return the status
+     */
+    private static HttpStatus errorStatus(final Throwable cause) {
+        if (cause instanceof AIRecipeUnavailableException unavailable) {
+            return unavailable.isTimedOut()
+                ? HttpStatus.GATEWAY_TIMEOUT
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        return HttpStatus.BAD_REQUEST;
+    }
+
+    /**
+     * Unwraps the cause of an async failure.
+     *
+     * @param error the failure
+     * @return the cause, or the failure itself
+     */
+    private static Throwable unwrap(final Throwable error) {
+        return error instanceof CompletionException
+            && error.getCause() != null ? error.getCause() : error;
     }
 }
@@ -1,17 +1,30 @@
 package com.example.nutriflow.recipe.controller;
 
+import com.example.nutriflow.recipe.dto.NutritionRecomputeResultDto;
+import com.example.nutriflow.recipe.dto.RecipeImportResultDto;
 import com.example.nutriflow.recipe.model.FavoriteRecipe;
 import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.service.RecipeImportService;
+import com.example.nutriflow.recipe.service.RecipeNutritionService;
 import com.example.nutriflow.recipe.service.RecipeService;
+import com.example.nutriflow.shared.export.NdjsonExportWriter;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -25,10 +38,22 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/recipes")
 public class RecipeController {
 
+    /** Logger for this controller. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RecipeController.class);
+
     /** Service handling recipe-related logic. */
     @Autowired
     private RecipeService recipeService;
 
+    /** Service handling bulk recipe imports. */
+    @Autowired
+    private RecipeImportService recipeImportService;
+
+    /** Service recomputing recipe macros from ingredients. */
+    @Autowired
+    private RecipeNutritionService recipeNutritionService;
+
     /**
     * GET endpoint to retrieve all recipes.
     *
@@ -39,6 +64,40 @@ public class RecipeController {
         return ResponseEntity.ok(recipeService.getAllRecipes());
     }
 
+    /**
+    * GET endpoint to export the full recipe catalog.
+    * Streams every recipe as newline-delimited JSON straight from a
+    * database cursor, in constant memory. The body is gzip-encoded
+    * when the request's Accept-Encoding allows it.
+    *
+    * Example:
+    * - curl --compressed -o recipes.ndjson /api/recipes/export
+    *
+    * @param acceptEncoding the Accept-Encoding request header
+    * @param response       the servlet response written to directly
+    * @throws IOException if writing the response fails
+    */
+    @GetMapping("/export")
+    public void exportRecipes(
+            final @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING,
+                    required = false) String acceptEncoding,
+            final HttpServletResponse response) throws IOException {
+        LOGGER.info("[API_CALL] GET /api/recipes/export");
+
+        final boolean gzip = NdjsonExportWriter.acceptsGzip(acceptEncoding);
+        response.setContentType("application/x-ndjson");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"recipes.ndjson\"");
+        final long count = recipeService.exportRecipes(
+                response.getOutputStream(), gzip);
+
+        LOGGER.info("[API_RESPONSE] Exported {} recipes", count);
+    }
+
     /**
     * GET endpoint to retrieve a recipe by its unique ID.
     *
@@ -202,4 +261,162 @@ public class RecipeController {
                 Map.of("message",
                         "Favorite removed successfully"));
     }
+
+    /**
+     * POST endpoint to add several recipes to a user's favorites at once.
+     * Recipes that are already favorited or do not exist are skipped.
+     *
+     * Example:
+     * - POST /api/recipes/favorites/1/bulk with body [3, 5, 8]
+     *
+     * @param userId    the user ID
+     * @param recipeIds the recipe IDs to add
+     * @return 200 OK with the number of favorites added,
+     *         or 400 if the list is empty
+     */
+    @PostMapping("/favorites/{userId}/bulk")
+    public ResponseEntity<?> addFavorites(
+            final @PathVariable Integer userId,
+            final @RequestBody List<Integer> recipeIds) {
+
+        if (recipeIds == null || recipeIds.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "recipeIds are required"));
+        }
+
+        final int added = recipeService.addFavorites(userId, recipeIds);
+        return ResponseEntity.ok(Map.of("added", added));
+    }
+
+    /**
+     * DELETE endpoint to remove several recipes from a user's favorites.
+     *
+     * Example:
+     * - DELETE /api/recipes/favorites/1?recipeIds=3,5,8
+     *
+     * @param userId    the user ID
+     * @param recipeIds the recipe IDs to remove
+     * @return 200 OK with the number of favorites removed,
+     *         or 400 if the list is empty
+     */
+    @DeleteMapping("/favorites/{userId}")
+    public ResponseEntity<?> removeFavorites(
+            final @PathVariable Integer userId,
+            final @RequestParam(name = "recipeIds",
+                    required = false) List<Integer> recipeIds) {
+
+        if (recipeIds == null || recipeIds.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "recipeIds are required"));
+        }
+
+        final int removed =
+                recipeService.removeFavorites(userId, recipeIds);
+        return ResponseEntity.ok(Map.of("removed", removed));
+    }
+
+    /**
+     * POST endpoint to bulk-import recipes from newline-delimited JSON.
+     * Each line is one recipe with an inline ingredients array; the
+     * body is validated in full, then loaded in chunks.
+     *
+     * Example:
+     * - curl -X POST -H 'Content-Type: application/x-ndjson'
+     *   --data-binary @recipes.ndjson /api/recipes/import
+     *
+     * @param body the request body stream
+     * @return 200 OK with the import summary, 400 if the stream is
+     *         unreadable, or 500 if loading failed (with the summary
+     *         of the chunks committed before the failure)
+     */
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<?> importRecipesNdjson(final InputStream body) {
+        try {
+            final RecipeImportResultDto result =
+                    recipeImportService.importNdjson(body);
+            return importResponse(result);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST endpoint to bulk-import recipes from CSV with a header row.
+     * See {@link RecipeImportService#importCsv(InputStream)} for the
+     * column layout.
+     *
+     * @param body the request body stream
+     * @return 200 OK with the import summary, 400 if the stream is
+     *         unreadable, or 500 if loading failed (with the summary
+     *         of the chunks committed before the failure)
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importRecipesCsv(final InputStream body) {
+        try {
+            final RecipeImportResultDto result =
+                    recipeImportService.importCsv(body);
+            return importResponse(result);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Maps an import summary to 200, or to 500 if loading stopped early.
+     *
+     * @param result the import summary
+     * @return the response
+     */
+    private static ResponseEntity<RecipeImportResultDto> importResponse(
+            final RecipeImportResultDto result) {
+        if (result.getError() != null) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * POST endpoint to recompute one recipe's macros from its ingredient
+     * rows and the ingredient nutrition table.
+     *
+     * @param id the recipe ID
+     * @return 200 OK with the recompute summary, or 404 if the recipe
+     *         does not exist
+     */
+    @PostMapping("/{id}/nutrition/recompute")
+    public ResponseEntity<?> recomputeRecipeNutrition(
+            @PathVariable final Integer id) {
+        final NutritionRecomputeResultDto result =
+                recipeNutritionService.recomputeRecipe(id);
+        if (result.getRecipesScanned() == 0) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Recipe not found"));
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * POST endpoint to recompute macros for the whole catalog in
+     * parallel batches.
+     *
+     * @return 200 OK with the recompute summary, or 500 if a batch failed
+     */
+    @PostMapping("/nutrition/recompute")
+    public ResponseEntity<?> recomputeAllNutrition() {
+        try {
+            return ResponseEntity.ok(recipeNutritionService.recomputeAll());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package com.example.nutriflow.recipe.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Snapshot of the AI request rate limiter.
+ */
+@Data
+@NoArgsConstructor
+public class AIRateLimitStatsDto {
+
+    /** Whether requests are rate limited at all. */
+    private boolean enabled;
+
+    /** Sustained LLM requests per minute. */
+    private int requestsPerMinute;
+
+    /** Bucket capacity. */
+    private int burst;
+
+    /** Permits available right now. */
+    private int availablePermits;
+
+    /** Interactive requests waiting for a permit. */
+    private int interactiveQueueDepth;
+
+    /** Background and batch requests waiting for a permit. */
+    private int backgroundQueueDepth;
+
+    /** Permits handed out since startup. */
+    private long granted;
+
+    /** Requests rejected or timed out since startup. */
+    private long rejected;
+}
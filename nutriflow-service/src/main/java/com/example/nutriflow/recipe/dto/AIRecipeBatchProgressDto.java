@@ -0,0 +1,49 @@
+package com.example.nutriflow.recipe.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress event of a batch AI recipe generation, emitted once per
+ * finished group and once more, with {@code done} set, at the end.
+ */
+@Data
+@NoArgsConstructor
+public class AIRecipeBatchProgressDto {
+
+    /** Index of the finished group (1-based), 0 for the final event. */
+    private int group;
+
+    /** Number of groups in the batch. */
+    private int totalGroups;
+
+    /** Groups finished so far, failed ones included. */
+    private int completedGroups;
+
+    /** Groups whose LLM call failed. */
+    private int failedGroups;
+
+    /** Recipes generated so far. */
+    private int recipesGenerated;
+
+    /** Ingredients skipped because the catalog already covers them. */
+    private int skippedIngredients;
+
+    /** Ingredients of the finished group. */
+    private List<String> ingredients = new ArrayList<>();
+
+    /** Titles of the recipes generated for the finished group. */
+    private List<String> titles = new ArrayList<>();
+
+    /** Failure message of the finished group, if it failed. */
+    private String error;
+
+    /** Whether this is the final event. */
+    private boolean done;
+
+    /** Milliseconds since the batch started. */
+    private long elapsedMillis;
+}
@@ -0,0 +1,26 @@
+package com.example.nutriflow.recipe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request body of a batch AI recipe generation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIRecipeBatchRequestDto {
+
+    /** Ingredients that each need a recipe. */
+    private List<String> ingredients = new ArrayList<>();
+
+    /** Ingredients per LLM call; the configured default when null. */
+    private Integer groupSize;
+
+    /** Whether to skip ingredients the catalog already covers. */
+    private boolean skipCovered = true;
+}
@@ -0,0 +1,41 @@
+package com.example.nutriflow.recipe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Summary returned by a recipe nutrition recomputation.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NutritionRecomputeResultDto {
+
+    /** Number of recipes examined. */
+    private int recipesScanned;
+
+    /** Number of recipes whose macros were rewritten. */
+    private int recipesUpdated;
+
+    /**
+     * Number of recipes left untouched because an ingredient could not
+     * be resolved (no nutrition entry, missing quantity, or a unit that
+     * cannot be converted to grams).
+     */
+    private int recipesSkipped;
+
+    /**
+     * Adds another result to this one.
+     *
+     * @param other the result to merge
+     * @return this result
+     */
+    public NutritionRecomputeResultDto merge(
+            final NutritionRecomputeResultDto other) {
+        recipesScanned += other.recipesScanned;
+        recipesUpdated += other.recipesUpdated;
+        recipesSkipped += other.recipesSkipped;
+        return this;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.nutriflow.recipe.dto;
+
+import com.example.nutriflow.recipe.model.RecipeIngredient;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One recipe record in a bulk import stream.
+ * Mirrors the JSON shape produced for AI-generated recipes: recipe
+ * metadata and macros plus an inline list of ingredients.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RecipeImportDto {
+
+    /** Title of the recipe (required). */
+    private String title;
+
+    /** Estimated cook time in minutes. */
+    private Integer cookTime;
+
+    /** Cuisines associated with the recipe. */
+    private String[] cuisines;
+
+    /** Tags for filtering or search. */
+    private String[] tags;
+
+    /** Optional structured nutrition payload. */
+    private JsonNode nutrition;
+
+    /** Calories per serving. */
+    private BigDecimal calories;
+
+    /** Carbohydrates per serving (grams). */
+    private BigDecimal carbohydrates;
+
+    /** Fat per serving (grams). */
+    private BigDecimal fat;
+
+    /** Fiber per serving (grams). */
+    private BigDecimal fiber;
+
+    /** Protein per serving (grams). */
+    private BigDecimal protein;
+
+    /** Popularity score used for ranking. */
+    private Integer popularityScore;
+
+    /** Servings the ingredient quantities make; one if absent. */
+    private Integer servings;
+
+    /** Ingredients of the recipe; recipe IDs are assigned on import. */
+    private List<RecipeIngredient> ingredients;
+}
@@ -0,0 +1,41 @@
+package com.example.nutriflow.recipe.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary returned by a bulk recipe import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeImportResultDto {
+
+    /** Number of recipes written to the catalog. */
+    private int importedRecipes;
+
+    /** Number of recipe ingredient rows written. */
+    private int importedIngredients;
+
+    /** Number of input records rejected by validation. */
+    private int rejectedRecords;
+
+    /** Validation errors, prefixed with the input line number. */
+    private List<String> errors = new ArrayList<>();
+
+    /** Number of chunks committed; earlier chunks stay on failure. */
+    private int committedChunks;
+
+    /**
+     * Last input line whose recipe is committed; a failed import can be
+     * resumed from the line after it. 0 if nothing was committed.
+     */
+    private int committedThroughLine;
+
+    /** Why loading stopped early; null if every chunk committed. */
+    private String error;
+}
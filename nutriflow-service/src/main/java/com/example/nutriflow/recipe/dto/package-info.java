@@ -0,0 +1,6 @@
+/**
+ * Contains recipe data transfer objects.
+ *
+ * @since 1.0
+ */
+package com.example.nutriflow.recipe.dto;
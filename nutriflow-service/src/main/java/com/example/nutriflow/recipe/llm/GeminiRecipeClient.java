@@ -0,0 +1,216 @@
+package com.example.nutriflow.recipe.llm;
+
+import com.google.genai.Client;
+import com.google.genai.ResponseStream;
+import com.google.genai.errors.ApiException;
+import com.google.genai.errors.GenAiIOException;
+import com.google.genai.types.GenerateContentConfig;
+import com.google.genai.types.GenerateContentResponse;
+import com.google.genai.types.HttpOptions;
+import com.google.genai.types.Schema;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * {@link LlmRecipeClient} backed by Google Gemini with a structured
+ * JSON output schema. Active unless {@code nutriflow.ai.client} selects
+ * another implementation. Requests time out at the HTTP level after
+ * {@code nutriflow.ai.timeout-seconds}, so a call the gateway has given
+ * up on does not keep holding its thread; SDK errors surface as
+ * {@link LlmBackendException}.
+ */
+@Component
+@ConditionalOnProperty(name = "nutriflow.ai.client", havingValue = "gemini",
+        matchIfMissing = true)
+public class GeminiRecipeClient implements LlmRecipeClient {
+    /** Structured output schema of one recipe. */
+    private static final Schema RECIPE_SCHEMA = buildResponseSchema();
+    /**
+     * Structured output config. Immutable, so it is built once instead
+     * of re-creating the nested schema on every request.
+     */
+    private static final GenerateContentConfig RESPONSE_CONFIG =
+        GenerateContentConfig.builder()
+            .responseMimeType("application/json")
+            .responseSchema(RECIPE_SCHEMA)
+            .build();
+    /** Structured output config for an array of recipes. */
+    private static final GenerateContentConfig RESPONSE_LIST_CONFIG =
+        GenerateContentConfig.builder()
+            .responseMimeType("application/json")
+            .responseSchema(Schema.builder().type("ARRAY")
+                .items(RECIPE_SCHEMA).build())
+            .build();
+    /** Client object that makes a connection to LLM. */
+    private final Client client;
+    /** Model type used for LLM. */
+    private final String model;
+
+    /**
+     * Initializes the Gemini client.
+     *
+     * @param apiKey apikey used for the LLM authentication
+     * @param modelName the model type (for ex., gemini-flash)
+     * @param timeoutSeconds HTTP timeout of each request
+     */
+    public GeminiRecipeClient(
+        final @Value("${GOOGLE_API_KEY}") String apiKey,
+        final @Value("${GOOGLE_MODEL_NAME}") String modelName,
+        final @Value("${nutriflow.ai.timeout-seconds:20}")
+        long timeoutSeconds) {
+        this.client = Client.builder().apiKey(apiKey)
+            .httpOptions(HttpOptions.builder()
+                .timeout((int) Duration.ofSeconds(timeoutSeconds).toMillis())
+                .build())
+            .build();
+        this.model = modelName;
+    }
+
+    /**
+     * Uses the prompt to make an LLM query with the structured output
+     * schema.
+     *
+     * @param prompt prompt that is used to make an LLM query.
+     * @return Returns the raw JSON text of the generated recipe.
+     */
+    @Override
+    public String generateRecipeJson(final String prompt) {
+        try {
+            GenerateContentResponse response = client.models
+                .generateContent(model, prompt, RESPONSE_CONFIG);
+
+            return response.text();
+        } catch (ApiException | GenAiIOException e) {
+            throw backendFailure(e);
+        }
+    }
+
+    /**
+     * Uses the prompt to generate several recipes in one LLM query.
+     * The number of recipes is set by the prompt.
+     *
+     * @param prompt prompt asking for {@code count} recipes.
+     * @param count the number of recipes requested.
+     * @return Returns the raw JSON array of the generated recipes.
+     */
+    @Override
+    public String generateRecipeListJson(final String prompt,
+                                         final int count) {
+        try {
+            return client.models
+                .generateContent(model, prompt, RESPONSE_LIST_CONFIG).text();
+        } catch (ApiException | GenAiIOException e) {
+            throw backendFailure(e);
+        }
+    }
+
+    /**
+     * Uses the SDK's streaming generation, forwarding each chunk of the
+     * structured output as soon as the model produces it.
+     *
+     * @param prompt prompt that is used to make an LLM query.
+     * @param onChunk receives the partial JSON text.
+     * @return Returns the complete raw JSON text of the recipe.
+     */
+    @Override
+    public String streamRecipeJson(final String prompt,
+                                   final Consumer<String> onChunk) {
+        final StringBuilder json = new StringBuilder();
+        try (ResponseStream<GenerateContentResponse> stream =
+                 client.models.generateContentStream(
+                     model, prompt, RESPONSE_CONFIG)) {
+            for (GenerateContentResponse chunk : stream) {
+                final String text = chunk.text();
+                if (text != null && !text.isEmpty()) {
+                    json.append(text);
+                    onChunk.accept(text);
+                }
+            }
+        } catch (ApiException | GenAiIOException e) {
+            throw backendFailure(e);
+        }
+        return json.toString();
+    }
+
+    /**
+     * Wraps an SDK error as a backend failure.
+     *
+     * @param e the SDK error
+     * @return the exception to throw
+     */
+    private static LlmBackendException backendFailure(
+        final RuntimeException e) {
+        return new LlmBackendException(
+            "Gemini request failed: " + e.getMessage(), e);
+    }
+
+    /**
+     * Builds the structured output schema of a recipe.
+     *
+     * @return the response schema
+     */
+    private static Schema buildResponseSchema() {
+        return Schema.builder().type("OBJECT")
+            .properties(Map.ofEntries(
+                Map.entry("title",
+                    Schema.builder().type("STRING").build()),
+                Map.entry("cookTime",
+                    Schema.builder().type("INTEGER").build()),
+                Map.entry("cuisines",
+                    Schema.builder().type("ARRAY")
+                        .items(Schema.builder().type("STRING").build())
+                        .build()),
+                Map.entry("tags",
+                    Schema.builder().type("ARRAY")
+                        .items(Schema.builder().type("STRING").build())
+                        .build()),
+                Map.entry("ingredients",
+                    Schema.builder().type("ARRAY").items(
+                        Schema.builder().type("OBJECT")
+                            .properties(Map.ofEntries(
+                                Map.entry("id",
+                                    Schema.builder().type("NULL").build()),
+                                Map.entry("recipeId",
+                                    Schema.builder().type("NULL").build()),
+                                Map.entry("ingredient",
+                                    Schema.builder().type("STRING").build()),
+                                Map.entry("quantity",
+                                    Schema.builder().type("NUMBER").build()),
+                                Map.entry("unit",
+                                    Schema.builder().type("STRING").build()),
+                                Map.entry("allergenTags",
+                                    Schema.builder().type("ARRAY")
+                                        .items(Schema.builder()
+                                            .type("STRING").build())
+                                        .build())
+                                )).build())
+                        .build()),
+                Map.entry("nutrition",
+                    Schema.builder().type("OBJECT").properties(
+                        Map.ofEntries(
+                            Map.entry("summary",
+                                Schema.builder().type("NULL").build())
+                        )
+                        )
+                    .build()),
+                Map.entry("calories",
+                    Schema.builder().type("NUMBER").build()),
+                Map.entry("carbohydrates",
+                    Schema.builder().type("NUMBER").build()),
+                Map.entry("fat",
+                    Schema.builder().type("NUMBER").build()),
+                Map.entry("fiber",
+                    Schema.builder().type("NUMBER").build()),
+                Map.entry("protein",
+                    Schema.builder().type("NUMBER").build())
+            ))
+            .required(List.of("title", "ingredients"))
+            .build();
+    }
+}
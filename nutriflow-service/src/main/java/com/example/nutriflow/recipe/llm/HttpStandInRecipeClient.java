@@ -0,0 +1,190 @@
+package com.example.nutriflow.recipe.llm;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * {@link LlmRecipeClient} that posts the prompt as plain text to an
+ * HTTP endpoint, typically {@link LlmStandInServer}. Selected with
+ * {@code nutriflow.ai.client=stand-in} to exercise the AI endpoints
+ * offline, e.g. for load tests in CI.
+ */
+@Component
+@ConditionalOnProperty(name = "nutriflow.ai.client", havingValue = "stand-in")
+public class HttpStandInRecipeClient implements LlmRecipeClient {
+
+    /** Highest HTTP status code treated as success. */
+    private static final int MAX_SUCCESS_STATUS = 299;
+
+    /** Characters read per streamed chunk at most. */
+    private static final int STREAM_BUFFER_CHARS = 256;
+
+    /** Endpoint receiving the prompt. */
+    private final URI endpoint;
+
+    /** Per-request timeout, covering the whole response. */
+    private final Duration timeout;
+
+    /** Shared HTTP client. */
+    private final HttpClient httpClient;
+
+    /**
+     * Creates the client.
+     *
+     * @param url            endpoint receiving the prompt
+     * @param timeoutSeconds per-request timeout; defaults to the AI call
+     *                       timeout so a timed-out call frees its thread
+     */
+    public HttpStandInRecipeClient(
+            final @Value(
+                    "${nutriflow.ai.stand-in.url:http://localhost:8089/generate}")
+            String url,
+            final @Value("${nutriflow.ai.stand-in.timeout-seconds:"
+                    + "${nutriflow.ai.timeout-seconds:20}}")
+            long timeoutSeconds) {
+        this.endpoint = URI.create(url);
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(this.timeout)
+                .build();
+    }
+
+    /**
+     * Posts the prompt and returns the response body.
+     *
+     * @param prompt the prompt
+     * @return the recipe as JSON text
+     * @throws LlmBackendException on a non-2xx status or I/O failure
+     */
+    @Override
+    public String generateRecipeJson(final String prompt) {
+        return post(endpoint, prompt);
+    }
+
+    /**
+     * Posts the prompt with a {@code count} query parameter, which makes
+     * the stand-in answer with an array of that many recipes.
+     *
+     * @param prompt the prompt
+     * @param count  the number of recipes requested
+     * @return a JSON array of recipes
+     * @throws LlmBackendException on a non-2xx status or I/O failure
+     */
+    @Override
+    public String generateRecipeListJson(final String prompt,
+                                         final int count) {
+        return post(withQuery("count=" + count), prompt);
+    }
+
+    /**
+     * Posts the prompt with {@code stream=true}, which makes the
+     * stand-in send the recipe in chunks, and forwards each chunk as
+     * it arrives.
+     *
+     * @param prompt  the prompt
+     * @param onChunk receives the partial JSON text
+     * @return the complete recipe JSON text
+     * @throws LlmBackendException on a non-2xx status or I/O failure
+     */
+    @Override
+    public String streamRecipeJson(final String prompt,
+                                   final Consumer<String> onChunk) {
+        try {
+            final HttpResponse<InputStream> response = httpClient.send(
+                    request(withQuery("stream=true"), prompt),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            try (Reader body = new InputStreamReader(
+                    response.body(), StandardCharsets.UTF_8)) {
+                if (response.statusCode() > MAX_SUCCESS_STATUS) {
+                    throw new LlmBackendException("LLM stand-in returned "
+                            + response.statusCode());
+                }
+                final StringBuilder json = new StringBuilder();
+                final char[] buffer = new char[STREAM_BUFFER_CHARS];
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    final String chunk = new String(buffer, 0, read);
+                    json.append(chunk);
+                    onChunk.accept(chunk);
+                }
+                return json.toString();
+            }
+        } catch (IOException e) {
+            throw new LlmBackendException(
+                    "LLM stand-in request failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmBackendException(
+                    "LLM stand-in request interrupted", e);
+        }
+    }
+
+    /**
+     * Appends a query parameter to the endpoint.
+     *
+     * @param param {@code name=value}
+     * @return the endpoint with the parameter
+     */
+    private URI withQuery(final String param) {
+        final String separator = endpoint.getRawQuery() == null ? "?" : "&";
+        return URI.create(endpoint + separator + param);
+    }
+
+    /**
+     * Builds a plain-text POST of the prompt.
+     *
+     * @param uri    the target URI
+     * @param prompt the prompt
+     * @return the request
+     */
+    private HttpRequest request(final URI uri, final String prompt) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "text/plain; charset=utf-8")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        prompt, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    /**
+     * Posts the prompt as plain text.
+     *
+     * @param uri    the target URI
+     * @param prompt the prompt
+     * @return the response body
+     * @throws LlmBackendException on a non-2xx status or I/O failure
+     */
+    private String post(final URI uri, final String prompt) {
+        try {
+            final HttpResponse<String> response = httpClient.send(
+                    request(uri, prompt),
+                    HttpResponse.BodyHandlers.ofString(
+                            StandardCharsets.UTF_8));
+            if (response.statusCode() > MAX_SUCCESS_STATUS) {
+                throw new LlmBackendException("LLM stand-in returned "
+                        + response.statusCode());
+            }
+            return response.body();
+        } catch (IOException e) {
+            throw new LlmBackendException(
+                    "LLM stand-in request failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmBackendException(
+                    "LLM stand-in request interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.nutriflow.recipe.llm;
+
+/**
+ * Thrown by an {@link LlmRecipeClient} when the model backend cannot be
+ * reached or answers with an error, as opposed to answering with output
+ * the caller cannot use. Only these failures count against the AI
+ * circuit breaker.
+ */
+public class LlmBackendException extends IllegalStateException {
+
+    /** Serialization version. */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates the exception.
+     *
+     * @param message description of the failure
+     */
+    public LlmBackendException(final String message) {
+        super(message);
+    }
+
+    /**
+     * Creates the exception with its cause.
+     *
+     * @param message description of the failure
+     * @param cause   the underlying failure
+     */
+    public LlmBackendException(final String message, final Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.nutriflow.recipe.llm;
+
+import java.util.function.Consumer;
+
+/**
+ * Client that asks a language model for a recipe.
+ * Implementations return the model's raw JSON recipe text; parsing is
+ * left to the caller. Failures surface as unchecked exceptions.
+ */
+public interface LlmRecipeClient {
+
+    /**
+     * Generates a recipe for the prompt.
+     *
+     * @param prompt the prompt
+     * @return the recipe as JSON text
+     */
+    String generateRecipeJson(String prompt);
+
+    /**
+     * Generates several recipes in one call.
+     *
+     * @param prompt the prompt, asking for {@code count} recipes
+     * @param count  the number of recipes requested
+     * @return a JSON array of recipes
+     */
+    String generateRecipeListJson(String prompt, int count);
+
+    /**
+     * Generates a recipe, forwarding the output as it is produced.
+     *
+     * @param prompt  the prompt
+     * @param onChunk receives each piece of partial JSON text in order
+     * @return the complete recipe JSON text
+     */
+    String streamRecipeJson(String prompt, Consumer<String> onChunk);
+}
@@ -0,0 +1,405 @@
+package com.example.nutriflow.recipe.llm;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP stand-in for the LLM backend, used to benchmark the AI
+ * endpoints offline (throughput, timeouts, caching) without network
+ * access or quota. Depends on the JDK only.
+ *
+ * {@code POST /generate} takes the prompt as the request body and,
+ * after a simulated latency, answers with one of a few canned JSON
+ * recipes (chosen by prompt hash, so identical prompts get identical
+ * answers) or with HTTP 503 at the configured error rate. With a
+ * {@code count} query parameter it answers with a JSON array of that
+ * many recipes, as for a multi-recipe prompt. With {@code stream=true}
+ * the recipe is sent in chunks spread over the simulated latency.
+ * {@code GET /stats} reports request and error counts.
+ *
+ * Latency is uniform between a minimum and maximum, plus a slow tail:
+ * with probability {@code tailRate} a request takes {@code tailMillis}
+ * instead, which models the p99 spikes of a real model backend.
+ *
+ * Run standalone after {@code mvn compile}:
+ * <pre>
+ * java -cp target/classes com.example.nutriflow.recipe.llm.LlmStandInServer \
+ *     --port=8089 --latency-min-ms=300 --latency-max-ms=1200 \
+ *     --tail-rate=0.02 --tail-ms=8000 --error-rate=0.05
+ * </pre>
+ * then start the service with {@code nutriflow.ai.client=stand-in}.
+ */
+public class LlmStandInServer {
+
+    /** HTTP status for a simulated backend failure. */
+    private static final int STATUS_UNAVAILABLE = 503;
+
+    /** HTTP status for success. */
+    private static final int STATUS_OK = 200;
+
+    /** HTTP status for an unsupported method. */
+    private static final int STATUS_METHOD_NOT_ALLOWED = 405;
+
+    /** Default listening port. */
+    private static final int DEFAULT_PORT = 8089;
+
+    /** Pieces a streamed response is split into. */
+    private static final int STREAM_CHUNKS = 8;
+
+    /** Default request handler threads. */
+    private static final int DEFAULT_THREADS = 64;
+
+    /** Canned recipe responses. */
+    private static final List<String> CANNED_RECIPES = List.of(
+            """
+            {"title":"Lemon Garlic Chicken","cookTime":35,\
+            "cuisines":["Mediterranean"],"tags":["high-protein"],\
+            "ingredients":[\
+            {"ingredient":"chicken breast","quantity":300,"unit":"g"},\
+            {"ingredient":"lemon","quantity":1,"unit":"pcs"},\
+            {"ingredient":"garlic","quantity":10,"unit":"g"},\
+            {"ingredient":"olive oil","quantity":15,"unit":"ml"}],\
+            "calories":520,"carbohydrates":8,"fat":22,"fiber":1,\
+            "protein":70}""",
+            """
+            {"title":"Chickpea Spinach Curry","cookTime":30,\
+            "cuisines":["Indian"],"tags":["vegetarian","vegan"],\
+            "ingredients":[\
+            {"ingredient":"chickpeas","quantity":240,"unit":"g"},\
+            {"ingredient":"spinach","quantity":100,"unit":"g"},\
+            {"ingredient":"coconut milk","quantity":200,"unit":"ml"},\
+            {"ingredient":"onion","quantity":1,"unit":"pcs"}],\
+            "calories":610,"carbohydrates":62,"fat":30,"fiber":17,\
+            "protein":21}""",
+            """
+            {"title":"Salmon Rice Bowl","cookTime":20,\
+            "cuisines":["Japanese"],"tags":["quick"],\
+            "ingredients":[\
+            {"ingredient":"salmon","quantity":150,"unit":"g"},\
+            {"ingredient":"rice","quantity":180,"unit":"g"},\
+            {"ingredient":"soy sauce","quantity":15,"unit":"ml",\
+            "allergenTags":["soy","gluten"]},\
+            {"ingredient":"avocado","quantity":0.5,"unit":"pcs"}],\
+            "calories":640,"carbohydrates":58,"fat":24,"fiber":6,\
+            "protein":38}""");
+
+    /** Minimum simulated latency. */
+    private final long latencyMinMillis;
+
+    /** Maximum simulated latency. */
+    private final long latencyMaxMillis;
+
+    /** Probability of a slow-tail request. */
+    private final double tailRate;
+
+    /** Latency of a slow-tail request. */
+    private final long tailMillis;
+
+    /** Probability of answering 503. */
+    private final double errorRate;
+
+    /** Random source; access is synchronized on it. */
+    private final Random random;
+
+    /** Requests received on /generate. */
+    private final AtomicLong requests = new AtomicLong();
+
+    /** Simulated failures returned. */
+    private final AtomicLong errors = new AtomicLong();
+
+    /** Underlying HTTP server. */
+    private final HttpServer server;
+
+    /** Handler threads. */
+    private final ExecutorService handlers;
+
+    /**
+     * Creates (but does not start) a stand-in server.
+     *
+     * @param port        port to bind, 0 for an ephemeral port
+     * @param threads     request handler threads
+     * @param latencyMin  minimum latency in milliseconds
+     * @param latencyMax  maximum latency in milliseconds
+     * @param slowRate    probability of a slow-tail request
+     * @param slowMillis  latency of a slow-tail request
+     * @param failureRate probability of answering 503
+     * @param seed        random seed, for reproducible runs
+     * @throws IOException if the port cannot be bound
+     */
+    public LlmStandInServer(final int port, final int threads,
+                            final long latencyMin, final long latencyMax,
+                            final double slowRate, final long slowMillis,
+                            final double failureRate, final long seed)
+            throws IOException {
+        this.latencyMinMillis = Math.max(0, latencyMin);
+        this.latencyMaxMillis = Math.max(this.latencyMinMillis, latencyMax);
+        this.tailRate = slowRate;
+        this.tailMillis = slowMillis;
+        this.errorRate = failureRate;
+        this.random = new Random(seed);
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.handlers = Executors.newFixedThreadPool(Math.max(1, threads));
+        this.server.setExecutor(handlers);
+        this.server.createContext("/generate", this::handleGenerate);
+        this.server.createContext("/stats", this::handleStats);
+    }
+
+    /**
+     * Starts serving requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops the server immediately.
+     */
+    public void stop() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    /**
+     * Returns the bound port.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of /generate requests received.
+     *
+     * @return request count
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of simulated failures.
+     *
+     * @return error count
+     */
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * Starts a stand-in from {@code --name=value} arguments.
+     *
+     * @param args command-line arguments
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(final String[] args) throws IOException {
+        final Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            final int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 2) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        final LlmStandInServer standIn = new LlmStandInServer(
+                Integer.parseInt(options.getOrDefault("port",
+                        String.valueOf(DEFAULT_PORT))),
+                Integer.parseInt(options.getOrDefault("threads",
+                        String.valueOf(DEFAULT_THREADS))),
+                Long.parseLong(options.getOrDefault("latency-min-ms", "300")),
+                Long.parseLong(options.getOrDefault("latency-max-ms", "1200")),
+                Double.parseDouble(options.getOrDefault("tail-rate", "0")),
+                Long.parseLong(options.getOrDefault("tail-ms", "0")),
+                Double.parseDouble(options.getOrDefault("error-rate", "0")),
+                Long.parseLong(options.getOrDefault("seed",
+                        String.valueOf(System.nanoTime()))));
+        standIn.start();
+        System.out.println("LLM stand-in listening on port "
+                + standIn.getPort());
+    }
+
+    /**
+     * Handles {@code POST /generate}.
+     *
+     * @param exchange the HTTP exchange
+     * @throws IOException if the exchange fails
+     */
+    private void handleGenerate(final HttpExchange exchange)
+            throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(STATUS_METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+            final String prompt;
+            try (InputStream in = exchange.getRequestBody()) {
+                prompt = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            requests.incrementAndGet();
+            final long delay;
+            final boolean fail;
+            synchronized (random) {
+                delay = random.nextDouble() < tailRate
+                        ? tailMillis
+                        : latencyMinMillis + (long) (random.nextDouble()
+                                * (latencyMaxMillis - latencyMinMillis));
+                fail = random.nextDouble() < errorRate;
+            }
+            final boolean stream =
+                    "true".equals(queryParam(exchange, "stream"));
+            // a streamed response starts after one chunk's share of the
+            // generation time, like a model's time to first token
+            Thread.sleep(stream ? delay / STREAM_CHUNKS : delay);
+            if (fail) {
+                errors.incrementAndGet();
+                exchange.sendResponseHeaders(STATUS_UNAVAILABLE, -1);
+                return;
+            }
+            if (stream) {
+                sendChunked(exchange, cannedRecipe(prompt.hashCode()),
+                        delay / STREAM_CHUNKS);
+                return;
+            }
+            final int count = requestedCount(exchange);
+            if (count == 0) {
+                send(exchange, cannedRecipe(prompt.hashCode()));
+                return;
+            }
+            final StringBuilder recipes = new StringBuilder("[");
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    recipes.append(',');
+                }
+                recipes.append(cannedRecipe(prompt.hashCode() + i));
+            }
+            send(exchange, recipes.append(']').toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Picks a canned recipe.
+     *
+     * @param hash selector, e.g. the prompt hash
+     * @return the recipe JSON
+     */
+    private static String cannedRecipe(final int hash) {
+        return CANNED_RECIPES.get(Math.floorMod(hash, CANNED_RECIPES.size()));
+    }
+
+    /**
+     * Reads the {@code count} query parameter.
+     *
+     * @param exchange the HTTP exchange
+     * @return the requested recipe count, or 0 for a single recipe
+     */
+    private static int requestedCount(final HttpExchange exchange) {
+        final String count = queryParam(exchange, "count");
+        if (count == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(count));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Reads a query parameter.
+     *
+     * @param exchange the HTTP exchange
+     * @param name     the parameter name
+     * @return the raw value, or null if absent
+     */
+    private static String queryParam(final HttpExchange exchange,
+                                     final String name) {
+        final String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String param : query.split("&")) {
+            if (param.startsWith(name + "=")) {
+                return param.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes a JSON body in {@value #STREAM_CHUNKS} chunked pieces,
+     * pausing between them.
+     *
+     * @param exchange   the HTTP exchange
+     * @param json       the body
+     * @param pauseMillis pause between pieces
+     * @throws IOException          if writing fails
+     * @throws InterruptedException if interrupted while pausing
+     */
+    private static void sendChunked(final HttpExchange exchange,
+                                    final String json,
+                                    final long pauseMillis)
+            throws IOException, InterruptedException {
+        final byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(STATUS_OK, 0);
+        final int pieceSize = (body.length + STREAM_CHUNKS - 1) / STREAM_CHUNKS;
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int offset = 0; offset < body.length; offset += pieceSize) {
+                if (offset > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+                out.write(body, offset,
+                        Math.min(pieceSize, body.length - offset));
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * Handles {@code GET /stats}.
+     *
+     * @param exchange the HTTP exchange
+     * @throws IOException if the exchange fails
+     */
+    private void handleStats(final HttpExchange exchange) throws IOException {
+        try {
+            send(exchange, "{\"requests\":" + requests.get()
+                    + ",\"errors\":" + errors.get() + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Writes a JSON body with status 200.
+     *
+     * @param exchange the HTTP exchange
+     * @param json     the body
+     * @throws IOException if writing fails
+     */
+    private static void send(final HttpExchange exchange, final String json)
+            throws IOException {
+        final byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(STATUS_OK, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Contains the LLM client abstraction used for AI recipe generation,
+ * its Gemini implementation, and a local HTTP stand-in for offline
+ * load testing.
+ *
+ * @since 1.0
+ */
+package com.example.nutriflow.recipe.llm;
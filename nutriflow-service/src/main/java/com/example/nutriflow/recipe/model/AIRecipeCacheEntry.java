@@ -0,0 +1,41 @@
+package com.example.nutriflow.recipe.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted copy of an LLM recipe response, keyed by normalized prompt.
+ * Lets the AI response cache survive application restarts.
+ */
+@Entity
+@Table(name = "ai_recipe_cache", schema = "nutriflow")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIRecipeCacheEntry {
+
+    /** Normalized prompt the response was generated for. */
+    @Id
+    @Column(name = "prompt_key")
+    private String promptKey;
+
+    /** Raw JSON recipe returned by the model. */
+    @Column(name = "response_json", nullable = false,
+            columnDefinition = "text")
+    private String responseJson;
+
+    /** When the response was generated. */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /** After this instant the entry is no longer served. */
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
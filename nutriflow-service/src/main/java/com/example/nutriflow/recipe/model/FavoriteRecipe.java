@@ -6,16 +6,21 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 /**
  * Entity representing a user's association to a favorite recipe.
- * Persisted in nutriflow.favorite_recipes.
+ * Persisted in nutriflow.favorite_recipes; a user can favorite a given
+ * recipe at most once.
  */
 @Entity
-@Table(name = "favorite_recipes", schema = "nutriflow")
+@Table(name = "favorite_recipes", schema = "nutriflow",
+        uniqueConstraints = @UniqueConstraint(
+                name = "unique_user_recipe",
+                columnNames = {"user_id", "recipe_id"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,5 +1,6 @@
 package com.example.nutriflow.recipe.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -9,6 +10,7 @@ import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnTransformer;
 
 import java.math.BigDecimal;
 
@@ -59,6 +61,7 @@ public class Recipe {
      * Expected format: an array of objects with name, quantity, and unit.
      */
     @Column(name = "ingredients", columnDefinition = "jsonb")
+    @ColumnTransformer(write = "?::jsonb")
     private String ingredients;
 
     /**
@@ -66,8 +69,16 @@ public class Recipe {
      * May include detailed nutrient breakdown per serving.
      */
     @Column(name = "nutrition", columnDefinition = "jsonb")
+    @ColumnTransformer(write = "?::jsonb")
     private String nutrition;
 
+    /**
+     * Number of servings the ingredient quantities make; the macros and
+     * nutrient vector are per serving. Null is read as one serving.
+     */
+    @Column(name = "servings")
+    private Integer servings;
+
     /** Calories per serving. */
     private BigDecimal calories;
 
@@ -83,7 +94,24 @@ public class Recipe {
     /** Protein per serving (grams). */
     private BigDecimal protein;
 
+    /**
+     * Every tracked nutrient per serving, in
+     * {@link com.example.nutriflow.ingredient.model.Nutrient} order,
+     * derived from the ingredient rows. Null until the recipe's
+     * nutrition has been recomputed from fully resolved ingredients.
+     */
+    @JsonIgnore
+    @Column(name = "nutrient_vector", columnDefinition = "real[]")
+    private float[] nutrientVector;
+
     /** Popularity score used to rank recipes (higher means more popular). */
     @Column(name = "popularity_score")
     private Integer popularityScore;
+
+    /**
+     * Content fingerprint (SHA-256 of the normalized title and ingredient
+     * set) used to deduplicate generated recipes. Null for curated rows.
+     */
+    @Column(name = "fingerprint", length = 64, unique = true)
+    private String fingerprint;
 }
@@ -0,0 +1,30 @@
+package com.example.nutriflow.recipe.repository;
+
+import com.example.nutriflow.recipe.model.AIRecipeCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository for persisted AI recipe responses.
+ */
+@Repository
+public interface AIRecipeCacheRepository
+        extends JpaRepository<AIRecipeCacheEntry, String> {
+
+    /**
+     * Deletes every entry that expired before the given time.
+     *
+     * @param now the current time
+     * @return number of rows removed
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AIRecipeCacheEntry e WHERE e.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
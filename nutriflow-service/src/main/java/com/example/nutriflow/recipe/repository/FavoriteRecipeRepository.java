@@ -1,12 +1,19 @@
 package com.example.nutriflow.recipe.repository;
 
 import com.example.nutriflow.recipe.model.FavoriteRecipe;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository for FavoriteRecipe persistence and lookups.
+ * Write operations are expressed as single set-oriented statements
+ * backed by the unique (user_id, recipe_id) constraint.
  */
 @Repository
 public interface FavoriteRecipeRepository
@@ -28,4 +35,70 @@ public interface FavoriteRecipeRepository
    * @return true if a row exists; false otherwise
    */
   boolean existsByUserIdAndRecipeId(Integer userId, Integer recipeId);
+
+  /**
+   * Insert a favorite link unless it already exists.
+   * Runs as one INSERT ... ON CONFLICT DO NOTHING statement and
+   * returns the inserted row, or empty if the link was already present.
+   *
+   * @param userId   user identifier
+   * @param recipeId recipe identifier
+   * @return the inserted row; empty if it already existed
+   */
+  @Query(value = "INSERT INTO nutriflow.favorite_recipes "
+      + "(user_id, recipe_id, times_used) "
+      + "VALUES (:userId, :recipeId, 0) "
+      + "ON CONFLICT (user_id, recipe_id) DO NOTHING "
+      + "RETURNING favorite_id, user_id, recipe_id, times_used",
+      nativeQuery = true)
+  Optional<FavoriteRecipe> insertIfAbsent(
+      @Param("userId") Integer userId,
+      @Param("recipeId") Integer recipeId);
+
+  /**
+   * Insert favorite links for every existing recipe in the given ID set.
+   * Unknown recipe IDs and links that already exist are skipped.
+   *
+   * @param userId    user identifier
+   * @param recipeIds recipe identifiers (must not be empty)
+   * @return number of rows inserted
+   */
+  @Modifying
+  @Query(value = "INSERT INTO nutriflow.favorite_recipes "
+      + "(user_id, recipe_id, times_used) "
+      + "SELECT :userId, r.recipe_id, 0 FROM nutriflow.recipes r "
+      + "WHERE r.recipe_id IN (:recipeIds) "
+      + "ON CONFLICT (user_id, recipe_id) DO NOTHING",
+      nativeQuery = true)
+  int insertAllIfAbsent(
+      @Param("userId") Integer userId,
+      @Param("recipeIds") Collection<Integer> recipeIds);
+
+  /**
+   * Delete the favorite link for a user and recipe.
+   *
+   * @param userId   user identifier
+   * @param recipeId recipe identifier
+   * @return number of rows deleted
+   */
+  @Modifying
+  @Query("DELETE FROM FavoriteRecipe f "
+      + "WHERE f.userId = :userId AND f.recipeId = :recipeId")
+  int deleteByUserIdAndRecipeId(
+      @Param("userId") Integer userId,
+      @Param("recipeId") Integer recipeId);
+
+  /**
+   * Delete the favorite links for a user and a set of recipes.
+   *
+   * @param userId    user identifier
+   * @param recipeIds recipe identifiers (must not be empty)
+   * @return number of rows deleted
+   */
+  @Modifying
+  @Query("DELETE FROM FavoriteRecipe f "
+      + "WHERE f.userId = :userId AND f.recipeId IN :recipeIds")
+  int deleteByUserIdAndRecipeIdIn(
+      @Param("userId") Integer userId,
+      @Param("recipeIds") Collection<Integer> recipeIds);
 }
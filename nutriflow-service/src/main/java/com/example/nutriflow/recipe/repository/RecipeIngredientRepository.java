@@ -2,6 +2,10 @@ package com.example.nutriflow.recipe.repository;
 
 import com.example.nutriflow.recipe.model.RecipeIngredient;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -18,4 +22,58 @@ public interface RecipeIngredientRepository
      * @return list of ingredients belonging to the specified recipe
      */
     List<RecipeIngredient> findByRecipeId(Integer recipeId);
+
+    /**
+     * Finds all recipe ingredients belonging to any of the given recipes.
+     *
+     * @param recipeIds the recipe IDs
+     * @return ingredients of those recipes
+     */
+    List<RecipeIngredient> findByRecipeIdIn(Collection<Integer> recipeIds);
+
+    /**
+     * Reverse lookup: IDs of recipes that use the given ingredient
+     * (case-insensitive). Backed by the lower(ingredient) index.
+     *
+     * @param name the ingredient name
+     * @return distinct recipe IDs in ascending order
+     */
+    @Query("SELECT DISTINCT ri.recipeId FROM RecipeIngredient ri "
+            + "WHERE LOWER(ri.ingredient) = LOWER(:name) "
+            + "ORDER BY ri.recipeId")
+    List<Integer> findRecipeIdsByIngredient(@Param("name") String name);
+
+    /**
+     * Reverse lookup for several ingredients at once.
+     *
+     * @param names lower-cased ingredient names (must not be empty)
+     * @return distinct recipe IDs in ascending order
+     */
+    @Query("SELECT DISTINCT ri.recipeId FROM RecipeIngredient ri "
+            + "WHERE LOWER(ri.ingredient) IN :names "
+            + "ORDER BY ri.recipeId")
+    List<Integer> findRecipeIdsByLowerIngredientIn(
+            @Param("names") Collection<String> names);
+
+    /**
+     * Which of the given ingredients are used by at least one recipe.
+     *
+     * @param names lower-cased ingredient names (must not be empty)
+     * @return the lower-cased names that occur in some recipe
+     */
+    @Query("SELECT DISTINCT LOWER(ri.ingredient) FROM RecipeIngredient ri "
+            + "WHERE LOWER(ri.ingredient) IN :names")
+    List<String> findCoveredIngredients(
+            @Param("names") Collection<String> names);
+
+    /**
+     * Number of recipes per ingredient, keyed by lower-cased ingredient
+     * name; used to rank ingredient suggestions.
+     *
+     * @return rows of [lower-cased name, recipe count]
+     */
+    @Query("SELECT LOWER(ri.ingredient), COUNT(DISTINCT ri.recipeId) "
+            + "FROM RecipeIngredient ri WHERE ri.ingredient IS NOT NULL "
+            + "GROUP BY LOWER(ri.ingredient)")
+    List<Object[]> countRecipesPerIngredient();
 }
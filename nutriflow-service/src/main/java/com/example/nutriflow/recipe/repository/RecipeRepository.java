@@ -1,12 +1,18 @@
 package com.example.nutriflow.recipe.repository;
 
 import com.example.nutriflow.recipe.model.Recipe;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for {@link Recipe} entities.
@@ -24,4 +30,56 @@ public interface RecipeRepository extends JpaRepository<Recipe, Integer> {
      */
     @Query("SELECT r FROM Recipe r ORDER BY r.popularityScore DESC")
     List<Recipe> findPopularRecipes(Pageable pageable);
+
+    /**
+     * Check whether a recipe with the given content fingerprint exists.
+     *
+     * @param fingerprint the content fingerprint
+     * @return true if such a recipe is stored
+     */
+    boolean existsByFingerprint(String fingerprint);
+
+    /**
+     * List every recipe ID in ascending order, without loading rows.
+     *
+     * @return all recipe IDs
+     */
+    @Query("SELECT r.recipeId FROM Recipe r ORDER BY r.recipeId")
+    List<Integer> findAllIds();
+
+    /**
+     * List the ID and nutrient vector of every recipe that has one, in
+     * ascending ID order, without loading rows.
+     *
+     * @return pairs of recipe ID and {@code float[]} vector
+     */
+    @Query("SELECT r.recipeId, r.nutrientVector FROM Recipe r "
+            + "WHERE r.nutrientVector IS NOT NULL ORDER BY r.recipeId")
+    List<Object[]> findNutrientVectors();
+
+    /**
+     * List the ID and nutrient vector of the given recipes, including
+     * those without a vector, so changed rows can be patched into the
+     * nutrient matrix.
+     *
+     * @param recipeIds the recipe IDs
+     * @return pairs of recipe ID and {@code float[]} vector (or null)
+     */
+    @Query("SELECT r.recipeId, r.nutrientVector FROM Recipe r "
+            + "WHERE r.recipeId IN :ids")
+    List<Object[]> findNutrientVectorsByIdIn(
+            @Param("ids") Collection<Integer> recipeIds);
+
+    /**
+     * Stream every recipe through a forward-only database cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return stream of recipes ordered by ID
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM Recipe r ORDER BY r.recipeId")
+    Stream<Recipe> streamAll();
 }
@@ -0,0 +1,393 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.recipe.dto.AIRecipeBatchProgressDto;
+import com.example.nutriflow.recipe.llm.LlmRecipeClient;
+import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
+import com.example.nutriflow.shared.concurrent.TokenBucketRateLimiter.Priority;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Generates recipes for many ingredients at once, e.g. to fill gaps in
+ * the catalog. Ingredients are grouped into multi-recipe prompts that
+ * return a JSON array, so each LLM call yields a whole group of
+ * recipes. Groups run on a dedicated executor whose size bounds the
+ * number of concurrent LLM calls across all batches, separately from
+ * the interactive {@link AIRecipeGateway} bulkhead, and take their
+ * LLM quota permits at background priority. The executor's queue is
+ * bounded; groups that do not fit are reported as failed. Cancelling
+ * the future returned by {@link #generate} (e.g. when the client goes
+ * away) drops the queued groups and interrupts the running calls.
+ * Generated recipes are saved through {@link AIRecipePersister}.
+ */
+@Service
+public class AIRecipeBatchService {
+
+    /** Logger for this service. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(AIRecipeBatchService.class);
+
+    /** Upper bound on ingredients per LLM call. */
+    private static final int MAX_GROUP_SIZE = 25;
+
+    /** Client that makes the LLM calls. */
+    private final LlmRecipeClient llmClient;
+
+    /** Saves generated recipes into the catalog. */
+    private final AIRecipePersister recipePersister;
+
+    /** Admission control against the LLM request quota. */
+    private final AIRequestLimiter requestLimiter;
+
+    /** Reverse ingredient index, used to skip covered ingredients. */
+    private final RecipeIngredientRepository recipeIngredientRepository;
+
+    /** Streaming parser for the multi-recipe responses. */
+    private final AIRecipeJsonParser recipeParser;
+
+    /** Executor bounding concurrent batch LLM calls. */
+    private final ThreadPoolExecutor executor;
+
+    /** Default ingredients per LLM call. */
+    private final int defaultGroupSize;
+
+    /** Maximum ingredients per batch request. */
+    private final int maxIngredients;
+
+    /**
+     * Creates the service.
+     *
+     * @param client            LLM client
+     * @param persister         saves generated recipes
+     * @param limiter           LLM request quota, used at background
+     *                          priority
+     * @param recipeIngredients reverse ingredient index
+     * @param mapper            JSON mapper
+     * @param groupSize         default ingredients per LLM call
+     * @param concurrency       maximum concurrent batch LLM calls
+     * @param ingredientLimit   maximum ingredients per request
+     * @param queueCapacity     groups allowed to wait for a thread,
+     *                          across all batches
+     */
+    @Autowired
+    public AIRecipeBatchService(
+            final LlmRecipeClient client,
+            final AIRecipePersister persister,
+            final AIRequestLimiter limiter,
+            final RecipeIngredientRepository recipeIngredients,
+            final ObjectMapper mapper,
+            final @Value("${nutriflow.ai.batch.group-size:10}") int groupSize,
+            final @Value("${nutriflow.ai.batch.concurrency:4}")
+            int concurrency,
+            final @Value("${nutriflow.ai.batch.max-ingredients:1000}")
+            int ingredientLimit,
+            final @Value("${nutriflow.ai.batch.queue-capacity:256}")
+            int queueCapacity) {
+        this.llmClient = client;
+        this.recipePersister = persister;
+        this.requestLimiter = limiter;
+        this.recipeIngredientRepository = recipeIngredients;
+        this.recipeParser = new AIRecipeJsonParser(mapper.getFactory());
+        this.defaultGroupSize = clampGroupSize(groupSize);
+        this.maxIngredients = ingredientLimit;
+        final int threads = Math.max(1, concurrency);
+        final AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads,
+                0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> {
+                    final Thread thread = new Thread(task, "ai-recipe-batch-"
+                            + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Stops the executor on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts a batch. Ingredients are trimmed, lower-cased and
+     * de-duplicated; the listener is called once per finished group,
+     * never concurrently.
+     *
+     * @param ingredients ingredients that each need a recipe
+     * @param groupSize   ingredients per LLM call, or null for the default
+     * @param skipCovered whether to skip ingredients already in the catalog
+     * @param listener    receives a progress event per finished group
+     * @return future completing with the final summary event; cancel it
+     *         to stop the remaining groups
+     * @throws IllegalArgumentException if there are no ingredients or
+     *                                  more than the configured maximum
+     */
+    public CompletableFuture<AIRecipeBatchProgressDto> generate(
+            final List<String> ingredients, final Integer groupSize,
+            final boolean skipCovered,
+            final Consumer<AIRecipeBatchProgressDto> listener) {
+        final Set<String> unique = new LinkedHashSet<>();
+        if (ingredients != null) {
+            for (String ingredient : ingredients) {
+                if (ingredient != null && !ingredient.isBlank()) {
+                    unique.add(ingredient.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException("No ingredients given");
+        }
+        if (unique.size() > maxIngredients) {
+            throw new IllegalArgumentException("At most " + maxIngredients
+                    + " ingredients per batch");
+        }
+        final List<String> pending = new ArrayList<>(unique);
+        if (skipCovered) {
+            pending.removeAll(new HashSet<>(recipeIngredientRepository
+                    .findCoveredIngredients(unique)));
+        }
+        final int size = groupSize == null
+                ? defaultGroupSize : clampGroupSize(groupSize);
+        final List<List<String>> groups = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i += size) {
+            groups.add(pending.subList(i, Math.min(i + size, pending.size())));
+        }
+
+        final BatchState state = new BatchState(groups.size(),
+                unique.size() - pending.size(), listener);
+        final CompletableFuture<?>[] tasks = new CompletableFuture<?>[
+                groups.size()];
+        final List<Future<?>> submitted = new ArrayList<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            final int index = i + 1;
+            final List<String> group = groups.get(i);
+            final CompletableFuture<List<String>> titles =
+                    new CompletableFuture<>();
+            try {
+                submitted.add(executor.submit(() -> {
+                    try {
+                        titles.complete(generateGroup(group));
+                    } catch (RuntimeException e) {
+                        titles.completeExceptionally(e);
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                titles.completeExceptionally(new IllegalStateException(
+                        "AI batch queue is full, please retry later"));
+            }
+            tasks[i] = titles.handle((generated, error) -> {
+                state.groupFinished(index, group, generated, error);
+                return null;
+            });
+        }
+        final CompletableFuture<AIRecipeBatchProgressDto> result =
+                CompletableFuture.allOf(tasks)
+                        .thenApply(done -> state.summary());
+        result.whenComplete((summary, error) -> {
+            if (result.isCancelled()) {
+                submitted.forEach(task -> task.cancel(true));
+                executor.purge();
+                LOGGER.info("AI batch cancelled after {} of {} groups",
+                        state.completedGroups(), groups.size());
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Makes one multi-recipe LLM call and queues the recipes for saving.
+     *
+     * @param group the ingredients of the group
+     * @return titles of the generated recipes
+     */
+    private List<String> generateGroup(final List<String> group) {
+        requestLimiter.acquire(Priority.BACKGROUND);
+        final String json = llmClient.generateRecipeListJson(
+                groupPrompt(group), group.size());
+        final List<AIRecipeJsonParser.ParsedRecipe> recipes;
+        try {
+            recipes = recipeParser.parseList(json);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Failed to parse batch recipe response", e);
+        }
+        final List<String> titles = new ArrayList<>();
+        for (AIRecipeJsonParser.ParsedRecipe parsed : recipes) {
+            recipePersister.persistAsync(
+                    parsed.getRecipe(), parsed.getIngredients());
+            titles.add(parsed.getRecipe().getTitle());
+        }
+        return titles;
+    }
+
+    /**
+     * Builds the multi-recipe prompt of a group.
+     *
+     * @param group the ingredients of the group
+     * @return the prompt
+     */
+    private static String groupPrompt(final List<String> group) {
+        final StringBuilder prompt = new StringBuilder("Generate ")
+                .append(group.size())
+                .append(" different delicious recipes as a JSON array, ")
+                .append("one recipe for each of the following ingredients, ")
+                .append("in the same order. Each recipe must use its ")
+                .append("ingredient:");
+        for (String ingredient : group) {
+            prompt.append("\n- ").append(ingredient);
+        }
+        return prompt.toString();
+    }
+
+    /**
+     * Clamps a group size to [1, {@value #MAX_GROUP_SIZE}].
+     *
+     * @param groupSize the requested group size
+     * @return the clamped group size
+     */
+    private static int clampGroupSize(final int groupSize) {
+        return Math.max(1, Math.min(MAX_GROUP_SIZE, groupSize));
+    }
+
+    /**
+     * Progress of one running batch.
+     */
+    private static final class BatchState {
+
+        /** Number of groups. */
+        private final int totalGroups;
+
+        /** Ingredients skipped as already covered. */
+        private final int skippedIngredients;
+
+        /** Receives progress events. */
+        private final Consumer<AIRecipeBatchProgressDto> listener;
+
+        /** Start time of the batch. */
+        private final long startNanos = System.nanoTime();
+
+        /** Groups finished so far. */
+        private int completedGroups;
+
+        /** Groups that failed. */
+        private int failedGroups;
+
+        /** Recipes generated so far. */
+        private int recipesGenerated;
+
+        /**
+         * Creates the state.
+         *
+         * @param groups   number of groups
+         * @param skipped  ingredients skipped as already covered
+         * @param callback receives progress events
+         */
+        BatchState(final int groups, final int skipped,
+                   final Consumer<AIRecipeBatchProgressDto> callback) {
+            this.totalGroups = groups;
+            this.skippedIngredients = skipped;
+            this.listener = callback;
+        }
+
+        /**
+         * Records a finished group and notifies the listener.
+         *
+         * @param index  1-based group index
+         * @param group  the ingredients of the group
+         * @param titles generated titles, or null on failure
+         * @param error  the failure, or null
+         */
+        synchronized void groupFinished(final int index,
+                                        final List<String> group,
+                                        final List<String> titles,
+                                        final Throwable error) {
+            completedGroups++;
+            final AIRecipeBatchProgressDto event = snapshot();
+            event.setGroup(index);
+            event.setIngredients(new ArrayList<>(group));
+            if (error != null) {
+                failedGroups++;
+                event.setFailedGroups(failedGroups);
+                final Throwable cause = error instanceof CompletionException
+                        && error.getCause() != null
+                        ? error.getCause() : error;
+                event.setError(String.valueOf(cause.getMessage()));
+                LOGGER.warn("AI batch group {} failed: {}",
+                        index, cause.getMessage());
+            } else {
+                recipesGenerated += titles.size();
+                event.setRecipesGenerated(recipesGenerated);
+                event.setTitles(titles);
+            }
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                LOGGER.debug("AI batch progress listener failed", e);
+            }
+        }
+
+        /**
+         * Returns the number of groups finished so far.
+         *
+         * @return finished groups
+         */
+        synchronized int completedGroups() {
+            return completedGroups;
+        }
+
+        /**
+         * Returns the final summary event.
+         *
+         * @return the summary
+         */
+        synchronized AIRecipeBatchProgressDto summary() {
+            final AIRecipeBatchProgressDto event = snapshot();
+            event.setDone(true);
+            return event;
+        }
+
+        /**
+         * Creates an event with the current counters.
+         *
+         * @return the event
+         */
+        private AIRecipeBatchProgressDto snapshot() {
+            final AIRecipeBatchProgressDto event =
+                    new AIRecipeBatchProgressDto();
+            event.setTotalGroups(totalGroups);
+            event.setCompletedGroups(completedGroups);
+            event.setFailedGroups(failedGroups);
+            event.setRecipesGenerated(recipesGenerated);
+            event.setSkippedIngredients(skippedIngredients);
+            event.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(
+                    System.nanoTime() - startNanos));
+            return event;
+        }
+    }
+}
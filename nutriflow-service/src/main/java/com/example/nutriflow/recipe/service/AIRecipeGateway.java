@@ -0,0 +1,409 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.recipe.llm.LlmBackendException;
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.shared.concurrent.CircuitBreaker;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking front door to {@link AIRecipeService}.
+ *
+ * Ingredient requests first look for a stored recipe in the catalog, so
+ * requests the catalog can answer never touch the breaker or the LLM.
+ * That lookup and the cached-response fallback run on a small lookup
+ * executor, never on the servlet thread.
+ *
+ * LLM calls run on a dedicated bounded executor so slow responses never
+ * hold servlet threads. The executor doubles as a bulkhead: once its
+ * threads and queue are full, further calls fail fast. Each call has a
+ * timeout, after which its task is interrupted; the LLM clients also
+ * time out at the HTTP level. A circuit breaker stops calling a
+ * degraded backend, serving cached responses where one exists. Only
+ * backend failures ({@link LlmBackendException}, timeouts) count
+ * against it; unusable output and calls refused by the
+ * {@link AIRequestLimiter} do not.
+ */
+@Service
+public class AIRecipeGateway {
+
+    /** Logger for this gateway. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(AIRecipeGateway.class);
+
+    /** Seconds idle executor threads are kept. */
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    /** Default threads for catalog and cache lookups. */
+    private static final int DEFAULT_LOOKUP_THREADS = 4;
+
+    /** Lookups allowed to wait for a lookup thread. */
+    private static final int LOOKUP_QUEUE_CAPACITY = 256;
+
+    /** Service doing the actual work. */
+    private final AIRecipeService aiRecipeService;
+
+    /** Pre-generated recommendations, served before calling the LLM. */
+    private final AIRecommendationPool recommendationPool;
+
+    /** Bounded executor acting as the bulkhead. */
+    private final ThreadPoolExecutor executor;
+
+    /** Bounded executor for catalog and cache lookups. */
+    private final ThreadPoolExecutor lookupExecutor;
+
+    /** Per-call timeout. */
+    private final Duration callTimeout;
+
+    /** Breaker guarding the LLM backend. */
+    private final CircuitBreaker circuitBreaker;
+
+    /**
+     * Creates the gateway.
+     *
+     * @param service          the AI recipe service
+     * @param pool             pre-generated recommendations
+     * @param threads          maximum concurrent AI calls
+     * @param queueCapacity    calls allowed to wait for a thread
+     * @param timeoutSeconds   per-call timeout
+     * @param failureThreshold consecutive failures that open the breaker
+     * @param openSeconds      how long the breaker stays open
+     * @param lookupThreads    concurrent catalog and cache lookups
+     */
+    @Autowired
+    public AIRecipeGateway(
+            final AIRecipeService service,
+            final AIRecommendationPool pool,
+            final @Value("${nutriflow.ai.executor.threads:8}") int threads,
+            final @Value("${nutriflow.ai.executor.queue-capacity:32}")
+            int queueCapacity,
+            final @Value("${nutriflow.ai.timeout-seconds:20}")
+            long timeoutSeconds,
+            final @Value("${nutriflow.ai.circuit-breaker.failure-threshold:5}")
+            int failureThreshold,
+            final @Value("${nutriflow.ai.circuit-breaker.open-seconds:30}")
+            long openSeconds,
+            final @Value("${nutriflow.ai.lookup.threads:4}")
+            int lookupThreads) {
+        this(service, pool, threads, queueCapacity,
+                Duration.ofSeconds(timeoutSeconds),
+                new CircuitBreaker(failureThreshold,
+                        Duration.ofSeconds(openSeconds), Clock.systemUTC()),
+                lookupThreads);
+    }
+
+    /**
+     * Creates the gateway with an explicit timeout and breaker.
+     *
+     * @param service       the AI recipe service
+     * @param pool          pre-generated recommendations
+     * @param threads       maximum concurrent AI calls
+     * @param queueCapacity calls allowed to wait for a thread
+     * @param timeout       per-call timeout
+     * @param breaker       breaker guarding the backend
+     */
+    public AIRecipeGateway(final AIRecipeService service,
+                           final AIRecommendationPool pool,
+                           final int threads,
+                           final int queueCapacity,
+                           final Duration timeout,
+                           final CircuitBreaker breaker) {
+        this(service, pool, threads, queueCapacity, timeout, breaker,
+                DEFAULT_LOOKUP_THREADS);
+    }
+
+    /**
+     * Creates the gateway with an explicit timeout, breaker and lookup
+     * concurrency.
+     *
+     * @param service       the AI recipe service
+     * @param pool          pre-generated recommendations
+     * @param threads       maximum concurrent AI calls
+     * @param queueCapacity calls allowed to wait for a thread
+     * @param timeout       per-call timeout
+     * @param breaker       breaker guarding the backend
+     * @param lookupThreads concurrent catalog and cache lookups
+     */
+    public AIRecipeGateway(final AIRecipeService service,
+                           final AIRecommendationPool pool,
+                           final int threads,
+                           final int queueCapacity,
+                           final Duration timeout,
+                           final CircuitBreaker breaker,
+                           final int lookupThreads) {
+        this.aiRecipeService = service;
+        this.recommendationPool = pool;
+        this.callTimeout = timeout;
+        this.circuitBreaker = breaker;
+        final AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> {
+                    final Thread thread = new Thread(task,
+                            "ai-recipe-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        final int lookups = Math.max(1, lookupThreads);
+        final AtomicInteger lookupIndex = new AtomicInteger();
+        this.lookupExecutor = new ThreadPoolExecutor(lookups, lookups,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(LOOKUP_QUEUE_CAPACITY),
+                task -> {
+                    final Thread thread = new Thread(task,
+                            "ai-lookup-" + lookupIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.lookupExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Asynchronously finds or generates a recipe with the ingredient.
+     * A stored recipe is served without calling the LLM; while the
+     * breaker is open, a cached response is served if present.
+     *
+     * @param ingredient the ingredient
+     * @return future recipe
+     */
+    public CompletableFuture<Recipe> getAIRecipe(final String ingredient) {
+        return storedOrCall(ingredient,
+                () -> aiRecipeService.generateAIRecipe(ingredient));
+    }
+
+    /**
+     * Returns a recommended recipe, taken from the pre-generated pool
+     * when available and otherwise generated asynchronously.
+     *
+     * @return future recipe
+     */
+    public CompletableFuture<Recipe> getAIRecommendedRecipe() {
+        final Optional<Recipe> pooled = recommendationPool.poll();
+        if (pooled.isPresent()) {
+            return CompletableFuture.completedFuture(pooled.get());
+        }
+        return call(aiRecipeService::getAIRecommendedRecipe,
+                Optional::empty);
+    }
+
+    /**
+     * Asynchronously finds or streams a recipe with the ingredient,
+     * forwarding partial output as it is generated.
+     *
+     * @param ingredient the ingredient
+     * @param onChunk    receives the partial JSON text
+     * @return future complete recipe
+     */
+    public CompletableFuture<Recipe> streamAIRecipe(
+            final String ingredient, final Consumer<String> onChunk) {
+        return storedOrCall(ingredient, () -> aiRecipeService
+                .streamGeneratedAIRecipe(ingredient, onChunk));
+    }
+
+    /**
+     * Returns a pooled recommendation, or streams a new one.
+     *
+     * @param onChunk receives the partial JSON text
+     * @return future complete recipe
+     */
+    public CompletableFuture<Recipe> streamAIRecommendedRecipe(
+            final Consumer<String> onChunk) {
+        final Optional<Recipe> pooled = recommendationPool.poll();
+        if (pooled.isPresent()) {
+            return CompletableFuture.completedFuture(pooled.get());
+        }
+        return call(() -> aiRecipeService.streamAIRecommendedRecipe(onChunk),
+                Optional::empty);
+    }
+
+    /**
+     * Returns the breaker state, for diagnostics.
+     *
+     * @return the breaker state
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    /**
+     * Stops the executor on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        lookupExecutor.shutdownNow();
+    }
+
+    /**
+     * Serves the stored recipe using the ingredient, or makes the AI
+     * call when the catalog has none.
+     *
+     * @param ingredient the ingredient
+     * @param action     the AI call
+     * @return future recipe
+     */
+    private CompletableFuture<Recipe> storedOrCall(
+            final String ingredient, final Supplier<Recipe> action) {
+        return lookup(() -> aiRecipeService.findStoredRecipe(ingredient))
+                .thenCompose(stored -> stored
+                        .map(CompletableFuture::completedFuture)
+                        .orElseGet(() -> call(action, () -> aiRecipeService
+                                .getCachedAIRecipe(ingredient))));
+    }
+
+    /**
+     * Runs a catalog or cache lookup on the lookup executor.
+     *
+     * @param lookup the lookup
+     * @return future lookup result; fails fast when lookups are
+     *         saturated
+     */
+    private CompletableFuture<Optional<Recipe>> lookup(
+            final Supplier<Optional<Recipe>> lookup) {
+        try {
+            return CompletableFuture.supplyAsync(lookup, lookupExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new AIRecipeUnavailableException(
+                            "AI service is busy, please retry shortly",
+                            false));
+        }
+    }
+
+    /**
+     * Runs an AI call through the breaker, bulkhead and timeout.
+     *
+     * @param action   the call
+     * @param fallback cached result used when the call is refused
+     * @return future recipe
+     */
+    private CompletableFuture<Recipe> call(
+            final Supplier<Recipe> action,
+            final Supplier<Optional<Recipe>> fallback) {
+        if (!circuitBreaker.tryAcquire()) {
+            return fallbackOrFail(fallback,
+                    "AI service is temporarily unavailable");
+        }
+        final CompletableFuture<Recipe> future = new CompletableFuture<>();
+        final Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    future.complete(action.get());
+                } catch (RuntimeException | Error e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.onCancelled();
+            return fallbackOrFail(fallback,
+                    "AI service is busy, please retry shortly");
+        }
+        return future
+                .orTimeout(callTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((recipe, error) -> {
+                    if (error == null) {
+                        circuitBreaker.onSuccess();
+                        return;
+                    }
+                    final Throwable cause = unwrap(error);
+                    if (cause instanceof TimeoutException) {
+                        // free the bulkhead thread still waiting on it
+                        task.cancel(true);
+                    }
+                    if (isBackendFailure(cause)) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        // refused by the rate limiter, or unusable output
+                        // from a backend that did answer
+                        circuitBreaker.onCancelled();
+                    }
+                })
+                .exceptionallyCompose(error -> {
+                    final Throwable cause = unwrap(error);
+                    if (cause instanceof AIRecipeUnavailableException
+                            unavailable) {
+                        return lookup(fallback).thenApply(cached ->
+                                cached.orElseThrow(() -> unavailable));
+                    }
+                    if (cause instanceof TimeoutException) {
+                        return CompletableFuture.failedFuture(
+                                new AIRecipeUnavailableException(
+                                        "AI request timed out after "
+                                                + callTimeout.toSeconds()
+                                                + "s",
+                                        true));
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                });
+    }
+
+    /**
+     * Tells whether a failure means the backend is degraded.
+     *
+     * @param cause the unwrapped failure
+     * @return true for backend errors and timeouts
+     */
+    private static boolean isBackendFailure(final Throwable cause) {
+        return cause instanceof LlmBackendException
+                || cause instanceof TimeoutException;
+    }
+
+    /**
+     * Serves the fallback if present, otherwise fails fast. The lookup
+     * runs on the lookup executor.
+     *
+     * @param fallback cached result supplier
+     * @param message  failure message
+     * @return future recipe
+     */
+    private CompletableFuture<Recipe> fallbackOrFail(
+            final Supplier<Optional<Recipe>> fallback,
+            final String message) {
+        return lookup(fallback).thenApply(cached -> {
+            if (cached.isEmpty()) {
+                throw new AIRecipeUnavailableException(message, false);
+            }
+            LOGGER.info("Serving cached AI response: {}", message);
+            return cached.get();
+        });
+    }
+
+    /**
+     * Strips completion wrappers from an async failure.
+     *
+     * @param error the failure
+     * @return the underlying cause
+     */
+    private static Throwable unwrap(final Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
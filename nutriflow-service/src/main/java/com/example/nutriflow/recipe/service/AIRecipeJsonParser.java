@@ -0,0 +1,410 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.model.RecipeIngredient;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser for LLM recipe responses. Reads the JSON token by
+ * token straight into a {@link Recipe} and its {@link RecipeIngredient}
+ * rows, without building a {@code JsonNode} tree. The ingredient and
+ * nutrition payloads are copied token by token into the JSON strings
+ * stored on the recipe while the rows are being read.
+ *
+ * Thread-safe; one instance is shared per service.
+ */
+public final class AIRecipeJsonParser {
+
+    /** Payload stored when a response has no ingredients. */
+    private static final String EMPTY_JSON = "{}";
+
+    /** Nesting depth of an ingredient object inside the array. */
+    private static final int INGREDIENT_DEPTH = 2;
+
+    /** Nesting depth of the allergen tags inside an ingredient. */
+    private static final int TAGS_DEPTH = 3;
+
+    /** Factory for parsers and generators. */
+    private final JsonFactory factory;
+
+    /**
+     * Creates a parser.
+     *
+     * @param jsonFactory factory for parsers and generators
+     */
+    public AIRecipeJsonParser(final JsonFactory jsonFactory) {
+        this.factory = jsonFactory;
+    }
+
+    /**
+     * A parsed response: the recipe and its ingredient rows.
+     */
+    public static final class ParsedRecipe {
+
+        /** The recipe. */
+        private final Recipe recipe;
+
+        /** Rows with a non-blank ingredient name. */
+        private final List<RecipeIngredient> ingredients;
+
+        /**
+         * Creates a result.
+         *
+         * @param parsedRecipe the recipe
+         * @param rows         the ingredient rows
+         */
+        ParsedRecipe(final Recipe parsedRecipe,
+                     final List<RecipeIngredient> rows) {
+            this.recipe = parsedRecipe;
+            this.ingredients = rows;
+        }
+
+        /**
+         * Returns the recipe.
+         *
+         * @return the recipe
+         */
+        public Recipe getRecipe() {
+            return recipe;
+        }
+
+        /**
+         * Returns the ingredient rows (without recipe ID).
+         *
+         * @return the ingredient rows
+         */
+        public List<RecipeIngredient> getIngredients() {
+            return ingredients;
+        }
+    }
+
+    /**
+     * Parses a recipe response.
+     *
+     * @param json the response JSON object
+     * @return the recipe and its ingredient rows
+     * @throws IOException if the text is not a JSON object
+     */
+    public ParsedRecipe parse(final String json) throws IOException {
+        try (JsonParser parser = factory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser,
+                        "Expected a JSON object");
+            }
+            return readRecipe(parser);
+        }
+    }
+
+    /**
+     * Parses a multi-recipe response. Array elements that are not
+     * objects are skipped.
+     *
+     * @param json the response JSON array
+     * @return the recipes in response order
+     * @throws IOException if the text is not a JSON array of objects
+     */
+    public List<ParsedRecipe> parseList(final String json)
+            throws IOException {
+        final List<ParsedRecipe> recipes = new ArrayList<>();
+        try (JsonParser parser = factory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser,
+                        "Expected a JSON array");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new JsonParseException(parser,
+                            "Unterminated JSON array");
+                }
+                if (token == JsonToken.START_OBJECT) {
+                    recipes.add(readRecipe(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return recipes;
+    }
+
+    /**
+     * Reads one recipe object.
+     *
+     * @param parser parser positioned on the START_OBJECT token
+     * @return the recipe and its ingredient rows
+     * @throws IOException on malformed JSON
+     */
+    private ParsedRecipe readRecipe(final JsonParser parser)
+            throws IOException {
+        final Recipe recipe = new Recipe();
+        final List<RecipeIngredient> rows = new ArrayList<>();
+        recipe.setIngredients(EMPTY_JSON);
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            final String field = parser.currentName();
+            final JsonToken value = parser.nextToken();
+            readField(parser, field, value, recipe, rows);
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Unterminated JSON object");
+        }
+        return new ParsedRecipe(recipe, rows);
+    }
+
+    /**
+     * Parses an ingredient payload as stored on a recipe.
+     *
+     * @param json array of {ingredient, quantity, unit, allergenTags}
+     * @return rows with a non-blank ingredient name
+     * @throws IOException if the text is not valid JSON
+     */
+    public List<RecipeIngredient> parseIngredients(final String json)
+            throws IOException {
+        final List<RecipeIngredient> rows = new ArrayList<>();
+        try (JsonParser parser = factory.createParser(json);
+             JsonGenerator sink =
+                     factory.createGenerator(new StringWriter())) {
+            if (parser.nextToken() == JsonToken.START_ARRAY) {
+                readIngredients(parser, sink, rows);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Reads one top-level field into the recipe.
+     *
+     * @param parser parser positioned on the field value
+     * @param field  the field name
+     * @param value  the value token
+     * @param recipe recipe being filled
+     * @param rows   ingredient rows being filled
+     * @throws IOException on malformed JSON
+     */
+    private void readField(final JsonParser parser, final String field,
+                           final JsonToken value, final Recipe recipe,
+                           final List<RecipeIngredient> rows)
+            throws IOException {
+        switch (field) {
+            case "title" -> recipe.setTitle(readText(parser, value));
+            case "cookTime" -> recipe.setCookTime(readInt(parser, value));
+            case "cuisines" -> recipe.setCuisines(readStrings(parser, value));
+            case "tags" -> recipe.setTags(readStrings(parser, value));
+            case "ingredients" -> {
+                if (value != JsonToken.VALUE_NULL) {
+                    recipe.setIngredients(copyValue(parser, value, rows));
+                }
+            }
+            case "nutrition" -> {
+                if (value != JsonToken.VALUE_NULL) {
+                    recipe.setNutrition(copyValue(parser, value, null));
+                }
+            }
+            case "calories" -> recipe.setCalories(readDecimal(parser, value));
+            case "carbohydrates" ->
+                    recipe.setCarbohydrates(readDecimal(parser, value));
+            case "fat" -> recipe.setFat(readDecimal(parser, value));
+            case "fiber" -> recipe.setFiber(readDecimal(parser, value));
+            case "protein" -> recipe.setProtein(readDecimal(parser, value));
+            case "popularityScore" ->
+                    recipe.setPopularityScore(readInt(parser, value));
+            default -> parser.skipChildren();
+        }
+    }
+
+    /**
+     * Copies the current value to a JSON string. When {@code rows} is
+     * given and the value is an array, ingredient rows are read from it
+     * in the same pass.
+     *
+     * @param parser parser positioned on the value
+     * @param value  the value token
+     * @param rows   ingredient rows to fill, or null
+     * @return the value as JSON text
+     * @throws IOException on malformed JSON
+     */
+    private String copyValue(final JsonParser parser, final JsonToken value,
+                             final List<RecipeIngredient> rows)
+            throws IOException {
+        final StringWriter out = new StringWriter();
+        try (JsonGenerator sink = factory.createGenerator(out)) {
+            if (rows != null && value == JsonToken.START_ARRAY) {
+                readIngredients(parser, sink, rows);
+            } else {
+                sink.copyCurrentStructure(parser);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Reads an ingredient array, copying every token to {@code sink}.
+     *
+     * @param parser parser positioned on the START_ARRAY token
+     * @param sink   generator receiving the array verbatim
+     * @param rows   rows with a non-blank ingredient name
+     * @throws IOException on malformed JSON
+     */
+    private static void readIngredients(final JsonParser parser,
+                                        final JsonGenerator sink,
+                                        final List<RecipeIngredient> rows)
+            throws IOException {
+        int depth = 0;
+        String field = null;
+        RecipeIngredient row = null;
+        List<String> tags = null;
+        JsonToken token = parser.currentToken();
+        do {
+            sink.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                depth++;
+                if (depth == INGREDIENT_DEPTH
+                        && token == JsonToken.START_OBJECT) {
+                    row = new RecipeIngredient();
+                } else if (depth == TAGS_DEPTH && row != null
+                        && token == JsonToken.START_ARRAY
+                        && "allergenTags".equals(field)) {
+                    tags = new ArrayList<>();
+                }
+            } else if (token.isStructEnd()) {
+                if (depth == TAGS_DEPTH && tags != null) {
+                    row.setAllergenTags(tags.toArray(String[]::new));
+                    tags = null;
+                } else if (depth == INGREDIENT_DEPTH && row != null) {
+                    if (row.getIngredient() != null
+                            && !row.getIngredient().isBlank()) {
+                        rows.add(row);
+                    }
+                    row = null;
+                }
+                depth--;
+            } else if (token == JsonToken.FIELD_NAME) {
+                if (depth == INGREDIENT_DEPTH) {
+                    field = parser.currentName();
+                }
+            } else if (depth == INGREDIENT_DEPTH && row != null) {
+                readIngredientField(parser, token, field, row);
+            } else if (depth == TAGS_DEPTH && tags != null
+                    && token.isScalarValue()) {
+                tags.add(parser.getValueAsString());
+            }
+        } while (depth > 0 && (token = parser.nextToken()) != null);
+    }
+
+    /**
+     * Assigns a scalar ingredient field.
+     *
+     * @param parser parser positioned on the value
+     * @param token  the value token
+     * @param field  the field name
+     * @param row    the row being filled
+     * @throws IOException on malformed JSON
+     */
+    private static void readIngredientField(final JsonParser parser,
+                                            final JsonToken token,
+                                            final String field,
+                                            final RecipeIngredient row)
+            throws IOException {
+        if ("ingredient".equals(field)
+                && token == JsonToken.VALUE_STRING) {
+            row.setIngredient(parser.getText().trim());
+        } else if ("quantity".equals(field) && token.isNumeric()) {
+            row.setQuantity(parser.getDoubleValue());
+        } else if ("unit".equals(field)) {
+            row.setUnit(parser.getValueAsString());
+        }
+    }
+
+    /**
+     * Reads a scalar as text.
+     *
+     * @param parser parser positioned on the value
+     * @param value  the value token
+     * @return the text, or null for null and structured values
+     * @throws IOException on malformed JSON
+     */
+    private static String readText(final JsonParser parser,
+                                   final JsonToken value) throws IOException {
+        if (!value.isScalarValue()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsString();
+    }
+
+    /**
+     * Reads a scalar as an integer.
+     *
+     * @param parser parser positioned on the value
+     * @param value  the value token
+     * @return the integer, or null for null and structured values
+     * @throws IOException on malformed JSON
+     */
+    private static Integer readInt(final JsonParser parser,
+                                   final JsonToken value) throws IOException {
+        if (!value.isScalarValue() || value == JsonToken.VALUE_NULL) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsInt();
+    }
+
+    /**
+     * Reads a number as a decimal.
+     *
+     * @param parser parser positioned on the value
+     * @param value  the value token
+     * @return the decimal, or null for non-numeric values
+     * @throws IOException on malformed JSON
+     */
+    private static BigDecimal readDecimal(final JsonParser parser,
+                                          final JsonToken value)
+            throws IOException {
+        if (!value.isNumeric()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getDecimalValue();
+    }
+
+    /**
+     * Reads an array of scalars as strings.
+     *
+     * @param parser parser positioned on the value
+     * @param value  the value token
+     * @return the strings, or null if the value is not an array
+     * @throws IOException on malformed JSON
+     */
+    private static String[] readStrings(final JsonParser parser,
+                                        final JsonToken value)
+            throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        final List<String> values = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new JsonParseException(parser,
+                        "Unterminated JSON array");
+            }
+            if (token.isScalarValue()) {
+                values.add(parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return values.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.model.RecipeIngredient;
+import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
+import com.example.nutriflow.recipe.repository.RecipeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves AI-generated recipes into the catalog in the background so they
+ * become searchable and plannable.
+ *
+ * Each recipe is stored together with its ingredients as
+ * {@link RecipeIngredient} rows, which makes it visible to ingredient
+ * lookups through the reverse index, and its nutrition, including the
+ * nutrient vector meal plans score with, is computed in the same
+ * transaction. Recipes are deduplicated by a
+ * content fingerprint: the SHA-256 of the normalized title and the
+ * sorted set of normalized ingredient names.
+ */
+@Component
+public class AIRecipePersister {
+
+    /** Logger for this component. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(AIRecipePersister.class);
+
+    /** Tag added to every persisted AI recipe. */
+    private static final String AI_TAG = "ai-generated";
+
+    /** Repository for recipes. */
+    private final RecipeRepository recipeRepository;
+
+    /** Repository for recipe ingredient rows. */
+    private final RecipeIngredientRepository recipeIngredientRepository;
+
+    /** Computes the nutrition of each stored recipe. */
+    private final RecipeNutritionService recipeNutritionService;
+
+    /** Streaming parser for the ingredient payload. */
+    private final AIRecipeJsonParser recipeParser;
+
+    /** Saves each recipe and its ingredients in one transaction. */
+    private final TransactionTemplate transactionTemplate;
+
+    /** Single background writer with a bounded queue. */
+    private final ExecutorService writer;
+
+    /** Whether generated recipes are persisted at all. */
+    private final boolean enabled;
+
+    /**
+     * Creates the persister.
+     *
+     * @param recipes            recipe repository
+     * @param recipeIngredients  recipe ingredient repository
+     * @param nutrition          recipe nutrition service
+     * @param mapper             JSON mapper
+     * @param transactionManager transaction manager
+     * @param queueCapacity      recipes allowed to wait for the writer
+     * @param persistEnabled     whether to persist generated recipes
+     */
+    @Autowired
+    public AIRecipePersister(
+            final RecipeRepository recipes,
+            final RecipeIngredientRepository recipeIngredients,
+            final RecipeNutritionService nutrition,
+            final ObjectMapper mapper,
+            final PlatformTransactionManager transactionManager,
+            final @Value("${nutriflow.ai.persist.queue-capacity:256}")
+            int queueCapacity,
+            final @Value("${nutriflow.ai.persist.enabled:true}")
+            boolean persistEnabled) {
+        this.recipeRepository = recipes;
+        this.recipeIngredientRepository = recipeIngredients;
+        this.recipeNutritionService = nutrition;
+        this.recipeParser = new AIRecipeJsonParser(mapper.getFactory());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = persistEnabled;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> {
+                    final Thread thread =
+                            new Thread(task, "ai-recipe-persist");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queues a generated recipe for persistence. A copy is stored, so
+     * the caller's instance is never modified. Drops the recipe with a
+     * warning when the queue is full.
+     *
+     * @param recipe the generated recipe
+     * @return future completing with the stored recipe, or empty if it
+     *         was a duplicate, invalid, dropped or persistence is off
+     */
+    public Future<Optional<Recipe>> persistAsync(final Recipe recipe) {
+        return persistAsync(recipe, null);
+    }
+
+    /**
+     * Queues a generated recipe whose ingredient rows were already read
+     * while parsing the response, so the payload is not parsed again.
+     *
+     * @param recipe      the generated recipe
+     * @param ingredients its ingredient rows, or null to read them from
+     *                    the recipe's ingredient payload
+     * @return future completing with the stored recipe, or empty if it
+     *         was a duplicate, invalid, dropped or persistence is off
+     */
+    public Future<Optional<Recipe>> persistAsync(
+            final Recipe recipe, final List<RecipeIngredient> ingredients) {
+        if (!enabled || recipe == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        final Recipe copy = copyOf(recipe);
+        final List<RecipeIngredient> rows =
+                ingredients == null ? null : copyOf(ingredients);
+        try {
+            return writer.submit(() -> persist(copy, rows != null
+                    ? rows
+                    : parseIngredients(copy.getIngredients())));
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("AI recipe persist queue full, dropping '{}'",
+                    recipe.getTitle());
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+    }
+
+    /**
+     * Stops the writer on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    /**
+     * Persists a recipe unless one with the same fingerprint exists.
+     *
+     * @param recipe      the recipe copy
+     * @param ingredients its ingredient rows
+     * @return the stored recipe, or empty
+     */
+    Optional<Recipe> persist(final Recipe recipe,
+                             final List<RecipeIngredient> ingredients) {
+        if (recipe.getTitle() == null || recipe.getTitle().isBlank()) {
+            return Optional.empty();
+        }
+        final String fingerprint = fingerprint(recipe.getTitle(),
+                ingredients.stream().map(RecipeIngredient::getIngredient)
+                        .toList());
+        if (recipeRepository.existsByFingerprint(fingerprint)) {
+            return Optional.empty();
+        }
+        recipe.setFingerprint(fingerprint);
+        recipe.setTags(withAiTag(recipe.getTags()));
+        if (recipe.getPopularityScore() == null) {
+            recipe.setPopularityScore(0);
+        }
+        try {
+            final Recipe saved = transactionTemplate.execute(status -> {
+                final Recipe stored = recipeRepository.save(recipe);
+                ingredients.forEach(i -> i.setRecipeId(stored.getRecipeId()));
+                recipeIngredientRepository.saveAll(ingredients);
+                // left without a vector if an ingredient is not in the
+                // catalog; meal plans then report the recipe as unscored
+                recipeNutritionService.recomputeRecipe(stored.getRecipeId());
+                return stored;
+            });
+            LOGGER.info("Persisted AI recipe '{}' as ID {}",
+                    saved.getTitle(), saved.getRecipeId());
+            return Optional.of(saved);
+        } catch (DataIntegrityViolationException e) {
+            // another instance stored the same fingerprint concurrently
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not persist AI recipe '{}': {}",
+                    recipe.getTitle(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Computes the content fingerprint of a recipe.
+     *
+     * @param title           the recipe title
+     * @param ingredientNames the ingredient names
+     * @return hex SHA-256 of the normalized title and ingredient set
+     */
+    public static String fingerprint(final String title,
+                                     final List<String> ingredientNames) {
+        final TreeSet<String> names = new TreeSet<>();
+        for (String name : ingredientNames) {
+            if (name != null && !name.isBlank()) {
+                names.add(normalize(name));
+            }
+        }
+        final String canonical =
+                normalize(title) + "\n" + String.join("\n", names);
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(
+                    digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Parses the JSON ingredient payload into ingredient rows.
+     *
+     * @param json array of {ingredient, quantity, unit, allergenTags}
+     * @return rows with a non-blank ingredient name
+     */
+    private List<RecipeIngredient> parseIngredients(final String json) {
+        if (json == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return recipeParser.parseIngredients(json);
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unreadable AI ingredient payload: {}",
+                    e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Normalizes text for fingerprinting.
+     *
+     * @param value the text
+     * @return trimmed, lower-cased text with collapsed whitespace
+     */
+    private static String normalize(final String value) {
+        return value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Appends the AI tag to a tag array if missing.
+     *
+     * @param tags existing tags, may be null
+     * @return tags including {@link #AI_TAG}
+     */
+    private static String[] withAiTag(final String[] tags) {
+        if (tags == null) {
+            return new String[] {AI_TAG};
+        }
+        if (Arrays.asList(tags).contains(AI_TAG)) {
+            return tags;
+        }
+        final String[] tagged = Arrays.copyOf(tags, tags.length + 1);
+        tagged[tags.length] = AI_TAG;
+        return tagged;
+    }
+
+    /**
+     * Copies the persisted fields of a recipe.
+     *
+     * @param source the recipe
+     * @return an unsaved copy
+     */
+    private static Recipe copyOf(final Recipe source) {
+        final Recipe copy = new Recipe();
+        copy.setTitle(source.getTitle());
+        copy.setCookTime(source.getCookTime());
+        copy.setCuisines(source.getCuisines());
+        copy.setTags(source.getTags());
+        copy.setIngredients(source.getIngredients());
+        copy.setNutrition(source.getNutrition());
+        copy.setServings(source.getServings());
+        copy.setCalories(source.getCalories());
+        copy.setCarbohydrates(source.getCarbohydrates());
+        copy.setFat(source.getFat());
+        copy.setFiber(source.getFiber());
+        copy.setProtein(source.getProtein());
+        copy.setPopularityScore(source.getPopularityScore());
+        return copy;
+    }
+
+    /**
+     * Copies ingredient rows, since the writer assigns their recipe ID.
+     *
+     * @param source the rows
+     * @return unsaved copies
+     */
+    private static List<RecipeIngredient> copyOf(
+            final List<RecipeIngredient> source) {
+        final List<RecipeIngredient> copies = new ArrayList<>(source.size());
+        for (RecipeIngredient row : source) {
+            copies.add(RecipeIngredient.builder()
+                    .ingredient(row.getIngredient())
+                    .quantity(row.getQuantity())
+                    .unit(row.getUnit())
+                    .allergenTags(row.getAllergenTags())
+                    .build());
+        }
+        return copies;
+    }
+}
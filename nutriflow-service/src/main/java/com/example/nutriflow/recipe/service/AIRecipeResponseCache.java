@@ -0,0 +1,247 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.recipe.model.AIRecipeCacheEntry;
+import com.example.nutriflow.recipe.repository.AIRecipeCacheRepository;
+import com.example.nutriflow.shared.cache.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, TTL-based cache of raw LLM recipe responses keyed by the
+ * normalized prompt. Entries live in an in-memory LRU cache and, when
+ * persistence is enabled, are also written to
+ * {@code nutriflow.ai_recipe_cache} so they survive restarts.
+ *
+ * The raw JSON is cached rather than the parsed {@code Recipe} so every
+ * hit yields a fresh, unshared entity.
+ */
+@Component
+public class AIRecipeResponseCache {
+
+    /** Logger for this cache. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(AIRecipeResponseCache.class);
+
+    /** In-memory entries. */
+    private final LruCache<String, CachedResponse> entries;
+
+    /** How long a response stays valid. */
+    private final Duration ttl;
+
+    /** Whether entries are also persisted. */
+    private final boolean persistent;
+
+    /** Repository for persisted entries (used only when persistent). */
+    private final AIRecipeCacheRepository repository;
+
+    /** Time source. */
+    private final Clock clock;
+
+    /** Number of lookups served from the cache. */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** Number of lookups that missed. */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates the cache from application properties.
+     *
+     * @param maxEntries     maximum number of in-memory responses
+     * @param ttlMinutes     minutes a response stays valid
+     * @param persist        whether to persist responses to the database
+     * @param cacheRepository repository for persisted responses
+     */
+    @Autowired
+    public AIRecipeResponseCache(
+            final @Value("${nutriflow.ai.cache.max-entries:1000}")
+            int maxEntries,
+            final @Value("${nutriflow.ai.cache.ttl-minutes:1440}")
+            long ttlMinutes,
+            final @Value("${nutriflow.ai.cache.persistent:false}")
+            boolean persist,
+            final AIRecipeCacheRepository cacheRepository) {
+        this(maxEntries, Duration.ofMinutes(ttlMinutes), persist,
+                cacheRepository, Clock.systemUTC());
+    }
+
+    /**
+     * Creates the cache with an explicit TTL and time source.
+     *
+     * @param maxEntries      maximum number of in-memory responses
+     * @param timeToLive      how long a response stays valid
+     * @param persist         whether to persist responses
+     * @param cacheRepository repository for persisted responses
+     *                        (may be null when not persistent)
+     * @param timeSource      clock used for expiry
+     */
+    public AIRecipeResponseCache(
+            final int maxEntries,
+            final Duration timeToLive,
+            final boolean persist,
+            final AIRecipeCacheRepository cacheRepository,
+            final Clock timeSource) {
+        this.entries = new LruCache<>(maxEntries);
+        this.ttl = timeToLive;
+        this.persistent = persist && cacheRepository != null;
+        this.repository = cacheRepository;
+        this.clock = timeSource;
+    }
+
+    /**
+     * Normalizes a prompt into a cache key: trimmed, lower-cased and
+     * with runs of whitespace collapsed to one space.
+     *
+     * @param prompt the prompt
+     * @return the cache key
+     */
+    public static String normalize(final String prompt) {
+        return prompt.trim().replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Looks up a cached response for the prompt.
+     *
+     * @param prompt the prompt (normalized internally)
+     * @return the raw JSON response, or empty on a miss or expiry
+     */
+    public Optional<String> get(final String prompt) {
+        final String key = normalize(prompt);
+        final Instant now = clock.instant();
+        final CachedResponse cached = entries.get(key);
+        if (cached != null) {
+            if (cached.expiresAt.isAfter(now)) {
+                hits.incrementAndGet();
+                return Optional.of(cached.json);
+            }
+            entries.remove(key);
+        }
+        if (persistent) {
+            final Optional<String> stored = loadPersisted(key, now);
+            if (stored.isPresent()) {
+                hits.incrementAndGet();
+                return stored;
+            }
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    /**
+     * Caches a response for the prompt.
+     *
+     * @param prompt the prompt (normalized internally)
+     * @param json   the raw JSON response
+     */
+    public void put(final String prompt, final String json) {
+        final String key = normalize(prompt);
+        final Instant now = clock.instant();
+        final Instant expiresAt = now.plus(ttl);
+        entries.put(key, new CachedResponse(json, expiresAt));
+        if (persistent) {
+            try {
+                repository.save(new AIRecipeCacheEntry(key, json,
+                        toLocal(now), toLocal(expiresAt)));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not persist AI response for '{}': {}",
+                        key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Evicts every in-memory entry and removes expired persisted rows.
+     */
+    public void clear() {
+        entries.clear();
+        if (persistent) {
+            repository.deleteExpired(toLocal(clock.instant()));
+        }
+    }
+
+    /**
+     * Returns the number of lookups served from the cache.
+     *
+     * @return hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that missed.
+     *
+     * @return miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Reads a persisted response, dropping it if it has expired.
+     *
+     * @param key normalized prompt
+     * @param now current time
+     * @return the raw JSON, or empty
+     */
+    private Optional<String> loadPersisted(final String key,
+                                           final Instant now) {
+        try {
+            final Optional<AIRecipeCacheEntry> row = repository.findById(key);
+            if (row.isEmpty()) {
+                return Optional.empty();
+            }
+            final Instant expiresAt = row.get().getExpiresAt()
+                    .atZone(clock.getZone()).toInstant();
+            if (!expiresAt.isAfter(now)) {
+                repository.deleteById(key);
+                return Optional.empty();
+            }
+            entries.put(key,
+                    new CachedResponse(row.get().getResponseJson(), expiresAt));
+            return Optional.of(row.get().getResponseJson());
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not read persisted AI response for '{}': {}",
+                    key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Converts an instant to the local time stored in the table.
+     *
+     * @param instant the instant
+     * @return local date-time in the clock's zone
+     */
+    private LocalDateTime toLocal(final Instant instant) {
+        return LocalDateTime.ofInstant(instant, clock.getZone());
+    }
+
+    /**
+     * A cached response and its expiry.
+     */
+    private static final class CachedResponse {
+
+        /** Raw JSON response. */
+        private final String json;
+
+        /** Expiry instant. */
+        private final Instant expiresAt;
+
+        CachedResponse(final String response, final Instant expiry) {
+            this.json = response;
+            this.expiresAt = expiry;
+        }
+    }
+}
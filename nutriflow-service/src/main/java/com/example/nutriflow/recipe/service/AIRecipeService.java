@@ -4,23 +4,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import com.example.nutriflow.recipe.llm.LlmRecipeClient;
 import com.example.nutriflow.recipe.model.Recipe;
-import com.example.nutriflow.recipe.model.RecipeIngredient;
 import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
 import com.example.nutriflow.recipe.repository.RecipeRepository;
-import com.google.genai.Client;
-import com.google.genai.types.GenerateContentConfig;
-import com.google.genai.types.GenerateContentResponse;
-import com.google.genai.types.Schema;
+import com.example.nutriflow.shared.concurrent.SingleFlight;
+import com.example.nutriflow.shared.concurrent.TokenBucketRateLimiter.Priority;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.core.JsonProcessingException;
 
 
 /**
@@ -30,67 +26,147 @@ import com.fasterxml.jackson.core.JsonProcessingException;
  */
 @Service
 public class AIRecipeService {
-    /** Client object that makes a connection to LLM. */
-    private final Client client;
-    /** Model type used for LLM. */
-    private final String model;
-    /** An ObjectMapper object that parses a json object. */
-    private final ObjectMapper objectMapper;
+    /** Client that makes the LLM calls. */
+    private final LlmRecipeClient llmClient;
+    /** Streaming parser for LLM responses. */
+    private final AIRecipeJsonParser recipeParser;
     /** Repository for accessing recipe ingredient data. */
     @Autowired
     private RecipeIngredientRepository recipeIngredientRepository;
     /** Service handling recipe-related logic. */
     @Autowired
     private RecipeRepository recipeRepository;
+    /** Cache of LLM responses keyed by normalized prompt. */
+    @Autowired
+    private AIRecipeResponseCache responseCache;
+    /** Saves generated recipes into the catalog in the background. */
+    @Autowired
+    private AIRecipePersister recipePersister;
+    /** Admission control against the LLM request quota. */
+    @Autowired
+    private AIRequestLimiter requestLimiter;
+    /** Default seconds a caller waits on an identical in-flight request. */
+    private static final long DEFAULT_WAIT_TIMEOUT_SECONDS = 30;
+    /** Seconds a caller waits on an identical in-flight request. */
+    @Value("${nutriflow.ai.single-flight.wait-timeout-seconds:30}")
+    private long singleFlightWaitSeconds = DEFAULT_WAIT_TIMEOUT_SECONDS;
+    /** Coalesces identical in-flight LLM requests by normalized prompt. */
+    private final SingleFlight<String, String> inFlightRequests =
+        new SingleFlight<>();
     /**
      * Initializes an AIRecipeService object.
      *
-     * @param apiKey apikey used for the LLM authentication
-     * @param modelName the model type (for ex., gemini-flash)
+     * @param client the LLM client (Gemini or the local stand-in)
      * @param myObjectMapper an objectmapper object
      */
     public AIRecipeService(
-        final @Value("${GOOGLE_API_KEY}") String apiKey,
-        final @Value("${GOOGLE_MODEL_NAME}") String modelName,
+        final LlmRecipeClient client,
         final ObjectMapper myObjectMapper) {
-        this.client = Client.builder().apiKey(apiKey).build();
-        this.model = modelName;
-        this.objectMapper = myObjectMapper;
+        this.llmClient = client;
+        this.recipeParser =
+            new AIRecipeJsonParser(myObjectMapper.getFactory());
+    }
+
+    /**
+     * Returns the stored recipe using the ingredient, without contacting
+     * the LLM; callers check this before spending an AI call on it.
+     *
+     * @param ingredient the ingredient
+     * @return the recipe with the lowest ID using it, or empty
+     */
+    public Optional<Recipe> findStoredRecipe(final String ingredient) {
+        return searchIngredient(ingredient);
+    }
+
+    /**
+     * Generates a recipe with the given ingredient, served from the
+     * response cache when possible, without checking the catalog first.
+     *
+     * @param ingredient the ingredient
+     * @return Returns the cached or generated recipe.
+     */
+    public Recipe generateAIRecipe(final String ingredient) {
+        return requestCachedRecipe(ingredientPrompt(ingredient));
     }
 
     /**
-     * Generates a recipe with the given ingredient.
+     * Streams a recipe with the given ingredient without checking the
+     * catalog first. A cached response is returned without calling the
+     * LLM and without chunks; otherwise the model output is forwarded
+     * as it is generated, and the complete response is parsed,
+     * validated, cached and persisted at the end. Streamed calls are
+     * not coalesced, since each caller needs its own chunks.
      *
      * @param ingredient the ingredient
-     * @return Returns a recipe object with the found or generated recipe.
+     * @param onChunk receives the partial JSON text
+     * @return Returns the complete recipe.
+     * @throws IllegalStateException if the streamed output is not a
+     *                               complete recipe
      */
-    public Recipe getAIRecipe(final String ingredient) {
-        final Optional<Recipe> existingRecipe = searchIngredient(ingredient);
-        if (existingRecipe.isPresent()) {
-            return existingRecipe.get();
+    public Recipe streamGeneratedAIRecipe(final String ingredient,
+                                          final Consumer<String> onChunk) {
+        final String prompt = ingredientPrompt(ingredient);
+        final Optional<String> cached = responseCache.get(prompt);
+        if (cached.isPresent()) {
+            return parseRecipe(cached.get());
         }
+        final String json = streamRecipeJson(prompt, onChunk);
+        responseCache.put(prompt, json);
+        return parseRecipe(json);
+    }
 
-        final String finalPrompt =
-            "Generate a delicious recipe with the following ingredient: "
-                + ingredient;
-        return requestRecipe(finalPrompt);
+    /**
+     * Streams a recipe recommendation (AI generated); see
+     * {@link #streamGeneratedAIRecipe(String, Consumer)}.
+     *
+     * @param onChunk receives the partial JSON text
+     * @return Returns the complete recipe.
+     * @throws IllegalStateException if the streamed output is not a
+     *                               complete recipe
+     */
+    public Recipe streamAIRecommendedRecipe(final Consumer<String> onChunk) {
+        return parseRecipe(
+            streamRecipeJson("Generate a delicious recipe", onChunk));
     }
 
+    /**
+     * Returns a previously generated recipe for the ingredient from the
+     * response cache, without contacting the LLM.
+     *
+     * @param ingredient the ingredient
+     * @return the cached recipe, or empty if none is cached
+     */
+    public Optional<Recipe> getCachedAIRecipe(final String ingredient) {
+        return responseCache.get(ingredientPrompt(ingredient))
+            .map(this::parseRecipe);
+    }
+
+    /**
+     * Builds the LLM prompt for an ingredient lookup.
+     *
+     * @param ingredient the ingredient
+     * @return the prompt
+     */
+    private String ingredientPrompt(final String ingredient) {
+        return "Generate a delicious recipe with the following ingredient: "
+            + ingredient.trim();
+    }
+
+    /**
+     * Looks up a stored recipe using the ingredient through the
+     * ingredient to recipe reverse index; persisted AI recipes are
+     * found here too.
+     *
+     * @param ingredient the ingredient
+     * @return the recipe with the lowest ID using it, or empty
+     */
     private Optional<Recipe> searchIngredient(final String ingredient) {
-        List<Recipe> allRecipes = recipeRepository.findAll();
-        for (Recipe recipe : allRecipes) {
-            Integer recipeId = recipe.getRecipeId();
-            final List<RecipeIngredient> recipeIngredients =
-                recipeIngredientRepository.findByRecipeId(recipeId);
-            for (RecipeIngredient ri : recipeIngredients) {
-                final String candidate = ri.getIngredient();
-                if (candidate != null
-                    && ingredient.equalsIgnoreCase(candidate)) {
-                    return Optional.of(recipe);
-                }
-            }
+        final List<Integer> recipeIds = recipeIngredientRepository
+            .findRecipeIdsByIngredient(ingredient.trim());
+        if (recipeIds.isEmpty()) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return recipeRepository.findById(recipeIds.get(0));
     }
 
     /**
@@ -99,144 +175,155 @@ public class AIRecipeService {
      * @return Returns a recipe object with the generated recipe.
      */
     public Recipe getAIRecommendedRecipe() {
+        return getAIRecommendedRecipe(Priority.INTERACTIVE);
+    }
+
+    /**
+     * Generates a recipe recommendation with the given priority against
+     * the LLM request quota.
+     *
+     * @param priority INTERACTIVE for user requests, BACKGROUND for
+     *                 pre-generation
+     * @return Returns a recipe object with the generated recipe.
+     */
+    public Recipe getAIRecommendedRecipe(final Priority priority) {
         String finalPrompt = "Generate a delicious recipe";
-        return requestRecipe(finalPrompt);
-}
+        return requestRecipe(finalPrompt, priority);
+    }
 
     /**
-     * A method that creates a structured output schema
-     * and uses the prompt to make an LLM query.
+     * Generates a recipe recommendation without saving it to the
+     * catalog, for callers that keep it until it is actually served.
+     *
+     * @param priority priority against the LLM request quota
+     * @return Returns the generated, unsaved recipe.
+     */
+    public Recipe generateUnsavedRecommendation(final Priority priority) {
+        return parse(generateRecipeJson("Generate a delicious recipe",
+            priority)).getRecipe();
+    }
+
+    /**
+     * Serves the prompt from the response cache, falling back to an
+     * LLM query whose response is cached once it parses successfully.
+     * Concurrent misses for the same normalized prompt share a single
+     * LLM call; each caller gets its own parsed recipe.
      *
      * @param prompt prompt that is used to make an LLM query.
      * @return Returns a recipe object with the generated recipe.
      */
-    private Recipe requestRecipe(final String prompt) {
-        Schema responseSchema = Schema.builder().type("OBJECT")
-            .properties(Map.ofEntries(
-                Map.entry("title",
-                    Schema.builder().type("STRING").build()),
-                Map.entry("cookTime",
-                    Schema.builder().type("INTEGER").build()),
-                Map.entry("cuisines",
-                    Schema.builder().type("ARRAY")
-                        .items(Schema.builder().type("STRING").build())
-                        .build()),
-                Map.entry("tags",
-                    Schema.builder().type("ARRAY")
-                        .items(Schema.builder().type("STRING").build())
-                        .build()),
-                Map.entry("ingredients",
-                    Schema.builder().type("ARRAY").items(
-                        Schema.builder().type("OBJECT")
-                            .properties(Map.ofEntries(
-                                Map.entry("id",
-                                    Schema.builder().type("NULL").build()),
-                                Map.entry("recipeId",
-                                    Schema.builder().type("NULL").build()),
-                                Map.entry("ingredient",
-                                    Schema.builder().type("STRING").build()),
-                                Map.entry("quantity",
-                                    Schema.builder().type("NUMBER").build()),
-                                Map.entry("unit",
-                                    Schema.builder().type("STRING").build()),
-                                Map.entry("allergenTags",
-                                    Schema.builder().type("ARRAY")
-                                        .items(Schema.builder()
-                                            .type("STRING").build())
-                                        .build())
-                                )).build())
-                        .build()),
-                Map.entry("nutrition",
-                    Schema.builder().type("OBJECT").properties(
-                        Map.ofEntries(
-                            Map.entry("summary",
-                                Schema.builder().type("NULL").build())
-                        )
-                        )
-                    .build()),
-                Map.entry("calories",
-                    Schema.builder().type("NUMBER").build()),
-                Map.entry("carbohydrates",
-                    Schema.builder().type("NUMBER").build()),
-                Map.entry("fat",
-                    Schema.builder().type("NUMBER").build()),
-                Map.entry("fiber",
-                    Schema.builder().type("NUMBER").build()),
-                Map.entry("protein",
-                    Schema.builder().type("NUMBER").build())
-            ))
-            .required(List.of("title", "ingredients"))
-            .build();
-
-        GenerateContentConfig config = GenerateContentConfig.builder()
-                .responseMimeType("application/json")
-                .responseSchema(responseSchema)
-                .build();
-
-        GenerateContentResponse response =
-                client.models.generateContent(model, prompt, config);
-
-        return parseRecipe(response.text());
+    private Recipe requestCachedRecipe(final String prompt) {
+        final Optional<String> cached = responseCache.get(prompt);
+        if (cached.isPresent()) {
+            return parseRecipe(cached.get());
+        }
+        final String json = inFlightRequests.execute(
+            AIRecipeResponseCache.normalize(prompt),
+            () -> loadRecipeJson(prompt),
+            Duration.ofSeconds(singleFlightWaitSeconds));
+        return parseRecipe(json);
     }
 
     /**
-     * This method is used to parse a json object
-     * and create a recipe object.
-     * @param json a json object that will be parsed.
-     * @return Returns a recipe object.
+     * Loads the response for a prompt as the single in-flight leader.
+     * Re-checks the cache in case a previous leader just filled it.
+     *
+     * @param prompt prompt that is used to make an LLM query.
+     * @return Returns the raw JSON text of the recipe.
      */
-    private Recipe parseRecipe(final String json) {
-        try {
-            JsonNode node = objectMapper.readTree(json);
-            Recipe recipe = new Recipe();
-
-            recipe.setTitle(node.path("title").asText(null));
-            if (node.hasNonNull("cookTime")) {
-                recipe.setCookTime(node.get("cookTime").asInt());
-            }
-            recipe.setCuisines(readStringArray(node.get("cuisines")));
-            recipe.setTags(readStringArray(node.get("tags")));
-            recipe.setIngredients(writeJsonOrEmpty(node.get("ingredients")));
-            if (node.hasNonNull("nutrition")) {
-                recipe.setNutrition(writeJsonOrEmpty(node.get("nutrition")));
-            }
-            recipe.setCalories(readDecimal(node, "calories"));
-            recipe.setCarbohydrates(readDecimal(node, "carbohydrates"));
-            recipe.setFat(readDecimal(node, "fat"));
-            recipe.setFiber(readDecimal(node, "fiber"));
-            recipe.setProtein(readDecimal(node, "protein"));
-            if (node.hasNonNull("popularityScore")) {
-                recipe.setPopularityScore(node.get("popularityScore").asInt());
-            }
-            return recipe;
-        } catch (JsonProcessingException ex) {
-            throw new IllegalStateException(
-                "Failed to parse recipe response", ex
-                );
+    private String loadRecipeJson(final String prompt) {
+        final Optional<String> cached = responseCache.get(prompt);
+        if (cached.isPresent()) {
+            return cached.get();
         }
+        final String json = generateRecipeJson(prompt, Priority.INTERACTIVE);
+        final AIRecipeJsonParser.ParsedRecipe parsed = parse(json);
+        recipePersister.persistAsync(
+            parsed.getRecipe(), parsed.getIngredients());
+        responseCache.put(prompt, json);
+        return json;
+    }
+
+    /**
+     * Makes an LLM query and parses the result.
+     *
+     * @param prompt prompt that is used to make an LLM query.
+     * @param priority priority against the LLM request quota.
+     * @return Returns a recipe object with the generated recipe.
+     */
+    private Recipe requestRecipe(final String prompt,
+                                 final Priority priority) {
+        final AIRecipeJsonParser.ParsedRecipe parsed =
+            parse(generateRecipeJson(prompt, priority));
+        recipePersister.persistAsync(
+            parsed.getRecipe(), parsed.getIngredients());
+        return parsed.getRecipe();
+    }
+
+    /**
+     * Uses the prompt to make an LLM query once the request limiter
+     * admits it.
+     *
+     * @param prompt prompt that is used to make an LLM query.
+     * @param priority priority against the LLM request quota.
+     * @return Returns the raw JSON text of the generated recipe.
+     */
+    private String generateRecipeJson(final String prompt,
+                                      final Priority priority) {
+        requestLimiter.acquire(priority);
+        return llmClient.generateRecipeJson(prompt);
     }
 
-    private String[] readStringArray(final JsonNode node) {
-        if (node == null || !node.isArray()) {
-            return null;
+    /**
+     * Streams an LLM query at interactive priority, then validates and
+     * persists the assembled response.
+     *
+     * @param prompt prompt that is used to make an LLM query.
+     * @param onChunk receives the partial JSON text.
+     * @return Returns the complete raw JSON text of the recipe.
+     * @throws IllegalStateException if the output is not a complete
+     *                               recipe
+     */
+    private String streamRecipeJson(final String prompt,
+                                    final Consumer<String> onChunk) {
+        requestLimiter.acquire(Priority.INTERACTIVE);
+        final String json = llmClient.streamRecipeJson(prompt, onChunk);
+        final AIRecipeJsonParser.ParsedRecipe parsed = parse(json);
+        final String title = parsed.getRecipe().getTitle();
+        if (title == null || title.isBlank()) {
+            throw new IllegalStateException(
+                "Incomplete recipe in streamed response");
         }
-        List<String> values = new ArrayList<>();
-        node.forEach(item -> values.add(item.asText()));
-        return values.toArray(String[]::new);
+        recipePersister.persistAsync(
+            parsed.getRecipe(), parsed.getIngredients());
+        return json;
     }
 
-    private String writeJsonOrEmpty(final JsonNode node)
-        throws JsonProcessingException {
-            return (node == null || node.isNull())
-                    ? "{}"
-                    : objectMapper.writeValueAsString(node);
+    /**
+     * Parses a response into a recipe and its ingredient rows with the
+     * streaming parser.
+     *
+     * @param json the response JSON.
+     * @return Returns the parsed recipe.
+     */
+    private AIRecipeJsonParser.ParsedRecipe parse(final String json) {
+        try {
+            return recipeParser.parse(json);
+        } catch (IOException ex) {
+            throw new IllegalStateException(
+                "Failed to parse recipe response", ex
+                );
+        }
     }
 
-    private BigDecimal readDecimal(final JsonNode node, final String field) {
-        JsonNode valueNode = node.get(field);
-        return valueNode != null && valueNode.isNumber()
-                ? valueNode.decimalValue()
-                : null;
+    /**
+     * This method is used to parse a json object
+     * and create a recipe object.
+     * @param json a json object that will be parsed.
+     * @return Returns a recipe object.
+     */
+    private Recipe parseRecipe(final String json) {
+        return parse(json).getRecipe();
     }
 
 }
@@ -0,0 +1,35 @@
+package com.example.nutriflow.recipe.service;
+
+/**
+ * Thrown when an AI recipe request is refused without reaching the LLM
+ * backend (circuit open, executor saturated) or gives up waiting on it.
+ */
+public class AIRecipeUnavailableException extends RuntimeException {
+
+    /** Serialization version. */
+    private static final long serialVersionUID = 1L;
+
+    /** Whether the request timed out rather than being refused. */
+    private final boolean timedOut;
+
+    /**
+     * Creates the exception.
+     *
+     * @param message description of why the request failed
+     * @param timeout whether the request timed out
+     */
+    public AIRecipeUnavailableException(final String message,
+                                        final boolean timeout) {
+        super(message);
+        this.timedOut = timeout;
+    }
+
+    /**
+     * Whether the request timed out rather than being refused.
+     *
+     * @return true on timeout
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.shared.concurrent.TokenBucketRateLimiter.Priority;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of pre-generated AI recipe recommendations.
+ *
+ * Requests take a recipe from the pool in O(1) without waiting on the
+ * LLM. A single background thread refills the pool: once it drops below
+ * the low watermark, recipes are generated one per refill interval
+ * (which rate-limits LLM usage) until the pool is full again. After a
+ * failed generation the refiller backs off before retrying.
+ *
+ * Pooled recipes are not saved to the catalog until they are served, so
+ * recipes nobody receives never reach the database. The pool spends LLM
+ * quota ahead of demand, so it is kept small and refilled slowly by
+ * default; {@code nutriflow.ai.recommendation-pool.enabled=false} turns
+ * the refiller off.
+ */
+@Component
+public class AIRecommendationPool {
+
+    /** Logger for this pool. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(AIRecommendationPool.class);
+
+    /** Service generating recommendations. */
+    private final AIRecipeService aiRecipeService;
+
+    /** Saves served recipes into the catalog. */
+    private final AIRecipePersister recipePersister;
+
+    /** Pre-generated recipes. */
+    private final Queue<Recipe> pool = new ConcurrentLinkedQueue<>();
+
+    /** Pool size, tracked separately since queue size() is O(n). */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /** Number of recipes the refiller fills up to. */
+    private final int capacity;
+
+    /** Pool size below which the refiller starts filling. */
+    private final int lowWatermark;
+
+    /** Minimum delay between two generations, in milliseconds. */
+    private final long refillIntervalMillis;
+
+    /** Delay after a failed generation, in milliseconds. */
+    private final long failureBackoffMillis;
+
+    /** Whether background refilling is enabled. */
+    private final boolean enabled;
+
+    /** Background refill thread. */
+    private final ScheduledExecutorService refiller =
+            Executors.newSingleThreadScheduledExecutor(task -> {
+                final Thread thread =
+                        new Thread(task, "ai-recommendation-refill");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /** Whether the refiller is filling up to capacity. Refill thread only. */
+    private boolean filling;
+
+    /** Earliest time of the next attempt after a failure. Refill thread only. */
+    private long retryAtMillis;
+
+    /**
+     * Creates the pool.
+     *
+     * @param service          service generating recommendations
+     * @param persister        saves served recipes into the catalog
+     * @param poolSize         number of recipes kept ready
+     * @param watermark        size below which refilling starts
+     * @param intervalMillis   minimum delay between generations
+     * @param backoffMillis    delay after a failed generation
+     * @param refillEnabled    whether to refill in the background
+     */
+    public AIRecommendationPool(
+            final AIRecipeService service,
+            final AIRecipePersister persister,
+            final @Value("${nutriflow.ai.recommendation-pool.size:5}")
+            int poolSize,
+            final @Value("${nutriflow.ai.recommendation-pool.low-watermark:2}")
+            int watermark,
+            final @Value(
+                    "${nutriflow.ai.recommendation-pool.refill-interval-ms:10000}")
+            long intervalMillis,
+            final @Value(
+                    "${nutriflow.ai.recommendation-pool.failure-backoff-ms:30000}")
+            long backoffMillis,
+            final @Value("${nutriflow.ai.recommendation-pool.enabled:true}")
+            boolean refillEnabled) {
+        this.aiRecipeService = service;
+        this.recipePersister = persister;
+        this.capacity = Math.max(1, poolSize);
+        this.lowWatermark = Math.min(Math.max(0, watermark), capacity);
+        this.refillIntervalMillis = Math.max(1, intervalMillis);
+        this.failureBackoffMillis = Math.max(0, backoffMillis);
+        this.enabled = refillEnabled;
+    }
+
+    /**
+     * Starts the background refiller once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            LOGGER.info("AI recommendation pool refill is disabled");
+            return;
+        }
+        refiller.scheduleWithFixedDelay(this::refillStep, 0,
+                refillIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the refiller on shutdown.
+     */
+    @PreDestroy
+    public void stop() {
+        refiller.shutdownNow();
+    }
+
+    /**
+     * Takes a pre-generated recipe from the pool and queues it for
+     * saving, now that it is served.
+     *
+     * @return a recipe, or empty if the pool is drained
+     */
+    public Optional<Recipe> poll() {
+        final Recipe recipe = pool.poll();
+        if (recipe == null) {
+            return Optional.empty();
+        }
+        size.decrementAndGet();
+        recipePersister.persistAsync(recipe);
+        return Optional.of(recipe);
+    }
+
+    /**
+     * Returns the number of recipes ready in the pool.
+     *
+     * @return pool size
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * One refill tick: generates at most one recipe when the pool is
+     * below the watermark, or still filling up to capacity.
+     * Runs on the refill thread; public so it can be driven in tests.
+     */
+    public void refillStep() {
+        final int current = size.get();
+        if (current < lowWatermark) {
+            filling = true;
+        }
+        if (!filling || System.currentTimeMillis() < retryAtMillis) {
+            return;
+        }
+        if (current >= capacity) {
+            filling = false;
+            return;
+        }
+        try {
+            pool.add(aiRecipeService.generateUnsavedRecommendation(
+                    Priority.BACKGROUND));
+            if (size.incrementAndGet() >= capacity) {
+                filling = false;
+            }
+        } catch (RuntimeException e) {
+            retryAtMillis = System.currentTimeMillis() + failureBackoffMillis;
+            LOGGER.warn("Could not pre-generate AI recommendation: {}",
+                    e.getMessage());
+        }
+    }
+}
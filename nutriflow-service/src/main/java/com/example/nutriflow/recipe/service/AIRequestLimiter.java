@@ -0,0 +1,123 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.recipe.dto.AIRateLimitStatsDto;
+import com.example.nutriflow.shared.concurrent.TokenBucketRateLimiter;
+import com.example.nutriflow.shared.concurrent.TokenBucketRateLimiter.Priority;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Admission control for LLM calls. Every call takes a permit from a
+ * token bucket sized to the backend's request-per-minute quota, so
+ * bursts queue here instead of producing upstream 429s. Interactive
+ * requests are served ahead of background and batch generation, and
+ * a request whose expected wait exceeds its deadline fails fast with
+ * {@link AIRecipeUnavailableException}.
+ */
+@Component
+public class AIRequestLimiter {
+
+    /** Logger for this limiter. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(AIRequestLimiter.class);
+
+    /** Whether requests are rate limited at all. */
+    private final boolean enabled;
+
+    /** Sustained requests per minute. */
+    private final int requestsPerMinute;
+
+    /** Bucket capacity. */
+    private final int burst;
+
+    /** Longest wait for an interactive request. */
+    private final Duration interactiveMaxWait;
+
+    /** Longest wait for a background request. */
+    private final Duration backgroundMaxWait;
+
+    /** The token bucket. */
+    private final TokenBucketRateLimiter limiter;
+
+    /**
+     * Creates the limiter.
+     *
+     * @param limitEnabled       whether to rate limit
+     * @param perMinute          sustained LLM requests per minute
+     * @param burstSize          requests allowed back to back
+     * @param interactiveWaitMs  longest wait for interactive requests
+     * @param backgroundWaitMs   longest wait for background requests
+     */
+    @Autowired
+    public AIRequestLimiter(
+            final @Value("${nutriflow.ai.rate-limit.enabled:true}")
+            boolean limitEnabled,
+            final @Value("${nutriflow.ai.rate-limit.requests-per-minute:60}")
+            int perMinute,
+            final @Value("${nutriflow.ai.rate-limit.burst:10}") int burstSize,
+            final @Value(
+                    "${nutriflow.ai.rate-limit.interactive-max-wait-ms:5000}")
+            long interactiveWaitMs,
+            final @Value(
+                    "${nutriflow.ai.rate-limit.background-max-wait-ms:120000}")
+            long backgroundWaitMs) {
+        this.enabled = limitEnabled;
+        this.requestsPerMinute = perMinute;
+        this.burst = burstSize;
+        this.interactiveMaxWait = Duration.ofMillis(interactiveWaitMs);
+        this.backgroundMaxWait = Duration.ofMillis(backgroundWaitMs);
+        this.limiter = new TokenBucketRateLimiter(perMinute, burstSize);
+    }
+
+    /**
+     * Waits for a permit to make one LLM call.
+     *
+     * @param priority request priority
+     * @throws AIRecipeUnavailableException if no permit can be had
+     *                                      within the priority's deadline
+     */
+    public void acquire(final Priority priority) {
+        if (!enabled) {
+            return;
+        }
+        final boolean admitted;
+        try {
+            admitted = limiter.acquire(priority,
+                    priority == Priority.INTERACTIVE
+                            ? interactiveMaxWait : backgroundMaxWait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AIRecipeUnavailableException(
+                    "Interrupted while waiting for the AI quota", false);
+        }
+        if (!admitted) {
+            LOGGER.info("Rejected {} AI request: quota exhausted", priority);
+            throw new AIRecipeUnavailableException(
+                    "AI request quota exhausted, please retry shortly", false);
+        }
+    }
+
+    /**
+     * Returns a snapshot of the limiter, including queue depths.
+     *
+     * @return limiter statistics
+     */
+    public AIRateLimitStatsDto getStats() {
+        final AIRateLimitStatsDto stats = new AIRateLimitStatsDto();
+        stats.setEnabled(enabled);
+        stats.setRequestsPerMinute(requestsPerMinute);
+        stats.setBurst(burst);
+        stats.setAvailablePermits(limiter.availablePermits());
+        stats.setInteractiveQueueDepth(
+                limiter.queueDepth(Priority.INTERACTIVE));
+        stats.setBackgroundQueueDepth(limiter.queueDepth(Priority.BACKGROUND));
+        stats.setGranted(limiter.getGranted());
+        stats.setRejected(limiter.getRejected());
+        return stats;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.shared.cache.LruCache;
+import com.example.nutriflow.shared.transaction.AfterCommit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-user cache of favorite recipe IDs.
+ * Each user's favorites are held as a sorted {@code int[]}, and the
+ * number of cached users is bounded with LRU eviction. Updates are
+ * copy-on-write so readers always see a consistent array.
+ *
+ * Writes are applied once the writing transaction commits. A read that
+ * loaded a user's set from the database only caches it if no write for
+ * that user committed in the meantime ({@link #generation} unchanged),
+ * so a read racing a write cannot cache the set from before the write.
+ */
+@Component
+public class FavoriteRecipeCache {
+
+    /** Number of generation counters users are spread over. */
+    private static final int STRIPES = 64;
+
+    /** Backing LRU cache: user ID to sorted recipe IDs. */
+    private final LruCache<Integer, int[]> favorites;
+
+    /** Write counters, one per stripe of user IDs. */
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+
+    /**
+     * Creates the favorites cache.
+     *
+     * @param maxUsers maximum number of users whose favorites are cached
+     */
+    public FavoriteRecipeCache(
+            final @Value("${nutriflow.cache.favorites.max-users:10000}")
+            int maxUsers) {
+        this.favorites = new LruCache<>(maxUsers);
+    }
+
+    /**
+     * Returns the cached favorite recipe IDs for a user.
+     *
+     * @param userId the user ID
+     * @return sorted recipe IDs (do not modify), or null on a miss
+     */
+    public int[] get(final Integer userId) {
+        return favorites.get(userId);
+    }
+
+    /**
+     * Returns the write counter of a user; read it before loading the
+     * user's favorites and pass it to {@link #put(Integer, Collection,
+     * long)}.
+     *
+     * @param userId the user ID
+     * @return the current generation
+     */
+    public long generation(final Integer userId) {
+        return generations.get(stripe(userId));
+    }
+
+    /**
+     * Caches a user's favorite set loaded from the database, unless a
+     * write for the user committed since the load started.
+     *
+     * @param userId     the user ID
+     * @param recipeIds  every recipe ID the user has favorited
+     * @param loadedAt   {@link #generation} read before the load
+     * @return the sorted array, cached or not
+     */
+    public int[] put(final Integer userId,
+            final Collection<Integer> recipeIds, final long loadedAt) {
+        final int[] ids = toSortedArray(recipeIds);
+        synchronized (favorites) {
+            if (generation(userId) == loadedAt) {
+                favorites.put(userId, ids);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Caches the complete favorite set for a user.
+     *
+     * @param userId    the user ID
+     * @param recipeIds every recipe ID the user has favorited
+     * @return the cached sorted array
+     */
+    public int[] put(final Integer userId,
+            final Collection<Integer> recipeIds) {
+        final int[] ids = toSortedArray(recipeIds);
+        favorites.put(userId, ids);
+        return ids;
+    }
+
+    /**
+     * Adds a recipe to a cached user's favorites once the current
+     * transaction commits. Users that are not cached are left alone;
+     * their set is loaded in full on the next read.
+     *
+     * @param userId   the user ID
+     * @param recipeId the recipe ID
+     */
+    public void add(final Integer userId, final int recipeId) {
+        AfterCommit.run(() -> applyWrite(userId, () ->
+                favorites.computeIfPresent(userId,
+                        (k, ids) -> withAdded(ids, recipeId))));
+    }
+
+    /**
+     * Removes a recipe from a cached user's favorites once the current
+     * transaction commits.
+     *
+     * @param userId   the user ID
+     * @param recipeId the recipe ID
+     */
+    public void remove(final Integer userId, final int recipeId) {
+        AfterCommit.run(() -> applyWrite(userId, () ->
+                favorites.computeIfPresent(userId,
+                        (k, ids) -> withRemoved(ids, recipeId))));
+    }
+
+    /**
+     * Drops a user's cached favorites once the current transaction
+     * commits, so the next read reloads them.
+     *
+     * @param userId the user ID
+     */
+    public void evict(final Integer userId) {
+        AfterCommit.run(() -> applyWrite(userId,
+                () -> favorites.remove(userId)));
+    }
+
+    /**
+     * Applies a committed write and advances the user's generation, so
+     * loads that started before it are not cached.
+     *
+     * @param userId the user ID
+     * @param change the cache change
+     */
+    private void applyWrite(final Integer userId, final Runnable change) {
+        synchronized (favorites) {
+            generations.incrementAndGet(stripe(userId));
+            change.run();
+        }
+    }
+
+    /**
+     * Returns a sorted array with a recipe added.
+     *
+     * @param ids      sorted recipe IDs
+     * @param recipeId the recipe to add
+     * @return a new array, or {@code ids} if already present
+     */
+    private static int[] withAdded(final int[] ids, final int recipeId) {
+        final int pos = Arrays.binarySearch(ids, recipeId);
+        if (pos >= 0) {
+            return ids;
+        }
+        final int insertAt = -pos - 1;
+        final int[] updated = new int[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = recipeId;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1,
+                ids.length - insertAt);
+        return updated;
+    }
+
+    /**
+     * Returns a sorted array with a recipe removed.
+     *
+     * @param ids      sorted recipe IDs
+     * @param recipeId the recipe to remove
+     * @return a new array, or {@code ids} if absent
+     */
+    private static int[] withRemoved(final int[] ids, final int recipeId) {
+        final int pos = Arrays.binarySearch(ids, recipeId);
+        if (pos < 0) {
+            return ids;
+        }
+        final int[] updated = new int[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, pos);
+        System.arraycopy(ids, pos + 1, updated, pos, ids.length - pos - 1);
+        return updated;
+    }
+
+    /**
+     * Maps a user ID to its generation counter.
+     *
+     * @param userId the user ID
+     * @return the stripe index
+     */
+    private static int stripe(final Integer userId) {
+        return Math.floorMod(Objects.hashCode(userId), STRIPES);
+    }
+
+    /**
+     * Converts recipe IDs to a sorted array without nulls or duplicates.
+     *
+     * @param recipeIds the recipe IDs
+     * @return the sorted array
+     */
+    private static int[] toSortedArray(final Collection<Integer> recipeIds) {
+        return recipeIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+}
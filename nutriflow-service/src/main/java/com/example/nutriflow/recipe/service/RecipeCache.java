@@ -0,0 +1,163 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.shared.cache.LruCache;
+import com.example.nutriflow.shared.transaction.AfterCommit;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared, size-bounded cache of recipes keyed by recipe ID.
+ * Services resolve recipes through this cache before falling back
+ * to the repository, and evict entries when a recipe changes.
+ *
+ * The cache holds private copies and hands out a fresh copy per read,
+ * so a caller modifying its recipe (or a JPA session flushing it)
+ * cannot change what other callers see. Evictions take effect once the
+ * writing transaction commits; recipes loaded before an eviction are
+ * not cached ({@link #generation}), so a read racing a write cannot
+ * cache the old row.
+ */
+@Component
+public class RecipeCache {
+
+    /** Backing LRU cache. */
+    private final LruCache<Integer, Recipe> recipes;
+
+    /** Incremented on every eviction. */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates the recipe cache.
+     *
+     * @param maxEntries maximum number of recipes kept in memory
+     */
+    public RecipeCache(
+            final @Value("${nutriflow.cache.recipes.max-entries:5000}")
+            int maxEntries) {
+        this.recipes = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * Looks up a cached recipe.
+     *
+     * @param recipeId the recipe ID
+     * @return a copy of the cached recipe, or empty on a miss
+     */
+    public Optional<Recipe> get(final Integer recipeId) {
+        final Recipe cached = recipes.get(recipeId);
+        return cached == null ? Optional.empty() : Optional.of(copy(cached));
+    }
+
+    /**
+     * Returns the eviction counter; read it before loading recipes and
+     * pass it to {@link #putAll(Collection, long)}.
+     *
+     * @return the current generation
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a copy of a recipe under its ID. Recipes without an ID are
+     * ignored.
+     *
+     * @param recipe the recipe to cache
+     */
+    public void put(final Recipe recipe) {
+        if (recipe != null && recipe.getRecipeId() != null) {
+            recipes.put(recipe.getRecipeId(), copy(recipe));
+        }
+    }
+
+    /**
+     * Caches several recipes.
+     *
+     * @param loaded the recipes to cache
+     */
+    public void putAll(final Collection<Recipe> loaded) {
+        loaded.forEach(this::put);
+    }
+
+    /**
+     * Caches recipes loaded from the database, unless a recipe was
+     * evicted since the load started.
+     *
+     * @param loaded   the recipes to cache
+     * @param loadedAt {@link #generation} read before the load
+     */
+    public void putAll(final Collection<Recipe> loaded, final long loadedAt) {
+        synchronized (recipes) {
+            if (generation.get() == loadedAt) {
+                putAll(loaded);
+            }
+        }
+    }
+
+    /**
+     * Evicts a recipe, e.g. after it was modified: at once, and again
+     * once the current transaction commits.
+     *
+     * @param recipeId the recipe ID
+     */
+    public void evict(final Integer recipeId) {
+        remove(recipeId);
+        AfterCommit.run(() -> remove(recipeId));
+    }
+
+    /**
+     * Evicts every cached recipe.
+     */
+    public void clear() {
+        synchronized (recipes) {
+            generation.incrementAndGet();
+            recipes.clear();
+        }
+    }
+
+    /**
+     * Removes a recipe and advances the generation.
+     *
+     * @param recipeId the recipe ID
+     */
+    private void remove(final Integer recipeId) {
+        synchronized (recipes) {
+            generation.incrementAndGet();
+            recipes.remove(recipeId);
+        }
+    }
+
+    /**
+     * Copies a recipe, including its arrays.
+     *
+     * @param recipe the recipe
+     * @return an unmanaged copy
+     */
+    private static Recipe copy(final Recipe recipe) {
+        final Recipe copy = new Recipe();
+        copy.setRecipeId(recipe.getRecipeId());
+        copy.setTitle(recipe.getTitle());
+        copy.setCookTime(recipe.getCookTime());
+        copy.setCuisines(recipe.getCuisines() == null ? null
+                : recipe.getCuisines().clone());
+        copy.setTags(recipe.getTags() == null ? null
+                : recipe.getTags().clone());
+        copy.setIngredients(recipe.getIngredients());
+        copy.setNutrition(recipe.getNutrition());
+        copy.setServings(recipe.getServings());
+        copy.setCalories(recipe.getCalories());
+        copy.setCarbohydrates(recipe.getCarbohydrates());
+        copy.setFat(recipe.getFat());
+        copy.setFiber(recipe.getFiber());
+        copy.setProtein(recipe.getProtein());
+        copy.setNutrientVector(recipe.getNutrientVector() == null ? null
+                : recipe.getNutrientVector().clone());
+        copy.setPopularityScore(recipe.getPopularityScore());
+        copy.setFingerprint(recipe.getFingerprint());
+        return copy;
+    }
+}
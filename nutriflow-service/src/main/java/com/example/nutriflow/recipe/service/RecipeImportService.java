@@ -0,0 +1,991 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.recipe.dto.RecipeImportDto;
+import com.example.nutriflow.recipe.dto.RecipeImportResultDto;
+import com.example.nutriflow.recipe.model.RecipeIngredient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Service for bulk-loading recipes and their ingredients.
+ * Input (NDJSON or CSV) is streamed: records are validated as they are
+ * read and buffered one chunk at a time, so memory does not grow with
+ * the upload. Each full chunk is written with the PostgreSQL COPY
+ * protocol on a connection taken just for that chunk and committed on
+ * its own, so a slow upload never holds a pooled connection. Recipes
+ * whose content fingerprint is already in the catalog or earlier in the
+ * chunk are rejected. The summary reports how many chunks committed and
+ * up to which input line, so a failed import can be resumed. Once the
+ * last chunk is written, planner statistics are refreshed and the
+ * nutrition of the imported recipes is recomputed.
+ */
+@Service
+public class RecipeImportService {
+
+    /** Logger for this service. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RecipeImportService.class);
+
+    /** Maximum number of validation errors echoed back to the caller. */
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    /** Maximum recipe title length (VARCHAR(255)). */
+    private static final int MAX_TITLE_LENGTH = 255;
+
+    /** Maximum cuisines, tags or allergen tags per list. */
+    private static final int MAX_LIST_ITEMS = 50;
+
+    /** Maximum length of a cuisine, tag or allergen tag. */
+    private static final int MAX_LABEL_LENGTH = 100;
+
+    /** Maximum ingredients per recipe. */
+    private static final int MAX_INGREDIENTS = 500;
+
+    /** Maximum ingredient name length, as in the ingredient catalog. */
+    private static final int MAX_INGREDIENT_LENGTH = 255;
+
+    /** Maximum unit length, as in the ingredient catalog. */
+    private static final int MAX_UNIT_LENGTH = 50;
+
+    /** Maximum size of the serialized nutrition object. */
+    private static final int MAX_NUTRITION_LENGTH = 65536;
+
+    /** Largest macro value that fits in DECIMAL(7,2). */
+    private static final BigDecimal MAX_MACRO = new BigDecimal("99999.99");
+
+    /** Expression resolving the recipes ID sequence. */
+    private static final String RECIPE_SEQUENCE =
+            "pg_get_serial_sequence('nutriflow.recipes', 'recipe_id')";
+
+    /** Moves the ID sequence past any explicitly seeded recipe IDs. */
+    private static final String ALIGN_SEQUENCE_SQL =
+            "SELECT setval(" + RECIPE_SEQUENCE + ", GREATEST(nextval("
+            + RECIPE_SEQUENCE + "), (SELECT COALESCE(MAX(recipe_id), 0) + 1"
+            + " FROM nutriflow.recipes)), false)";
+
+    /** Finds which of a set of fingerprints are already stored. */
+    private static final String EXISTING_FINGERPRINTS_SQL =
+            "SELECT fingerprint FROM nutriflow.recipes"
+            + " WHERE fingerprint = ANY(?)";
+
+    /** Reserves a block of recipe IDs in one round trip. */
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(" + RECIPE_SEQUENCE + ") "
+            + "FROM generate_series(1, ?)";
+
+    /** COPY statement for recipe rows. */
+    private static final String COPY_RECIPES_SQL =
+            "COPY nutriflow.recipes (recipe_id, title, cook_time, cuisines,"
+            + " tags, ingredients, nutrition, calories, carbohydrates, fat,"
+            + " fiber, protein, popularity_score, servings, fingerprint)"
+            + " FROM STDIN WITH (FORMAT csv)";
+
+    /** COPY statement for recipe ingredient rows. */
+    private static final String COPY_INGREDIENTS_SQL =
+            "COPY nutriflow.recipe_ingredients (recipe_id, ingredient,"
+            + " quantity, unit, allergen_tags)"
+            + " FROM STDIN WITH (FORMAT csv)";
+
+    /** Separator between list items inside a CSV cell. */
+    private static final String CSV_LIST_SEPARATOR = ";";
+
+    /** Separator between the parts of one CSV ingredient entry. */
+    private static final String CSV_PART_SEPARATOR = "\\|";
+
+    /** Index of the quantity part in a CSV ingredient entry. */
+    private static final int PART_QUANTITY = 1;
+
+    /** Index of the unit part in a CSV ingredient entry. */
+    private static final int PART_UNIT = 2;
+
+    /** Index of the allergen tags part in a CSV ingredient entry. */
+    private static final int PART_ALLERGENS = 3;
+
+    /** Source of pooled JDBC connections. */
+    private final DataSource dataSource;
+
+    /** Mapper used for NDJSON records and JSONB columns. */
+    private final ObjectMapper objectMapper;
+
+    /** Recomputes the nutrition of imported recipes. */
+    private final RecipeNutritionService recipeNutritionService;
+
+    /** Number of recipes written per COPY/commit. */
+    private final int chunkSize;
+
+    /**
+     * Creates the import service.
+     *
+     * @param importDataSource the application data source
+     * @param mapper           JSON mapper
+     * @param nutrition        recipe nutrition service
+     * @param importChunkSize  recipes per chunk; also the most records
+     *                         held in memory at once
+     */
+    public RecipeImportService(
+            final DataSource importDataSource,
+            final ObjectMapper mapper,
+            final RecipeNutritionService nutrition,
+            final @Value("${nutriflow.import.chunk-size:5000}")
+            int importChunkSize) {
+        this.dataSource = importDataSource;
+        this.objectMapper = mapper;
+        this.recipeNutritionService = nutrition;
+        this.chunkSize = Math.max(1, importChunkSize);
+    }
+
+    /**
+     * Imports recipes from newline-delimited JSON, one recipe per line.
+     *
+     * @param input the NDJSON stream
+     * @return import summary
+     * @throws IOException if the stream cannot be read
+     */
+    public RecipeImportResultDto importNdjson(final InputStream input)
+            throws IOException {
+        return runImport(new RecordReader(open(input), false),
+                line -> objectMapper.readValue(line, RecipeImportDto.class));
+    }
+
+    /**
+     * Imports recipes from CSV with a header row. Recognized columns:
+     * title, cookTime, cuisines, tags, calories, carbohydrates, fat,
+     * fiber, protein, popularityScore, servings, ingredients. List cells use
+     * {@code ;} between items; each ingredient is
+     * {@code name|quantity|unit|allergen,allergen}. Quoted cells may
+     * span lines.
+     *
+     * @param input the CSV stream
+     * @return import summary
+     * @throws IOException if the stream cannot be read
+     */
+    public RecipeImportResultDto importCsv(final InputStream input)
+            throws IOException {
+        final RecordReader reader = new RecordReader(open(input), true);
+        final String header = reader.next();
+        if (header == null) {
+            return new RecipeImportResultDto();
+        }
+        final Map<String, Integer> columns = new HashMap<>();
+        final List<String> names = splitCsvLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title")) {
+            throw new IOException("CSV header must contain a title column");
+        }
+        return runImport(reader, line -> parseCsvRecord(line, columns));
+    }
+
+    /**
+     * Reads and validates records, loading them one chunk at a time.
+     * A chunk that fails to load stops the import; the rest of the
+     * input is not read.
+     *
+     * @param reader the input
+     * @param parser turns one record into an import record
+     * @return import summary
+     * @throws IOException if the stream cannot be read
+     */
+    private RecipeImportResultDto runImport(
+            final RecordReader reader,
+            final LineParser parser) throws IOException {
+
+        final RecipeImportResultDto result = new RecipeImportResultDto();
+        final List<PendingRecipe> chunk = new ArrayList<>(chunkSize);
+        final List<Integer> importedIds = new ArrayList<>();
+        boolean loading = true;
+
+        String line;
+        while (loading && (line = reader.next()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            final RecipeImportDto record;
+            try {
+                record = parser.parse(line);
+            } catch (IOException | IllegalArgumentException e) {
+                reject(result, reader.startLine(),
+                        "unreadable record: " + e.getMessage());
+                continue;
+            }
+            final String error = validate(record);
+            if (error != null) {
+                reject(result, reader.startLine(), error);
+                continue;
+            }
+            chunk.add(new PendingRecipe(record, reader.startLine(),
+                    reader.endLine(), fingerprint(record)));
+            if (chunk.size() == chunkSize) {
+                loading = loadChunk(chunk, importedIds, result);
+                chunk.clear();
+            }
+        }
+        if (loading && !chunk.isEmpty()) {
+            loadChunk(chunk, importedIds, result);
+        }
+
+        finish(importedIds);
+        LOGGER.info("Imported {} recipes ({} ingredients), rejected {}",
+                result.getImportedRecipes(),
+                result.getImportedIngredients(),
+                result.getRejectedRecords());
+        return result;
+    }
+
+    /**
+     * Writes one chunk on a connection taken for it. A failure is
+     * reported in the summary; earlier chunks stay committed.
+     *
+     * @param chunk       the buffered records
+     * @param importedIds collects the IDs of committed recipes
+     * @param result      summary to update
+     * @return whether the chunk committed
+     * @throws IOException if a record cannot be serialized
+     */
+    private boolean loadChunk(final List<PendingRecipe> chunk,
+            final List<Integer> importedIds,
+            final RecipeImportResultDto result) throws IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            final boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                final CopyManager copyManager = connection
+                        .unwrap(PGConnection.class).getCopyAPI();
+                if (result.getCommittedChunks() == 0) {
+                    alignSequence(connection);
+                }
+                writeChunk(connection, copyManager, chunk, importedIds,
+                        result);
+                result.setCommittedChunks(result.getCommittedChunks() + 1);
+                result.setCommittedThroughLine(
+                        chunk.get(chunk.size() - 1).endLine);
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return true;
+        } catch (SQLException e) {
+            LOGGER.error("Recipe import failed after {} recipes: {}",
+                    result.getImportedRecipes(), e.getMessage());
+            result.setError("Recipe import failed after "
+                    + result.getImportedRecipes() + " recipes ("
+                    + result.getCommittedChunks()
+                    + " chunks committed, through input line "
+                    + result.getCommittedThroughLine() + "): "
+                    + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes one chunk of recipes and ingredients and commits it,
+     * skipping records whose fingerprint is already stored or appears
+     * earlier in the chunk.
+     *
+     * @param connection  the open connection
+     * @param copyManager COPY API bound to the connection
+     * @param chunk       the buffered records
+     * @param importedIds collects the IDs of committed recipes
+     * @param result      summary to update
+     * @throws SQLException on database errors
+     * @throws IOException  if a record cannot be serialized
+     */
+    private void writeChunk(
+            final Connection connection,
+            final CopyManager copyManager,
+            final List<PendingRecipe> chunk,
+            final List<Integer> importedIds,
+            final RecipeImportResultDto result)
+            throws SQLException, IOException {
+
+        final Set<String> seen =
+                findExistingFingerprints(connection, chunk);
+        final List<PendingRecipe> fresh = new ArrayList<>(chunk.size());
+        for (final PendingRecipe pending : chunk) {
+            if (seen.add(pending.fingerprint)) {
+                fresh.add(pending);
+            } else {
+                reject(result, pending.startLine,
+                        "duplicate of a recipe already imported");
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+
+        final long[] ids = reserveRecipeIds(connection, fresh.size());
+        final StringBuilder recipeRows = new StringBuilder();
+        final StringBuilder ingredientRows = new StringBuilder();
+        int ingredientCount = 0;
+
+        for (int i = 0; i < fresh.size(); i++) {
+            final RecipeImportDto record = fresh.get(i).record;
+            final String recipeId = Long.toString(ids[i]);
+            final List<RecipeIngredient> ingredients =
+                    record.getIngredients() != null
+                            ? record.getIngredients() : List.of();
+
+            appendRow(recipeRows,
+                    recipeId,
+                    quote(record.getTitle()),
+                    plain(record.getCookTime()),
+                    quote(toPgArray(record.getCuisines())),
+                    quote(toPgArray(record.getTags())),
+                    quote(objectMapper.writeValueAsString(ingredients)),
+                    quote(record.getNutrition() != null
+                            ? record.getNutrition().toString() : null),
+                    plain(record.getCalories()),
+                    plain(record.getCarbohydrates()),
+                    plain(record.getFat()),
+                    plain(record.getFiber()),
+                    plain(record.getProtein()),
+                    plain(record.getPopularityScore() != null
+                            ? record.getPopularityScore() : 0),
+                    plain(record.getServings() != null
+                            ? record.getServings() : 1),
+                    quote(fresh.get(i).fingerprint));
+
+            for (final RecipeIngredient ingredient : ingredients) {
+                appendRow(ingredientRows,
+                        recipeId,
+                        quote(ingredient.getIngredient().trim()),
+                        plain(ingredient.getQuantity()),
+                        quote(ingredient.getUnit()),
+                        quote(toPgArray(ingredient.getAllergenTags())));
+                ingredientCount++;
+            }
+        }
+
+        copyManager.copyIn(COPY_RECIPES_SQL,
+                new StringReader(recipeRows.toString()));
+        if (ingredientCount > 0) {
+            copyManager.copyIn(COPY_INGREDIENTS_SQL,
+                    new StringReader(ingredientRows.toString()));
+        }
+        connection.commit();
+
+        for (final long id : ids) {
+            importedIds.add((int) id);
+        }
+        result.setImportedRecipes(result.getImportedRecipes() + fresh.size());
+        result.setImportedIngredients(
+                result.getImportedIngredients() + ingredientCount);
+        LOGGER.info("Imported chunk of {} recipes (total {})",
+                fresh.size(), result.getImportedRecipes());
+    }
+
+    /**
+     * Computes the content fingerprint AI recipes are deduplicated by.
+     *
+     * @param record a validated record
+     * @return the fingerprint
+     */
+    private static String fingerprint(final RecipeImportDto record) {
+        final List<String> names = new ArrayList<>();
+        if (record.getIngredients() != null) {
+            record.getIngredients()
+                    .forEach(i -> names.add(i.getIngredient()));
+        }
+        return AIRecipePersister.fingerprint(record.getTitle(), names);
+    }
+
+    /**
+     * Ensures new IDs do not collide with explicitly seeded recipe IDs.
+     *
+     * @param connection the open connection
+     * @throws SQLException on database errors
+     */
+    private void alignSequence(final Connection connection)
+            throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(ALIGN_SEQUENCE_SQL);
+        }
+        connection.commit();
+    }
+
+    /**
+     * Reserves a block of recipe IDs from the recipes sequence.
+     *
+     * @param connection the open connection
+     * @param count      number of IDs
+     * @return the reserved IDs
+     * @throws SQLException on database errors
+     */
+    private long[] reserveRecipeIds(final Connection connection,
+            final int count) throws SQLException {
+        final long[] ids = new long[count];
+        try (PreparedStatement statement =
+                     connection.prepareStatement(RESERVE_IDS_SQL)) {
+            statement.setInt(1, count);
+            try (ResultSet rs = statement.executeQuery()) {
+                int i = 0;
+                while (rs.next() && i < count) {
+                    ids[i++] = rs.getLong(1);
+                }
+                if (i != count) {
+                    throw new SQLException(
+                            "Could not reserve " + count + " recipe IDs");
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Finds the fingerprints of a chunk that are already stored.
+     *
+     * @param connection the open connection
+     * @param chunk      the buffered records
+     * @return the stored fingerprints
+     * @throws SQLException on database errors
+     */
+    private Set<String> findExistingFingerprints(
+            final Connection connection,
+            final List<PendingRecipe> chunk) throws SQLException {
+        final Object[] fingerprints = chunk.stream()
+                .map(PendingRecipe::fingerprint).toArray();
+        final Set<String> existing = new HashSet<>();
+        try (PreparedStatement statement =
+                     connection.prepareStatement(EXISTING_FINGERPRINTS_SQL)) {
+            statement.setArray(1,
+                    connection.createArrayOf("varchar", fingerprints));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1));
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Runs once the last chunk is written: refreshes planner statistics
+     * and recomputes the nutrition of the imported recipes, which stores
+     * their nutrient vectors and patches the recipe nutrient matrix.
+     * Failures are logged; the imported recipes stay.
+     *
+     * @param recipeIds IDs of the committed recipes
+     */
+    private void finish(final List<Integer> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE nutriflow.recipes");
+            statement.execute("ANALYZE nutriflow.recipe_ingredients");
+        } catch (SQLException e) {
+            LOGGER.warn("Could not refresh statistics after import: {}",
+                    e.getMessage());
+        }
+        try {
+            LOGGER.info("Recomputed nutrition of imported recipes: {}",
+                    recipeNutritionService.recomputeRecipes(recipeIds));
+        } catch (RuntimeException e) {
+            LOGGER.error("Nutrition recompute after import failed: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Validates a parsed record against the catalog constraints.
+     *
+     * @param record the record
+     * @return an error message, or null if the record is valid
+     */
+    private String validate(final RecipeImportDto record) {
+        if (record == null) {
+            return "empty record";
+        }
+        if (record.getTitle() == null || record.getTitle().isBlank()) {
+            return "title is required";
+        }
+        if (record.getTitle().length() > MAX_TITLE_LENGTH) {
+            return "title exceeds " + MAX_TITLE_LENGTH + " characters";
+        }
+        if (record.getCookTime() != null && record.getCookTime() < 0) {
+            return "cookTime must not be negative";
+        }
+        if (record.getPopularityScore() != null
+                && record.getPopularityScore() < 0) {
+            return "popularityScore must not be negative";
+        }
+        if (record.getServings() != null && record.getServings() < 1) {
+            return "servings must be at least 1";
+        }
+        final String cuisines = checkLabels("cuisines",
+                record.getCuisines());
+        if (cuisines != null) {
+            return cuisines;
+        }
+        final String tags = checkLabels("tags", record.getTags());
+        if (tags != null) {
+            return tags;
+        }
+        if (record.getNutrition() != null && record.getNutrition()
+                .toString().length() > MAX_NUTRITION_LENGTH) {
+            return "nutrition exceeds " + MAX_NUTRITION_LENGTH
+                    + " characters";
+        }
+        final Map<String, BigDecimal> macros = new HashMap<>();
+        macros.put("calories", record.getCalories());
+        macros.put("carbohydrates", record.getCarbohydrates());
+        macros.put("fat", record.getFat());
+        macros.put("fiber", record.getFiber());
+        macros.put("protein", record.getProtein());
+        for (final Map.Entry<String, BigDecimal> macro : macros.entrySet()) {
+            final BigDecimal value = macro.getValue();
+            if (value != null && (value.signum() < 0
+                    || value.compareTo(MAX_MACRO) > 0)) {
+                return macro.getKey() + " must be between 0 and "
+                        + MAX_MACRO;
+            }
+        }
+        if (record.getIngredients() != null) {
+            if (record.getIngredients().size() > MAX_INGREDIENTS) {
+                return "more than " + MAX_INGREDIENTS + " ingredients";
+            }
+            for (final RecipeIngredient ingredient
+                    : record.getIngredients()) {
+                final String error = validate(ingredient);
+                if (error != null) {
+                    return error;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Validates one ingredient of a record.
+     *
+     * @param ingredient the ingredient
+     * @return an error message, or null if the ingredient is valid
+     */
+    private static String validate(final RecipeIngredient ingredient) {
+        if (ingredient == null
+                || ingredient.getIngredient() == null
+                || ingredient.getIngredient().isBlank()) {
+            return "every ingredient needs a name";
+        }
+        if (ingredient.getIngredient().trim().length()
+                > MAX_INGREDIENT_LENGTH) {
+            return "ingredient name exceeds " + MAX_INGREDIENT_LENGTH
+                    + " characters";
+        }
+        if (ingredient.getQuantity() != null
+                && (ingredient.getQuantity() < 0
+                || !Double.isFinite(ingredient.getQuantity()))) {
+            return "ingredient quantity must be a non-negative number";
+        }
+        if (ingredient.getUnit() != null
+                && ingredient.getUnit().length() > MAX_UNIT_LENGTH) {
+            return "ingredient unit exceeds " + MAX_UNIT_LENGTH
+                    + " characters";
+        }
+        return checkLabels("allergenTags", ingredient.getAllergenTags());
+    }
+
+    /**
+     * Checks the size of a label list and its items.
+     *
+     * @param field  the field name for the message
+     * @param labels the labels (may be null)
+     * @return an error message, or null if the list is valid
+     */
+    private static String checkLabels(final String field,
+            final String[] labels) {
+        if (labels == null) {
+            return null;
+        }
+        if (labels.length > MAX_LIST_ITEMS) {
+            return field + " has more than " + MAX_LIST_ITEMS + " items";
+        }
+        for (final String label : labels) {
+            if (label != null && label.length() > MAX_LABEL_LENGTH) {
+                return field + " items must not exceed " + MAX_LABEL_LENGTH
+                        + " characters";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records a rejected input line.
+     *
+     * @param result     summary to update
+     * @param lineNumber 1-based input line
+     * @param message    reason for rejection
+     */
+    private static void reject(final RecipeImportResultDto result,
+            final int lineNumber, final String message) {
+        result.setRejectedRecords(result.getRejectedRecords() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add("line " + lineNumber + ": " + message);
+        }
+    }
+
+    /**
+     * Parses one CSV data row into a record.
+     *
+     * @param line    the CSV row
+     * @param columns header name to column index
+     * @return the record
+     */
+    private static RecipeImportDto parseCsvRecord(final String line,
+            final Map<String, Integer> columns) {
+        final List<String> cells = splitCsvLine(line);
+        final RecipeImportDto record = new RecipeImportDto();
+        record.setTitle(cell(cells, columns, "title"));
+        record.setCookTime(toInteger(cell(cells, columns, "cooktime")));
+        record.setCuisines(toList(cell(cells, columns, "cuisines")));
+        record.setTags(toList(cell(cells, columns, "tags")));
+        record.setCalories(toDecimal(cell(cells, columns, "calories")));
+        record.setCarbohydrates(
+                toDecimal(cell(cells, columns, "carbohydrates")));
+        record.setFat(toDecimal(cell(cells, columns, "fat")));
+        record.setFiber(toDecimal(cell(cells, columns, "fiber")));
+        record.setProtein(toDecimal(cell(cells, columns, "protein")));
+        record.setPopularityScore(
+                toInteger(cell(cells, columns, "popularityscore")));
+        record.setServings(toInteger(cell(cells, columns, "servings")));
+
+        final String[] entries = toList(cell(cells, columns, "ingredients"));
+        if (entries != null) {
+            final List<RecipeIngredient> ingredients = new ArrayList<>();
+            for (final String entry : entries) {
+                final String[] parts = entry.split(CSV_PART_SEPARATOR, -1);
+                final RecipeIngredient ingredient = new RecipeIngredient();
+                ingredient.setIngredient(parts[0].trim());
+                if (parts.length > PART_QUANTITY
+                        && !parts[PART_QUANTITY].isBlank()) {
+                    ingredient.setQuantity(
+                            Double.valueOf(parts[PART_QUANTITY].trim()));
+                }
+                if (parts.length > PART_UNIT
+                        && !parts[PART_UNIT].isBlank()) {
+                    ingredient.setUnit(parts[PART_UNIT].trim());
+                }
+                if (parts.length > PART_ALLERGENS
+                        && !parts[PART_ALLERGENS].isBlank()) {
+                    ingredient.setAllergenTags(
+                            parts[PART_ALLERGENS].trim().split("\\s*,\\s*"));
+                }
+                ingredients.add(ingredient);
+            }
+            record.setIngredients(ingredients);
+        }
+        return record;
+    }
+
+    /**
+     * Returns a trimmed cell by column name, or null if absent/empty.
+     *
+     * @param cells   the row cells
+     * @param columns header name to column index
+     * @param name    lower-case column name
+     * @return the cell value or null
+     */
+    private static String cell(final List<String> cells,
+            final Map<String, Integer> columns, final String name) {
+        final Integer index = columns.get(name);
+        if (index == null || index >= cells.size()) {
+            return null;
+        }
+        final String value = cells.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer toInteger(final String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    private static BigDecimal toDecimal(final String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+
+    private static String[] toList(final String value) {
+        if (value == null) {
+            return null;
+        }
+        return Arrays.stream(value.split(CSV_LIST_SEPARATOR))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Splits one CSV line into cells, honoring double-quoted cells
+     * and doubled quotes inside them.
+     *
+     * @param line the line
+     * @return the cells
+     */
+    private static List<String> splitCsvLine(final String line) {
+        final List<String> cells = new ArrayList<>();
+        final StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    /**
+     * Appends one COPY CSV row.
+     *
+     * @param out    the buffer
+     * @param fields already-encoded fields (null for SQL NULL)
+     */
+    private static void appendRow(final StringBuilder out,
+            final String... fields) {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            if (fields[i] != null) {
+                out.append(fields[i]);
+            }
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Encodes a value as a quoted COPY CSV field.
+     *
+     * @param value the value (null stays NULL)
+     * @return the encoded field
+     */
+    private static String quote(final String value) {
+        if (value == null) {
+            return null;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Encodes a number as an unquoted COPY CSV field.
+     *
+     * @param value the value (null stays NULL)
+     * @return the encoded field
+     */
+    private static String plain(final Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Builds a PostgreSQL text[] literal.
+     *
+     * @param values the array (null stays NULL)
+     * @return the array literal
+     */
+    private static String toPgArray(final String[] values) {
+        if (values == null) {
+            return null;
+        }
+        final StringBuilder out = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            if (values[i] == null) {
+                out.append("NULL");
+                continue;
+            }
+            out.append('"')
+                    .append(values[i].replace("\\", "\\\\")
+                            .replace("\"", "\\\""))
+                    .append('"');
+        }
+        return out.append('}').toString();
+    }
+
+    private static BufferedReader open(final InputStream input) {
+        return new BufferedReader(
+                new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads input records: one line each, or for CSV, as many lines as
+     * a quoted cell spans.
+     */
+    private static final class RecordReader {
+
+        /** The input. */
+        private final BufferedReader reader;
+
+        /** Whether double quotes may continue a record on the next line. */
+        private final boolean csv;
+
+        /** Lines read so far. */
+        private int lineNumber;
+
+        /** First line of the last record. */
+        private int recordStart;
+
+        RecordReader(final BufferedReader input, final boolean quoted) {
+            this.reader = input;
+            this.csv = quoted;
+        }
+
+        /**
+         * Reads the next record.
+         *
+         * @return the record, or null at the end of the input
+         * @throws IOException if the input cannot be read or ends inside
+         *                     a quoted cell
+         */
+        String next() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            recordStart = lineNumber;
+            if (!csv || !insideQuotes(line)) {
+                return line;
+            }
+            final StringBuilder record = new StringBuilder(line);
+            while (insideQuotes(record)) {
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Unterminated quoted cell "
+                            + "starting on line " + recordStart);
+                }
+                lineNumber++;
+                record.append('\n').append(line);
+            }
+            return record.toString();
+        }
+
+        /**
+         * Returns the first line of the last record.
+         *
+         * @return 1-based line number
+         */
+        int startLine() {
+            return recordStart;
+        }
+
+        /**
+         * Returns the last line of the last record.
+         *
+         * @return 1-based line number
+         */
+        int endLine() {
+            return lineNumber;
+        }
+
+        /**
+         * Tells whether text ends inside a quoted cell; doubled quotes
+         * cancel out.
+         *
+         * @param text the text so far
+         * @return true if a quote is still open
+         */
+        private static boolean insideQuotes(final CharSequence text) {
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    quoted = !quoted;
+                }
+            }
+            return quoted;
+        }
+    }
+
+    /**
+     * A validated record waiting in the current chunk.
+     */
+    private static final class PendingRecipe {
+
+        /** The record. */
+        private final RecipeImportDto record;
+
+        /** First input line of the record. */
+        private final int startLine;
+
+        /** Last input line of the record. */
+        private final int endLine;
+
+        /** Content fingerprint of the record. */
+        private final String fingerprint;
+
+        PendingRecipe(final RecipeImportDto importRecord, final int first,
+                      final int last, final String contentFingerprint) {
+            this.record = importRecord;
+            this.startLine = first;
+            this.endLine = last;
+            this.fingerprint = contentFingerprint;
+        }
+
+        String fingerprint() {
+            return fingerprint;
+        }
+    }
+
+    /**
+     * Parses one input line into an import record.
+     */
+    @FunctionalInterface
+    private interface LineParser {
+        /**
+         * Parses a line.
+         *
+         * @param line the raw line
+         * @return the parsed record
+         * @throws IOException if the line is malformed
+         */
+        RecipeImportDto parse(String line) throws IOException;
+    }
+}
@@ -0,0 +1,390 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.ingredient.model.Nutrient;
+import com.example.nutriflow.recipe.repository.RecipeRepository;
+import com.example.nutriflow.shared.concurrent.RebuildableSnapshot;
+import com.example.nutriflow.shared.transaction.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * The stored nutrient vectors of all recipes in one primitive matrix,
+ * so meal plans can total every tracked nutrient of their recipes with
+ * array reads instead of loading ingredient rows. Row {@code i} holds
+ * the recipe {@code ids[i]}; IDs are sorted, so a recipe is found by
+ * binary search.
+ *
+ * The matrix is immutable. Recomputed vectors are patched in row by row
+ * once their transaction commits, and recipes whose ingredients changed
+ * elsewhere have just their rows re-read in the background. The whole
+ * table is reloaded (one query of IDs and vectors) only once the matrix
+ * is older than the configured refresh interval, or when a patch raced
+ * a reload; that reload also runs in the background, and reads keep
+ * using the previous matrix until it finishes. Only the very first read
+ * waits for a load.
+ */
+@Component
+public class RecipeNutrientMatrix {
+
+    /** Logger for this matrix. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RecipeNutrientMatrix.class);
+
+    /** Number of nutrients per row, in {@link Nutrient} order. */
+    public static final int NUTRIENTS = Nutrient.values().length;
+
+    /** Background tasks allowed to wait: one reload and one refresh. */
+    private static final int QUEUED_TASKS = 2;
+
+    /** Source of the vectors. */
+    private final RecipeRepository recipeRepository;
+
+    /** Maximum age of the matrix, in nanoseconds. */
+    private final long refreshNanos;
+
+    /** Monotonic time source in nanoseconds. */
+    private final LongSupplier nanoTime;
+
+    /** Incremented on every patch, to detect patches racing a reload. */
+    private final AtomicLong generation = new AtomicLong();
+
+    /** Runs reloads and row refreshes off the query path. */
+    private final Executor backgroundExecutor;
+
+    /** Recipes whose rows wait to be re-read. */
+    private final Set<Integer> pendingRefresh = ConcurrentHashMap.newKeySet();
+
+    /** Whether a row refresh is queued and not yet started. */
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    /** Current matrix. */
+    private final RebuildableSnapshot<Matrix> current;
+
+    /**
+     * Creates the matrix.
+     *
+     * @param recipes recipe repository
+     * @param refresh seconds between reloads
+     */
+    @Autowired
+    public RecipeNutrientMatrix(
+            final RecipeRepository recipes,
+            final @Value("${nutriflow.nutrition.matrix.refresh-seconds:300}")
+            long refresh) {
+        this(recipes, refresh, System::nanoTime);
+    }
+
+    /**
+     * Creates the matrix with an explicit time source.
+     *
+     * @param recipes    recipe repository
+     * @param refresh    seconds between reloads
+     * @param timeSource monotonic time in nanoseconds
+     */
+    public RecipeNutrientMatrix(final RecipeRepository recipes,
+                                final long refresh,
+                                final LongSupplier timeSource) {
+        this(recipes, refresh, timeSource,
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(QUEUED_TASKS), task -> {
+                            final Thread thread = new Thread(task,
+                                    "recipe-nutrient-matrix");
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+    }
+
+    /**
+     * Creates the matrix with an explicit time source and background
+     * executor.
+     *
+     * @param recipes    recipe repository
+     * @param refresh    seconds between reloads
+     * @param timeSource monotonic time in nanoseconds
+     * @param executor   runs reloads and row refreshes
+     */
+    public RecipeNutrientMatrix(final RecipeRepository recipes,
+                                final long refresh,
+                                final LongSupplier timeSource,
+                                final Executor executor) {
+        this.recipeRepository = recipes;
+        this.refreshNanos = TimeUnit.SECONDS.toNanos(Math.max(1, refresh));
+        this.nanoTime = timeSource;
+        this.backgroundExecutor = executor;
+        this.current = new RebuildableSnapshot<>("recipe nutrient matrix",
+                previous -> load(), this::isStale, executor);
+    }
+
+    /**
+     * Stops the background thread on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (backgroundExecutor instanceof ExecutorService) {
+            ((ExecutorService) backgroundExecutor).shutdownNow();
+        }
+    }
+
+    /**
+     * Patches recomputed vectors into the matrix once the current
+     * transaction commits (at once outside a transaction).
+     *
+     * @param vectors vector per recipe ID; a null or malformed vector
+     *                removes the recipe's row
+     */
+    public void update(final Map<Integer, float[]> vectors) {
+        if (vectors.isEmpty()) {
+            return;
+        }
+        final Map<Integer, float[]> rows = new TreeMap<>(vectors);
+        AfterCommit.run(() -> patch(rows));
+    }
+
+    /**
+     * Re-reads the rows of recipes whose stored vectors may have changed
+     * elsewhere, such as on another instance, in the background.
+     * Recipes refreshed while a refresh is queued are folded into it.
+     *
+     * @param recipeIds the recipe IDs
+     */
+    public void refresh(final Collection<Integer> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return;
+        }
+        pendingRefresh.addAll(recipeIds);
+        if (!refreshQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            backgroundExecutor.execute(this::drainRefresh);
+        } catch (RejectedExecutionException e) {
+            refreshQueued.set(false);
+            // fall back to a full reload on a later read
+            generation.incrementAndGet();
+            LOGGER.warn("Nutrient matrix row refresh rejected: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Adds a multiple of a recipe's nutrient vector to a running total.
+     *
+     * @param recipeId the recipe ID
+     * @param servings the number of servings
+     * @param totals   totals to add to, {@link #NUTRIENTS} long
+     * @return false if the recipe has no vector (totals unchanged)
+     */
+    public boolean addTo(final Integer recipeId, final double servings,
+                         final double[] totals) {
+        final Matrix matrix = current.get();
+        final int row = recipeId == null ? -1
+                : Arrays.binarySearch(matrix.ids, recipeId);
+        if (row < 0) {
+            return false;
+        }
+        final int base = row * NUTRIENTS;
+        for (int n = 0; n < NUTRIENTS; n++) {
+            totals[n] += servings * matrix.values[base + n];
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of recipes with a vector.
+     *
+     * @return the row count
+     */
+    public int size() {
+        return current.get().ids.length;
+    }
+
+    /**
+     * Checks whether the matrix missed a patch or is due for a reload.
+     *
+     * @param matrix the matrix
+     * @return true if it should be reloaded
+     */
+    private boolean isStale(final Matrix matrix) {
+        return matrix.generation != generation.get()
+                || nanoTime.getAsLong() - matrix.loadedAt >= refreshNanos;
+    }
+
+    /**
+     * Re-reads the rows of every pending recipe and patches them in.
+     */
+    private void drainRefresh() {
+        refreshQueued.set(false);
+        final List<Integer> recipeIds = new ArrayList<>(pendingRefresh);
+        pendingRefresh.removeAll(recipeIds);
+        if (recipeIds.isEmpty()) {
+            return;
+        }
+        try {
+            final Map<Integer, float[]> rows = new TreeMap<>();
+            recipeIds.forEach(id -> rows.put(id, null));
+            for (Object[] row
+                    : recipeRepository.findNutrientVectorsByIdIn(recipeIds)) {
+                rows.put((Integer) row[0], (float[]) row[1]);
+            }
+            patch(rows);
+        } catch (RuntimeException e) {
+            generation.incrementAndGet();
+            LOGGER.warn("Nutrient matrix row refresh failed: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Patches rows into the matrix if it has seen every earlier patch;
+     * otherwise leaves it stale, to be reloaded.
+     *
+     * @param rows vector per recipe ID, in ascending ID order
+     */
+    private void patch(final Map<Integer, float[]> rows) {
+        final long patched = generation.incrementAndGet();
+        current.update(matrix -> matrix.generation + 1 == patched
+                ? matrix.with(rows, patched) : matrix);
+    }
+
+    /**
+     * Loads the matrix from the recipe table.
+     *
+     * @return the matrix
+     */
+    private Matrix load() {
+        final long loadedGeneration = generation.get();
+        final List<Object[]> rows = recipeRepository.findNutrientVectors();
+        final int[] ids = new int[rows.size()];
+        final float[] values = new float[rows.size() * NUTRIENTS];
+        int count = 0;
+        for (Object[] row : rows) {
+            final float[] vector = (float[]) row[1];
+            if (!valid(vector)) {
+                continue;
+            }
+            ids[count] = (Integer) row[0];
+            System.arraycopy(vector, 0, values, count * NUTRIENTS,
+                    NUTRIENTS);
+            count++;
+        }
+        LOGGER.info("Loaded nutrient vectors of {} recipes", count);
+        return new Matrix(loadedGeneration, nanoTime.getAsLong(),
+                Arrays.copyOf(ids, count),
+                Arrays.copyOf(values, count * NUTRIENTS));
+    }
+
+    /**
+     * Checks whether a stored vector can be used.
+     *
+     * @param vector the vector, or null
+     * @return true if it has one value per nutrient
+     */
+    private static boolean valid(final float[] vector) {
+        return vector != null && vector.length == NUTRIENTS;
+    }
+
+    /**
+     * Immutable matrix for one generation.
+     */
+    private static final class Matrix {
+
+        /** Generation the matrix was loaded or last patched for. */
+        private final long generation;
+
+        /** When the matrix was loaded. */
+        private final long loadedAt;
+
+        /** Recipe ID of each row, ascending. */
+        private final int[] ids;
+
+        /** Nutrients per serving, at {@code row * NUTRIENTS + nutrient}. */
+        private final float[] values;
+
+        Matrix(final long loadedFor, final long loaded, final int[] rowIds,
+               final float[] rowValues) {
+            this.generation = loadedFor;
+            this.loadedAt = loaded;
+            this.ids = rowIds;
+            this.values = rowValues;
+        }
+
+        /**
+         * Returns a copy with rows replaced, added or removed, merging
+         * the sorted changes into the sorted rows.
+         *
+         * @param rows          vector per recipe ID, ascending; a null or
+         *                      malformed vector removes the row
+         * @param newGeneration the generation of the patch
+         * @return the patched matrix
+         */
+        Matrix with(final Map<Integer, float[]> rows,
+                    final long newGeneration) {
+            final int[] mergedIds = new int[ids.length + rows.size()];
+            final float[] mergedValues =
+                    new float[mergedIds.length * NUTRIENTS];
+            int count = 0;
+            int row = 0;
+            for (Map.Entry<Integer, float[]> change : rows.entrySet()) {
+                final int id = change.getKey();
+                while (row < ids.length && ids[row] < id) {
+                    count = copyRow(row++, mergedIds, mergedValues, count);
+                }
+                if (row < ids.length && ids[row] == id) {
+                    row++;
+                }
+                final float[] vector = change.getValue();
+                if (valid(vector)) {
+                    mergedIds[count] = id;
+                    System.arraycopy(vector, 0, mergedValues,
+                            count * NUTRIENTS, NUTRIENTS);
+                    count++;
+                }
+            }
+            while (row < ids.length) {
+                count = copyRow(row++, mergedIds, mergedValues, count);
+            }
+            return new Matrix(newGeneration, loadedAt,
+                    Arrays.copyOf(mergedIds, count),
+                    Arrays.copyOf(mergedValues, count * NUTRIENTS));
+        }
+
+        /**
+         * Copies one row into a merge target.
+         *
+         * @param row          the row to copy
+         * @param targetIds    target IDs
+         * @param targetValues target values
+         * @param count        rows already in the target
+         * @return the new target row count
+         */
+        private int copyRow(final int row, final int[] targetIds,
+                            final float[] targetValues, final int count) {
+            targetIds[count] = ids[row];
+            System.arraycopy(values, row * NUTRIENTS, targetValues,
+                    count * NUTRIENTS, NUTRIENTS);
+            return count + 1;
+        }
+    }
+}
@@ -0,0 +1,554 @@
+package com.example.nutriflow.recipe.service;
+
+import com.example.nutriflow.ingredient.model.IngredientChangeBatchEvent;
+import com.example.nutriflow.ingredient.model.IngredientChangedEvent;
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.model.IngredientNutritionSnapshot;
+import com.example.nutriflow.ingredient.model.Nutrient;
+import com.example.nutriflow.ingredient.model.NutrientTotals;
+import com.example.nutriflow.ingredient.service.IngredientChangePublisher;
+import com.example.nutriflow.ingredient.service.IngredientNutritionDictionary;
+import com.example.nutriflow.ingredient.service.UnitConverter;
+import com.example.nutriflow.recipe.dto.NutritionRecomputeResultDto;
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.model.RecipeIngredient;
+import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
+import com.example.nutriflow.recipe.repository.RecipeRepository;
+import com.example.nutriflow.shared.transaction.AfterCommit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Derives recipe macros (calories, protein, carbohydrates, fat, fiber)
+ * and the full nutrient vector (every {@link Nutrient}) from the
+ * recipe's {@link RecipeIngredient} rows and the per-100g values in
+ * {@link IngredientNutrition}, looked up in the in-memory
+ * {@link IngredientNutritionDictionary}. Sums are taken in fixed point
+ * ({@link NutrientTotals}) and rounded to decimals once per recipe.
+ *
+ * Totals are divided by the recipe's servings, since the stored values
+ * are per serving.
+ *
+ * Recomputation runs incrementally for the recipes that use a changed
+ * ingredient (looked up through the ingredient to recipe reverse index),
+ * or catalog-wide in parallel batches, one transaction per batch.
+ * Ingredient writes only {@link #scheduleRecompute(String...) schedule}
+ * a recompute: it runs after their commit on a single background
+ * worker, so a save never waits for, or rolls back with, its recipes.
+ * A recipe is only rewritten when every one of its ingredients resolves;
+ * otherwise its stored values are left as they are.
+ */
+@Service
+public class RecipeNutritionService {
+
+    /** Logger for this service. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RecipeNutritionService.class);
+
+    /** Scale of the stored recipe macros. */
+    private static final int SCALE = 2;
+
+    /** Repository for recipes. */
+    private final RecipeRepository recipeRepository;
+
+    /** Repository for recipe ingredient rows. */
+    private final RecipeIngredientRepository recipeIngredientRepository;
+
+    /** In-memory ingredient nutrition catalog. */
+    private final IngredientNutritionDictionary ingredientDictionary;
+
+    /** Converts recipe quantities to milligrams. */
+    private final UnitConverter unitConverter;
+
+    /** Recipe cache, evicted for every rewritten recipe. */
+    private final RecipeCache recipeCache;
+
+    /** Recipe nutrient matrix, patched when vectors change. */
+    private final RecipeNutrientMatrix nutrientMatrix;
+
+    /** Identifies the ingredient changes made by this instance. */
+    private final IngredientChangePublisher changePublisher;
+
+    /** Runs each catalog batch in its own transaction. */
+    private final TransactionTemplate transactionTemplate;
+
+    /** Number of recipes per batch. */
+    private final int batchSize;
+
+    /** Number of batches processed concurrently. */
+    private final int parallelism;
+
+    /** Changed ingredients waiting for the background recompute. */
+    private final Set<String> pendingIngredients =
+            ConcurrentHashMap.newKeySet();
+
+    /** Whether a background recompute is queued and not yet started. */
+    private final AtomicBoolean recomputeQueued = new AtomicBoolean();
+
+    /** Single background worker; at most one run waits in its queue. */
+    private final ExecutorService recomputeWorker;
+
+    /**
+     * Creates the service.
+     *
+     * @param recipes            recipe repository
+     * @param recipeIngredients  recipe ingredient repository
+     * @param ingredients        ingredient nutrition dictionary
+     * @param units              unit converter
+     * @param cache              recipe cache
+     * @param matrix             recipe nutrient matrix
+     * @param changes            ingredient change publisher, to tell
+     *                           this instance's changes apart
+     * @param transactionManager transaction manager for batch transactions
+     * @param batch              recipes per batch
+     * @param threads            concurrent batches for catalog recomputes;
+     *                           keep below the connection pool size
+     */
+    public RecipeNutritionService(
+            final RecipeRepository recipes,
+            final RecipeIngredientRepository recipeIngredients,
+            final IngredientNutritionDictionary ingredients,
+            final UnitConverter units,
+            final RecipeCache cache,
+            final RecipeNutrientMatrix matrix,
+            final IngredientChangePublisher changes,
+            final PlatformTransactionManager transactionManager,
+            final @Value("${nutriflow.nutrition.recompute.batch-size:500}")
+            int batch,
+            final @Value("${nutriflow.nutrition.recompute.threads:4}")
+            int threads) {
+        this.recipeRepository = recipes;
+        this.recipeIngredientRepository = recipeIngredients;
+        this.ingredientDictionary = ingredients;
+        this.unitConverter = units;
+        this.recipeCache = cache;
+        this.nutrientMatrix = matrix;
+        this.changePublisher = changes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batch);
+        this.parallelism = Math.max(1, threads);
+        this.recomputeWorker = new ThreadPoolExecutor(1, 1,
+                0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1),
+                task -> {
+                    final Thread thread =
+                            new Thread(task, "recipe-nutrition-recompute");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Stops the background worker on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        recomputeWorker.shutdownNow();
+    }
+
+    /**
+     * Schedules a recompute of the recipes using the given ingredients,
+     * to run on the background worker once the current transaction has
+     * committed (at once outside a transaction). Names scheduled while
+     * a run is queued are folded into that run.
+     *
+     * @param ingredientNames the changed ingredients; nulls are ignored
+     */
+    public void scheduleRecompute(final String... ingredientNames) {
+        final List<String> names = new ArrayList<>();
+        for (String name : ingredientNames) {
+            if (name != null && !name.isBlank()) {
+                names.add(normalize(name));
+            }
+        }
+        if (names.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            pendingIngredients.addAll(names);
+            queueRecompute();
+        });
+    }
+
+    /**
+     * Queues one background run unless one is already waiting.
+     */
+    private void queueRecompute() {
+        if (!recomputeQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            recomputeWorker.execute(this::drainPending);
+        } catch (RejectedExecutionException e) {
+            recomputeQueued.set(false);
+            LOGGER.warn("Recipe nutrition recompute rejected: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes the recipes of every pending ingredient, in batches
+     * that each commit on their own.
+     */
+    private void drainPending() {
+        recomputeQueued.set(false);
+        final List<String> names = new ArrayList<>(pendingIngredients);
+        pendingIngredients.removeAll(names);
+        if (names.isEmpty()) {
+            return;
+        }
+        try {
+            recomputeForIngredients(names);
+        } catch (RuntimeException e) {
+            LOGGER.error("Background nutrition recompute for {} ingredients"
+                    + " failed: {}", names.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes the macros of a single recipe.
+     *
+     * @param recipeId the recipe ID
+     * @return the recomputation summary (scanned is 0 if not found)
+     */
+    @Transactional
+    public NutritionRecomputeResultDto recomputeRecipe(
+            final Integer recipeId) {
+        return recomputeBatch(List.of(recipeId));
+    }
+
+    /**
+     * Recomputes the given recipes, e.g. after a bulk import, in
+     * concurrent batches, each in its own transaction.
+     *
+     * @param recipeIds the recipe IDs
+     * @return the recomputation summary
+     * @throws IllegalStateException if a batch fails or the run is
+     *                               interrupted
+     */
+    public NutritionRecomputeResultDto recomputeRecipes(
+            final List<Integer> recipeIds) {
+        return recomputeInBatches(recipeIds);
+    }
+
+    /**
+     * Recomputes every recipe that uses the given ingredient in the
+     * caller's transaction. Ingredient writes use
+     * {@link #scheduleRecompute(String...)} instead.
+     *
+     * @param ingredientName the changed ingredient
+     * @return the recomputation summary
+     */
+    @Transactional
+    public NutritionRecomputeResultDto recomputeForIngredient(
+            final String ingredientName) {
+        final NutritionRecomputeResultDto result =
+                new NutritionRecomputeResultDto();
+        if (ingredientName == null || ingredientName.isBlank()) {
+            return result;
+        }
+        final List<Integer> recipeIds = recipeIngredientRepository
+                .findRecipeIdsByIngredient(ingredientName.trim());
+        for (List<Integer> batch : partition(recipeIds)) {
+            result.merge(recomputeBatch(batch));
+        }
+        LOGGER.info("Recomputed nutrition for '{}': {}", ingredientName,
+                result);
+        return result;
+    }
+
+    /**
+     * Recomputes every recipe that uses any of the given ingredients,
+     * e.g. after a bulk catalog update. Recipes are processed in
+     * concurrent batches, each in its own transaction.
+     *
+     * @param ingredientNames the changed ingredients
+     * @return the recomputation summary
+     * @throws IllegalStateException if a batch fails or the run is
+     *                               interrupted
+     */
+    public NutritionRecomputeResultDto recomputeForIngredients(
+            final Collection<String> ingredientNames) {
+        final Set<String> names = new TreeSet<>();
+        for (String name : ingredientNames) {
+            if (name != null && !name.isBlank()) {
+                names.add(normalize(name));
+            }
+        }
+        final Set<Integer> recipeIds = new TreeSet<>();
+        for (List<String> batch : partition(new ArrayList<>(names))) {
+            recipeIds.addAll(recipeIngredientRepository
+                    .findRecipeIdsByLowerIngredientIn(batch));
+        }
+        final NutritionRecomputeResultDto result =
+                recomputeInBatches(new ArrayList<>(recipeIds));
+        LOGGER.info("Recomputed nutrition for {} ingredients: {}",
+                names.size(), result);
+        return result;
+    }
+
+    /**
+     * Evicts the cached recipes using a changed ingredient and re-reads
+     * their nutrient matrix rows, once the change has committed. Covers
+     * changes made by other instances, whose recipes were recomputed
+     * there but may still be cached here; changes made by this instance
+     * are skipped, as their recompute already evicted and patched the
+     * recipes it rewrote.
+     *
+     * @param event the ingredient change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientChanged(final IngredientChangedEvent event) {
+        evictRecipesUsing(List.of(event));
+    }
+
+    /**
+     * Handles a batch of committed ingredient changes like
+     * {@link #onIngredientChanged}, looking up the recipes of all of
+     * them together.
+     *
+     * @param batch the ingredient changes
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onIngredientsChanged(final IngredientChangeBatchEvent batch) {
+        evictRecipesUsing(batch.getChanges());
+    }
+
+    /**
+     * Evicts the cached recipes using the ingredients of other
+     * instances' changes and re-reads their nutrient matrix rows.
+     *
+     * @param events the ingredient changes
+     */
+    private void evictRecipesUsing(
+            final List<IngredientChangedEvent> events) {
+        final Set<String> names = new TreeSet<>();
+        for (IngredientChangedEvent event : events) {
+            if (changePublisher.getInstanceId().equals(event.getOrigin())) {
+                continue;
+            }
+            for (String name : new String[] {event.getIngredientName(),
+                    event.getPreviousName()}) {
+                if (name != null && !name.isBlank()) {
+                    names.add(normalize(name));
+                }
+            }
+        }
+        final Set<Integer> recipeIds = new TreeSet<>();
+        for (List<String> batch : partition(new ArrayList<>(names))) {
+            recipeIds.addAll(recipeIngredientRepository
+                    .findRecipeIdsByLowerIngredientIn(batch));
+        }
+        recipeIds.forEach(recipeCache::evict);
+        nutrientMatrix.refresh(recipeIds);
+    }
+
+    /**
+     * Recomputes every recipe in the catalog. Recipe IDs are split into
+     * batches processed concurrently, each in its own transaction.
+     *
+     * @return the recomputation summary
+     * @throws IllegalStateException if a batch fails or the run is
+     *                               interrupted
+     */
+    public NutritionRecomputeResultDto recomputeAll() {
+        final NutritionRecomputeResultDto result =
+                recomputeInBatches(recipeRepository.findAllIds());
+        LOGGER.info("Recomputed catalog nutrition: {}", result);
+        return result;
+    }
+
+    /**
+     * Recomputes recipes in concurrent batches, each in its own
+     * transaction.
+     *
+     * @param recipeIds the recipe IDs
+     * @return the recomputation summary
+     * @throws IllegalStateException if a batch fails or the run is
+     *                               interrupted
+     */
+    private NutritionRecomputeResultDto recomputeInBatches(
+            final List<Integer> recipeIds) {
+        final List<List<Integer>> batches = partition(recipeIds);
+        final NutritionRecomputeResultDto result =
+                new NutritionRecomputeResultDto();
+        if (batches.isEmpty()) {
+            return result;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(parallelism, batches.size()));
+        try {
+            final List<Future<NutritionRecomputeResultDto>> futures =
+                    new ArrayList<>(batches.size());
+            for (List<Integer> batch : batches) {
+                futures.add(executor.submit(() -> transactionTemplate
+                        .execute(status -> recomputeBatch(batch))));
+            }
+            for (Future<NutritionRecomputeResultDto> future : futures) {
+                result.merge(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(
+                    "Nutrition recompute failed: "
+                            + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Nutrition recompute interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * Recomputes one batch of recipes with two set-based reads
+     * (ingredients, recipes) and one batched write; nutrition comes from
+     * the dictionary.
+     *
+     * @param recipeIds the recipe IDs in the batch
+     * @return the batch summary
+     */
+    private NutritionRecomputeResultDto recomputeBatch(
+            final List<Integer> recipeIds) {
+        final Map<Integer, List<RecipeIngredient>> byRecipe =
+                recipeIngredientRepository.findByRecipeIdIn(recipeIds)
+                        .stream()
+                        .collect(Collectors.groupingBy(
+                                RecipeIngredient::getRecipeId));
+
+        final List<Recipe> recipes = recipeRepository.findAllById(recipeIds);
+        final List<Recipe> changed = new ArrayList<>();
+        for (Recipe recipe : recipes) {
+            final NutrientTotals totals = computeTotals(
+                    byRecipe.get(recipe.getRecipeId()));
+            if (totals != null) {
+                totals.divide(servings(recipe));
+                applyTo(totals, recipe);
+                changed.add(recipe);
+            }
+        }
+        if (!changed.isEmpty()) {
+            recipeRepository.saveAll(changed);
+            // both take effect only once the batch has committed
+            changed.forEach(r -> recipeCache.evict(r.getRecipeId()));
+            final Map<Integer, float[]> vectors = new HashMap<>();
+            changed.forEach(r ->
+                    vectors.put(r.getRecipeId(), r.getNutrientVector()));
+            nutrientMatrix.update(vectors);
+        }
+        return new NutritionRecomputeResultDto(recipes.size(),
+                changed.size(), recipes.size() - changed.size());
+    }
+
+    /**
+     * Sums the macros of a recipe's ingredients.
+     *
+     * @param rows the recipe's ingredient rows
+     * @return the totals, or null if any ingredient does not resolve
+     */
+    private NutrientTotals computeTotals(
+            final List<RecipeIngredient> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return null;
+        }
+        final NutrientTotals totals = new NutrientTotals();
+        for (RecipeIngredient row : rows) {
+            if (row.getIngredient() == null || row.getQuantity() == null) {
+                return null;
+            }
+            final IngredientNutritionSnapshot nutrition = ingredientDictionary
+                    .get(row.getIngredient()).orElse(null);
+            final long milligrams = nutrition == null
+                    ? UnitConverter.UNCONVERTIBLE
+                    : unitConverter.toMilligrams(nutrition,
+                            row.getQuantity(), row.getUnit());
+            if (milligrams == UnitConverter.UNCONVERTIBLE) {
+                return null;
+            }
+            totals.add(nutrition.getNutrients(), milligrams);
+        }
+        return totals;
+    }
+
+    /**
+     * Returns the servings a recipe makes.
+     *
+     * @param recipe the recipe
+     * @return its servings, or 1 if unset or not positive
+     */
+    private static int servings(final Recipe recipe) {
+        final Integer servings = recipe.getServings();
+        return servings == null || servings < 1 ? 1 : servings;
+    }
+
+    /**
+     * Splits values into batches of {@link #batchSize}.
+     *
+     * @param values the values
+     * @param <T>    the value type
+     * @return consecutive batches
+     */
+    private <T> List<List<T>> partition(final List<T> values) {
+        final List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += batchSize) {
+            batches.add(values.subList(from,
+                    Math.min(from + batchSize, values.size())));
+        }
+        return batches;
+    }
+
+    /**
+     * Case-folds an ingredient name for matching.
+     *
+     * @param name the raw name
+     * @return trimmed, lower-cased name
+     */
+    private static String normalize(final String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Writes the rounded per-serving macros and the nutrient vector
+     * onto a recipe.
+     *
+     * @param totals the recipe's nutrient totals per serving
+     * @param recipe the recipe to update
+     */
+    private static void applyTo(final NutrientTotals totals,
+                                final Recipe recipe) {
+        recipe.setCalories(totals.toBigDecimal(Nutrient.CALORIES, SCALE));
+        recipe.setProtein(totals.toBigDecimal(Nutrient.PROTEIN, SCALE));
+        recipe.setCarbohydrates(
+                totals.toBigDecimal(Nutrient.CARBOHYDRATES, SCALE));
+        recipe.setFat(totals.toBigDecimal(Nutrient.FAT, SCALE));
+        recipe.setFiber(totals.toBigDecimal(Nutrient.FIBER, SCALE));
+        recipe.setNutrientVector(totals.toFloats());
+    }
+}
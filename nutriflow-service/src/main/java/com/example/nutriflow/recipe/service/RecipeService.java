@@ -4,12 +4,23 @@ import com.example.nutriflow.recipe.model.FavoriteRecipe;
 import com.example.nutriflow.recipe.model.Recipe;
 import com.example.nutriflow.recipe.repository.FavoriteRecipeRepository;
 import com.example.nutriflow.recipe.repository.RecipeRepository;
+import com.example.nutriflow.shared.export.NdjsonExportWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service class for handling business logic related to recipes.
@@ -26,6 +37,18 @@ public class RecipeService {
     @Autowired
     private FavoriteRecipeRepository favoriteRecipeRepository;
 
+    /** Shared cache of recipes by ID. */
+    @Autowired
+    private RecipeCache recipeCache;
+
+    /** Per-user cache of favorite recipe IDs. */
+    @Autowired
+    private FavoriteRecipeCache favoriteRecipeCache;
+
+    /** Writer used for streaming catalog exports. */
+    @Autowired
+    private NdjsonExportWriter ndjsonExportWriter;
+
     /** Default number of recipes when limit is not specified. */
     private static final int DEFAULT_POPULAR_LIMIT = 5;
 
@@ -36,7 +59,15 @@ public class RecipeService {
      * @return Optional containing the recipe if found, or empty if not
      */
     public Optional<Recipe> getRecipeById(final Integer id) {
-        return recipeRepository.findById(id);
+        final Optional<Recipe> cached = recipeCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        final long generation = recipeCache.generation();
+        final Optional<Recipe> loaded = recipeRepository.findById(id);
+        loaded.ifPresent(recipe ->
+                recipeCache.putAll(List.of(recipe), generation));
+        return loaded;
     }
 
     /**
@@ -72,47 +103,126 @@ public class RecipeService {
         return recipeRepository.findAll();
     }
 
+    /**
+     * Streams the full recipe catalog to the output as NDJSON.
+     * Rows are read through a database cursor and written one at a
+     * time, so memory use does not grow with catalog size.
+     *
+     * @param out  the destination stream (left open)
+     * @param gzip whether to gzip the output
+     * @return number of recipes written
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public long exportRecipes(final OutputStream out, final boolean gzip)
+            throws IOException {
+        try (Stream<Recipe> rows = recipeRepository.streamAll()) {
+            return ndjsonExportWriter.write(rows, out, gzip);
+        }
+    }
+
     /**
      * Retrieves all favorite recipes for a given user.
+     * The user's favorite IDs and the recipes themselves are served
+     * from memory when cached; only misses reach the database, and
+     * their results are cached only if no conflicting write committed
+     * while they were read.
      * If the user has no favorites, returns an empty list.
      *
      * @param userId the ID of the user
      * @return list of Recipe entities the user favorited
      */
     public List<Recipe> getUserFavoriteRecipes(final Integer userId) {
-        final List<Integer> recipeIds = favoriteRecipeRepository
-                .findByUserId(userId)
-                .stream()
-                .map(FavoriteRecipe::getRecipeId)
-                .collect(Collectors.toList());
+        int[] recipeIds = favoriteRecipeCache.get(userId);
+        if (recipeIds == null) {
+            final long generation = favoriteRecipeCache.generation(userId);
+            recipeIds = favoriteRecipeCache.put(userId,
+                    favoriteRecipeRepository
+                            .findByUserId(userId)
+                            .stream()
+                            .map(FavoriteRecipe::getRecipeId)
+                            .collect(Collectors.toList()),
+                    generation);
+        }
+        return resolveRecipes(recipeIds);
+    }
 
-        return recipeRepository.findAllById(recipeIds);
+    /**
+     * Resolves recipe IDs through the recipe cache, loading all misses
+     * with a single query.
+     *
+     * @param recipeIds the recipe IDs
+     * @return the recipes that exist, in ID order
+     */
+    private List<Recipe> resolveRecipes(final int[] recipeIds) {
+        final List<Recipe> found = new ArrayList<>(recipeIds.length);
+        final List<Integer> missing = new ArrayList<>();
+        for (final int recipeId : recipeIds) {
+            final Optional<Recipe> cached = recipeCache.get(recipeId);
+            if (cached.isPresent()) {
+                found.add(cached.get());
+            } else {
+                missing.add(recipeId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            final long generation = recipeCache.generation();
+            final List<Recipe> loaded =
+                    recipeRepository.findAllById(missing);
+            recipeCache.putAll(loaded, generation);
+            found.addAll(loaded);
+            found.sort(Comparator.comparing(Recipe::getRecipeId));
+        }
+        return found;
     }
 
     /**
      * Add a recipe to a user's favorites.
+     * Uses a single INSERT ... ON CONFLICT DO NOTHING round trip.
      * Throws IllegalStateException if it already exists.
      *
      * @param userId   the user ID
      * @param recipeId the recipe ID
      * @return the persisted FavoriteRecipe row
      */
+    @Transactional
     public FavoriteRecipe addFavorite(
             final Integer userId,
             final Integer recipeId) {
 
-        if (favoriteRecipeRepository
-                .existsByUserIdAndRecipeId(userId, recipeId)) {
-            throw new IllegalStateException(
-                    "Recipe already in favorites");
-        }
+        final FavoriteRecipe favorite = favoriteRecipeRepository
+                .insertIfAbsent(userId, recipeId)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Recipe already in favorites"));
+        favoriteRecipeCache.add(userId, recipeId);
+        return favorite;
+    }
 
-        final FavoriteRecipe favorite = new FavoriteRecipe();
-        favorite.setUserId(userId);
-        favorite.setRecipeId(recipeId);
-        favorite.setTimesUsed(0);
+    /**
+     * Add several recipes to a user's favorites in one statement.
+     * Recipes that are already favorited or do not exist are skipped.
+     *
+     * @param userId    the user ID
+     * @param recipeIds the recipe IDs to add
+     * @return number of favorites actually added
+     */
+    @Transactional
+    public int addFavorites(
+            final Integer userId,
+            final Collection<Integer> recipeIds) {
 
-        return favoriteRecipeRepository.save(favorite);
+        final Set<Integer> ids = distinctIds(recipeIds);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        final int added =
+                favoriteRecipeRepository.insertAllIfAbsent(userId, ids);
+        if (added > 0) {
+            // Unknown recipe IDs are skipped by the insert, so reload
+            // the set rather than guessing which IDs were added.
+            favoriteRecipeCache.evict(userId);
+        }
+        return added;
     }
 
     /**
@@ -122,16 +232,50 @@ public class RecipeService {
      * @param userId   the user ID
      * @param recipeId the recipe ID
      */
+    @Transactional
     public void removeFavorite(
             final Integer userId,
             final Integer recipeId) {
 
-        final List<FavoriteRecipe> rows = favoriteRecipeRepository
-                .findByUserId(userId)
-                .stream()
-                .filter(f -> f.getRecipeId().equals(recipeId))
-                .collect(Collectors.toList());
+        favoriteRecipeRepository.deleteByUserIdAndRecipeId(userId, recipeId);
+        favoriteRecipeCache.remove(userId, recipeId);
+    }
+
+    /**
+     * Remove several recipes from a user's favorites in one statement.
+     *
+     * @param userId    the user ID
+     * @param recipeIds the recipe IDs to remove
+     * @return number of favorites actually removed
+     */
+    @Transactional
+    public int removeFavorites(
+            final Integer userId,
+            final Collection<Integer> recipeIds) {
+
+        final Set<Integer> ids = distinctIds(recipeIds);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        final int removed = favoriteRecipeRepository
+                .deleteByUserIdAndRecipeIdIn(userId, ids);
+        ids.forEach(id -> favoriteRecipeCache.remove(userId, id));
+        return removed;
+    }
 
-        favoriteRecipeRepository.deleteAll(rows);
+    /**
+     * Drop null and duplicate IDs from a client-supplied list.
+     *
+     * @param recipeIds the raw ID list (may be null)
+     * @return the distinct non-null IDs, in input order
+     */
+    private static Set<Integer> distinctIds(
+            final Collection<Integer> recipeIds) {
+        if (recipeIds == null) {
+            return Set.of();
+        }
+        return recipeIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
     }
 }
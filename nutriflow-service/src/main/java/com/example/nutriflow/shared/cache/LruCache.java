@@ -0,0 +1,115 @@
+package com.example.nutriflow.shared.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Thread-safe, size-bounded cache with least-recently-used eviction.
+ * Backed by an access-ordered {@link LinkedHashMap}; all operations
+ * synchronize on the cache instance.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class LruCache<K, V> {
+
+    /** Initial capacity of the backing map. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Load factor of the backing map. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** Maximum number of entries kept before evicting the eldest. */
+    private final int maxEntries;
+
+    /** Access-ordered backing map. */
+    private final LinkedHashMap<K, V> entries;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity maximum number of entries (must be positive)
+     */
+    public LruCache(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(
+                    "Cache capacity must be positive");
+        }
+        this.maxEntries = capacity;
+        this.entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Looks up a value and marks it as most recently used.
+     *
+     * @param key the key
+     * @return the cached value, or null if absent
+     */
+    public synchronized V get(final K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Stores a value, evicting the least recently used entry if full.
+     *
+     * @param key   the key
+     * @param value the value (must not be null)
+     */
+    public synchronized void put(final K key, final V value) {
+        entries.put(key, value);
+    }
+
+    /**
+     * Replaces the value for a key only if the key is already cached.
+     * Returning null from the function removes the entry.
+     *
+     * @param key      the key
+     * @param function computes the new value from the current one
+     */
+    public synchronized void computeIfPresent(
+            final K key,
+            final BiFunction<? super K, ? super V, ? extends V> function) {
+        entries.computeIfPresent(key, function);
+    }
+
+    /**
+     * Removes a single entry.
+     *
+     * @param key the key
+     */
+    public synchronized void remove(final K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return current size
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the configured capacity.
+     *
+     * @return maximum number of entries
+     */
+    public int capacity() {
+        return maxEntries;
+    }
+}
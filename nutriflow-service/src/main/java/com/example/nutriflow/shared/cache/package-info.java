@@ -0,0 +1,4 @@
+/**
+ * Contains small in-process cache utilities shared across modules.
+ */
+package com.example.nutriflow.shared.cache;
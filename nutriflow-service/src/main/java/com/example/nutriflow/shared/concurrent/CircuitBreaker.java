@@ -0,0 +1,127 @@
+package com.example.nutriflow.shared.concurrent;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Minimal consecutive-failure circuit breaker.
+ *
+ * The breaker is CLOSED while calls succeed. After
+ * {@code failureThreshold} consecutive failures it turns OPEN and
+ * rejects calls until {@code openDuration} has passed. It then turns
+ * HALF_OPEN and lets a single trial call through: success closes the
+ * breaker, failure opens it again. All methods synchronize on the
+ * breaker instance.
+ */
+public class CircuitBreaker {
+
+    /** Breaker states. */
+    public enum State {
+        /** Calls flow normally. */
+        CLOSED,
+        /** Calls are rejected. */
+        OPEN,
+        /** One trial call is allowed through. */
+        HALF_OPEN
+    }
+
+    /** Consecutive failures that open the breaker. */
+    private final int failureThreshold;
+
+    /** How long the breaker stays open before a trial call. */
+    private final Duration openDuration;
+
+    /** Time source. */
+    private final Clock clock;
+
+    /** Current state. */
+    private State state = State.CLOSED;
+
+    /** Failures since the last success. */
+    private int consecutiveFailures;
+
+    /** When the breaker last opened. */
+    private Instant openedAt;
+
+    /** Whether the half-open trial call has been handed out. */
+    private boolean trialInFlight;
+
+    /**
+     * Creates a closed breaker.
+     *
+     * @param threshold consecutive failures that open the breaker
+     * @param open      how long to stay open before a trial call
+     * @param timeSource clock used for the open period
+     */
+    public CircuitBreaker(final int threshold, final Duration open,
+                          final Clock timeSource) {
+        this.failureThreshold = Math.max(1, threshold);
+        this.openDuration = open;
+        this.clock = timeSource;
+    }
+
+    /**
+     * Asks permission for a call. Every granted call must be followed
+     * by {@link #onSuccess()}, {@link #onFailure()} or
+     * {@link #onCancelled()}.
+     *
+     * @return true if the call may proceed
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * Records a successful call and closes the breaker.
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Records a failed call, opening the breaker when the threshold is
+     * reached or the half-open trial failed.
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN
+                || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Releases a granted call that never reached the backend, e.g.
+     * because it was rejected by a full executor.
+     */
+    public synchronized void onCancelled() {
+        trialInFlight = false;
+    }
+
+    /**
+     * Returns the current state.
+     *
+     * @return the state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.nutriflow.shared.concurrent;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds an immutable structure derived from a changing source, such as
+ * an index over the ingredient dictionary, and rebuilds it when it goes
+ * stale without making readers wait.
+ *
+ * Only the first read blocks, to build the initial snapshot. After that
+ * a read that finds the snapshot stale returns it anyway and triggers
+ * one rebuild: on the reading thread that wins the rebuild lock, or,
+ * when an executor is given, on that executor. A failed rebuild is
+ * logged and retried on a later read.
+ *
+ * @param <T> snapshot type
+ */
+public class RebuildableSnapshot<T> {
+
+    /** Logger for rebuild failures. */
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RebuildableSnapshot.class);
+
+    /** Name used in log messages. */
+    private final String name;
+
+    /** Builds a snapshot from the previous one (null on first build). */
+    private final UnaryOperator<T> builder;
+
+    /** Whether a snapshot should be rebuilt. */
+    private final Predicate<T> stale;
+
+    /** Runs rebuilds; null to rebuild on the reading thread. */
+    private final Executor executor;
+
+    /** Serializes builds. */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    /** Whether a background rebuild is queued or running. */
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    /** Current snapshot; null until the first read. */
+    private final AtomicReference<T> current = new AtomicReference<>();
+
+    /**
+     * Creates a holder that rebuilds on the reading thread.
+     *
+     * @param snapshotName name used in log messages
+     * @param build        builds a snapshot from the previous one, which
+     *                     is null on the first build
+     * @param isStale      whether a snapshot should be rebuilt
+     */
+    public RebuildableSnapshot(final String snapshotName,
+                               final UnaryOperator<T> build,
+                               final Predicate<T> isStale) {
+        this(snapshotName, build, isStale, null);
+    }
+
+    /**
+     * Creates a holder.
+     *
+     * @param snapshotName    name used in log messages
+     * @param build           builds a snapshot from the previous one,
+     *                        which is null on the first build
+     * @param isStale         whether a snapshot should be rebuilt
+     * @param rebuildExecutor runs rebuilds; null to rebuild on the
+     *                        reading thread
+     */
+    public RebuildableSnapshot(final String snapshotName,
+                               final UnaryOperator<T> build,
+                               final Predicate<T> isStale,
+                               final Executor rebuildExecutor) {
+        this.name = snapshotName;
+        this.builder = build;
+        this.stale = isStale;
+        this.executor = rebuildExecutor;
+    }
+
+    /**
+     * Returns the current snapshot, building it on first use and
+     * triggering a rebuild when it is stale.
+     *
+     * @return the snapshot
+     */
+    public T get() {
+        final T existing = current.get();
+        if (existing == null) {
+            rebuildLock.lock();
+            try {
+                if (current.get() == null) {
+                    current.set(builder.apply(null));
+                }
+                return current.get();
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        if (!stale.test(existing)) {
+            return existing;
+        }
+        if (executor == null) {
+            if (rebuildLock.tryLock()) {
+                try {
+                    rebuildIfStale();
+                } finally {
+                    rebuildLock.unlock();
+                }
+            }
+        } else {
+            queueRebuild();
+        }
+        return current.get();
+    }
+
+    /**
+     * Replaces the current snapshot with a patched copy; does nothing
+     * before the first build. The patch may run more than once under
+     * contention, so it must not have side effects.
+     *
+     * @param patch derives the new snapshot from the current one
+     */
+    public void update(final UnaryOperator<T> patch) {
+        current.updateAndGet(snapshot ->
+                snapshot == null ? null : patch.apply(snapshot));
+    }
+
+    /**
+     * Queues one background rebuild unless one is already pending.
+     */
+    private void queueRebuild() {
+        if (!rebuildQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                rebuildLock.lock();
+                try {
+                    rebuildIfStale();
+                } finally {
+                    rebuildQueued.set(false);
+                    rebuildLock.unlock();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rebuildQueued.set(false);
+            LOGGER.warn("Rebuild of {} rejected: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot if it is still stale; the caller holds the
+     * rebuild lock.
+     */
+    private void rebuildIfStale() {
+        final T latest = current.get();
+        if (!stale.test(latest)) {
+            return;
+        }
+        try {
+            current.set(builder.apply(latest));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Rebuild of {} failed: {}", name, e.getMessage());
+        }
+    }
+}
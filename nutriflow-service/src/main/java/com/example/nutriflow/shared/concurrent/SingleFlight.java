@@ -0,0 +1,108 @@
+package com.example.nutriflow.shared.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution.
+ * The first caller for a key runs the loader; callers arriving while it
+ * is in flight wait for and share its result or its failure. Once the
+ * call completes the key is released, so later calls run again.
+ *
+ * @param <K> key type
+ * @param <V> result type
+ */
+public class SingleFlight<K, V> {
+
+    /** Calls currently in flight, by key. */
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight =
+            new ConcurrentHashMap<>();
+
+    /**
+     * Runs the loader for the key, or joins the call already in flight.
+     *
+     * @param key         the call key
+     * @param loader      produces the result; runs on the calling thread
+     * @param waitTimeout how long a joining caller waits for the leader
+     * @return the shared result
+     * @throws IllegalStateException if a joining caller times out or is
+     *                               interrupted; a failure of the loader
+     *                               is rethrown as is when unchecked
+     */
+    public V execute(final K key, final Supplier<V> loader,
+                     final Duration waitTimeout) {
+        final CompletableFuture<V> call = new CompletableFuture<>();
+        final CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+        if (existing == null) {
+            return lead(key, call, loader);
+        }
+        return await(existing, waitTimeout);
+    }
+
+    /**
+     * Returns the number of keys with a call in flight.
+     *
+     * @return in-flight call count
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Runs the loader as the leader and publishes its outcome.
+     *
+     * @param key    the call key
+     * @param call   the future joined by other callers
+     * @param loader produces the result
+     * @return the result
+     */
+    private V lead(final K key, final CompletableFuture<V> call,
+                   final Supplier<V> loader) {
+        try {
+            final V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Waits for the leader's outcome.
+     *
+     * @param call        the leader's future
+     * @param waitTimeout maximum wait
+     * @return the shared result
+     */
+    private V await(final CompletableFuture<V> call,
+                    final Duration waitTimeout) {
+        try {
+            return call.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(
+                    "Timed out waiting for in-flight request", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Interrupted waiting for in-flight request", e);
+        }
+    }
+}
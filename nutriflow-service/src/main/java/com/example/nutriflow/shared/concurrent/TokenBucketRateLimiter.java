@@ -0,0 +1,283 @@
+package com.example.nutriflow.shared.concurrent;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiter with a priority wait queue.
+ *
+ * The bucket holds up to {@code burst} permits and refills continuously
+ * at {@code permitsPerMinute}. Callers that cannot take a permit right
+ * away wait in a queue ordered by {@link Priority} and then arrival, so
+ * interactive requests are served before queued background work. A
+ * caller whose expected wait (its queue position divided by the refill
+ * rate) exceeds its deadline is rejected immediately instead of
+ * queueing; one that is still queued at its deadline gives up.
+ */
+public class TokenBucketRateLimiter {
+
+    /** Request priorities, highest first. */
+    public enum Priority {
+        /** A user is waiting for the response. */
+        INTERACTIVE,
+        /** Pre-generation and batch work. */
+        BACKGROUND
+    }
+
+    /** A queued caller. */
+    private static final class Waiter {
+
+        /** Caller priority. */
+        private final Priority priority;
+
+        /** Arrival order within a priority. */
+        private final long sequence;
+
+        /**
+         * Creates a waiter.
+         *
+         * @param waiterPriority caller priority
+         * @param arrival        arrival order
+         */
+        Waiter(final Priority waiterPriority, final long arrival) {
+            this.priority = waiterPriority;
+            this.sequence = arrival;
+        }
+    }
+
+    /** Maximum stored permits. */
+    private final double capacity;
+
+    /** Permits added per nanosecond. */
+    private final double permitsPerNano;
+
+    /** Monotonic time source in nanoseconds. */
+    private final LongSupplier nanoTime;
+
+    /** Guards all state below. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when the queue head may have changed. */
+    private final Condition changed = lock.newCondition();
+
+    /** Queued callers, by priority then arrival. */
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.<Waiter>comparingInt(w -> w.priority.ordinal())
+                    .thenComparingLong(w -> w.sequence));
+
+    /** Permits currently available. */
+    private double permits;
+
+    /** Time of the last refill. */
+    private long lastRefill;
+
+    /** Next arrival number. */
+    private long nextSequence;
+
+    /** Permits handed out. */
+    private long granted;
+
+    /** Callers rejected or timed out. */
+    private long rejected;
+
+    /**
+     * Creates a limiter that starts with a full bucket.
+     *
+     * @param permitsPerMinute sustained rate
+     * @param burst            bucket capacity
+     */
+    public TokenBucketRateLimiter(final int permitsPerMinute,
+                                  final int burst) {
+        this(permitsPerMinute, burst, System::nanoTime);
+    }
+
+    /**
+     * Creates a limiter with an explicit time source.
+     *
+     * @param permitsPerMinute sustained rate
+     * @param burst            bucket capacity
+     * @param timeSource       monotonic time in nanoseconds
+     */
+    public TokenBucketRateLimiter(final int permitsPerMinute,
+                                  final int burst,
+                                  final LongSupplier timeSource) {
+        this.capacity = Math.max(1, burst);
+        this.permitsPerNano = Math.max(1, permitsPerMinute)
+                / (double) TimeUnit.MINUTES.toNanos(1);
+        this.nanoTime = timeSource;
+        this.permits = capacity;
+        this.lastRefill = timeSource.getAsLong();
+    }
+
+    /**
+     * Takes a permit, waiting in priority order for at most
+     * {@code maxWait}.
+     *
+     * @param priority caller priority
+     * @param maxWait  longest acceptable wait
+     * @return true if a permit was taken, false if the caller was
+     *         rejected up front or its deadline passed while queued
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean acquire(final Priority priority, final Duration maxWait)
+            throws InterruptedException {
+        lock.lock();
+        try {
+            refill();
+            if (waiters.isEmpty() && permits >= 1) {
+                permits -= 1;
+                granted++;
+                return true;
+            }
+            if (expectedWaitNanos(priority) > maxWait.toNanos()) {
+                rejected++;
+                return false;
+            }
+            final Waiter self = new Waiter(priority, nextSequence++);
+            waiters.add(self);
+            final long deadline = nanoTime.getAsLong() + maxWait.toNanos();
+            try {
+                while (true) {
+                    refill();
+                    if (waiters.peek() == self && permits >= 1) {
+                        waiters.poll();
+                        permits -= 1;
+                        granted++;
+                        changed.signalAll();
+                        return true;
+                    }
+                    final long remaining = deadline - nanoTime.getAsLong();
+                    if (remaining <= 0) {
+                        waiters.remove(self);
+                        rejected++;
+                        changed.signalAll();
+                        return false;
+                    }
+                    // only the head needs to wake for the next permit;
+                    // the others are signalled when the head changes
+                    final long sleep = waiters.peek() == self
+                            ? Math.max(1, nanosUntilPermit())
+                            : remaining;
+                    changed.awaitNanos(Math.min(remaining, sleep));
+                }
+            } catch (InterruptedException e) {
+                waiters.remove(self);
+                changed.signalAll();
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of queued callers with the priority.
+     *
+     * @param priority the priority
+     * @return queue depth
+     */
+    public int queueDepth(final Priority priority) {
+        lock.lock();
+        try {
+            int depth = 0;
+            for (Waiter waiter : waiters) {
+                if (waiter.priority == priority) {
+                    depth++;
+                }
+            }
+            return depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the whole permits available right now.
+     *
+     * @return available permits
+     */
+    public int availablePermits() {
+        lock.lock();
+        try {
+            refill();
+            return (int) permits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of permits handed out.
+     *
+     * @return granted permits
+     */
+    public long getGranted() {
+        lock.lock();
+        try {
+            return granted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of callers rejected or timed out.
+     *
+     * @return rejected callers
+     */
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the permits accrued since the last refill. Caller holds the
+     * lock.
+     */
+    private void refill() {
+        final long now = nanoTime.getAsLong();
+        permits = Math.min(capacity,
+                permits + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+
+    /**
+     * Estimates how long a new caller with the priority would wait:
+     * every queued caller at the same or a higher priority is served
+     * first. Caller holds the lock.
+     *
+     * @param priority the new caller's priority
+     * @return expected wait in nanoseconds
+     */
+    private long expectedWaitNanos(final Priority priority) {
+        int ahead = 0;
+        for (Waiter waiter : waiters) {
+            if (waiter.priority.ordinal() <= priority.ordinal()) {
+                ahead++;
+            }
+        }
+        final double missing = ahead + 1 - permits;
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / permitsPerNano);
+    }
+
+    /**
+     * Returns the time until one whole permit is available. Caller
+     * holds the lock.
+     *
+     * @return nanoseconds, 0 if a permit is available
+     */
+    private long nanosUntilPermit() {
+        return permits >= 1
+                ? 0
+                : (long) Math.ceil((1 - permits) / permitsPerNano);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Contains small concurrency utilities shared across modules.
+ */
+package com.example.nutriflow.shared.concurrent;
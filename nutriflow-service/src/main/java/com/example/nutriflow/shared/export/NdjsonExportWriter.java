@@ -0,0 +1,171 @@
+package com.example.nutriflow.shared.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a stream of entities as newline-delimited JSON, gzip-compressed
+ * when the client accepts it.
+ * Each entity is detached from the persistence context right after it is
+ * written, so memory use stays constant regardless of row count. Rows
+ * must be JPA entities, and callers must invoke this inside a read-only
+ * transaction that owns the stream.
+ */
+@Component
+public class NdjsonExportWriter {
+
+    /** Compression buffer size in bytes. */
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    /** Mapper used to serialize each row. */
+    private final ObjectMapper objectMapper;
+
+    /** Persistence context bound to the caller's transaction. */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Creates the writer.
+     *
+     * @param mapper JSON mapper
+     */
+    public NdjsonExportWriter(final ObjectMapper mapper) {
+        this.objectMapper = mapper;
+    }
+
+    /**
+     * Tells whether an {@code Accept-Encoding} header allows gzip, i.e.
+     * names {@code gzip} or {@code *} without {@code q=0}.
+     *
+     * @param acceptEncoding the header value (may be null)
+     * @return true if the response may be gzip-encoded
+     */
+    public static boolean acceptsGzip(final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (final String entry : acceptEncoding.split(",")) {
+            final String[] parts = entry.split(";");
+            final String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!"gzip".equals(coding) && !"*".equals(coding)) {
+                continue;
+            }
+            if (parts.length < 2 || !isZeroQuality(parts[1])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether a parameter is a {@code q} value of zero.
+     *
+     * @param parameter e.g. {@code q=0.5}
+     * @return true for {@code q=0}, {@code q=0.0} and the like
+     */
+    private static boolean isZeroQuality(final String parameter) {
+        final String[] pair = parameter.trim().split("=");
+        if (pair.length != 2 || !"q".equalsIgnoreCase(pair[0].trim())) {
+            return false;
+        }
+        try {
+            return Double.parseDouble(pair[1].trim()) == 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Serializes every row to the output as gzip NDJSON.
+     * The output stream itself is not closed.
+     *
+     * @param rows the rows, typically a cursor-backed repository stream
+     * @param out  the destination
+     * @param <T>  row type
+     * @return number of rows written
+     * @throws IOException if writing fails
+     */
+    public <T> long write(final Stream<T> rows, final OutputStream out)
+            throws IOException {
+        return write(rows, out, true);
+    }
+
+    /**
+     * Serializes every row to the output as NDJSON, compressed or plain.
+     * The output stream itself is not closed.
+     *
+     * @param rows the rows, typically a cursor-backed repository stream
+     * @param out  the destination
+     * @param gzip whether to gzip the output
+     * @param <T>  row type
+     * @return number of rows written
+     * @throws IOException if writing fails
+     */
+    public <T> long write(final Stream<T> rows, final OutputStream out,
+            final boolean gzip) throws IOException {
+        final OutputStream target = gzip
+                ? new GZIPOutputStream(new NonClosingOutputStream(out),
+                        GZIP_BUFFER_SIZE)
+                : new NonClosingOutputStream(out);
+        long count = 0;
+        try (JsonGenerator generator =
+                     objectMapper.getFactory().createGenerator(target)) {
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            generator.setRootValueSeparator(null);
+            final Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                final T row = iterator.next();
+                objectMapper.writeValue(generator, row);
+                generator.writeRaw('\n');
+                entityManager.detach(row);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Output wrapper that finishes the gzip trailer without closing the
+     * underlying response stream.
+     */
+    private static final class NonClosingOutputStream extends OutputStream {
+
+        /** The wrapped stream. */
+        private final OutputStream delegate;
+
+        NonClosingOutputStream(final OutputStream target) {
+            this.delegate = target;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len)
+                throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.flush();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Contains helpers for streaming bulk data out of the service.
+ */
+package com.example.nutriflow.shared.export;
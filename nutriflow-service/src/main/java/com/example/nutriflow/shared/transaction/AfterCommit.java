@@ -0,0 +1,36 @@
+package com.example.nutriflow.shared.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects, such as cache updates, until the
+ * current transaction has committed, so other threads never see a write
+ * that may still roll back.
+ */
+public final class AfterCommit {
+
+    /** Not instantiable. */
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs an action once the current transaction commits, or at once
+     * outside a transaction. Nothing runs after a rollback.
+     *
+     * @param action the action
+     */
+    public static void run(final Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                });
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Contains transaction helpers shared across modules.
+ */
+package com.example.nutriflow.shared.transaction;
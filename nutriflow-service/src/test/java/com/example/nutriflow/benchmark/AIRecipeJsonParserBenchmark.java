@@ -0,0 +1,99 @@
+package com.example.nutriflow.benchmark;
+
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.model.RecipeIngredient;
+import com.example.nutriflow.recipe.service.AIRecipeJsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of parsing one LLM recipe response with the streaming
+ * {@link AIRecipeJsonParser} against the JsonNode tree parse it
+ * replaced. Add {@code -prof gc} for bytes allocated per call; see the
+ * README for how to run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AIRecipeJsonParserBenchmark {
+
+    /** A typical model response. */
+    private static final String RESPONSE = """
+            {
+              "title": "Salmon Rice Bowl",
+              "cookTime": 20,
+              "cuisines": ["Japanese"],
+              "tags": ["quick"],
+              "source": {"model": "ignored", "ids": [1, 2]},
+              "ingredients": [
+                {"ingredient": " salmon ", "quantity": 150, "unit": "g"},
+                {"ingredient": "soy sauce", "quantity": 15, "unit": "ml",
+                 "allergenTags": ["soy", "gluten"]},
+                {"ingredient": "", "quantity": 1, "unit": "pcs"}
+              ],
+              "nutrition": {"summary": null},
+              "calories": 640,
+              "protein": 38.5
+            }
+            """;
+
+    /** Mapper of the tree parse. */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** Parser under test. */
+    private final AIRecipeJsonParser parser =
+            new AIRecipeJsonParser(objectMapper.getFactory());
+
+    /**
+     * Parses with the streaming parser.
+     *
+     * @return the parsed recipe and rows
+     * @throws IOException never for the fixed response
+     */
+    @Benchmark
+    public AIRecipeJsonParser.ParsedRecipe streaming() throws IOException {
+        return parser.parse(RESPONSE);
+    }
+
+    /**
+     * Parses as it was done before: JsonNode tree, re-serialized
+     * payloads, then a second parse of the ingredients by the persister.
+     *
+     * @param blackhole consumes the recipe and its rows
+     * @throws IOException never for the fixed response
+     */
+    @Benchmark
+    public void tree(final Blackhole blackhole) throws IOException {
+        final JsonNode node = objectMapper.readTree(RESPONSE);
+        final Recipe recipe = new Recipe();
+        recipe.setTitle(node.path("title").asText(null));
+        recipe.setCookTime(node.get("cookTime").asInt());
+        recipe.setIngredients(objectMapper.writeValueAsString(
+                node.get("ingredients")));
+        recipe.setNutrition(objectMapper.writeValueAsString(
+                node.get("nutrition")));
+        recipe.setCalories(node.get("calories").decimalValue());
+        recipe.setProtein(node.get("protein").decimalValue());
+        for (JsonNode item : objectMapper.readTree(recipe.getIngredients())) {
+            final RecipeIngredient row = new RecipeIngredient();
+            row.setIngredient(item.path("ingredient").asText(null));
+            blackhole.consume(row);
+        }
+        blackhole.consume(recipe);
+    }
+}
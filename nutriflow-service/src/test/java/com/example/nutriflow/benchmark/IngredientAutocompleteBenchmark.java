@@ -0,0 +1,146 @@
+package com.example.nutriflow.benchmark;
+
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import com.example.nutriflow.ingredient.service.IngredientAutocompleteIndex;
+import com.example.nutriflow.ingredient.service.IngredientNutritionDictionary;
+import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Keystroke latency of {@link IngredientAutocompleteIndex} over a
+ * random catalog, for queries of one to six characters taken from
+ * catalog names. See the README for how to run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngredientAutocompleteBenchmark {
+
+    /** Distinct queries cycled through. */
+    private static final int QUERIES = 10_000;
+
+    /** Suggestions requested per keystroke. */
+    private static final int LIMIT = 10;
+
+    /** Longest query, in characters. */
+    private static final int MAX_QUERY_LENGTH = 6;
+
+    /** Catalog size. */
+    @Param("100000")
+    private int ingredients;
+
+    /** Index under test. */
+    private IngredientAutocompleteIndex index;
+
+    /** Queries cycled through. */
+    private String[] queries;
+
+    /** Position in {@link #queries}. */
+    private int next;
+
+    /**
+     * Builds the catalog, the index and the queries.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(42);
+        final List<IngredientNutrition> catalog = new ArrayList<>();
+        for (int i = 0; i < ingredients; i++) {
+            catalog.add(ingredient(i, randomWord(random) + " "
+                    + randomWord(random), random.nextBoolean()));
+        }
+        final IngredientNutritionRepository repository =
+                Mockito.mock(IngredientNutritionRepository.class);
+        when(repository.findAll()).thenReturn(catalog);
+        index = new IngredientAutocompleteIndex(
+                new IngredientNutritionDictionary(repository),
+                Mockito.mock(RecipeIngredientRepository.class),
+                TimeUnit.HOURS.toSeconds(1), System::nanoTime);
+        queries = new String[QUERIES];
+        for (int i = 0; i < queries.length; i++) {
+            final String name = catalog.get(random.nextInt(catalog.size()))
+                    .getIngredientName();
+            queries[i] = name.substring(0,
+                    1 + random.nextInt(MAX_QUERY_LENGTH));
+        }
+        index.suggest(queries[0], LIMIT);
+    }
+
+    /**
+     * Stops the index's rebuild thread.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        index.shutdown();
+    }
+
+    /**
+     * Answers one keystroke.
+     *
+     * @param blackhole consumes the suggestions
+     */
+    @Benchmark
+    public void suggest(final Blackhole blackhole) {
+        blackhole.consume(index.suggest(queries[next], LIMIT));
+        next = (next + 1) % queries.length;
+    }
+
+    /**
+     * Creates a catalog row.
+     *
+     * @param id       ingredient ID
+     * @param name     ingredient name
+     * @param verified whether the row is verified
+     * @return the row
+     */
+    private static IngredientNutrition ingredient(final int id,
+                                                  final String name,
+                                                  final boolean verified) {
+        final IngredientNutrition n = new IngredientNutrition();
+        n.setIngredientId(id);
+        n.setIngredientName(name);
+        n.setCalories(BigDecimal.ONE);
+        n.setIsVerified(verified);
+        return n;
+    }
+
+    /**
+     * Returns a random lower-case word of four to nine letters.
+     *
+     * @param random letter source
+     * @return the word
+     */
+    private static String randomWord(final Random random) {
+        final StringBuilder word = new StringBuilder();
+        final int length = 4 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.nutriflow.benchmark;
+
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.model.Nutrient;
+import com.example.nutriflow.ingredient.model.NutrientTotals;
+import com.example.nutriflow.ingredient.model.NutrientVector;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Aggregation throughput of the fixed-point {@link NutrientVector} and
+ * {@link NutrientTotals} against the BigDecimal arithmetic they
+ * replaced, per ingredient row. Add {@code -prof gc} for bytes
+ * allocated per row; see the README for how to run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NutrientAggregationBenchmark {
+
+    /** Distinct ingredients cycled through. */
+    private static final int INGREDIENTS = 256;
+
+    /** Rows summed per invocation. */
+    private static final int ROWS = 10_000;
+
+    /** Scale of the random per-100g values. */
+    private static final int VALUE_SCALE = 2;
+
+    /** Scale of the random gram amounts. */
+    private static final int GRAM_SCALE = 3;
+
+    /** Catalog rows, for the BigDecimal path. */
+    private IngredientNutrition[] rows;
+
+    /** Fixed-point vectors of {@link #rows}. */
+    private NutrientVector[] vectors;
+
+    /** Grams per row. */
+    private BigDecimal[] grams;
+
+    /**
+     * Builds random catalog rows and amounts.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(42);
+        rows = new IngredientNutrition[INGREDIENTS];
+        vectors = new NutrientVector[INGREDIENTS];
+        grams = new BigDecimal[INGREDIENTS];
+        for (int i = 0; i < INGREDIENTS; i++) {
+            rows[i] = ingredient(random);
+            vectors[i] = NutrientVector.per100g(rows[i]);
+            grams[i] = BigDecimal.valueOf(random.nextInt(500_000),
+                    GRAM_SCALE);
+        }
+    }
+
+    /**
+     * Sums rows with BigDecimal, as before the fixed-point vectors.
+     *
+     * @param blackhole consumes the totals
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void bigDecimal(final Blackhole blackhole) {
+        final Nutrient[] nutrients = Nutrient.values();
+        final BigDecimal[] totals = new BigDecimal[nutrients.length];
+        Arrays.fill(totals, BigDecimal.ZERO);
+        final BigDecimal hundred = BigDecimal.valueOf(100);
+        for (int r = 0; r < ROWS; r++) {
+            final int i = r % INGREDIENTS;
+            final BigDecimal factor = grams[i].divide(hundred);
+            for (Nutrient nutrient : nutrients) {
+                final BigDecimal value = nutrient.per100g(rows[i]);
+                totals[nutrient.ordinal()] = totals[nutrient.ordinal()]
+                        .add(value.multiply(factor));
+            }
+        }
+        blackhole.consume(totals);
+    }
+
+    /**
+     * Sums rows with the fixed-point vectors.
+     *
+     * @param blackhole consumes the totals
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void fixedPoint(final Blackhole blackhole) {
+        final NutrientTotals totals = new NutrientTotals();
+        for (int r = 0; r < ROWS; r++) {
+            final int i = r % INGREDIENTS;
+            totals.add(vectors[i], grams[i]);
+        }
+        blackhole.consume(totals);
+    }
+
+    /**
+     * Creates a catalog row with every nutrient set.
+     *
+     * @param random value source
+     * @return the row
+     */
+    private static IngredientNutrition ingredient(final Random random) {
+        final IngredientNutrition n = new IngredientNutrition();
+        for (Nutrient nutrient : Nutrient.values()) {
+            final BigDecimal value = BigDecimal.valueOf(
+                    random.nextInt(100_000), VALUE_SCALE);
+            switch (nutrient) {
+                case CALORIES -> n.setCalories(value);
+                case PROTEIN -> n.setProtein(value);
+                case CARBOHYDRATES -> n.setCarbohydrates(value);
+                case FAT -> n.setFat(value);
+                case FIBER -> n.setFiber(value);
+                case IRON -> n.setIron(value);
+                case CALCIUM -> n.setCalcium(value);
+                case VITAMIN_A -> n.setVitaminA(value);
+                case VITAMIN_C -> n.setVitaminC(value);
+                case VITAMIN_D -> n.setVitaminD(value);
+                case SODIUM -> n.setSodium(value);
+                default -> n.setPotassium(value);
+            }
+        }
+        return n;
+    }
+}
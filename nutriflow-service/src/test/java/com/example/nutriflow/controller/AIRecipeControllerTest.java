@@ -1,24 +1,48 @@
 package com.example.nutriflow.controller;
 
 import com.example.nutriflow.recipe.controller.AIRecipeController;
+import com.example.nutriflow.recipe.dto.AIRateLimitStatsDto;
+import com.example.nutriflow.recipe.dto.AIRecipeBatchProgressDto;
 import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.service.AIRecipeBatchService;
+import com.example.nutriflow.recipe.service.AIRecipeGateway;
 import com.example.nutriflow.recipe.service.AIRecipeService;
+import com.example.nutriflow.recipe.service.AIRecommendationPool;
+import com.example.nutriflow.recipe.service.AIRequestLimiter;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
-@WebMvcTest(controllers = AIRecipeController.class)
+@WebMvcTest(controllers = AIRecipeController.class,
+        properties = "nutriflow.ai.timeout-seconds=1")
+@Import(AIRecipeGateway.class)
 class AIRecipeControllerTest {
 
     @Autowired
@@ -27,6 +51,23 @@ class AIRecipeControllerTest {
     @MockBean
     private AIRecipeService aiRecipeService;
 
+    @MockBean
+    private AIRecommendationPool recommendationPool;
+
+    @MockBean
+    private AIRecipeBatchService aiRecipeBatchService;
+
+    @MockBean
+    private AIRequestLimiter aiRequestLimiter;
+
+    /** Performs an async request and dispatches its result. */
+    private ResultActions performAsync(final String url) throws Exception {
+        MvcResult started = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
     @Test
     @DisplayName("GET ingredient endpoint returns recipe from service")
     void getAIRecipe_ok() throws Exception {
@@ -34,10 +75,10 @@ class AIRecipeControllerTest {
         recipe.setRecipeId(7);
         recipe.setTitle("Milkshake");
 
-        Mockito.when(aiRecipeService.getAIRecipe(eq("milk")))
+        Mockito.when(aiRecipeService.generateAIRecipe(eq("milk")))
                 .thenReturn(recipe);
 
-        mockMvc.perform(get("/api/ai/recipes/ingredient/milk"))
+        performAsync("/api/ai/recipes/ingredient/milk")
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.recipeId").value(7))
                 .andExpect(jsonPath("$.title").value("Milkshake"));
@@ -46,10 +87,10 @@ class AIRecipeControllerTest {
     @Test
     @DisplayName("GET ingredient endpoint returns 400 on service exception")
     void getAIRecipe_error() throws Exception {
-        Mockito.when(aiRecipeService.getAIRecipe("milk"))
+        Mockito.when(aiRecipeService.generateAIRecipe("milk"))
                 .thenThrow(new IllegalStateException("LLM down"));
 
-        mockMvc.perform(get("/api/ai/recipes/ingredient/milk"))
+        performAsync("/api/ai/recipes/ingredient/milk")
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value(containsString("LLM down")));
     }
@@ -64,7 +105,7 @@ class AIRecipeControllerTest {
         Mockito.when(aiRecipeService.getAIRecommendedRecipe())
                 .thenReturn(recipe);
 
-        mockMvc.perform(get("/api/ai/recipes/recommendation"))
+        performAsync("/api/ai/recipes/recommendation")
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.recipeId").value(12))
                 .andExpect(jsonPath("$.title").value("AI Recommendation"));
@@ -76,8 +117,139 @@ class AIRecipeControllerTest {
         Mockito.when(aiRecipeService.getAIRecommendedRecipe())
                 .thenThrow(new IllegalStateException("Model timeout"));
 
-        mockMvc.perform(get("/api/ai/recipes/recommendation"))
+        performAsync("/api/ai/recipes/recommendation")
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value(containsString("Model timeout")));
     }
+
+    @Test
+    @DisplayName("GET ingredient endpoint returns 504 when the call times out")
+    void getAIRecipe_timeout() throws Exception {
+        Mockito.when(aiRecipeService.generateAIRecipe("slow"))
+                .thenAnswer(inv -> {
+                    Thread.sleep(1500);
+                    return new Recipe();
+                });
+
+        performAsync("/api/ai/recipes/ingredient/slow")
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.error").value(containsString("timed out")));
+    }
+
+    @Test
+    @DisplayName("POST batch endpoint streams one NDJSON line per group plus a summary")
+    void generateBatch_streamsProgress() throws Exception {
+        AIRecipeBatchProgressDto groupEvent = new AIRecipeBatchProgressDto();
+        groupEvent.setGroup(1);
+        groupEvent.setTotalGroups(1);
+        groupEvent.setTitles(List.of("Kale Salad"));
+        AIRecipeBatchProgressDto summary = new AIRecipeBatchProgressDto();
+        summary.setDone(true);
+        summary.setRecipesGenerated(1);
+
+        Mockito.when(aiRecipeBatchService.generate(anyList(), any(),
+                        anyBoolean(), any()))
+                .thenAnswer(inv -> {
+                    Consumer<AIRecipeBatchProgressDto> listener =
+                            inv.getArgument(3);
+                    listener.accept(groupEvent);
+                    return CompletableFuture.completedFuture(summary);
+                });
+
+        // the batch completes before the handler returns, so the
+        // emitter flushes its lines without an async dispatch
+        mockMvc.perform(post("/api/ai/recipes/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ingredients\":[\"kale\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "\"titles\":[\"Kale Salad\"]")))
+                .andExpect(content().string(containsString(
+                        "\"done\":true")));
+    }
+
+    @Test
+    @DisplayName("POST batch endpoint returns 400 when no ingredients are given")
+    void generateBatch_empty() throws Exception {
+        Mockito.when(aiRecipeBatchService.generate(anyList(), any(),
+                        anyBoolean(), any()))
+                .thenThrow(new IllegalArgumentException("No ingredients given"));
+
+        mockMvc.perform(post("/api/ai/recipes/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ingredients\":[]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString(
+                        "\"error\":\"No ingredients given\"")));
+    }
+
+    /** Waits for an event stream to contain the text. */
+    private String awaitStream(final MvcResult result, final String text)
+            throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(text)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            body = result.getResponse().getContentAsString();
+        }
+        return body;
+    }
+
+    @Test
+    @DisplayName("GET ingredient stream endpoint sends chunks then the recipe")
+    void streamAIRecipe_ok() throws Exception {
+        Recipe recipe = new Recipe();
+        recipe.setRecipeId(7);
+        recipe.setTitle("Milkshake");
+        Mockito.when(aiRecipeService.streamGeneratedAIRecipe(eq("milk"), any()))
+                .thenAnswer(inv -> {
+                    Consumer<String> onChunk = inv.getArgument(1);
+                    onChunk.accept("{\"title\":");
+                    onChunk.accept("\"Milkshake\"}");
+                    return recipe;
+                });
+
+        MvcResult result = mockMvc.perform(
+                        get("/api/ai/recipes/ingredient/milk/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = awaitStream(result, "\"recipeId\":7");
+        assertTrue(body.contains("event:chunk"), body);
+        assertTrue(body.indexOf("event:chunk") < body.indexOf("event:recipe"),
+                body);
+        assertTrue(body.contains("\"title\":\"Milkshake\""), body);
+    }
+
+    @Test
+    @DisplayName("GET recommendation stream endpoint sends an error event on failure")
+    void streamAIRecommendedRecipe_error() throws Exception {
+        Mockito.when(aiRecipeService.streamAIRecommendedRecipe(any()))
+                .thenThrow(new IllegalStateException("Model timeout"));
+
+        MvcResult result = mockMvc.perform(
+                        get("/api/ai/recipes/recommendation/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = awaitStream(result, "Model timeout");
+        assertTrue(body.contains("event:error"), body);
+        assertTrue(body.contains("\"status\":400"), body);
+    }
+
+    @Test
+    @DisplayName("GET rate-limit endpoint returns limiter queue depths")
+    void getRateLimitStats_ok() throws Exception {
+        AIRateLimitStatsDto stats = new AIRateLimitStatsDto();
+        stats.setEnabled(true);
+        stats.setInteractiveQueueDepth(2);
+        stats.setBackgroundQueueDepth(5);
+        Mockito.when(aiRequestLimiter.getStats()).thenReturn(stats);
+
+        mockMvc.perform(get("/api/ai/recipes/rate-limit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.interactiveQueueDepth").value(2))
+                .andExpect(jsonPath("$.backgroundQueueDepth").value(5));
+    }
 }
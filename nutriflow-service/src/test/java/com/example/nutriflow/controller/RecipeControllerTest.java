@@ -3,6 +3,10 @@ package com.example.nutriflow.controller;
 import com.example.nutriflow.recipe.controller.RecipeController;
 import com.example.nutriflow.recipe.model.FavoriteRecipe;
 import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.dto.RecipeImportResultDto;
+import com.example.nutriflow.recipe.dto.NutritionRecomputeResultDto;
+import com.example.nutriflow.recipe.service.RecipeImportService;
+import com.example.nutriflow.recipe.service.RecipeNutritionService;
 import com.example.nutriflow.recipe.service.RecipeService;
 import com.example.nutriflow.recipe.controller.RecipeController;
 import java.util.List;
@@ -34,6 +38,12 @@ class RecipeControllerTest {
     @MockBean
     private RecipeService recipeService;
 
+    @MockBean
+    private RecipeImportService recipeImportService;
+
+    @MockBean
+    private RecipeNutritionService recipeNutritionService;
+
     @Test
     @DisplayName("GET /api/recipes/{id} → 200 with recipe")
     void getRecipeById_ok() throws Exception {
@@ -143,4 +153,144 @@ class RecipeControllerTest {
                 .andExpect(jsonPath("$.message").value("Favorite removed successfully"));
         Mockito.verify(recipeService).removeFavorite(7, 3);
     }
+
+    @Test
+    @DisplayName("POST bulk favorites → 200 with added count")
+    void addFavorites_bulk_ok() throws Exception {
+        Mockito.when(recipeService.addFavorites(7, List.of(3, 5)))
+                .thenReturn(2);
+
+        mockMvc.perform(post("/api/recipes/favorites/7/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[3, 5]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.added").value(2));
+    }
+
+    @Test
+    @DisplayName("POST bulk favorites with empty list → 400")
+    void addFavorites_bulk_empty() throws Exception {
+        mockMvc.perform(post("/api/recipes/favorites/7/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(containsString("recipeIds")));
+    }
+
+    @Test
+    @DisplayName("DELETE bulk favorites → 200 with removed count")
+    void removeFavorites_bulk_ok() throws Exception {
+        Mockito.when(recipeService.removeFavorites(7, List.of(3, 5)))
+                .thenReturn(2);
+
+        mockMvc.perform(delete("/api/recipes/favorites/7")
+                .param("recipeIds", "3", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.removed").value(2));
+    }
+
+    @Test
+    @DisplayName("POST /api/recipes/import (NDJSON) → 200 with summary")
+    void importRecipes_ndjson_ok() throws Exception {
+        RecipeImportResultDto summary = new RecipeImportResultDto();
+        summary.setImportedRecipes(2);
+        summary.setImportedIngredients(5);
+        Mockito.when(recipeImportService.importNdjson(Mockito.any()))
+                .thenReturn(summary);
+
+        mockMvc.perform(post("/api/recipes/import")
+                .contentType("application/x-ndjson")
+                .content("{\"title\":\"A\"}\n{\"title\":\"B\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedRecipes").value(2))
+                .andExpect(jsonPath("$.importedIngredients").value(5));
+    }
+
+    @Test
+    @DisplayName("POST /api/recipes/import (CSV) → 500 when loading fails")
+    void importRecipes_csv_failure() throws Exception {
+        Mockito.when(recipeImportService.importCsv(Mockito.any()))
+                .thenThrow(new IllegalStateException("copy failed"));
+
+        mockMvc.perform(post("/api/recipes/import")
+                .contentType("text/csv")
+                .content("title\nA\n"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value(containsString("copy failed")));
+    }
+
+    @Test
+    @DisplayName("POST /api/recipes/import → 500 with progress when a chunk fails")
+    void importRecipes_partialFailure() throws Exception {
+        RecipeImportResultDto summary = new RecipeImportResultDto();
+        summary.setImportedRecipes(2);
+        summary.setCommittedChunks(1);
+        summary.setCommittedThroughLine(2);
+        summary.setError("copy failed");
+        Mockito.when(recipeImportService.importNdjson(Mockito.any()))
+                .thenReturn(summary);
+
+        mockMvc.perform(post("/api/recipes/import")
+                .contentType("application/x-ndjson")
+                .content("{\"title\":\"A\"}\n"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.committedChunks").value(1))
+                .andExpect(jsonPath("$.committedThroughLine").value(2))
+                .andExpect(jsonPath("$.error").value("copy failed"));
+    }
+
+    @Test
+    @DisplayName("GET /api/recipes/export → gzip NDJSON attachment")
+    void exportRecipes_ok() throws Exception {
+        Mockito.when(recipeService.exportRecipes(Mockito.any(),
+                Mockito.eq(true))).thenReturn(3L);
+
+        mockMvc.perform(get("/api/recipes/export")
+                .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().string("Content-Disposition",
+                        containsString("recipes.ndjson\"")));
+
+        Mockito.verify(recipeService).exportRecipes(Mockito.any(),
+                Mockito.eq(true));
+    }
+
+    @Test
+    @DisplayName("GET /api/recipes/export without gzip → plain NDJSON")
+    void exportRecipes_plain() throws Exception {
+        Mockito.when(recipeService.exportRecipes(Mockito.any(),
+                Mockito.eq(false))).thenReturn(3L);
+
+        mockMvc.perform(get("/api/recipes/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().doesNotExist("Content-Encoding"));
+
+        Mockito.verify(recipeService).exportRecipes(Mockito.any(),
+                Mockito.eq(false));
+    }
+
+    @Test
+    @DisplayName("POST /api/recipes/{id}/nutrition/recompute → 200 summary")
+    void recomputeRecipeNutrition_ok() throws Exception {
+        Mockito.when(recipeNutritionService.recomputeRecipe(1))
+                .thenReturn(new NutritionRecomputeResultDto(1, 1, 0));
+
+        mockMvc.perform(post("/api/recipes/1/nutrition/recompute"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recipesUpdated").value(1));
+    }
+
+    @Test
+    @DisplayName("POST /api/recipes/{id}/nutrition/recompute → 404 unknown")
+    void recomputeRecipeNutrition_notFound() throws Exception {
+        Mockito.when(recipeNutritionService.recomputeRecipe(99))
+                .thenReturn(new NutritionRecomputeResultDto(0, 0, 0));
+
+        mockMvc.perform(post("/api/recipes/99/nutrition/recompute"))
+                .andExpect(status().isNotFound());
+    }
 }
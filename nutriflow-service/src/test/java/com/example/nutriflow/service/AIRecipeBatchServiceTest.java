@@ -0,0 +1,165 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.recipe.dto.AIRecipeBatchProgressDto;
+import com.example.nutriflow.recipe.llm.LlmRecipeClient;
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
+import com.example.nutriflow.recipe.service.AIRecipeBatchService;
+import com.example.nutriflow.recipe.service.AIRecipePersister;
+import com.example.nutriflow.recipe.service.AIRequestLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AIRecipeBatchServiceTest {
+
+    private LlmRecipeClient llmClient;
+    private AIRecipePersister recipePersister;
+    private RecipeIngredientRepository recipeIngredientRepository;
+    private AIRecipeBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        llmClient = mock(LlmRecipeClient.class);
+        recipePersister = mock(AIRecipePersister.class);
+        recipeIngredientRepository = mock(RecipeIngredientRepository.class);
+        when(recipeIngredientRepository.findCoveredIngredients(anyCollection()))
+                .thenReturn(List.of());
+        when(llmClient.generateRecipeListJson(anyString(), anyInt()))
+                .thenAnswer(inv -> recipesJson(inv.getArgument(1)));
+        batchService = new AIRecipeBatchService(llmClient, recipePersister,
+                new AIRequestLimiter(false, 60, 10, 0, 0),
+                recipeIngredientRepository, new ObjectMapper(), 2, 2, 100, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.shutdown();
+    }
+
+    private static String recipesJson(final int count) {
+        List<String> recipes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            recipes.add("{\"title\":\"Recipe " + i + "\",\"ingredients\":"
+                    + "[{\"ingredient\":\"x\",\"quantity\":1,\"unit\":\"g\"}]}");
+        }
+        return "[" + String.join(",", recipes) + "]";
+    }
+
+    @Test
+    @DisplayName("Batch groups ingredients into multi-recipe calls and reports progress")
+    void generate_groupsIngredientsAndReportsProgress() throws Exception {
+        List<AIRecipeBatchProgressDto> events =
+                Collections.synchronizedList(new ArrayList<>());
+
+        AIRecipeBatchProgressDto summary = batchService.generate(
+                List.of("Kale", "okra", "kale ", "leek", "fennel", "taro"),
+                null, true, events::add).get(5, TimeUnit.SECONDS);
+
+        verify(llmClient, times(2)).generateRecipeListJson(anyString(), eq(2));
+        verify(llmClient, times(1)).generateRecipeListJson(anyString(), eq(1));
+        verify(recipePersister, times(5))
+                .persistAsync(any(Recipe.class), anyList());
+        assertEquals(3, events.size());
+        assertTrue(summary.isDone());
+        assertEquals(3, summary.getTotalGroups());
+        assertEquals(3, summary.getCompletedGroups());
+        assertEquals(5, summary.getRecipesGenerated());
+        assertEquals(0, summary.getFailedGroups());
+    }
+
+    @Test
+    @DisplayName("Batch skips covered ingredients and reports failed groups")
+    void generate_skipsCoveredAndReportsFailures() throws Exception {
+        when(recipeIngredientRepository.findCoveredIngredients(anyCollection()))
+                .thenReturn(List.of("kale"));
+        when(llmClient.generateRecipeListJson(contains("- okra"), anyInt()))
+                .thenThrow(new IllegalStateException("LLM down"));
+        List<AIRecipeBatchProgressDto> events =
+                Collections.synchronizedList(new ArrayList<>());
+
+        AIRecipeBatchProgressDto summary = batchService.generate(
+                List.of("kale", "okra", "leek"), 1, true, events::add)
+                .get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, summary.getSkippedIngredients());
+        assertEquals(2, summary.getTotalGroups());
+        assertEquals(1, summary.getFailedGroups());
+        assertEquals(1, summary.getRecipesGenerated());
+        assertTrue(events.stream().anyMatch(e -> "LLM down".equals(e.getError())
+                && e.getIngredients().equals(List.of("okra"))));
+        verify(recipeIngredientRepository, times(1))
+                .findCoveredIngredients(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Cancelling a batch interrupts running calls and drops queued groups")
+    void generate_cancelStopsRemainingGroups() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        when(llmClient.generateRecipeListJson(anyString(), anyInt()))
+                .thenAnswer(inv -> {
+                    started.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        interrupted.countDown();
+                        throw new IllegalStateException("interrupted");
+                    }
+                    return recipesJson(1);
+                });
+
+        CompletableFuture<AIRecipeBatchProgressDto> batch = batchService
+                .generate(List.of("a", "b", "c", "d", "e"), 1, false, e -> { });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        batch.cancel(true);
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+        verify(llmClient, times(2)).generateRecipeListJson(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Groups that do not fit in the queue are reported as failed")
+    void generate_fullQueue_reportsFailedGroups() throws Exception {
+        batchService.shutdown();
+        batchService = new AIRecipeBatchService(llmClient, recipePersister,
+                new AIRequestLimiter(false, 60, 10, 0, 0),
+                recipeIngredientRepository, new ObjectMapper(), 1, 1, 100, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(llmClient.generateRecipeListJson(anyString(), anyInt()))
+                .thenAnswer(inv -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return recipesJson(1);
+                });
+
+        CompletableFuture<AIRecipeBatchProgressDto> batch = batchService
+                .generate(List.of("a", "b", "c"), 1, false, e -> { });
+        release.countDown();
+        AIRecipeBatchProgressDto summary = batch.get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, summary.getTotalGroups());
+        assertEquals(1, summary.getFailedGroups());
+        assertEquals(2, summary.getRecipesGenerated());
+    }
+
+    @Test
+    @DisplayName("Batch rejects an empty ingredient list")
+    void generate_rejectsEmptyList() {
+        assertThrows(IllegalArgumentException.class,
+                () -> batchService.generate(List.of(" "), null, true, e -> { }));
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.recipe.llm.LlmBackendException;
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.service.AIRecipeGateway;
+import com.example.nutriflow.recipe.service.AIRecipeService;
+import com.example.nutriflow.recipe.service.AIRecipeUnavailableException;
+import com.example.nutriflow.recipe.service.AIRecommendationPool;
+import com.example.nutriflow.shared.concurrent.CircuitBreaker;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AIRecipeGateway} and its {@link CircuitBreaker}.
+ */
+class AIRecipeGatewayTest {
+
+    private AIRecipeService aiRecipeService;
+
+    private AIRecommendationPool recommendationPool;
+
+    private AIRecipeGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        aiRecipeService = mock(AIRecipeService.class);
+        recommendationPool = mock(AIRecommendationPool.class);
+        gateway = new AIRecipeGateway(aiRecipeService, recommendationPool,
+                1, 1,
+                Duration.ofSeconds(2),
+                new CircuitBreaker(2, Duration.ofMinutes(1),
+                        Clock.systemUTC()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        gateway.shutdown();
+    }
+
+    private static Throwable failureOf(Future<?> f) {
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> f.get(5, TimeUnit.SECONDS));
+        return e.getCause();
+    }
+
+    @Test
+    void openCircuit_failsFastOrServesCachedResponse() throws Exception {
+        when(aiRecipeService.generateAIRecipe("milk"))
+                .thenThrow(new LlmBackendException("LLM down"));
+        Recipe cached = new Recipe();
+        cached.setTitle("Cached Milkshake");
+        when(aiRecipeService.getCachedAIRecipe("milk"))
+                .thenReturn(Optional.of(cached));
+
+        failureOf(gateway.getAIRecipe("milk"));
+        failureOf(gateway.getAIRecipe("milk"));
+        assertEquals(CircuitBreaker.State.OPEN, gateway.getCircuitState());
+
+        assertSame(cached, gateway.getAIRecipe("milk")
+                .get(1, TimeUnit.SECONDS));
+        Throwable refused = failureOf(gateway.getAIRecommendedRecipe());
+        assertInstanceOf(AIRecipeUnavailableException.class, refused);
+        assertFalse(((AIRecipeUnavailableException) refused).isTimedOut());
+        verify(aiRecipeService, times(2)).generateAIRecipe("milk");
+        verify(aiRecipeService, never()).getAIRecommendedRecipe();
+    }
+
+    @Test
+    void rateLimitedCalls_doNotOpenCircuitAndServeCache() throws Exception {
+        when(aiRecipeService.generateAIRecipe("milk"))
+                .thenThrow(new AIRecipeUnavailableException("quota", false));
+        Recipe cached = new Recipe();
+        cached.setTitle("Cached Milkshake");
+        when(aiRecipeService.getCachedAIRecipe("milk"))
+                .thenReturn(Optional.of(cached));
+        when(aiRecipeService.getCachedAIRecipe("tea"))
+                .thenReturn(Optional.empty());
+        when(aiRecipeService.generateAIRecipe("tea"))
+                .thenThrow(new AIRecipeUnavailableException("quota", false));
+
+        assertSame(cached, gateway.getAIRecipe("milk")
+                .get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AIRecipeUnavailableException.class,
+                failureOf(gateway.getAIRecipe("tea")));
+        failureOf(gateway.getAIRecipe("tea"));
+
+        assertEquals(CircuitBreaker.State.CLOSED, gateway.getCircuitState());
+    }
+
+    @Test
+    void storedRecipe_servedWithoutBreakerOrLlm() throws Exception {
+        when(aiRecipeService.generateAIRecipe("milk"))
+                .thenThrow(new LlmBackendException("LLM down"));
+        failureOf(gateway.getAIRecipe("milk"));
+        failureOf(gateway.getAIRecipe("milk"));
+        assertEquals(CircuitBreaker.State.OPEN, gateway.getCircuitState());
+
+        Recipe stored = new Recipe();
+        stored.setTitle("Stored Porridge");
+        when(aiRecipeService.findStoredRecipe("oats"))
+                .thenReturn(Optional.of(stored));
+
+        assertSame(stored, gateway.getAIRecipe("oats")
+                .get(5, TimeUnit.SECONDS));
+        verify(aiRecipeService, never()).generateAIRecipe("oats");
+    }
+
+    @Test
+    void unusableOutput_doesNotOpenCircuit() throws Exception {
+        when(aiRecipeService.generateAIRecipe("milk"))
+                .thenThrow(new IllegalStateException(
+                        "Failed to parse recipe response"));
+
+        for (int i = 0; i < 3; i++) {
+            assertInstanceOf(IllegalStateException.class,
+                    failureOf(gateway.getAIRecipe("milk")));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, gateway.getCircuitState());
+    }
+
+    @Test
+    void timedOutCall_interruptsItsThread() throws Exception {
+        gateway.shutdown();
+        gateway = new AIRecipeGateway(aiRecipeService, recommendationPool,
+                1, 1, Duration.ofMillis(200),
+                new CircuitBreaker(2, Duration.ofMinutes(1),
+                        Clock.systemUTC()));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(aiRecipeService.getAIRecommendedRecipe()).thenAnswer(inv -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return new Recipe();
+        });
+
+        Throwable timeout = failureOf(gateway.getAIRecommendedRecipe());
+
+        assertTrue(((AIRecipeUnavailableException) timeout).isTimedOut());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void recommendation_servedFromPoolWithoutCallingLlm() throws Exception {
+        Recipe pooled = new Recipe();
+        pooled.setTitle("Pooled");
+        when(recommendationPool.poll()).thenReturn(Optional.of(pooled));
+
+        CompletableFuture<Recipe> result = gateway.getAIRecommendedRecipe();
+
+        assertTrue(result.isDone());
+        assertSame(pooled, result.get());
+        verify(aiRecipeService, never()).getAIRecommendedRecipe();
+    }
+
+    @Test
+    void saturatedExecutor_rejectsExtraCalls() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(aiRecipeService.getAIRecommendedRecipe()).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new Recipe();
+        });
+
+        CompletableFuture<Recipe> running = gateway.getAIRecommendedRecipe();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Recipe> queued = gateway.getAIRecommendedRecipe();
+        Throwable rejected = failureOf(gateway.getAIRecommendedRecipe());
+
+        assertInstanceOf(AIRecipeUnavailableException.class, rejected);
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        assertEquals(CircuitBreaker.State.CLOSED, gateway.getCircuitState());
+    }
+
+    @Test
+    void circuitBreaker_halfOpenTrialClosesOnSuccess() {
+        Instant[] now = {Instant.parse("2025-01-01T00:00:00Z")};
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now[0];
+            }
+        };
+        CircuitBreaker breaker =
+                new CircuitBreaker(1, Duration.ofSeconds(30), clock);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertFalse(breaker.tryAcquire());
+
+        now[0] = now[0].plusSeconds(30);
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.model.RecipeIngredient;
+import com.example.nutriflow.recipe.service.AIRecipeJsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AIRecipeJsonParserTest {
+
+    private static final String RESPONSE = """
+            {
+              "title": "Salmon Rice Bowl",
+              "cookTime": 20,
+              "cuisines": ["Japanese"],
+              "tags": ["quick"],
+              "source": {"model": "ignored", "ids": [1, 2]},
+              "ingredients": [
+                {"ingredient": " salmon ", "quantity": 150, "unit": "g"},
+                {"ingredient": "soy sauce", "quantity": 15, "unit": "ml",
+                 "allergenTags": ["soy", "gluten"]},
+                {"ingredient": "", "quantity": 1, "unit": "pcs"}
+              ],
+              "nutrition": {"summary": null},
+              "calories": 640,
+              "protein": 38.5
+            }
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AIRecipeJsonParser parser =
+            new AIRecipeJsonParser(objectMapper.getFactory());
+
+    @Test
+    @DisplayName("Streaming parse fills the recipe and its ingredient rows")
+    void parse_fillsRecipeAndIngredientRows() throws Exception {
+        AIRecipeJsonParser.ParsedRecipe parsed = parser.parse(RESPONSE);
+        Recipe recipe = parsed.getRecipe();
+
+        assertEquals("Salmon Rice Bowl", recipe.getTitle());
+        assertEquals(20, recipe.getCookTime());
+        assertArrayEquals(new String[]{"quick"}, recipe.getTags());
+        assertEquals(0, recipe.getCalories().compareTo(new BigDecimal("640")));
+        assertNull(recipe.getFat());
+
+        JsonNode ingredients = objectMapper.readTree(recipe.getIngredients());
+        assertEquals(3, ingredients.size());
+        assertEquals("soy", ingredients.get(1).get("allergenTags").get(0)
+                .asText());
+        assertTrue(objectMapper.readTree(recipe.getNutrition())
+                .get("summary").isNull());
+
+        List<RecipeIngredient> rows = parsed.getIngredients();
+        assertEquals(2, rows.size());
+        assertEquals("salmon", rows.get(0).getIngredient());
+        assertEquals(150.0, rows.get(0).getQuantity());
+        assertEquals("g", rows.get(0).getUnit());
+        assertArrayEquals(new String[]{"soy", "gluten"},
+                rows.get(1).getAllergenTags());
+    }
+
+    @Test
+    @DisplayName("Stored ingredient payloads parse into the same rows")
+    void parseIngredients_readsStoredPayload() throws Exception {
+        String payload = parser.parse(RESPONSE).getRecipe().getIngredients();
+
+        List<RecipeIngredient> rows = parser.parseIngredients(payload);
+
+        assertEquals(2, rows.size());
+        assertEquals("soy sauce", rows.get(1).getIngredient());
+    }
+
+    @Test
+    @DisplayName("Non-object and truncated responses are rejected")
+    void parse_rejectsMalformedResponses() {
+        assertThrows(IOException.class, () -> parser.parse("not-json"));
+        assertThrows(IOException.class, () -> parser.parse("[1, 2]"));
+        assertThrows(IOException.class,
+                () -> parser.parse("{\"title\": \"Half\", \"tags\": [\"a\""));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.model.RecipeIngredient;
+import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
+import com.example.nutriflow.recipe.repository.RecipeRepository;
+import com.example.nutriflow.recipe.service.AIRecipePersister;
+import com.example.nutriflow.recipe.service.RecipeNutritionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AIRecipePersister}.
+ */
+class AIRecipePersisterTest {
+
+    private RecipeRepository recipeRepository;
+
+    private RecipeIngredientRepository recipeIngredientRepository;
+
+    private RecipeNutritionService recipeNutritionService;
+
+    private AIRecipePersister persister;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository = mock(RecipeRepository.class);
+        recipeIngredientRepository = mock(RecipeIngredientRepository.class);
+        recipeNutritionService = mock(RecipeNutritionService.class);
+        persister = new AIRecipePersister(recipeRepository,
+                recipeIngredientRepository, recipeNutritionService,
+                new ObjectMapper(),
+                mock(PlatformTransactionManager.class), 8, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        persister.shutdown();
+    }
+
+    private static Recipe generated() {
+        Recipe recipe = new Recipe();
+        recipe.setTitle("Lemon  Chicken");
+        recipe.setTags(new String[] {"quick"});
+        recipe.setIngredients("[{\"ingredient\":\"Chicken\",\"quantity\":200,"
+                + "\"unit\":\"g\"},{\"ingredient\":\"lemon\","
+                + "\"allergenTags\":[\"citrus\"]},{\"ingredient\":\" \"}]");
+        return recipe;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void persistAsync_savesCopyWithIngredientRowsAndFingerprint()
+            throws Exception {
+        when(recipeRepository.save(any(Recipe.class))).thenAnswer(inv -> {
+            Recipe r = inv.getArgument(0);
+            r.setRecipeId(42);
+            return r;
+        });
+        Recipe recipe = generated();
+
+        Optional<Recipe> stored =
+                persister.persistAsync(recipe).get(5, TimeUnit.SECONDS);
+
+        assertTrue(stored.isPresent());
+        assertEquals(42, stored.get().getRecipeId());
+        assertEquals(AIRecipePersister.fingerprint("lemon chicken",
+                List.of("lemon", "CHICKEN")), stored.get().getFingerprint());
+        assertArrayEquals(new String[] {"quick", "ai-generated"},
+                stored.get().getTags());
+        assertEquals(0, stored.get().getPopularityScore());
+        // the caller's instance is left untouched
+        assertNull(recipe.getRecipeId());
+        assertArrayEquals(new String[] {"quick"}, recipe.getTags());
+
+        ArgumentCaptor<List<RecipeIngredient>> rows =
+                ArgumentCaptor.forClass(List.class);
+        verify(recipeIngredientRepository).saveAll(rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertEquals("Chicken", rows.getValue().get(0).getIngredient());
+        assertEquals(200.0, rows.getValue().get(0).getQuantity());
+        assertEquals(42, rows.getValue().get(1).getRecipeId());
+        assertArrayEquals(new String[] {"citrus"},
+                rows.getValue().get(1).getAllergenTags());
+        verify(recipeNutritionService).recomputeRecipe(42);
+    }
+
+    @Test
+    void persistAsync_skipsDuplicateFingerprint() throws Exception {
+        when(recipeRepository.existsByFingerprint(anyString()))
+                .thenReturn(true);
+
+        Optional<Recipe> stored =
+                persister.persistAsync(generated()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(stored.isEmpty());
+        verify(recipeRepository, never()).save(any());
+        verify(recipeIngredientRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void fingerprint_ignoresCaseWhitespaceAndIngredientOrder() {
+        assertEquals(
+                AIRecipePersister.fingerprint("Lemon Chicken",
+                        List.of("chicken", "lemon", "Lemon")),
+                AIRecipePersister.fingerprint(" lemon   chicken ",
+                        List.of("LEMON", " chicken")));
+        assertNotEquals(
+                AIRecipePersister.fingerprint("Lemon Chicken",
+                        List.of("chicken")),
+                AIRecipePersister.fingerprint("Lemon Chicken",
+                        List.of("chicken", "lemon")));
+    }
+}
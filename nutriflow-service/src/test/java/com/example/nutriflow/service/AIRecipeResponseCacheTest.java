@@ -0,0 +1,120 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.recipe.model.AIRecipeCacheEntry;
+import com.example.nutriflow.recipe.repository.AIRecipeCacheRepository;
+import com.example.nutriflow.recipe.service.AIRecipeResponseCache;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AIRecipeResponseCache}.
+ */
+class AIRecipeResponseCacheTest {
+
+    /** Clock whose time can be moved forward by the test. */
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Test
+    void get_hitsOnNormalizedPromptAndExpiresAfterTtl() {
+        MutableClock clock = new MutableClock();
+        AIRecipeResponseCache cache = new AIRecipeResponseCache(
+                10, Duration.ofMinutes(5), false, null, clock);
+
+        cache.put("Recipe with  Chicken", "{\"title\":\"A\"}");
+
+        assertEquals(Optional.of("{\"title\":\"A\"}"),
+                cache.get("  recipe WITH chicken "));
+        clock.advance(Duration.ofMinutes(5));
+        assertTrue(cache.get("recipe with chicken").isEmpty());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void get_isBoundedByMaxEntries() {
+        AIRecipeResponseCache cache = new AIRecipeResponseCache(
+                1, Duration.ofMinutes(5), false, null, new MutableClock());
+
+        cache.put("a", "{}");
+        cache.put("b", "{}");
+
+        assertTrue(cache.get("a").isEmpty());
+        assertTrue(cache.get("b").isPresent());
+    }
+
+    @Test
+    void persistent_writesThroughAndReloadsAfterRestart() {
+        MutableClock clock = new MutableClock();
+        AIRecipeCacheRepository repository =
+                mock(AIRecipeCacheRepository.class);
+        AIRecipeResponseCache cache = new AIRecipeResponseCache(
+                10, Duration.ofHours(1), true, repository, clock);
+
+        cache.put("Chicken", "{\"title\":\"B\"}");
+
+        ArgumentCaptor<AIRecipeCacheEntry> saved =
+                ArgumentCaptor.forClass(AIRecipeCacheEntry.class);
+        verify(repository).save(saved.capture());
+        assertEquals("chicken", saved.getValue().getPromptKey());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 1, 0),
+                saved.getValue().getExpiresAt());
+
+        // a fresh instance (e.g. after restart) falls back to the table
+        when(repository.findById("chicken"))
+                .thenReturn(Optional.of(saved.getValue()));
+        AIRecipeResponseCache restarted = new AIRecipeResponseCache(
+                10, Duration.ofHours(1), true, repository, clock);
+        assertEquals(Optional.of("{\"title\":\"B\"}"),
+                restarted.get("chicken"));
+    }
+
+    @Test
+    void persistent_dropsExpiredRows() {
+        MutableClock clock = new MutableClock();
+        AIRecipeCacheRepository repository =
+                mock(AIRecipeCacheRepository.class);
+        when(repository.findById("chicken")).thenReturn(Optional.of(
+                new AIRecipeCacheEntry("chicken", "{}",
+                        LocalDateTime.of(2024, 12, 31, 0, 0),
+                        LocalDateTime.of(2024, 12, 31, 1, 0))));
+        AIRecipeResponseCache cache = new AIRecipeResponseCache(
+                10, Duration.ofHours(1), true, repository, clock);
+
+        assertTrue(cache.get("chicken").isEmpty());
+        verify(repository).deleteById("chicken");
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.nutriflow.service;
 
+import com.example.nutriflow.recipe.llm.LlmRecipeClient;
 import com.example.nutriflow.recipe.model.Recipe;
-import com.example.nutriflow.recipe.model.RecipeIngredient;
 import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
 import com.example.nutriflow.recipe.repository.RecipeRepository;
+import com.example.nutriflow.recipe.service.AIRecipePersister;
+import com.example.nutriflow.recipe.service.AIRecipeResponseCache;
 import com.example.nutriflow.recipe.service.AIRecipeService;
+import com.example.nutriflow.recipe.service.AIRequestLimiter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,7 +18,12 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -26,37 +34,114 @@ class AIRecipeServiceTest {
     private RecipeIngredientRepository recipeIngredientRepository;
     private AIRecipeService aiRecipeService;
     private ObjectMapper objectMapper;
+    private AIRecipeResponseCache responseCache;
+    private LlmRecipeClient llmClient;
+    private AIRecipePersister recipePersister;
 
     @BeforeEach
     void setUp() throws Exception {
         recipeRepository = mock(RecipeRepository.class);
         recipeIngredientRepository = mock(RecipeIngredientRepository.class);
         objectMapper = new ObjectMapper();
-        aiRecipeService = new AIRecipeService("test-api-key", "test-model", objectMapper);
+        llmClient = mock(LlmRecipeClient.class);
+        recipePersister = mock(AIRecipePersister.class);
+        aiRecipeService = new AIRecipeService(llmClient, objectMapper);
 
         injectDependency("recipeRepository", recipeRepository);
         injectDependency("recipeIngredientRepository", recipeIngredientRepository);
+        responseCache = new AIRecipeResponseCache(
+                10, Duration.ofMinutes(5), false, null, Clock.systemUTC());
+        injectDependency("responseCache", responseCache);
+        injectDependency("recipePersister", recipePersister);
+        injectDependency("requestLimiter",
+                new AIRequestLimiter(false, 60, 10, 0, 0));
     }
 
     @Test
-    @DisplayName("Get AI recipe returns an existing recipe when ingredient matches")
-    void getAIRecipe_returnsExistingRecipeWhenIngredientMatches() {
+    @DisplayName("Generate AI recipe calls the LLM client once and caches the response")
+    void generateAIRecipe_callsLlmClientOnCacheMiss() {
+        when(llmClient.generateRecipeJson(anyString()))
+                .thenReturn("{\"title\":\"Crispy Tofu\",\"ingredients\":[]}");
+
+        Recipe first = aiRecipeService.generateAIRecipe("tofu");
+        Recipe second = aiRecipeService.generateAIRecipe("tofu");
+
+        assertEquals("Crispy Tofu", first.getTitle());
+        assertEquals("Crispy Tofu", second.getTitle());
+        verify(llmClient, times(1)).generateRecipeJson(anyString());
+        verify(recipePersister, times(1))
+                .persistAsync(any(Recipe.class), anyList());
+    }
+
+    @Test
+    @DisplayName("Generate AI recipe is served from the response cache without an LLM call")
+    void generateAIRecipe_returnsCachedResponseForNormalizedPrompt() {
+        responseCache.put(
+                "Generate a delicious recipe with the following ingredient: chicken",
+                "{\"title\":\"Cached Chicken\",\"ingredients\":[]}");
+
+        Recipe first = aiRecipeService.generateAIRecipe("Chicken ");
+        Recipe second = aiRecipeService.generateAIRecipe("chicken");
+
+        assertEquals("Cached Chicken", first.getTitle());
+        assertEquals("Cached Chicken", second.getTitle());
+        assertNotSame(first, second);
+        assertEquals(2, responseCache.getHits());
+    }
+
+    @Test
+    @DisplayName("Stream generated AI recipe forwards chunks and caches the complete response")
+    void streamGeneratedAIRecipe_forwardsChunksAndCaches() {
+        when(llmClient.streamRecipeJson(anyString(), any()))
+                .thenAnswer(inv -> {
+                    Consumer<String> onChunk = inv.getArgument(1);
+                    onChunk.accept("{\"title\":\"Crispy");
+                    onChunk.accept(" Tofu\",\"ingredients\":[]}");
+                    return "{\"title\":\"Crispy Tofu\",\"ingredients\":[]}";
+                });
+        List<String> chunks = new ArrayList<>();
+
+        Recipe streamed = aiRecipeService.streamGeneratedAIRecipe("tofu", chunks::add);
+        Recipe cached = aiRecipeService.generateAIRecipe("tofu");
+
+        assertEquals(2, chunks.size());
+        assertEquals("Crispy Tofu", streamed.getTitle());
+        assertEquals("Crispy Tofu", cached.getTitle());
+        verify(llmClient, never()).generateRecipeJson(anyString());
+        verify(recipePersister, times(1))
+                .persistAsync(any(Recipe.class), anyList());
+    }
+
+    @Test
+    @DisplayName("Stream generated AI recipe rejects a response without a title")
+    void streamGeneratedAIRecipe_throwsWhenResponseIncomplete() {
+        when(llmClient.streamRecipeJson(anyString(), any()))
+                .thenReturn("{\"ingredients\":[]}");
+
+        assertThrows(IllegalStateException.class,
+                () -> aiRecipeService.streamGeneratedAIRecipe("tofu", chunk -> { }));
+        verify(recipePersister, never()).persistAsync(any(Recipe.class), anyList());
+        assertTrue(responseCache.get(
+                "Generate a delicious recipe with the following ingredient: tofu")
+                .isEmpty());
+    }
+
+    @Test
+    @DisplayName("Find stored recipe returns an existing recipe when ingredient matches")
+    void findStoredRecipe_returnsExistingRecipeWhenIngredientMatches() {
         Recipe storedRecipe = new Recipe();
         storedRecipe.setRecipeId(8);
         storedRecipe.setTitle("Avocado Toast");
 
-        RecipeIngredient ingredient = new RecipeIngredient();
-        ingredient.setRecipeId(8);
-        ingredient.setIngredient("avocado");
-
-        when(recipeRepository.findAll()).thenReturn(List.of(storedRecipe));
-        when(recipeIngredientRepository.findByRecipeId(8)).thenReturn(List.of(ingredient));
+        when(recipeIngredientRepository.findRecipeIdsByIngredient("avocado"))
+                .thenReturn(List.of(8, 11));
+        when(recipeRepository.findById(8)).thenReturn(Optional.of(storedRecipe));
 
-        Recipe result = aiRecipeService.getAIRecipe("avocado");
+        Recipe result = aiRecipeService.findStoredRecipe("avocado").orElseThrow();
 
         assertSame(storedRecipe, result);
-        verify(recipeRepository).findAll();
-        verify(recipeIngredientRepository).findByRecipeId(8);
+        verify(recipeIngredientRepository).findRecipeIdsByIngredient("avocado");
+        verify(recipeRepository).findById(8);
         verifyNoMoreInteractions(recipeRepository, recipeIngredientRepository);
     }
 
@@ -0,0 +1,105 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.service.AIRecipePersister;
+import com.example.nutriflow.recipe.service.AIRecipeService;
+import com.example.nutriflow.recipe.service.AIRecommendationPool;
+import com.example.nutriflow.shared.concurrent.TokenBucketRateLimiter.Priority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link AIRecommendationPool}. The refiller is driven
+ * step by step instead of on its background thread.
+ */
+class AIRecommendationPoolTest {
+
+    private AIRecipeService aiRecipeService;
+
+    private AIRecipePersister recipePersister;
+
+    private AIRecommendationPool pool;
+
+    @BeforeEach
+    void setUp() {
+        aiRecipeService = mock(AIRecipeService.class);
+        when(aiRecipeService.generateUnsavedRecommendation(Priority.BACKGROUND))
+                .thenAnswer(inv -> new Recipe());
+        recipePersister = mock(AIRecipePersister.class);
+        pool = new AIRecommendationPool(aiRecipeService, recipePersister,
+                3, 1, 10, 60_000, false);
+    }
+
+    @Test
+    void refill_generatesOnePerStepUpToCapacity() {
+        for (int i = 0; i < 5; i++) {
+            pool.refillStep();
+        }
+
+        assertEquals(3, pool.size());
+        verify(aiRecipeService, times(3))
+                .generateUnsavedRecommendation(Priority.BACKGROUND);
+    }
+
+    @Test
+    void pooledRecipes_persistedOnlyWhenServed() {
+        pool.refillStep();
+        pool.refillStep();
+        verify(recipePersister, never()).persistAsync(any(Recipe.class));
+
+        Recipe served = pool.poll().orElseThrow();
+
+        verify(recipePersister, times(1)).persistAsync(served);
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void refill_waitsForLowWatermarkBeforeRefilling() {
+        for (int i = 0; i < 3; i++) {
+            pool.refillStep();
+        }
+        assertTrue(pool.poll().isPresent());
+        assertTrue(pool.poll().isPresent());
+        pool.refillStep();
+        verify(aiRecipeService, times(3))
+                .generateUnsavedRecommendation(Priority.BACKGROUND);
+
+        // dropping below the watermark of 1 restarts filling
+        assertTrue(pool.poll().isPresent());
+        assertTrue(pool.poll().isEmpty());
+        pool.refillStep();
+        pool.refillStep();
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void refill_backsOffAfterFailure() {
+        when(aiRecipeService.generateUnsavedRecommendation(Priority.BACKGROUND))
+                .thenThrow(new IllegalStateException("LLM down"))
+                .thenAnswer(inv -> new Recipe());
+
+        pool.refillStep();
+        pool.refillStep();
+
+        assertEquals(0, pool.size());
+        verify(aiRecipeService, times(1))
+                .generateUnsavedRecommendation(Priority.BACKGROUND);
+    }
+
+    @Test
+    void disabledPool_doesNotStartRefilling() {
+        pool.start();
+        pool.stop();
+
+        verify(aiRecipeService, never()).generateUnsavedRecommendation(any());
+    }
+}
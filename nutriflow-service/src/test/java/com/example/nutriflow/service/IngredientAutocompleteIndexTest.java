@@ -0,0 +1,168 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.ingredient.dto.IngredientSuggestionDto;
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import com.example.nutriflow.ingredient.service.IngredientAutocompleteIndex;
+import com.example.nutriflow.ingredient.service.IngredientNutritionDictionary;
+import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link IngredientAutocompleteIndex}.
+ */
+class IngredientAutocompleteIndexTest {
+
+    private IngredientNutritionRepository ingredientRepository;
+    private RecipeIngredientRepository recipeIngredientRepository;
+    private IngredientNutritionDictionary dictionary;
+    private AtomicLong clock;
+    private IngredientAutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ingredientRepository = mock(IngredientNutritionRepository.class);
+        recipeIngredientRepository = mock(RecipeIngredientRepository.class);
+        dictionary = new IngredientNutritionDictionary(ingredientRepository);
+        clock = new AtomicLong();
+        index = new IngredientAutocompleteIndex(dictionary,
+                recipeIngredientRepository, 60, clock::get, Runnable::run);
+    }
+
+    private static IngredientNutrition ingredient(int id, String name,
+                                                  boolean verified) {
+        IngredientNutrition n = new IngredientNutrition();
+        n.setIngredientId(id);
+        n.setIngredientName(name);
+        n.setCalories(BigDecimal.ONE);
+        n.setIsVerified(verified);
+        return n;
+    }
+
+    private static List<Object[]> counts(Object... nameCountPairs) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < nameCountPairs.length; i += 2) {
+            rows.add(new Object[] {nameCountPairs[i], nameCountPairs[i + 1]});
+        }
+        return rows;
+    }
+
+    private static List<String> names(List<IngredientSuggestionDto> out) {
+        return out.stream().map(IngredientSuggestionDto::getIngredientName)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Prefix matches rank name prefixes first, then verified, then usage")
+    void suggest_ranksPrefixMatches() {
+        when(ingredientRepository.findAll()).thenReturn(List.of(
+                ingredient(1, "Chicken Breast", false),
+                ingredient(2, "chickpeas", true),
+                ingredient(3, "chicken thigh", false),
+                ingredient(4, "Smoked Chicken", true),
+                ingredient(5, "rice", true)));
+        when(recipeIngredientRepository.countRecipesPerIngredient())
+                .thenReturn(counts("chicken thigh", 12L, "chicken breast", 3L));
+
+        List<IngredientSuggestionDto> out = index.suggest("  CHIC", 10);
+
+        assertEquals(List.of("chickpeas", "chicken thigh", "Chicken Breast",
+                "Smoked Chicken"), names(out));
+        assertEquals(12L, out.get(1).getRecipeCount());
+        assertFalse(out.get(0).isFuzzy());
+    }
+
+    @Test
+    @DisplayName("Typos fall back to edit-distance matches")
+    void suggest_typoFallback() {
+        when(ingredientRepository.findAll()).thenReturn(List.of(
+                ingredient(1, "chicken breast", true),
+                ingredient(2, "broccoli", true),
+                ingredient(3, "brown rice", true)));
+
+        List<IngredientSuggestionDto> typo = index.suggest("chiken", 5);
+        List<IngredientSuggestionDto> missing = index.suggest("brocoli", 5);
+        List<IngredientSuggestionDto> wordTypo = index.suggest("braest", 5);
+
+        assertEquals(List.of("chicken breast"), names(typo));
+        assertTrue(typo.get(0).isFuzzy());
+        assertEquals(List.of("broccoli"), names(missing));
+        assertEquals(List.of("chicken breast"), names(wordTypo));
+        assertTrue(index.suggest("xyzzy", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("The index rebuilds after the dictionary changes and reloads counts when stale")
+    void suggest_rebuildsWhenStale() {
+        when(ingredientRepository.findAll())
+                .thenReturn(List.of(ingredient(1, "oats", true)))
+                .thenReturn(List.of(ingredient(1, "oats", true),
+                        ingredient(2, "oat milk", true)));
+
+        assertEquals(List.of("oats"), names(index.suggest("oat", 5)));
+        dictionary.reload();
+        assertEquals(List.of("oats", "oat milk"),
+                names(index.suggest("oat", 5)));
+        verify(recipeIngredientRepository, times(1))
+                .countRecipesPerIngredient();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        index.suggest("oat", 5);
+        verify(recipeIngredientRepository, times(2))
+                .countRecipesPerIngredient();
+    }
+
+    @Test
+    @DisplayName("A stale index keeps serving while the rebuild runs in the background")
+    void suggest_servesPreviousIndexDuringRebuild() {
+        List<Runnable> queued = new ArrayList<>();
+        index = new IngredientAutocompleteIndex(dictionary,
+                recipeIngredientRepository, 60, clock::get, queued::add);
+        when(ingredientRepository.findAll())
+                .thenReturn(List.of(ingredient(1, "oats", true)))
+                .thenReturn(List.of(ingredient(1, "oats", true),
+                        ingredient(2, "oat milk", true)));
+
+        assertEquals(List.of("oats"), names(index.suggest("oat", 5)));
+        dictionary.reload();
+        assertEquals(List.of("oats"), names(index.suggest("oat", 5)));
+        assertEquals(List.of("oats"), names(index.suggest("oat", 5)));
+        assertEquals(1, queued.size());
+
+        queued.get(0).run();
+        assertEquals(List.of("oats", "oat milk"),
+                names(index.suggest("oat", 5)));
+    }
+
+    @Test
+    @DisplayName("Short prefixes rank every matching key, not just the alphabetically first")
+    void suggest_shortPrefixRanksWholeRange() {
+        List<IngredientNutrition> catalog = new ArrayList<>();
+        for (int i = 0; i < 25_000; i++) {
+            catalog.add(ingredient(i, String.format("a%05d", i), false));
+        }
+        catalog.add(ingredient(25_000, "azuki beans", true));
+        when(ingredientRepository.findAll()).thenReturn(catalog);
+
+        assertEquals("azuki beans",
+                index.suggest("a", 5).get(0).getIngredientName());
+        assertEquals("azuki beans",
+                index.suggest("az", 5).get(0).getIngredientName());
+    }
+}
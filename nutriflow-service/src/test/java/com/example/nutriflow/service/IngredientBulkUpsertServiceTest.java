@@ -0,0 +1,256 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.ingredient.dto.IngredientBulkUpsertResultDto;
+import com.example.nutriflow.ingredient.model.IngredientChangeBatchEvent;
+import com.example.nutriflow.ingredient.model.IngredientChangedEvent;
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.repository.IngredientChangeOutboxRepository;
+import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import com.example.nutriflow.ingredient.service.IngredientBulkUpsertService;
+import com.example.nutriflow.ingredient.service.IngredientChangePublisher;
+import com.example.nutriflow.ingredient.service.IngredientNutritionDictionary;
+import com.example.nutriflow.recipe.dto.NutritionRecomputeResultDto;
+import com.example.nutriflow.recipe.service.RecipeNutritionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link IngredientBulkUpsertService} with a mocked JDBC
+ * layer.
+ */
+class IngredientBulkUpsertServiceTest {
+
+    private static final int COLUMNS = 24;
+
+    private DataSource dataSource;
+    private Connection connection;
+    private IngredientNutritionRepository repository;
+    private IngredientNutritionDictionary dictionary;
+    private RecipeNutritionService recipeNutritionService;
+    private ApplicationEventPublisher eventPublisher;
+    private final List<String> statements = new ArrayList<>();
+    private final List<String> boundNames = new ArrayList<>();
+    private final AtomicInteger nextId = new AtomicInteger(100);
+    private IngredientBulkUpsertService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        repository = mock(IngredientNutritionRepository.class);
+        recipeNutritionService = mock(RecipeNutritionService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        dictionary = new IngredientNutritionDictionary(repository);
+
+        when(repository.findAll()).thenReturn(
+                List.of(ingredient(1, "Egg", "155")));
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString())).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            statements.add(sql);
+            return sql.contains("ingredient_change_outbox")
+                    ? mock(PreparedStatement.class) : upsertStatement(sql);
+        });
+        when(recipeNutritionService.recomputeForIngredients(any()))
+                .thenReturn(new NutritionRecomputeResultDto(3, 2, 0));
+
+        service = service(false);
+    }
+
+    private IngredientBulkUpsertService service(boolean outbox) {
+        IngredientChangePublisher publisher = new IngredientChangePublisher(
+                eventPublisher, mock(IngredientChangeOutboxRepository.class),
+                outbox, "instance-1");
+        return new IngredientBulkUpsertService(dataSource, dictionary,
+                recipeNutritionService, publisher, 2);
+    }
+
+    private List<IngredientChangedEvent> publishedEvents() {
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, atLeast(0)).publishEvent(events.capture());
+        List<IngredientChangedEvent> changes = new ArrayList<>();
+        for (Object event : events.getAllValues()) {
+            changes.addAll(((IngredientChangeBatchEvent) event).getChanges());
+        }
+        return changes;
+    }
+
+    private static IngredientNutrition ingredient(Integer id, String name,
+                                                  String calories) {
+        IngredientNutrition n = new IngredientNutrition();
+        n.setIngredientId(id);
+        n.setIngredientName(name);
+        n.setCalories(calories == null ? null : new BigDecimal(calories));
+        return n;
+    }
+
+    /**
+     * A statement that records the bound names and returns one row per
+     * name, flagged as inserted unless the dictionary knows it.
+     */
+    private PreparedStatement upsertStatement(String sql) throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        List<String> names = new ArrayList<>();
+        int perRow = sql.contains("DEFAULT") ? COLUMNS - 1 : COLUMNS;
+        doAnswer(inv -> {
+            int index = inv.getArgument(0);
+            if (index % perRow == 1) {
+                names.add(inv.getArgument(1));
+                boundNames.add(inv.getArgument(1));
+            }
+            return null;
+        }).when(statement).setString(anyInt(), any());
+        when(statement.executeQuery()).thenAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            int[] row = {-1};
+            when(rs.next()).thenAnswer(n -> ++row[0] < names.size());
+            when(rs.getBoolean("inserted")).thenAnswer(n ->
+                    dictionary.get(names.get(row[0])).isEmpty());
+            when(rs.getString("ingredient_name"))
+                    .thenAnswer(n -> names.get(row[0]));
+            when(rs.getInt("ingredient_id")).thenAnswer(n -> dictionary
+                    .get(names.get(row[0]))
+                    .map(e -> e.getIngredientId())
+                    .orElseGet(nextId::getAndIncrement));
+            when(rs.getBigDecimal("calories")).thenReturn(BigDecimal.TEN);
+            return rs;
+        });
+        return statement;
+    }
+
+    @Test
+    @DisplayName("Bulk upsert writes chunks, counts inserts and updates, and recomputes recipes")
+    void upsert_chunksAndCounts() throws Exception {
+        List<IngredientNutrition> records = List.of(
+                ingredient(null, "egg", null),
+                ingredient(null, "Tofu", "76"),
+                ingredient(null, "Lentils", "116"),
+                ingredient(null, "  ", "1"),
+                ingredient(null, "Kale", null),
+                ingredient(null, "Oats", "-5"));
+
+        IngredientBulkUpsertResultDto result =
+                service.upsert(records, "usda-sync");
+
+        assertEquals(3, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(2, result.getRejectedRecords());
+        assertEquals(2, result.getRecipesUpdated());
+        assertTrue(result.getErrors().get(0).startsWith("record 4:"));
+        assertTrue(result.getErrors().get(1).startsWith("record 6:"));
+
+        // the existing row is addressed by its stored spelling; records
+        // without calories go through their own statement
+        assertEquals(List.of("Tofu", "Egg", "Lentils", "Kale"), boundNames);
+        assertEquals(4, statements.size());
+        assertTrue(statements.get(0).contains(
+                "ON CONFLICT (ingredient_name) DO UPDATE SET"));
+        assertTrue(statements.get(0).contains(
+                "protein = COALESCE(EXCLUDED.protein, i.protein)"));
+        assertTrue(statements.get(0).contains(
+                "calories = COALESCE(EXCLUDED.calories, i.calories)"));
+        assertFalse(statements.get(0).contains("is_verified = "));
+        assertTrue(statements.get(1).contains("DEFAULT"));
+        assertFalse(statements.get(1).contains("calories = "));
+        assertEquals(COLUMNS - 1, statements.get(1).chars()
+                .filter(c -> c == '?').count());
+        verify(connection, times(2)).commit();
+        verify(connection).setAutoCommit(true);
+
+        assertEquals(100, dictionary.get("tofu").orElseThrow()
+                .getIngredientId());
+        verify(recipeNutritionService).recomputeForIngredients(
+                argThat((Collection<String> names) -> names.equals(
+                        Set.of("Egg", "Tofu", "Lentils", "Kale"))));
+    }
+
+    @Test
+    @DisplayName("Each committed chunk is announced as one batch, and written to the outbox when enabled")
+    void upsert_publishesChanges() throws Exception {
+        service(true).upsert(List.of(
+                ingredient(null, "egg", null),
+                ingredient(null, "Tofu", "76")), "usda-sync");
+
+        List<IngredientChangedEvent> events = publishedEvents();
+        verify(eventPublisher).publishEvent(
+                any(IngredientChangeBatchEvent.class));
+        assertEquals(2, events.size());
+        assertEquals(IngredientChangedEvent.Type.CREATED,
+                events.get(0).getType());
+        assertEquals("Tofu", events.get(0).getIngredientName());
+        assertEquals("instance-1", events.get(0).getOrigin());
+        assertEquals(IngredientChangedEvent.Type.UPDATED,
+                events.get(1).getType());
+        assertEquals(1, events.get(1).getIngredientId());
+        assertTrue(statements.get(2).startsWith(
+                "INSERT INTO nutriflow.ingredient_change_outbox"));
+    }
+
+    @Test
+    @DisplayName("Repeated names are dropped across the whole upload; the last record wins")
+    void upsert_repeatedName_lastRecordWins() {
+        IngredientBulkUpsertResultDto result = service.upsert(List.of(
+                ingredient(null, "Tofu", "76"),
+                ingredient(null, "Lentils", "116"),
+                ingredient(null, "Oats", "389"),
+                ingredient(null, "TOFU ", "80")), "system");
+
+        assertEquals(1, result.getDuplicateRecords());
+        assertEquals(3, result.getInserted());
+        assertEquals(List.of("TOFU", "Lentils", "Oats"), boundNames);
+        assertEquals(2, statements.size());
+    }
+
+    @Test
+    @DisplayName("Range errors name the request field")
+    void upsert_outOfRange_namesRequestField() {
+        IngredientNutrition carrot = ingredient(null, "Carrot", "41");
+        carrot.setVitaminA(new BigDecimal("-1"));
+
+        IngredientBulkUpsertResultDto result =
+                service.upsert(List.of(carrot), "system");
+
+        assertEquals(1, result.getRejectedRecords());
+        assertTrue(result.getErrors().get(0).contains("vitaminA must be"),
+                result.getErrors().get(0));
+    }
+
+    @Test
+    @DisplayName("A failing chunk is rolled back and reported")
+    void upsert_sqlError_rollsBack() throws Exception {
+        when(connection.prepareStatement(anyString()))
+                .thenThrow(new SQLException("boom"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service.upsert(
+                        List.of(ingredient(null, "Tofu", "76")), "system"));
+
+        assertTrue(e.getMessage().contains("boom"));
+        verify(connection).rollback();
+        verify(connection).setAutoCommit(true);
+        verifyNoInteractions(recipeNutritionService);
+        verifyNoInteractions(eventPublisher);
+        assertThrows(IllegalArgumentException.class,
+                () -> service.upsert(List.of(), "system"));
+    }
+}
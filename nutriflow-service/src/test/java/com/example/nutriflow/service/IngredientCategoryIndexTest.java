@@ -0,0 +1,90 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.ingredient.dto.IngredientCategoryFacetDto;
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.model.IngredientNutritionSnapshot;
+import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import com.example.nutriflow.ingredient.service.IngredientCategoryIndex;
+import com.example.nutriflow.ingredient.service.IngredientNutritionDictionary;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link IngredientCategoryIndex}.
+ */
+class IngredientCategoryIndexTest {
+
+    private IngredientNutritionRepository repository;
+    private IngredientNutritionDictionary dictionary;
+    private IngredientCategoryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IngredientNutritionRepository.class);
+        dictionary = new IngredientNutritionDictionary(repository);
+        index = new IngredientCategoryIndex(dictionary);
+    }
+
+    private static IngredientNutrition ingredient(int id, String name,
+                                                  String category) {
+        IngredientNutrition n = new IngredientNutrition();
+        n.setIngredientId(id);
+        n.setIngredientName(name);
+        n.setIngredientCategory(category);
+        n.setCalories(BigDecimal.ONE);
+        return n;
+    }
+
+    private static List<Integer> ids(List<IngredientNutritionSnapshot> l) {
+        return l.stream()
+                .map(IngredientNutritionSnapshot::getIngredientId)
+                .toList();
+    }
+
+    @Test
+    @DisplayName("Facets are ordered by count, then name; members by ID")
+    void facetsAndListings() {
+        when(repository.findAll()).thenReturn(List.of(
+                ingredient(7, "salmon", "fish"),
+                ingredient(3, "apple", "fruit"),
+                ingredient(9, "pear", "fruit"),
+                ingredient(1, "kiwi", "fruit"),
+                ingredient(5, "cod", "fish"),
+                ingredient(4, "beef", "meat"),
+                ingredient(8, "salt", null)));
+
+        assertEquals(List.of(
+                new IngredientCategoryFacetDto("fruit", 3),
+                new IngredientCategoryFacetDto("fish", 2),
+                new IngredientCategoryFacetDto("meat", 1)),
+                index.facets());
+        assertEquals(List.of(1, 3, 9), ids(index.list("fruit", 0, 10)));
+        assertEquals(List.of(9), ids(index.list("fruit", 2, 5)));
+        assertTrue(index.list("fruit", 3, 5).isEmpty());
+        assertTrue(index.list("Fruit", 0, 5).isEmpty());
+        assertEquals(0, index.count("dairy"));
+    }
+
+    @Test
+    @DisplayName("The index follows dictionary changes")
+    void rebuildsAfterDictionaryChange() {
+        when(repository.findAll())
+                .thenReturn(List.of(ingredient(1, "kiwi", "fruit")))
+                .thenReturn(List.of(ingredient(1, "kiwi", "fruit"),
+                        ingredient(2, "milk", "dairy")));
+        assertEquals(1, index.facets().size());
+
+        dictionary.reload();
+
+        assertEquals(1, index.count("dairy"));
+        assertEquals(List.of(2), ids(index.list("dairy", 0, 1)));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.ingredient.model.IngredientChangeBatchEvent;
+import com.example.nutriflow.ingredient.model.IngredientChangeOutboxEntry;
+import com.example.nutriflow.ingredient.model.IngredientChangedEvent;
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.repository.IngredientChangeOutboxRepository;
+import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import com.example.nutriflow.ingredient.service.IngredientChangeFollower;
+import com.example.nutriflow.ingredient.service.IngredientChangePublisher;
+import com.example.nutriflow.ingredient.service.IngredientNutritionDictionary;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link IngredientChangePublisher} and
+ * {@link IngredientChangeFollower}.
+ */
+class IngredientChangeFollowerTest {
+
+    private ApplicationEventPublisher eventPublisher;
+    private IngredientChangeOutboxRepository outbox;
+    private IngredientNutritionRepository ingredients;
+    private IngredientNutritionDictionary dictionary;
+    private IngredientChangePublisher publisher;
+    private IngredientChangeFollower follower;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        outbox = mock(IngredientChangeOutboxRepository.class);
+        ingredients = mock(IngredientNutritionRepository.class);
+        dictionary = new IngredientNutritionDictionary(ingredients);
+        publisher = new IngredientChangePublisher(eventPublisher, outbox,
+                true, "local");
+        follower = new IngredientChangeFollower(publisher, outbox,
+                ingredients, dictionary, 0, 24);
+    }
+
+    private static IngredientNutrition ingredient(int id, String name,
+                                                  String kcal) {
+        IngredientNutrition n = new IngredientNutrition();
+        n.setIngredientId(id);
+        n.setIngredientName(name);
+        n.setCalories(new BigDecimal(kcal));
+        return n;
+    }
+
+    private static IngredientChangeOutboxEntry entry(long changeId,
+            IngredientChangedEvent.Type type, int ingredientId,
+            String name, String origin) {
+        return new IngredientChangeOutboxEntry(changeId, type, ingredientId,
+                name, null, LocalDateTime.now(), origin, 100 + changeId);
+    }
+
+    @Test
+    @DisplayName("Publishing writes the outbox and notifies listeners")
+    void publish_writesOutbox() {
+        IngredientChangedEvent event = publisher.publish(
+                IngredientChangedEvent.Type.UPDATED, 7, "kale", "kail");
+
+        assertEquals("local", event.getOrigin());
+        verify(outbox).save(any(IngredientChangeOutboxEntry.class));
+        verify(eventPublisher).publishEvent(event);
+    }
+
+    @Test
+    @DisplayName("Changes of other instances reach the dictionary and listeners")
+    void poll_appliesRemoteChanges() {
+        when(ingredients.findAll()).thenReturn(List.of(
+                ingredient(1, "rice", "130"), ingredient(2, "oats", "389")));
+        when(outbox.findOldestActiveTransaction()).thenReturn(111L);
+        IngredientChangeOutboxEntry remoteUpdate = entry(11,
+                IngredientChangedEvent.Type.UPDATED, 1, "rice", "remote");
+        IngredientChangeOutboxEntry ownUpdate = entry(12,
+                IngredientChangedEvent.Type.UPDATED, 2, "oats", "local");
+        IngredientChangeOutboxEntry remoteDelete = entry(13,
+                IngredientChangedEvent.Type.DELETED, 2, "oats", "remote");
+        when(outbox.findCommittedAfter(110L, Long.MAX_VALUE, 500))
+                .thenReturn(List.of(remoteUpdate, ownUpdate, remoteDelete));
+        when(ingredients.findAllById(Set.of(1)))
+                .thenReturn(List.of(ingredient(1, "rice", "140")));
+
+        assertEquals(0, follower.poll());
+        assertEquals(2, follower.poll());
+
+        assertEquals(new BigDecimal("140"),
+                dictionary.get("rice").orElseThrow().getCalories());
+        assertTrue(dictionary.get("oats").isEmpty());
+        // one batch event with the remote changes only
+        verify(eventPublisher).publishEvent(new IngredientChangeBatchEvent(
+                List.of(remoteUpdate.toEvent(), remoteDelete.toEvent())));
+        verify(outbox).findCommittedAfter(anyLong(), anyLong(), anyInt());
+    }
+}
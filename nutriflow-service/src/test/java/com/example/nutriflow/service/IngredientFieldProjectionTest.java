@@ -0,0 +1,40 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.service.IngredientFieldProjection;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for {@link IngredientFieldProjection}.
+ */
+class IngredientFieldProjectionTest {
+
+    @Test
+    @DisplayName("Projection keeps the ID and expands the macros alias")
+    void parse_expandsMacros() {
+        IngredientNutrition n = new IngredientNutrition();
+        n.setIngredientId(4);
+        n.setIngredientName("oats");
+        n.setCalories(new BigDecimal("389"));
+        n.setProtein(new BigDecimal("16.9"));
+        n.setSodium(BigDecimal.ONE);
+
+        Map<String, Object> projected = IngredientFieldProjection
+                .parse("ingredientName, macros").apply(n);
+
+        assertEquals(List.of("ingredientId", "ingredientName", "calories",
+                "protein", "carbohydrates", "fat"),
+                List.copyOf(projected.keySet()));
+        assertEquals("oats", projected.get("ingredientName"));
+        assertEquals(new BigDecimal("16.9"), projected.get("protein"));
+        assertThrows(IllegalArgumentException.class,
+                () -> IngredientFieldProjection.parse("name,password"));
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.ingredient.dto.IngredientCategoryPageDto;
+import com.example.nutriflow.ingredient.dto.IngredientChangeFeedDto;
+import com.example.nutriflow.ingredient.dto.IngredientKeysetPageDto;
+import com.example.nutriflow.ingredient.dto.NutritionBatchResultDto;
+import com.example.nutriflow.ingredient.dto.NutritionLineRequestDto;
+import com.example.nutriflow.ingredient.model.IngredientChangeOutboxEntry;
+import com.example.nutriflow.ingredient.model.IngredientChangedEvent;
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.repository.IngredientChangeOutboxRepository;
+import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import com.example.nutriflow.ingredient.service.IngredientCategoryIndex;
+import com.example.nutriflow.ingredient.service.IngredientChangePublisher;
+import com.example.nutriflow.ingredient.service.IngredientNutritionDictionary;
+import com.example.nutriflow.ingredient.service.IngredientNutritionService;
+import com.example.nutriflow.ingredient.service.UnitConverter;
+import com.example.nutriflow.recipe.service.RecipeNutritionService;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link IngredientNutritionService} name lookups and
+ * nutrition calculation through the {@link IngredientNutritionDictionary}.
+ */
+@ExtendWith(MockitoExtension.class)
+class IngredientNutritionServiceTest {
+
+    @Mock
+    private IngredientNutritionRepository ingredientNutritionRepository;
+
+    @Mock
+    private RecipeNutritionService recipeNutritionService;
+
+    @Mock
+    private IngredientChangePublisher changePublisher;
+
+    @Mock
+    private IngredientChangeOutboxRepository changeOutboxRepository;
+
+    @InjectMocks
+    private IngredientNutritionService ingredientNutritionService;
+
+    private IngredientNutritionDictionary dictionary;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new IngredientNutritionDictionary(
+                ingredientNutritionRepository);
+        ReflectionTestUtils.setField(ingredientNutritionService,
+                "ingredientDictionary", dictionary);
+        ReflectionTestUtils.setField(ingredientNutritionService,
+                "unitConverter", new UnitConverter(dictionary));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static IngredientNutrition ingredient(Integer id, String name,
+                                                  String kcal) {
+        IngredientNutrition n = new IngredientNutrition();
+        n.setIngredientId(id);
+        n.setIngredientName(name);
+        n.setCalories(new BigDecimal(kcal));
+        return n;
+    }
+
+    private void stubSaveReturnsArgument() {
+        when(ingredientNutritionRepository.save(any()))
+                .thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    @DisplayName("Name lookups are case-folded and load the catalog once")
+    void getIngredientByName_usesDictionary() {
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(ingredient(1, "Chicken Breast", "165")));
+
+        Optional<IngredientNutrition> first =
+                ingredientNutritionService.getIngredientByName(
+                        " chicken BREAST ");
+        Optional<IngredientNutrition> second =
+                ingredientNutritionService.getIngredientByName(
+                        "Chicken Breast");
+        Optional<IngredientNutrition> missing =
+                ingredientNutritionService.getIngredientByName("tofu");
+
+        assertEquals(1, first.get().getIngredientId());
+        assertNotSame(first.get(), second.get());
+        assertTrue(missing.isEmpty());
+        verify(ingredientNutritionRepository, times(1)).findAll();
+        verify(ingredientNutritionRepository, never())
+                .findByIngredientNameIgnoreCase(anyString());
+    }
+
+    @Test
+    @DisplayName("Creating an existing name updates the existing row")
+    void saveIngredient_existingName_updatesExisting() {
+        IngredientNutrition stored = ingredient(4, "tofu", "76");
+        stored.setProtein(new BigDecimal("8.0"));
+        // the dictionary copy is stale; the row in the database is current
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(ingredient(4, "tofu", "70")));
+        when(ingredientNutritionRepository
+                .findByIngredientNameIgnoreCase("Tofu"))
+                .thenReturn(Optional.of(stored));
+        stubSaveReturnsArgument();
+
+        IngredientNutrition saved = ingredientNutritionService.saveIngredient(
+                ingredient(null, "Tofu", "80"), "tester");
+
+        assertSame(stored, saved);
+        assertEquals(new BigDecimal("8.0"), saved.getProtein());
+        assertEquals(new BigDecimal("80"), ingredientNutritionService
+                .getIngredientByName("TOFU").get().getCalories());
+        verify(changePublisher).publish(IngredientChangedEvent.Type.UPDATED,
+                4, "tofu", null);
+    }
+
+    @Test
+    @DisplayName("A rename moves the entry to the new name")
+    void saveIngredient_rename_movesEntry() {
+        IngredientNutrition milk = ingredient(2, "milk", "42");
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(milk));
+        when(ingredientNutritionRepository.findById(2))
+                .thenReturn(Optional.of(milk));
+        stubSaveReturnsArgument();
+
+        ingredientNutritionService.saveIngredient(
+                ingredient(2, "Whole Milk", "61"), "tester");
+
+        assertTrue(ingredientNutritionService.getIngredientByName("milk")
+                .isEmpty());
+        assertEquals(new BigDecimal("61"), ingredientNutritionService
+                .getIngredientByName("whole milk").get().getCalories());
+        verify(recipeNutritionService)
+                .scheduleRecompute("Whole Milk", "milk");
+        verify(changePublisher).publish(IngredientChangedEvent.Type.UPDATED,
+                2, "Whole Milk", "milk");
+    }
+
+    @Test
+    @DisplayName("A category change is patched into the category pages")
+    void saveIngredient_categoryChange_patchesCategoryIndex() {
+        ReflectionTestUtils.setField(ingredientNutritionService,
+                "categoryIndex", new IngredientCategoryIndex(dictionary));
+        IngredientNutrition milk = ingredient(2, "milk", "42");
+        milk.setIngredientCategory("dairy");
+        IngredientNutrition cheese = ingredient(5, "cheese", "400");
+        cheese.setIngredientCategory("dairy");
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(milk, cheese));
+        when(ingredientNutritionRepository.findById(2))
+                .thenReturn(Optional.of(milk));
+        stubSaveReturnsArgument();
+        assertEquals(2, ingredientNutritionService
+                .getCategoryPage("dairy", 0, 10).getTotalElements());
+
+        IngredientNutrition oatMilk = ingredient(2, "milk", "42");
+        oatMilk.setIngredientCategory("plant");
+        ingredientNutritionService.saveIngredient(oatMilk, "tester");
+
+        IngredientCategoryPageDto dairy =
+                ingredientNutritionService.getCategoryPage("dairy", 0, 10);
+        assertEquals(1, dairy.getTotalElements());
+        assertEquals("cheese",
+                dairy.getIngredients().get(0).getIngredientName());
+        assertEquals(1, ingredientNutritionService
+                .getCategoryPage("plant", 0, 10).getTotalElements());
+        verify(ingredientNutritionRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Deleting an ingredient drops it from the dictionary")
+    void deleteIngredient_removesEntry() {
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(ingredient(3, "rice", "130")));
+        // the row is read from the database, not the dictionary
+        when(ingredientNutritionRepository.findById(3))
+                .thenReturn(Optional.of(ingredient(3, "rice", "130")));
+
+        assertTrue(ingredientNutritionService.getIngredientByName("rice")
+                .isPresent());
+        ingredientNutritionService.deleteIngredient(3);
+
+        assertTrue(ingredientNutritionService.getIngredientByName("rice")
+                .isEmpty());
+        verify(changePublisher).publish(IngredientChangedEvent.Type.DELETED,
+                3, "rice", null);
+    }
+
+    @Test
+    @DisplayName("The change feed is unavailable without the outbox")
+    void getChanges_outboxDisabled_throws() {
+        assertThrows(IllegalStateException.class,
+                () -> ingredientNutritionService.getChanges(null, 10));
+    }
+
+    @Test
+    @DisplayName("The change feed cursor follows transaction and change ID")
+    void getChanges_cursorTracksTransactionOrder() {
+        when(changePublisher.isOutboxEnabled()).thenReturn(true);
+        IngredientChangeOutboxEntry late = new IngredientChangeOutboxEntry(
+                7L, IngredientChangedEvent.Type.UPDATED, 3, "rice", null,
+                LocalDateTime.now(), "remote", 905L);
+        when(changeOutboxRepository.findCommittedAfter(900L, 12L, 10))
+                .thenReturn(List.of(late));
+
+        IngredientChangeFeedDto feed =
+                ingredientNutritionService.getChanges("900-12", 10);
+
+        assertEquals(List.of(late), feed.getChanges());
+        assertEquals("905-7", feed.getNextAfter());
+        assertEquals("905-7", ingredientNutritionService
+                .getChanges("905-7", 10).getNextAfter());
+        assertThrows(IllegalArgumentException.class,
+                () -> ingredientNutritionService.getChanges("12", 10));
+    }
+
+    @Test
+    @DisplayName("An update reaches the dictionary only once it commits")
+    void updateNutritionValues_appliedAfterCommit() {
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(ingredient(5, "oats", "389")));
+        when(ingredientNutritionRepository.findById(5))
+                .thenReturn(Optional.of(ingredient(5, "oats", "389")));
+        stubSaveReturnsArgument();
+        TransactionSynchronizationManager.initSynchronization();
+
+        ingredientNutritionService.updateNutritionValues(
+                5, new BigDecimal("400"), null, null, null, "tester");
+        assertEquals(new BigDecimal("389"), ingredientNutritionService
+                .getIngredientByName("oats").get().getCalories());
+        for (TransactionSynchronization sync
+                : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+
+        assertEquals(new BigDecimal("400"), ingredientNutritionService
+                .getIngredientByName("oats").get().getCalories());
+    }
+
+    @Test
+    @DisplayName("A rolled back update never reaches the dictionary")
+    void updateNutritionValues_rollback_leavesEntry() {
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(ingredient(5, "oats", "389")));
+        when(ingredientNutritionRepository.findById(5))
+                .thenReturn(Optional.of(ingredient(5, "oats", "389")));
+        stubSaveReturnsArgument();
+        TransactionSynchronizationManager.initSynchronization();
+
+        ingredientNutritionService.updateNutritionValues(
+                5, new BigDecimal("400"), null, null, null, "tester");
+        for (TransactionSynchronization sync
+                : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+
+        assertEquals(new BigDecimal("389"), ingredientNutritionService
+                .getIngredientByName("oats").get().getCalories());
+    }
+
+    @Test
+    @DisplayName("Batch calculation converts units and sums every nutrient")
+    void calculateNutritionBatch_sumsLines() {
+        IngredientNutrition chicken = ingredient(1, "chicken breast", "165");
+        chicken.setIron(new BigDecimal("1.0"));
+        IngredientNutrition milk = ingredient(2, "milk", "42");
+        milk.setCalcium(new BigDecimal("125"));
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(chicken, milk));
+
+        NutritionBatchResultDto result =
+                ingredientNutritionService.calculateNutritionBatch(List.of(
+                        new NutritionLineRequestDto("Chicken Breast", 200.0,
+                                null),
+                        new NutritionLineRequestDto("milk", 1.0, "cup")));
+
+        assertEquals(0, result.getUnresolvedLines());
+        assertEquals(new BigDecimal("330.00"),
+                result.getLines().get(0).getNutrients().getCalories());
+        assertEquals(new BigDecimal("240.00"),
+                result.getLines().get(1).getGrams());
+        assertEquals(new BigDecimal("430.80"),
+                result.getTotals().getCalories());
+        assertEquals(new BigDecimal("2.00"), result.getTotals().getIron());
+        assertEquals(new BigDecimal("300.00"),
+                result.getTotals().getCalcium());
+        assertEquals(new BigDecimal("0.00"),
+                result.getTotals().getPotassium());
+        verify(ingredientNutritionRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Unresolved batch lines carry an error and skip the totals")
+    void calculateNutritionBatch_reportsUnresolvedLines() {
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(ingredient(1, "rice", "130")));
+
+        NutritionBatchResultDto result =
+                ingredientNutritionService.calculateNutritionBatch(List.of(
+                        new NutritionLineRequestDto("rice", 100.0, "g"),
+                        new NutritionLineRequestDto("unobtainium", 5.0, "g"),
+                        new NutritionLineRequestDto("rice", 2.0, "pinch"),
+                        new NutritionLineRequestDto("rice", -1.0, "g")));
+
+        assertEquals(3, result.getUnresolvedLines());
+        assertEquals(new BigDecimal("130.00"),
+                result.getTotals().getCalories());
+        assertEquals("Ingredient not found: unobtainium",
+                result.getLines().get(1).getError());
+        assertEquals("Unsupported unit: pinch",
+                result.getLines().get(2).getError());
+        assertNull(result.getLines().get(3).getNutrients());
+    }
+
+    @Test
+    @DisplayName("Empty batches are rejected")
+    void calculateNutritionBatch_empty_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ingredientNutritionService.calculateNutritionBatch(
+                        List.of()));
+    }
+
+    @Test
+    @DisplayName("Keyset pages fetch one extra row to find the next cursor")
+    void getIngredientsPage_returnsCursor() {
+        when(ingredientNutritionRepository.findPageAfter(eq(10),
+                eq(PageRequest.of(0, 3)))).thenReturn(List.of(
+                        ingredient(11, "rice", "130"),
+                        ingredient(14, "oats", "389"),
+                        ingredient(15, "kale", "49")));
+
+        IngredientKeysetPageDto page =
+                ingredientNutritionService.getIngredientsPage(10, 2,
+                        "ingredientName");
+
+        assertEquals(14, page.getNextAfter());
+        assertEquals(2, page.getIngredients().size());
+        assertEquals(Map.of("ingredientId", 11, "ingredientName", "rice"),
+                page.getIngredients().get(0));
+    }
+
+    @Test
+    @DisplayName("The last keyset page has no cursor")
+    void getIngredientsPage_lastPage() {
+        when(ingredientNutritionRepository.findPageAfter(eq(Integer.MIN_VALUE),
+                any())).thenReturn(List.of(ingredient(1, "rice", "130")));
+
+        IngredientKeysetPageDto page =
+                ingredientNutritionService.getIngredientsPage(null, 5, null);
+
+        assertNull(page.getNextAfter());
+        assertTrue(page.getIngredients().get(0)
+                instanceof IngredientNutrition);
+        assertThrows(IllegalArgumentException.class,
+                () -> ingredientNutritionService.getIngredientsPage(null,
+                        0, null));
+    }
+}
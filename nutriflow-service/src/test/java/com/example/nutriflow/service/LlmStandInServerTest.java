@@ -0,0 +1,90 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.recipe.llm.HttpStandInRecipeClient;
+import com.example.nutriflow.recipe.llm.LlmStandInServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmStandInServerTest {
+
+    private LlmStandInServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    private HttpStandInRecipeClient startServer(final double errorRate)
+            throws Exception {
+        server = new LlmStandInServer(0, 2, 0, 5, 0, 0, errorRate, 42L);
+        server.start();
+        return new HttpStandInRecipeClient(
+                "http://localhost:" + server.getPort() + "/generate", 5);
+    }
+
+    @Test
+    @DisplayName("Stand-in returns the same canned recipe JSON for the same prompt")
+    void generate_returnsCannedRecipe() throws Exception {
+        HttpStandInRecipeClient client = startServer(0);
+
+        String first = client.generateRecipeJson("recipe with chicken");
+        String second = client.generateRecipeJson("recipe with chicken");
+
+        JsonNode node = new ObjectMapper().readTree(first);
+        assertTrue(node.hasNonNull("title"));
+        assertTrue(node.get("ingredients").isArray());
+        assertEquals(first, second);
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Stand-in failures surface as IllegalStateException")
+    void generate_errorRateOne_throws() throws Exception {
+        HttpStandInRecipeClient client = startServer(1.0);
+
+        assertThrows(IllegalStateException.class,
+                () -> client.generateRecipeJson("anything"));
+        assertEquals(1, server.getErrorCount());
+    }
+
+    @Test
+    @DisplayName("Stand-in answers a multi-recipe request with a JSON array")
+    void generateList_returnsArrayOfCount() throws Exception {
+        HttpStandInRecipeClient client = startServer(0);
+
+        JsonNode recipes = new ObjectMapper().readTree(
+                client.generateRecipeListJson("three recipes", 3));
+
+        assertTrue(recipes.isArray());
+        assertEquals(3, recipes.size());
+        assertTrue(recipes.get(2).hasNonNull("title"));
+    }
+
+    @Test
+    @DisplayName("Stand-in streams a recipe in chunks that join to the full JSON")
+    void stream_forwardsChunksOfRecipe() throws Exception {
+        server = new LlmStandInServer(0, 2, 160, 160, 0, 0, 0, 42L);
+        server.start();
+        HttpStandInRecipeClient client = new HttpStandInRecipeClient(
+                "http://localhost:" + server.getPort() + "/generate", 5);
+        List<String> chunks = new ArrayList<>();
+
+        String json = client.streamRecipeJson("recipe with chicken",
+                chunks::add);
+
+        assertTrue(chunks.size() > 1);
+        assertEquals(json, String.join("", chunks));
+        assertEquals(client.generateRecipeJson("recipe with chicken"), json);
+        assertTrue(new ObjectMapper().readTree(json).hasNonNull("title"));
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.nutriflow.service;
 
+import com.example.nutriflow.ingredient.model.Nutrient;
 import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.service.RecipeNutrientMatrix;
 import com.example.nutriflow.user.model.User;
 import com.example.nutriflow.user.model.UserTarget;
 import com.example.nutriflow.mealplan.model.DailyMealPlan;
 import com.example.nutriflow.mealplan.model.Meal;
+import com.example.nutriflow.mealplan.dto.DailyMealPlanDetailDto;
 import com.example.nutriflow.mealplan.dto.MealPlanAlternativeRequestDto;
 import com.example.nutriflow.mealplan.dto.MealPlanRequestDto;
 import com.example.nutriflow.mealplan.dto.MealPlanResponseDto;
@@ -34,6 +37,7 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
@@ -62,6 +66,9 @@ class MealPlanServiceTest {
     @Mock
     private UserTargetRepository userTargetRepository;
 
+    @Mock
+    private RecipeNutrientMatrix recipeNutrientMatrix;
+
     @InjectMocks
     private MealPlanService mealPlanService;
 
@@ -182,6 +189,84 @@ class MealPlanServiceTest {
         verify(dailyMealPlanRepository).save(any(DailyMealPlan.class));
     }
 
+    @Test
+    @DisplayName("Daily plans total every nutrient and score it against the targets")
+    void generateDailyMealPlan_scoresNutrients() {
+        MealPlanRequestDto request = new MealPlanRequestDto();
+        request.setUserId(1);
+        request.setMealsPerDay(2);
+        request.setNumberOfDays(1);
+        request.setStartDate(LocalDate.now());
+        testTarget.setIron(new BigDecimal("18.00"));
+
+        when(userRepository.findById(1)).thenReturn(Optional.of(testUser));
+        when(userTargetRepository.findLatestByUserId(1)).thenReturn(Optional.of(testTarget));
+        when(recipeRepository.findAll()).thenReturn(testRecipes);
+        when(mealRepository.save(any(Meal.class)))
+            .thenAnswer(inv -> inv.getArgument(0));
+        when(dailyMealPlanRepository.save(any(DailyMealPlan.class)))
+            .thenAnswer(inv -> inv.getArgument(0));
+        // every recipe: 500 kcal and 4.5 mg iron per serving
+        when(recipeNutrientMatrix.addTo(anyInt(), anyDouble(), any()))
+            .thenAnswer(inv -> {
+                double[] totals = inv.getArgument(2);
+                totals[Nutrient.CALORIES.ordinal()] += 500;
+                totals[Nutrient.IRON.ordinal()] += 4.5;
+                return true;
+            });
+
+        MealPlanResponseDto response = mealPlanService.generateMealPlan(request);
+
+        DailyMealPlanDetailDto day = response.getDailyPlans().get(0);
+        assertThat(day.getNutrientTotals())
+            .containsEntry("iron", 9.0)
+            .containsEntry("vitaminC", 0.0)
+            .hasSize(Nutrient.values().length);
+        assertThat(day.getTargetCoverage())
+            .containsEntry("calories", 50.0)
+            .containsEntry("iron", 50.0)
+            .doesNotContainKey("sodium");
+        assertThat(response.getNutrientCoverage())
+            .containsEntry("iron", 50.0);
+    }
+
+    @Test
+    @DisplayName("Meals without a nutrient vector are left out and reported")
+    void generateDailyMealPlan_reportsUnscoredRecipes() {
+        MealPlanRequestDto request = new MealPlanRequestDto();
+        request.setUserId(1);
+        request.setMealsPerDay(2);
+        request.setNumberOfDays(1);
+        request.setStartDate(LocalDate.now());
+
+        when(userRepository.findById(1)).thenReturn(Optional.of(testUser));
+        when(userTargetRepository.findLatestByUserId(1)).thenReturn(Optional.of(testTarget));
+        when(recipeRepository.findAll()).thenReturn(testRecipes);
+        when(mealRepository.save(any(Meal.class)))
+            .thenAnswer(inv -> inv.getArgument(0));
+        when(dailyMealPlanRepository.save(any(DailyMealPlan.class)))
+            .thenAnswer(inv -> inv.getArgument(0));
+        // the first meal's recipe has no vector, the second 500 kcal
+        List<Integer> missing = new ArrayList<>();
+        when(recipeNutrientMatrix.addTo(anyInt(), anyDouble(), any()))
+            .thenAnswer(inv -> {
+                if (missing.isEmpty()) {
+                    missing.add(inv.getArgument(0));
+                    return false;
+                }
+                double[] totals = inv.getArgument(2);
+                totals[Nutrient.CALORIES.ordinal()] += 500;
+                return true;
+            });
+
+        MealPlanResponseDto response = mealPlanService.generateMealPlan(request);
+
+        DailyMealPlanDetailDto day = response.getDailyPlans().get(0);
+        assertThat(day.getUnscoredRecipeIds()).isEqualTo(missing);
+        assertThat(day.getNutrientTotals()).containsEntry("calories", 500.0);
+        assertThat(day.getTargetCoverage()).containsEntry("calories", 25.0);
+    }
+
     @Test
     @DisplayName("Generate weekly meal plan successfully")
     void generateWeeklyMealPlan_success() {
@@ -0,0 +1,101 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.shared.export.NdjsonExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link NdjsonExportWriter}.
+ */
+@ExtendWith(MockitoExtension.class)
+class NdjsonExportWriterTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    private NdjsonExportWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new NdjsonExportWriter(new ObjectMapper());
+        ReflectionTestUtils.setField(writer, "entityManager", entityManager);
+    }
+
+    @Test
+    void write_emitsOneGzippedLinePerRowAndDetaches() throws Exception {
+        Recipe a = new Recipe();
+        a.setRecipeId(1);
+        a.setTitle("Avocado Toast");
+        Recipe b = new Recipe();
+        b.setRecipeId(2);
+        b.setTitle("Greek Salad");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = writer.write(Stream.of(a, b), out);
+
+        assertEquals(2, count);
+        String text;
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(out.toByteArray()))) {
+            text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = text.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"title\":\"Avocado Toast\""));
+        assertTrue(lines[1].contains("\"title\":\"Greek Salad\""));
+        verify(entityManager, times(1)).detach(a);
+        verify(entityManager, times(1)).detach(b);
+    }
+
+    @Test
+    void write_emptyStream_producesValidEmptyGzip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, writer.write(Stream.empty(), out));
+        try (GZIPInputStream in = new GZIPInputStream(
+                new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(0, in.readAllBytes().length);
+        }
+    }
+
+    @Test
+    void write_plain_emitsUncompressedLines() throws Exception {
+        Recipe a = new Recipe();
+        a.setRecipeId(1);
+        a.setTitle("Avocado Toast");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(1, writer.write(Stream.of(a), out, false));
+
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("{"));
+        assertTrue(text.endsWith("}\n"));
+    }
+
+    @Test
+    void acceptsGzip_honoursQualityValues() {
+        assertTrue(NdjsonExportWriter.acceptsGzip("gzip, deflate, br"));
+        assertTrue(NdjsonExportWriter.acceptsGzip("br;q=1.0, *;q=0.5"));
+        assertFalse(NdjsonExportWriter.acceptsGzip(null));
+        assertFalse(NdjsonExportWriter.acceptsGzip("identity"));
+        assertFalse(NdjsonExportWriter.acceptsGzip("gzip;q=0"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.model.Nutrient;
+import com.example.nutriflow.ingredient.model.NutrientTotals;
+import com.example.nutriflow.ingredient.model.NutrientVector;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the fixed-point {@link NutrientVector} and
+ * {@link NutrientTotals}.
+ */
+class NutrientVectorTest {
+
+    private static IngredientNutrition ingredient(Random random) {
+        IngredientNutrition n = new IngredientNutrition();
+        for (Nutrient nutrient : Nutrient.values()) {
+            BigDecimal value = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            switch (nutrient) {
+                case CALORIES -> n.setCalories(value);
+                case PROTEIN -> n.setProtein(value);
+                case CARBOHYDRATES -> n.setCarbohydrates(value);
+                case FAT -> n.setFat(value);
+                case FIBER -> n.setFiber(value);
+                case IRON -> n.setIron(value);
+                case CALCIUM -> n.setCalcium(value);
+                case VITAMIN_A -> n.setVitaminA(value);
+                case VITAMIN_C -> n.setVitaminC(value);
+                case VITAMIN_D -> n.setVitaminD(value);
+                case SODIUM -> n.setSodium(value);
+                default -> n.setPotassium(value);
+            }
+        }
+        return n;
+    }
+
+    @Test
+    @DisplayName("Catalog values convert to fixed point, missing ones to zero")
+    void per100g_readsColumns() {
+        IngredientNutrition n = new IngredientNutrition();
+        n.setCalories(new BigDecimal("165"));
+        n.setIron(new BigDecimal("1.23456"));
+
+        NutrientVector vector = NutrientVector.per100g(n);
+
+        assertEquals(1_650_000L, vector.get(Nutrient.CALORIES));
+        assertEquals(12_346L, vector.get(Nutrient.IRON));
+        assertEquals(0L, vector.get(Nutrient.PROTEIN));
+        assertEquals(new BigDecimal("1.23"),
+                vector.toBigDecimal(Nutrient.IRON, 2));
+    }
+
+    @Test
+    @DisplayName("Scaling by grams matches BigDecimal arithmetic")
+    void add_matchesBigDecimal() {
+        Random random = new Random(7);
+        NutrientTotals totals = new NutrientTotals();
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < 1000; i++) {
+            IngredientNutrition n = ingredient(random);
+            BigDecimal grams = BigDecimal.valueOf(random.nextInt(5_000_000), 3);
+            totals.add(NutrientVector.per100g(n), grams);
+            expected = expected.add(n.getSodium().multiply(grams)
+                    .divide(BigDecimal.valueOf(100)));
+        }
+
+        assertEquals(expected.setScale(2, RoundingMode.HALF_UP),
+                totals.toBigDecimal(Nutrient.SODIUM, 2));
+        assertEquals(new BigDecimal("330.00"), new NutrientTotals()
+                .add(NutrientVector.per100g(caloriesOnly("165")),
+                        new BigDecimal("200"))
+                .toBigDecimal(Nutrient.CALORIES, 2));
+    }
+
+    private static IngredientNutrition caloriesOnly(String kcal) {
+        IngredientNutrition n = new IngredientNutrition();
+        n.setCalories(new BigDecimal(kcal));
+        return n;
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.recipe.dto.RecipeImportResultDto;
+import com.example.nutriflow.recipe.service.AIRecipePersister;
+import com.example.nutriflow.recipe.service.RecipeImportService;
+import com.example.nutriflow.recipe.service.RecipeNutritionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link RecipeImportService} with a mocked JDBC/COPY layer.
+ */
+class RecipeImportServiceTest {
+
+    private Connection connection;
+    private CopyManager copyManager;
+    private PreparedStatement reserveStatement;
+    private final Set<String> storedFingerprints = new HashSet<>();
+    private final Map<String, StringBuilder> copied = new HashMap<>();
+    private final AtomicLong nextId = new AtomicLong(100);
+    private DataSource dataSource;
+    private RecipeNutritionService recipeNutritionService;
+    private RecipeImportService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        copyManager = mock(CopyManager.class);
+        reserveStatement = mock(PreparedStatement.class);
+
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        when(connection.prepareStatement(startsWith("SELECT nextval")))
+                .thenReturn(reserveStatement);
+        PreparedStatement fingerprintStatement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(startsWith("SELECT fingerprint")))
+                .thenReturn(fingerprintStatement);
+        when(fingerprintStatement.executeQuery()).thenAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            List<String> rows = List.copyOf(storedFingerprints);
+            int[] served = new int[1];
+            when(rs.next()).thenAnswer(n -> served[0]++ < rows.size());
+            when(rs.getString(1)).thenAnswer(n -> rows.get(served[0] - 1));
+            return rs;
+        });
+
+        int[] requested = new int[1];
+        doAnswer(inv -> {
+            requested[0] = inv.getArgument(1);
+            return null;
+        }).when(reserveStatement).setInt(eq(1), anyInt());
+        when(reserveStatement.executeQuery()).thenAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            int[] served = new int[1];
+            when(rs.next()).thenAnswer(n -> served[0]++ < requested[0]);
+            when(rs.getLong(1)).thenAnswer(n -> nextId.getAndIncrement());
+            return rs;
+        });
+
+        when(copyManager.copyIn(anyString(), any(Reader.class)))
+                .thenAnswer(inv -> {
+                    StringWriter out = new StringWriter();
+                    ((Reader) inv.getArgument(1)).transferTo(out);
+                    String sql = inv.getArgument(0);
+                    String table = sql.contains("recipe_ingredients")
+                            ? "ingredients" : "recipes";
+                    copied.computeIfAbsent(table, k -> new StringBuilder())
+                            .append(out);
+                    return 0L;
+                });
+
+        recipeNutritionService = mock(RecipeNutritionService.class);
+        service = new RecipeImportService(dataSource, new ObjectMapper(),
+                recipeNutritionService, 2);
+    }
+
+    @Test
+    @DisplayName("NDJSON import copies valid recipes in chunks and reports invalid lines")
+    void importNdjson_chunksAndValidates() throws Exception {
+        String ndjson = String.join("\n",
+                "{\"title\":\"Pasta\",\"cookTime\":20,\"tags\":[\"quick\"],"
+                        + "\"calories\":450,\"ingredients\":[{\"ingredient\":\"tomato\","
+                        + "\"quantity\":2,\"unit\":\"pcs\"}]}",
+                "{\"title\":\"\"}",
+                "not-json",
+                "{\"title\":\"Salad, \\\"green\\\"\",\"fat\":-1}",
+                "{\"title\":\"Soup\"}",
+                "{\"title\":\"Toast\",\"ingredients\":[{\"ingredient\":\"bread\","
+                        + "\"allergenTags\":[\"gluten\"]}]}");
+
+        RecipeImportResultDto result = service.importNdjson(stream(ndjson));
+
+        assertEquals(3, result.getImportedRecipes());
+        assertEquals(2, result.getImportedIngredients());
+        assertEquals(3, result.getRejectedRecords());
+        assertTrue(result.getErrors().get(0).startsWith("line 2:"));
+        assertTrue(result.getErrors().get(2).contains("fat"));
+
+        String recipes = copied.get("recipes").toString();
+        assertTrue(recipes.startsWith("100,\"Pasta\",20,,\"{\"\"quick\"\"}\""));
+        assertTrue(recipes.contains("101,\"Soup\""));
+        assertTrue(recipes.contains("102,\"Toast\""));
+        assertTrue(copied.get("ingredients").toString()
+                .contains("102,\"bread\",,,\"{\"\"gluten\"\"}\""));
+
+        // two chunks (2 + 1) plus sequence alignment, each chunk on a
+        // connection of its own, then one for the statistics
+        verify(connection, times(3)).commit();
+        verify(connection, times(2)).setAutoCommit(true);
+        verify(dataSource, times(3)).getConnection();
+        verify(recipeNutritionService).recomputeRecipes(List.of(100, 101, 102));
+    }
+
+    @Test
+    @DisplayName("Imported recipes carry servings and a content fingerprint")
+    void importNdjson_storesServingsAndFingerprint() throws Exception {
+        String ndjson = "{\"title\":\"Chili\",\"servings\":4,"
+                + "\"ingredients\":[{\"ingredient\":\"beans\"}]}\n"
+                + "{\"title\":\"Broth\",\"servings\":0}";
+
+        RecipeImportResultDto result = service.importNdjson(stream(ndjson));
+
+        assertEquals(1, result.getImportedRecipes());
+        assertTrue(result.getErrors().get(0).contains("servings"));
+        String fingerprint = AIRecipePersister.fingerprint("Chili",
+                List.of("beans"));
+        assertTrue(copied.get("recipes").toString()
+                .endsWith(",0,4,\"" + fingerprint + "\"\n"));
+    }
+
+    @Test
+    @DisplayName("Recipes already in the catalog or repeated are rejected")
+    void importNdjson_duplicates_rejected() throws Exception {
+        storedFingerprints.add(AIRecipePersister.fingerprint("Soup",
+                List.of()));
+        String ndjson = String.join("\n",
+                "{\"title\":\"Stew\"}",
+                "{\"title\":\" stew \"}",
+                "{\"title\":\"Soup\"}");
+
+        RecipeImportResultDto result = service.importNdjson(stream(ndjson));
+
+        assertEquals(1, result.getImportedRecipes());
+        assertEquals(2, result.getRejectedRecords());
+        assertTrue(result.getErrors().get(0).startsWith("line 2:"));
+        assertTrue(result.getErrors().get(1).startsWith("line 3:"));
+        assertTrue(copied.get("recipes").toString().contains("\"Stew\""));
+    }
+
+    @Test
+    @DisplayName("CSV import parses quoted cells and ingredient lists")
+    void importCsv_parsesIngredients() throws Exception {
+        String csv = "title,cookTime,tags,calories,ingredients\n"
+                + "\"Oats, banana\",8,breakfast;quick,350,"
+                + "\"oats|50|g;banana|1|pcs;milk|200|ml|dairy\"\n";
+
+        RecipeImportResultDto result = service.importCsv(stream(csv));
+
+        assertEquals(1, result.getImportedRecipes());
+        assertEquals(3, result.getImportedIngredients());
+        assertTrue(copied.get("recipes").toString()
+                .contains("\"Oats, banana\",8,,\"{\"\"breakfast\"\",\"\"quick\"\"}\""));
+        assertTrue(copied.get("ingredients").toString()
+                .contains("100,\"milk\",200.0,\"ml\",\"{\"\"dairy\"\"}\""));
+    }
+
+    @Test
+    @DisplayName("CSV import joins quoted cells that span lines")
+    void importCsv_quotedNewline() throws Exception {
+        String csv = "title,cookTime\n"
+                + "\"Two\nline title\",5\n"
+                + "\"\",3\n";
+
+        RecipeImportResultDto result = service.importCsv(stream(csv));
+
+        assertEquals(1, result.getImportedRecipes());
+        assertEquals(1, result.getRejectedRecords());
+        assertTrue(result.getErrors().get(0).startsWith("line 4:"));
+        assertTrue(copied.get("recipes").toString()
+                .contains("\"Two\nline title\",5"));
+    }
+
+    @Test
+    @DisplayName("Invalid input is rejected without taking a connection")
+    void importNdjson_allInvalid_noConnection() throws Exception {
+        String ndjson = "{\"title\":\"\"}\n"
+                + "{\"title\":\"Stew\",\"ingredients\":[{\"ingredient\":\"beef\","
+                + "\"unit\":\"" + "x".repeat(51) + "\"}]}";
+
+        RecipeImportResultDto result = service.importNdjson(stream(ndjson));
+
+        assertEquals(2, result.getRejectedRecords());
+        assertTrue(result.getErrors().get(1).contains("unit"));
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("A failed chunk reports how far the import got")
+    void importNdjson_failedChunk_reportsProgress() throws Exception {
+        when(copyManager.copyIn(anyString(), any(Reader.class)))
+                .thenReturn(0L)
+                .thenThrow(new SQLException("copy failed"));
+        String ndjson = String.join("\n",
+                "{\"title\":\"A\"}", "{\"title\":\"B\"}",
+                "{\"title\":\"C\"}");
+
+        RecipeImportResultDto result = service.importNdjson(stream(ndjson));
+
+        assertEquals(2, result.getImportedRecipes());
+        assertEquals(1, result.getCommittedChunks());
+        assertEquals(2, result.getCommittedThroughLine());
+        assertTrue(result.getError().contains("copy failed"));
+        verify(connection).rollback();
+        verify(recipeNutritionService).recomputeRecipes(List.of(100, 101));
+    }
+
+    private static ByteArrayInputStream stream(final String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
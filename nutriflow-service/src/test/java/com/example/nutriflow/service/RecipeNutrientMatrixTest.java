@@ -0,0 +1,113 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.ingredient.model.Nutrient;
+import com.example.nutriflow.recipe.repository.RecipeRepository;
+import com.example.nutriflow.recipe.service.RecipeNutrientMatrix;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link RecipeNutrientMatrix}.
+ */
+class RecipeNutrientMatrixTest {
+
+    private RecipeRepository recipeRepository;
+    private AtomicLong clock;
+    private RecipeNutrientMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository = mock(RecipeRepository.class);
+        clock = new AtomicLong();
+        // background work runs on the calling thread
+        matrix = new RecipeNutrientMatrix(recipeRepository, 300, clock::get,
+                Runnable::run);
+    }
+
+    private static float[] vector(float calories) {
+        float[] v = new float[RecipeNutrientMatrix.NUTRIENTS];
+        v[Nutrient.CALORIES.ordinal()] = calories;
+        return v;
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+
+    private double calories(int recipeId) {
+        double[] totals = new double[RecipeNutrientMatrix.NUTRIENTS];
+        return matrix.addTo(recipeId, 1, totals)
+                ? totals[Nutrient.CALORIES.ordinal()] : -1;
+    }
+
+    @Test
+    @DisplayName("Recomputed vectors are patched in without a reload")
+    void update_patchesRows() {
+        when(recipeRepository.findNutrientVectors()).thenReturn(rows(
+                new Object[] {1, vector(100)},
+                new Object[] {3, vector(300)},
+                new Object[] {5, vector(500)}));
+        assertEquals(3, matrix.size());
+
+        Map<Integer, float[]> changed = new HashMap<>();
+        changed.put(2, vector(200));
+        changed.put(3, vector(330));
+        changed.put(5, null);
+        matrix.update(changed);
+
+        assertEquals(100, calories(1));
+        assertEquals(200, calories(2));
+        assertEquals(330, calories(3));
+        assertEquals(-1, calories(5));
+        assertEquals(3, matrix.size());
+        verify(recipeRepository, times(1)).findNutrientVectors();
+    }
+
+    @Test
+    @DisplayName("Refreshed recipes have only their rows re-read")
+    void refresh_readsChangedRows() {
+        when(recipeRepository.findNutrientVectors()).thenReturn(rows(
+                new Object[] {1, vector(100)},
+                new Object[] {2, vector(200)}));
+        when(recipeRepository.findNutrientVectorsByIdIn(anyCollection()))
+                .thenReturn(rows(new Object[] {1, vector(150)},
+                        new Object[] {2, null}));
+        assertEquals(2, matrix.size());
+
+        matrix.refresh(List.of(1, 2));
+
+        assertEquals(150, calories(1));
+        assertFalse(matrix.addTo(2, 1,
+                new double[RecipeNutrientMatrix.NUTRIENTS]));
+        verify(recipeRepository, times(1)).findNutrientVectors();
+    }
+
+    @Test
+    @DisplayName("The matrix is reloaded once it is older than the refresh")
+    void addTo_reloadsAfterRefreshInterval() {
+        when(recipeRepository.findNutrientVectors())
+                .thenReturn(rows(new Object[] {1, vector(100)}))
+                .thenReturn(rows(new Object[] {1, vector(120)}));
+        assertEquals(100, calories(1));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(300));
+
+        assertEquals(120, calories(1));
+        verify(recipeRepository, times(2)).findNutrientVectors();
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.ingredient.model.IngredientChangeBatchEvent;
+import com.example.nutriflow.ingredient.model.IngredientChangedEvent;
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.model.Nutrient;
+import com.example.nutriflow.ingredient.repository.IngredientChangeOutboxRepository;
+import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import com.example.nutriflow.ingredient.service.IngredientChangePublisher;
+import com.example.nutriflow.ingredient.service.IngredientNutritionDictionary;
+import com.example.nutriflow.ingredient.service.UnitConverter;
+import com.example.nutriflow.recipe.dto.NutritionRecomputeResultDto;
+import com.example.nutriflow.recipe.model.Recipe;
+import com.example.nutriflow.recipe.model.RecipeIngredient;
+import com.example.nutriflow.recipe.repository.RecipeIngredientRepository;
+import com.example.nutriflow.recipe.repository.RecipeRepository;
+import com.example.nutriflow.recipe.service.RecipeCache;
+import com.example.nutriflow.recipe.service.RecipeNutrientMatrix;
+import com.example.nutriflow.recipe.service.RecipeNutritionService;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link RecipeNutritionService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class RecipeNutritionServiceTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @Mock
+    private RecipeIngredientRepository recipeIngredientRepository;
+
+    @Mock
+    private IngredientNutritionRepository ingredientNutritionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RecipeCache recipeCache;
+
+    private RecipeNutritionService service;
+
+    @BeforeEach
+    void setUp() {
+        recipeCache = new RecipeCache(10);
+        IngredientNutritionDictionary dictionary =
+                new IngredientNutritionDictionary(ingredientNutritionRepository);
+        service = new RecipeNutritionService(recipeRepository,
+                recipeIngredientRepository, dictionary,
+                new UnitConverter(dictionary), recipeCache,
+                new RecipeNutrientMatrix(recipeRepository, 300, () -> 0L),
+                new IngredientChangePublisher(
+                        mock(ApplicationEventPublisher.class),
+                        mock(IngredientChangeOutboxRepository.class), false,
+                        "local"),
+                transactionManager, 1, 2);
+    }
+
+    private static Recipe recipe(int id) {
+        Recipe r = new Recipe();
+        r.setRecipeId(id);
+        r.setTitle("Recipe " + id);
+        r.setCalories(new BigDecimal("999.00"));
+        return r;
+    }
+
+    private static RecipeIngredient row(int recipeId, String name,
+                                        Double qty, String unit) {
+        return RecipeIngredient.builder().recipeId(recipeId)
+                .ingredient(name).quantity(qty).unit(unit).build();
+    }
+
+    private static IngredientNutrition nutrition(String name, String kcal,
+                                                 String protein) {
+        IngredientNutrition n = new IngredientNutrition();
+        n.setIngredientName(name);
+        n.setCalories(new BigDecimal(kcal));
+        n.setProtein(new BigDecimal(protein));
+        return n;
+    }
+
+    @Test
+    void recomputeRecipe_sumsIngredientsAndEvictsCache() {
+        Recipe r = recipe(1);
+        recipeCache.put(r);
+        when(recipeIngredientRepository.findByRecipeIdIn(List.of(1)))
+                .thenReturn(List.of(row(1, "Rolled Oats", 80.0, "g"),
+                        row(1, "milk", 0.25, "l")));
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(nutrition("rolled oats", "389", "16.9"),
+                        nutrition("Milk", "42", "3.4")));
+        when(recipeRepository.findAllById(List.of(1)))
+                .thenReturn(List.of(r));
+
+        NutritionRecomputeResultDto result = service.recomputeRecipe(1);
+
+        assertEquals(1, result.getRecipesUpdated());
+        // 0.8 * 389 + 2.5 * 42 = 311.2 + 105
+        assertEquals(new BigDecimal("416.20"), r.getCalories());
+        // 0.8 * 16.9 + 2.5 * 3.4 = 13.52 + 8.5
+        assertEquals(new BigDecimal("22.02"), r.getProtein());
+        assertEquals(new BigDecimal("0.00"), r.getFat());
+        assertEquals(416.2f,
+                r.getNutrientVector()[Nutrient.CALORIES.ordinal()], 1e-3f);
+        assertEquals(0f,
+                r.getNutrientVector()[Nutrient.IRON.ordinal()]);
+        verify(recipeRepository).saveAll(List.of(r));
+        assertEquals(Optional.empty(), recipeCache.get(1));
+    }
+
+    @Test
+    void recomputeRecipe_dividesByServings() {
+        Recipe r = recipe(1);
+        r.setServings(4);
+        when(recipeIngredientRepository.findByRecipeIdIn(List.of(1)))
+                .thenReturn(List.of(row(1, "rice", 400.0, "g")));
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(nutrition("rice", "130", "2.7")));
+        when(recipeRepository.findAllById(List.of(1)))
+                .thenReturn(List.of(r));
+
+        service.recomputeRecipe(1);
+
+        // 4 * 130 kcal over 4 servings
+        assertEquals(new BigDecimal("130.00"), r.getCalories());
+        assertEquals(new BigDecimal("2.70"), r.getProtein());
+    }
+
+    @Test
+    void scheduleRecompute_runsInBackground() {
+        when(recipeIngredientRepository.findRecipeIdsByLowerIngredientIn(
+                List.of("banana"))).thenReturn(List.of(7));
+        when(recipeIngredientRepository.findByRecipeIdIn(anyList()))
+                .thenReturn(List.of());
+        when(recipeRepository.findAllById(List.of(7)))
+                .thenReturn(List.of(recipe(7)));
+
+        service.scheduleRecompute(" Banana ", null);
+
+        verify(recipeRepository, timeout(2000)).findAllById(List.of(7));
+    }
+
+    @Test
+    void recomputeRecipe_unconvertibleUnit_leavesRecipeUntouched() {
+        Recipe r = recipe(1);
+        when(recipeIngredientRepository.findByRecipeIdIn(List.of(1)))
+                .thenReturn(List.of(row(1, "avocado", 1.0, "pcs")));
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(nutrition("avocado", "160", "2")));
+        when(recipeRepository.findAllById(List.of(1)))
+                .thenReturn(List.of(r));
+
+        NutritionRecomputeResultDto result = service.recomputeRecipe(1);
+
+        assertEquals(1, result.getRecipesSkipped());
+        assertEquals(new BigDecimal("999.00"), r.getCalories());
+        assertNull(r.getProtein());
+        verify(recipeRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void recomputeForIngredient_onlyTouchesRecipesFromReverseIndex() {
+        when(recipeIngredientRepository.findRecipeIdsByIngredient("banana"))
+                .thenReturn(List.of(2, 5));
+        when(recipeIngredientRepository.findByRecipeIdIn(anyList()))
+                .thenReturn(List.of());
+        when(recipeRepository.findAllById(anyList()))
+                .thenAnswer(inv -> {
+                    List<Integer> ids = inv.getArgument(0);
+                    return List.of(recipe(ids.get(0)));
+                });
+
+        NutritionRecomputeResultDto result =
+                service.recomputeForIngredient(" banana ");
+
+        // batch size 1 -> one batch per affected recipe
+        verify(recipeRepository).findAllById(List.of(2));
+        verify(recipeRepository).findAllById(List.of(5));
+        assertEquals(2, result.getRecipesScanned());
+        assertEquals(2, result.getRecipesSkipped());
+    }
+
+    @Test
+    void onIngredientsChanged_looksUpRecipesOfRemoteChangesOnly() {
+        LocalDateTime now = LocalDateTime.now();
+        when(recipeIngredientRepository.findRecipeIdsByLowerIngredientIn(
+                List.of("kale"))).thenReturn(List.of(4));
+        recipeCache.put(recipe(4));
+
+        service.onIngredientsChanged(new IngredientChangeBatchEvent(List.of(
+                new IngredientChangedEvent(IngredientChangedEvent.Type.UPDATED,
+                        1, "Kale", null, now, "remote"),
+                new IngredientChangedEvent(IngredientChangedEvent.Type.UPDATED,
+                        2, "oats", null, now, "local"))));
+
+        verify(recipeIngredientRepository, times(1))
+                .findRecipeIdsByLowerIngredientIn(anyList());
+        assertTrue(recipeCache.get(4).isEmpty());
+    }
+
+    @Test
+    void recomputeAll_processesEveryBatchInParallel() {
+        when(recipeRepository.findAllIds()).thenReturn(List.of(1, 2, 3));
+        when(recipeIngredientRepository.findByRecipeIdIn(anyList()))
+                .thenAnswer(inv -> {
+                    List<Integer> ids = inv.getArgument(0);
+                    return List.of(row(ids.get(0), "rice", 100.0, null));
+                });
+        when(ingredientNutritionRepository.findAll())
+                .thenReturn(List.of(nutrition("rice", "130", "2.7")));
+        when(recipeRepository.findAllById(anyList()))
+                .thenAnswer(inv -> {
+                    List<Integer> ids = inv.getArgument(0);
+                    return List.of(recipe(ids.get(0)));
+                });
+
+        NutritionRecomputeResultDto result = service.recomputeAll();
+
+        assertEquals(3, result.getRecipesScanned());
+        assertEquals(3, result.getRecipesUpdated());
+        verify(recipeRepository, times(3)).saveAll(anyList());
+        verify(transactionManager, times(3)).commit(null);
+    }
+}
@@ -4,11 +4,12 @@ import com.example.nutriflow.recipe.model.FavoriteRecipe;
 import com.example.nutriflow.recipe.model.Recipe;
 import com.example.nutriflow.recipe.repository.FavoriteRecipeRepository;
 import com.example.nutriflow.recipe.repository.RecipeRepository;
+import com.example.nutriflow.recipe.service.FavoriteRecipeCache;
+import com.example.nutriflow.recipe.service.RecipeCache;
 import com.example.nutriflow.recipe.service.RecipeService;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,12 +17,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,6 +39,13 @@ class RecipeServiceTest {
     @Mock
     private FavoriteRecipeRepository favoriteRecipeRepository;
 
+    @Spy
+    private RecipeCache recipeCache = new RecipeCache(100);
+
+    @Spy
+    private FavoriteRecipeCache favoriteRecipeCache =
+            new FavoriteRecipeCache(2);
+
     @InjectMocks
     private RecipeService recipeService;
 
@@ -89,14 +99,9 @@ class RecipeServiceTest {
     @Test
     @DisplayName("addFavorite inserts when not existing; throws when exists")
     void addFavorite_behaviour() {
-        // not existing → save
-        when(favoriteRecipeRepository.existsByUserIdAndRecipeId(7, 3)).thenReturn(false);
-        when(favoriteRecipeRepository.save(any(FavoriteRecipe.class)))
-                .thenAnswer(inv -> {
-                    FavoriteRecipe f = inv.getArgument(0);
-                    f.setFavoriteId(10);
-                    return f;
-                });
+        // not existing → inserted row returned
+        when(favoriteRecipeRepository.insertIfAbsent(7, 3))
+                .thenReturn(Optional.of(new FavoriteRecipe(10, 7, 3, 0)));
 
         FavoriteRecipe saved = recipeService.addFavorite(7, 3);
         assertThat(saved.getFavoriteId()).isEqualTo(10);
@@ -104,29 +109,135 @@ class RecipeServiceTest {
         assertThat(saved.getRecipeId()).isEqualTo(3);
         assertThat(saved.getTimesUsed()).isZero();
 
-        // existing → throws
-        when(favoriteRecipeRepository.existsByUserIdAndRecipeId(7, 3)).thenReturn(true);
+        // existing → conflict skipped → throws
+        when(favoriteRecipeRepository.insertIfAbsent(7, 3))
+                .thenReturn(Optional.empty());
         assertThatThrownBy(() -> recipeService.addFavorite(7, 3))
                 .isInstanceOf(IllegalStateException.class);
+        verify(favoriteRecipeRepository, never())
+                .existsByUserIdAndRecipeId(any(), any());
     }
+
     @Test
-    @DisplayName("removeFavorite deletes rows for that (user, recipe)")
+    @DisplayName("removeFavorite issues a direct delete for that (user, recipe)")
     void removeFavorite_deletes() {
-        FavoriteRecipe a = new FavoriteRecipe(1, 7, 3, 0);
-        FavoriteRecipe b = new FavoriteRecipe(2, 7, 99, 0);
+        recipeService.removeFavorite(7, 3);
 
-        when(favoriteRecipeRepository.findByUserId(7))
-                .thenReturn(List.of(a, b));
+        verify(favoriteRecipeRepository).deleteByUserIdAndRecipeId(7, 3);
+        verify(favoriteRecipeRepository, never()).findByUserId(any());
+    }
 
-        recipeService.removeFavorite(7, 3);
+    @Test
+    @DisplayName("addFavorites de-duplicates IDs and inserts in one statement")
+    void addFavorites_bulk() {
+        when(favoriteRecipeRepository.insertAllIfAbsent(eq(7), any()))
+                .thenReturn(2);
+
+        int added = recipeService.addFavorites(7,
+                Arrays.asList(3, 5, 3, null));
+
+        assertThat(added).isEqualTo(2);
+        verify(favoriteRecipeRepository).insertAllIfAbsent(
+                eq(7), argThat(ids -> ids.size() == 2
+                        && ids.containsAll(List.of(3, 5))));
+    }
+
+    @Test
+    @DisplayName("bulk operations skip the database for empty input")
+    void bulkFavorites_emptyInput() {
+        assertThat(recipeService.addFavorites(7, List.of())).isZero();
+        assertThat(recipeService.removeFavorites(7, null)).isZero();
+
+        verifyNoInteractions(favoriteRecipeRepository);
+    }
+
+    @Test
+    @DisplayName("removeFavorites deletes the given set in one statement")
+    void removeFavorites_bulk() {
+        when(favoriteRecipeRepository.deleteByUserIdAndRecipeIdIn(
+                eq(7), any())).thenReturn(1);
+
+        assertThat(recipeService.removeFavorites(7, List.of(3, 5)))
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("getUserFavoriteRecipes serves repeat reads from memory")
+    void getUserFavoriteRecipes_cached() {
+        when(favoriteRecipeRepository.findByUserId(9))
+                .thenReturn(List.of(new FavoriteRecipe(1, 9, 100, 0)));
+        Recipe r1 = new Recipe();
+        r1.setRecipeId(100);
+        when(recipeRepository.findAllById(List.of(100)))
+                .thenReturn(List.of(r1));
 
-        // Verify deleteAll called with iterable containing only recipeId 3
-        verify(favoriteRecipeRepository).deleteAll(argThat(iterable -> {
-            if (iterable == null) return false;
-            long count = StreamSupport.stream(iterable.spliterator(), false)
-                    .filter(f -> f.getRecipeId() == 3)
-                    .count();
-            return count == 1;
-        }));
+        recipeService.getUserFavoriteRecipes(9);
+        List<Recipe> out = recipeService.getUserFavoriteRecipes(9);
+
+        assertThat(out).containsExactly(r1);
+        verify(favoriteRecipeRepository, times(1)).findByUserId(9);
+        verify(recipeRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("add/removeFavorite write through to the cached favorite set")
+    void favorites_writeThrough() {
+        when(favoriteRecipeRepository.findByUserId(9))
+                .thenReturn(List.of(new FavoriteRecipe(1, 9, 100, 0)));
+        when(recipeRepository.findAllById(any())).thenReturn(List.of());
+        recipeService.getUserFavoriteRecipes(9);
+
+        when(favoriteRecipeRepository.insertIfAbsent(9, 50))
+                .thenReturn(Optional.of(new FavoriteRecipe(2, 9, 50, 0)));
+        recipeService.addFavorite(9, 50);
+        assertThat(favoriteRecipeCache.get(9)).containsExactly(50, 100);
+
+        recipeService.removeFavorite(9, 100);
+        assertThat(favoriteRecipeCache.get(9)).containsExactly(50);
+        verify(favoriteRecipeRepository, times(1)).findByUserId(9);
+    }
+
+    @Test
+    @DisplayName("A favorites read racing a committed write is not cached")
+    void getUserFavoriteRecipes_racingWrite_notCached() {
+        when(favoriteRecipeRepository.findByUserId(9)).thenAnswer(inv -> {
+            // another request commits a new favorite mid-read
+            favoriteRecipeCache.add(9, 50);
+            return List.of(new FavoriteRecipe(1, 9, 100, 0));
+        });
+        when(recipeRepository.findAllById(any())).thenReturn(List.of());
+
+        recipeService.getUserFavoriteRecipes(9);
+
+        assertThat(favoriteRecipeCache.get(9)).isNull();
+    }
+
+    @Test
+    @DisplayName("Cached recipes are copies callers cannot modify")
+    void getRecipeById_returnsCopies() {
+        Recipe r = new Recipe();
+        r.setRecipeId(42);
+        r.setTitle("Soup");
+        when(recipeRepository.findById(42)).thenReturn(Optional.of(r));
+
+        recipeService.getRecipeById(42).get().setTitle("Changed");
+        r.setTitle("Changed too");
+
+        assertThat(recipeService.getRecipeById(42).get().getTitle())
+                .isEqualTo("Soup");
+        verify(recipeRepository, times(1)).findById(42);
+    }
+
+    @Test
+    @DisplayName("favorites cache evicts least recently used users")
+    void favorites_lruEviction() {
+        favoriteRecipeCache.put(1, List.of(10));
+        favoriteRecipeCache.put(2, List.of(20));
+        favoriteRecipeCache.get(1);
+        favoriteRecipeCache.put(3, List.of(30));
+
+        assertThat(favoriteRecipeCache.get(1)).containsExactly(10);
+        assertThat(favoriteRecipeCache.get(2)).isNull();
+        assertThat(favoriteRecipeCache.get(3)).containsExactly(30);
     }
 }
@@ -0,0 +1,134 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.shared.concurrent.SingleFlight;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for {@link SingleFlight}.
+ */
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+
+    private final SingleFlight<String, String> singleFlight =
+            new SingleFlight<>();
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Starts CALLERS concurrent calls for the same key whose loader
+     * blocks until released, and waits until all followers have joined.
+     */
+    private List<Future<String>> startCallers(AtomicInteger loads,
+                                              CountDownLatch release,
+                                              RuntimeException failure)
+            throws InterruptedException {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        futures.add(pool.submit(() -> singleFlight.execute("chicken", () -> {
+            loads.incrementAndGet();
+            leaderStarted.countDown();
+            await(release);
+            if (failure != null) {
+                throw failure;
+            }
+            return "{\"title\":\"Chicken\"}";
+        }, Duration.ofSeconds(5))));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < CALLERS; i++) {
+            futures.add(pool.submit(() -> singleFlight.execute("chicken",
+                    () -> {
+                        loads.incrementAndGet();
+                        return "unexpected";
+                    }, Duration.ofSeconds(5))));
+        }
+        return futures;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    void concurrentCallers_shareOneExecution() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> futures = startCallers(loads, release, null);
+        Thread.sleep(300);
+        release.countDown();
+
+        for (Future<String> f : futures) {
+            assertEquals("{\"title\":\"Chicken\"}", f.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void concurrentCallers_allReceiveTheFailure() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> futures = startCallers(loads, release,
+                new IllegalStateException("quota exceeded"));
+        Thread.sleep(300);
+        release.countDown();
+
+        for (Future<String> f : futures) {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> f.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertEquals("quota exceeded", e.getCause().getMessage());
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void follower_timesOutWhileLeaderKeepsRunning() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        Future<String> leader = pool.submit(() -> singleFlight.execute("k",
+                () -> {
+                    leaderStarted.countDown();
+                    await(release);
+                    return "done";
+                }, Duration.ofSeconds(5)));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("k", () -> "other",
+                        Duration.ofMillis(50)));
+        assertTrue(e.getMessage().contains("Timed out"));
+
+        release.countDown();
+        assertEquals("done", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("again", singleFlight.execute("k", () -> "again",
+                Duration.ofSeconds(1)));
+    }
+}
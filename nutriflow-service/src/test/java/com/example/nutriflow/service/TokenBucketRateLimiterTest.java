@@ -0,0 +1,88 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.shared.concurrent.TokenBucketRateLimiter;
+import com.example.nutriflow.shared.concurrent.TokenBucketRateLimiter.Priority;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    @Test
+    @DisplayName("Burst permits are granted immediately, then the bucket refills at the rate")
+    void acquire_burstThenRefill() throws Exception {
+        AtomicLong now = new AtomicLong();
+        TokenBucketRateLimiter limiter =
+                new TokenBucketRateLimiter(60, 2, now::get);
+
+        assertTrue(limiter.acquire(Priority.INTERACTIVE, Duration.ZERO));
+        assertTrue(limiter.acquire(Priority.INTERACTIVE, Duration.ZERO));
+        assertFalse(limiter.acquire(Priority.INTERACTIVE, Duration.ZERO));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, limiter.availablePermits());
+        assertTrue(limiter.acquire(Priority.INTERACTIVE, Duration.ZERO));
+        assertEquals(3, limiter.getGranted());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    @DisplayName("A caller whose expected wait exceeds its deadline is rejected without queueing")
+    void acquire_rejectsFastWhenExpectedWaitTooLong() throws Exception {
+        AtomicLong now = new AtomicLong();
+        TokenBucketRateLimiter limiter =
+                new TokenBucketRateLimiter(60, 1, now::get);
+        assertTrue(limiter.acquire(Priority.INTERACTIVE, Duration.ZERO));
+
+        long start = System.nanoTime();
+        assertFalse(limiter.acquire(Priority.BACKGROUND,
+                Duration.ofMillis(500)));
+
+        assertTrue(System.nanoTime() - start
+                < TimeUnit.MILLISECONDS.toNanos(400));
+        assertEquals(0, limiter.queueDepth(Priority.BACKGROUND));
+    }
+
+    @Test
+    @DisplayName("Queued interactive callers are served before earlier background callers")
+    void acquire_servesInteractiveFirst() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(300, 1);
+        assertTrue(limiter.acquire(Priority.INTERACTIVE, Duration.ZERO));
+        List<Priority> order = Collections.synchronizedList(new ArrayList<>());
+
+        Thread background = new Thread(() -> acquireAndRecord(
+                limiter, Priority.BACKGROUND, order));
+        background.start();
+        while (limiter.queueDepth(Priority.BACKGROUND) == 0) {
+            Thread.onSpinWait();
+        }
+        Thread interactive = new Thread(() -> acquireAndRecord(
+                limiter, Priority.INTERACTIVE, order));
+        interactive.start();
+        background.join(5_000);
+        interactive.join(5_000);
+
+        assertEquals(List.of(Priority.INTERACTIVE, Priority.BACKGROUND),
+                order);
+    }
+
+    private static void acquireAndRecord(final TokenBucketRateLimiter limiter,
+                                         final Priority priority,
+                                         final List<Priority> order) {
+        try {
+            if (limiter.acquire(priority, Duration.ofSeconds(5))) {
+                order.add(priority);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.nutriflow.service;
+
+import com.example.nutriflow.ingredient.model.IngredientNutrition;
+import com.example.nutriflow.ingredient.model.IngredientNutritionSnapshot;
+import com.example.nutriflow.ingredient.model.MeasureUnit;
+import com.example.nutriflow.ingredient.repository.IngredientNutritionRepository;
+import com.example.nutriflow.ingredient.service.IngredientNutritionDictionary;
+import com.example.nutriflow.ingredient.service.UnitConverter;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link UnitConverter} and {@link MeasureUnit}.
+ */
+class UnitConverterTest {
+
+    private IngredientNutritionRepository repository;
+    private IngredientNutritionDictionary dictionary;
+    private AtomicLong clock;
+    private UnitConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IngredientNutritionRepository.class);
+        dictionary = new IngredientNutritionDictionary(repository);
+        clock = new AtomicLong();
+        converter = new UnitConverter(dictionary, clock::get);
+    }
+
+    private static IngredientNutrition ingredient(int id, String name,
+                                                  String density,
+                                                  String pieceWeight) {
+        IngredientNutrition n = new IngredientNutrition();
+        n.setIngredientId(id);
+        n.setIngredientName(name);
+        n.setCalories(BigDecimal.ONE);
+        n.setDensity(density == null ? null : new BigDecimal(density));
+        n.setPieceWeight(pieceWeight == null ? null
+                : new BigDecimal(pieceWeight));
+        return n;
+    }
+
+    private IngredientNutritionSnapshot entry(String name) {
+        return dictionary.get(name).orElseThrow();
+    }
+
+    @Test
+    @DisplayName("Units parse by alias, ignoring case; blank means grams")
+    void parse_aliases() {
+        assertEquals(MeasureUnit.TABLESPOON, MeasureUnit.parse(" Tbsp "));
+        assertEquals(MeasureUnit.POUND, MeasureUnit.parse("lbs"));
+        assertEquals(MeasureUnit.PIECE, MeasureUnit.parse("whole"));
+        assertEquals(MeasureUnit.GRAM, MeasureUnit.parse(null));
+        assertNull(MeasureUnit.parse("pinch"));
+    }
+
+    @Test
+    @DisplayName("Mass, volume and count convert with density and piece weight")
+    void toMilligrams_usesIngredientFactors() {
+        when(repository.findAll()).thenReturn(List.of(
+                ingredient(1, "olive oil", "0.92", null),
+                ingredient(2, "egg", null, "50"),
+                ingredient(3, "milk", null, null)));
+
+        assertEquals(1_500_000L, converter.toMilligrams(
+                entry("egg"), 1.5, "kg"));
+        assertEquals(13_800L, converter.toMilligrams(
+                entry("olive oil"), 1.0, "tbsp"));
+        assertEquals(240_000L, converter.toMilligrams(
+                entry("milk"), 1.0, "cup"));
+        assertEquals(100_000L, converter.toMilligrams(
+                entry("egg"), 2.0, "pieces"));
+        assertEquals(UnitConverter.UNCONVERTIBLE, converter.toMilligrams(
+                entry("milk"), 1.0, "piece"));
+        assertEquals(UnitConverter.UNCONVERTIBLE, converter.toMilligrams(
+                entry("milk"), 1.0, "pinch"));
+        assertEquals(UnitConverter.UNCONVERTIBLE, converter.toMilligrams(
+                entry("milk"), null, "g"));
+        assertEquals(5_000L, converter.toMilligrams(null, 1.0, "tsp"));
+    }
+
+    @Test
+    @DisplayName("Changed entries convert correctly before the table rebuilds")
+    void toMilligrams_changedEntry_usesCurrentValues() {
+        when(repository.findAll())
+                .thenReturn(List.of(ingredient(1, "egg", null, "50")))
+                .thenReturn(List.of(ingredient(1, "egg", null, "60")));
+        assertEquals(50_000L, converter.toMilligrams(
+                entry("egg"), 1.0, MeasureUnit.PIECE));
+
+        dictionary.reload();
+
+        assertEquals(60_000L, converter.toMilligrams(
+                entry("egg"), 1.0, MeasureUnit.PIECE));
+        clock.addAndGet(2_000_000_000L);
+        assertEquals(60_000L, converter.toMilligrams(
+                entry("egg"), 1.0, MeasureUnit.PIECE));
+    }
+}
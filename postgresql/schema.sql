@@ -138,14 +138,36 @@ CREATE TABLE IF NOT EXISTS recipes (
     fat DECIMAL(7,2),
     fiber DECIMAL(7,2),
     protein DECIMAL(7,2),
-    popularity_score INTEGER DEFAULT 0
+    popularity_score INTEGER DEFAULT 0,
+    fingerprint VARCHAR(64),
+    nutrient_vector REAL[],
+    servings INTEGER DEFAULT 1 CHECK (servings > 0)
 );
 
+--
+-- content fingerprint of AI-generated recipes, used for deduplication
+--
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS fingerprint VARCHAR(64);
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_recipes_fingerprint
+    ON recipes (fingerprint);
+
+--
+-- every tracked nutrient per serving, in ingredient catalog order
+--
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS nutrient_vector REAL[];
+
+--
+-- servings the ingredient quantities make; macros are stored per serving
+--
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS servings INTEGER
+    DEFAULT 1 CHECK (servings > 0);
+
 --
 -- create table 'favorite_recipes'
 --
 CREATE TABLE IF NOT EXISTS favorite_recipes (
-    id SERIAL PRIMARY KEY,
+    favorite_id SERIAL PRIMARY KEY,
     user_id INTEGER NOT NULL,
     recipe_id INTEGER NOT NULL,
     times_used INTEGER DEFAULT 0,
@@ -153,9 +175,52 @@ CREATE TABLE IF NOT EXISTS favorite_recipes (
     CONSTRAINT favorite_recipe_user_fk FOREIGN KEY (user_id)
         REFERENCES nutriflow.users(user_id) ON DELETE CASCADE,
     CONSTRAINT favorite_recipe_fk FOREIGN KEY (recipe_id)
-        REFERENCES nutriflow.recipes(recipe_id) ON DELETE CASCADE
+        REFERENCES nutriflow.recipes(recipe_id) ON DELETE CASCADE,
+    CONSTRAINT unique_user_recipe UNIQUE (user_id, recipe_id)
 );
 
+--
+-- databases created from an older script named the key column 'id'
+--
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_schema = 'nutriflow'
+          AND table_name = 'favorite_recipes'
+          AND column_name = 'id'
+    ) THEN
+        ALTER TABLE favorite_recipes RENAME COLUMN id TO favorite_id;
+    END IF;
+END
+$$;
+
+--
+-- one row per (user, recipe) on databases created before the constraint:
+-- keep the most used (then oldest) duplicate, then add the constraint
+-- that ON CONFLICT (user_id, recipe_id) relies on
+--
+DELETE FROM favorite_recipes f
+    USING favorite_recipes keep
+    WHERE f.user_id = keep.user_id
+      AND f.recipe_id = keep.recipe_id
+      AND (COALESCE(keep.times_used, 0) > COALESCE(f.times_used, 0)
+           OR (COALESCE(keep.times_used, 0) = COALESCE(f.times_used, 0)
+               AND keep.favorite_id < f.favorite_id));
+
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_constraint
+        WHERE conname = 'unique_user_recipe'
+          AND conrelid = 'nutriflow.favorite_recipes'::regclass
+    ) THEN
+        ALTER TABLE favorite_recipes
+            ADD CONSTRAINT unique_user_recipe UNIQUE (user_id, recipe_id);
+    END IF;
+END
+$$;
+
 -- 
 -- create table recipe_ingredients (for per-recipe items)
 -- 
@@ -172,6 +237,16 @@ CREATE TABLE IF NOT EXISTS nutriflow.recipe_ingredients (
         ON DELETE CASCADE
 );
 
+--
+-- reverse index ingredient -> recipes, used to recompute recipe nutrition
+-- only for recipes affected by an ingredient change
+--
+CREATE INDEX IF NOT EXISTS idx_recipe_ingredients_lower_ingredient
+    ON nutriflow.recipe_ingredients (LOWER(ingredient));
+
+CREATE INDEX IF NOT EXISTS idx_recipe_ingredients_recipe_id
+    ON nutriflow.recipe_ingredients (recipe_id);
+
 -- 
 -- create substitution_rules (for ingredient swaps)
 -- 
@@ -298,6 +373,8 @@ CREATE TABLE IF NOT EXISTS ingredient_nutrition (
     
     -- Additional information
     unit VARCHAR(50) DEFAULT 'g',
+    density_g_per_ml DECIMAL(6,3),
+    grams_per_piece DECIMAL(7,2),
     description TEXT,
     source VARCHAR(255),
     is_verified BOOLEAN DEFAULT FALSE,
@@ -315,6 +392,14 @@ CREATE TABLE IF NOT EXISTS ingredient_nutrition (
     CONSTRAINT check_fat CHECK (fat >= 0)
 );
 
+--
+-- density and piece weight, used to convert volumes and counts to grams
+--
+ALTER TABLE ingredient_nutrition
+    ADD COLUMN IF NOT EXISTS density_g_per_ml DECIMAL(6,3);
+ALTER TABLE ingredient_nutrition
+    ADD COLUMN IF NOT EXISTS grams_per_piece DECIMAL(7,2);
+
 --
 -- create indexes on ingredient_nutrition for faster lookups
 --
@@ -322,4 +407,54 @@ CREATE INDEX IF NOT EXISTS idx_ingredient_name
     ON ingredient_nutrition(ingredient_name);
 
 CREATE INDEX IF NOT EXISTS idx_ingredient_category 
-    ON ingredient_nutrition(ingredient_category);
\ No newline at end of file
+    ON ingredient_nutrition(ingredient_category);
+
+-- case-insensitive name lookups (LOWER(ingredient_name) = LOWER(:name))
+CREATE INDEX IF NOT EXISTS idx_ingredient_lower_name
+    ON ingredient_nutrition(LOWER(ingredient_name));
+
+--
+-- create table 'ingredient_change_outbox'
+-- Ingredient changes written in the same transaction as the change,
+-- read by other instances and the change feed
+-- (used when nutriflow.ingredients.outbox.enabled=true)
+--
+CREATE TABLE IF NOT EXISTS nutriflow.ingredient_change_outbox (
+    change_id BIGSERIAL PRIMARY KEY,
+    change_type VARCHAR(16) NOT NULL,
+    ingredient_id INTEGER NOT NULL,
+    ingredient_name VARCHAR(255),
+    previous_name VARCHAR(255),
+    changed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    origin VARCHAR(64)
+);
+
+--
+-- writing transaction of each change; the feed is read in transaction
+-- order, so a transaction that commits late is not skipped
+-- (PostgreSQL 13+)
+--
+ALTER TABLE nutriflow.ingredient_change_outbox
+    ADD COLUMN IF NOT EXISTS tx_id BIGINT NOT NULL
+    DEFAULT (pg_current_xact_id()::text::bigint);
+
+CREATE INDEX IF NOT EXISTS idx_ingredient_change_outbox_changed_at
+    ON nutriflow.ingredient_change_outbox (changed_at);
+
+CREATE INDEX IF NOT EXISTS idx_ingredient_change_outbox_tx
+    ON nutriflow.ingredient_change_outbox (tx_id, change_id);
+
+--
+-- create table 'ai_recipe_cache'
+-- Persisted LLM recipe responses keyed by normalized prompt
+-- (used when nutriflow.ai.cache.persistent=true)
+--
+CREATE TABLE IF NOT EXISTS nutriflow.ai_recipe_cache (
+    prompt_key TEXT PRIMARY KEY,
+    response_json TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ai_recipe_cache_expires_at
+    ON nutriflow.ai_recipe_cache (expires_at);